@@ -1,6 +1,8 @@
 package com.finalproject.stayease.auth.filter;
 
+import com.finalproject.stayease.auth.model.entity.TokenPrincipal;
 import com.finalproject.stayease.auth.service.JwtService;
+import com.finalproject.stayease.auth.service.helpers.VerifiedTokenCache;
 import com.finalproject.stayease.auth.service.impl.UserDetailsServiceImpl;
 import io.jsonwebtoken.ExpiredJwtException;
 import jakarta.servlet.FilterChain;
@@ -8,6 +10,7 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.Instant;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +18,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -28,6 +32,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService jwtService;
   private final UserDetailsServiceImpl userDetailsService;
+  private final VerifiedTokenCache verifiedTokenCache;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -41,28 +46,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     try {
       String accessToken = extractTokenFromRequest(request);
-      log.info("Extracted token: {}", accessToken != null ? "Token present" : "Token absent");
+      log.debug("Extracted token: {}", accessToken != null ? "Token present" : "Token absent");
 
       if (accessToken != null && SecurityContextHolder.getContext().getAuthentication() == null) {
         try {
-          log.info("Attempting to extract subject from token");
-          String email = jwtService.extractSubjectFromToken(accessToken);
-          log.info("Extracted email: {}", email);
-
-          log.info("Checking if access token is valid");
-          if (jwtService.isAccessTokenValid(accessToken, email)) {
-            log.info("Access token is valid, authenticating user");
-            authenticateUser(request, email);
+          UserDetails principal = verifiedTokenCache.get(accessToken);
+          if (principal == null) {
+            principal = verifyToken(accessToken);
+          }
+          if (principal != null) {
+            authenticateUser(request, principal);
           } else {
             log.info("Token is invalid or expired");
-            filterChain.doFilter(request, response);
           }
         } catch (ExpiredJwtException e) {
-          log.error("Caught ExpiredJwtException", e);
-          filterChain.doFilter(request, response);
+          log.info("Access token has expired");
         } catch (BadJwtException e) {
-          logger.error("Caught BadJwtException: Token is malformed", e);
-          filterChain.doFilter(request, response);
+          log.warn("Token is malformed: {}", e.getMessage());
         }
       }
     } catch (Exception e) {
@@ -74,19 +74,39 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private String extractTokenFromRequest(HttpServletRequest request) {
     String bearerToken = request.getHeader("Authorization");
-    log.info("bearer token: {}", bearerToken);
     if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
       return bearerToken.substring(7);
     }
     return null;
   }
 
-  private void authenticateUser(HttpServletRequest request, final String email) {
-    UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+  // Decodes the token once and builds the principal from its claims, caching it until the token expires
+  private UserDetails verifyToken(String accessToken) {
+    Jwt jwt = jwtService.decodeToken(accessToken);
+    String email = jwt.getSubject();
+    Instant expiresAt = jwt.getExpiresAt();
+    if (email == null || expiresAt == null || expiresAt.isBefore(Instant.now())) {
+      return null;
+    }
+
+    UserDetails principal;
+    String userType = jwt.getClaimAsString("userType");
+    Object userId = jwt.getClaim("userId");
+    if (userType != null && userId instanceof Number number) {
+      principal = new TokenPrincipal(number.longValue(), email, userType);
+    } else {
+      // Tokens without the user claims still go through the user lookup
+      principal = userDetailsService.loadUserByUsername(email);
+    }
+    verifiedTokenCache.put(accessToken, principal, expiresAt);
+    return principal;
+  }
+
+  private void authenticateUser(HttpServletRequest request, UserDetails userDetails) {
     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(userDetails, null,
         userDetails.getAuthorities());
     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
     SecurityContextHolder.getContext().setAuthentication(authentication);
-    log.info("Authenticated user: " + userDetails.getUsername());
+    log.debug("Authenticated user: {}", userDetails.getUsername());
   }
 }
@@ -0,0 +1,43 @@
+package com.finalproject.stayease.auth.model.entity;
+
+import java.util.Collection;
+import java.util.List;
+import lombok.Data;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Principal built from the claims of a verified access token, so authenticating a request does not need to load the
+ * user. Authorities follow {@link UserAuth}: a single {@code ROLE_<userType>}.
+ */
+@Data
+public class TokenPrincipal implements UserDetails {
+
+  private final Long userId;
+  private final String email;
+  private final String userType;
+  private final List<GrantedAuthority> authorities;
+
+  public TokenPrincipal(Long userId, String email, String userType) {
+    this.userId = userId;
+    this.email = email;
+    this.userType = userType;
+    this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + userType));
+  }
+
+  @Override
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return authorities;
+  }
+
+  @Override
+  public String getPassword() {
+    return null;
+  }
+
+  @Override
+  public String getUsername() {
+    return email;
+  }
+}
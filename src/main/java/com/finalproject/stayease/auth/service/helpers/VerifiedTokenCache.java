@@ -0,0 +1,84 @@
+package com.finalproject.stayease.auth.service.helpers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of access tokens that already passed signature and expiry checks, keyed by a SHA-256 hash of the token
+ * so raw tokens are never held. Entries are dropped once the token expires.
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache {
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final int maxEntries;
+
+  public VerifiedTokenCache(@Value("${token.cache.max-entries:10000}") int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * @return the principal of a previously verified token, or null if the token is unknown or has expired since
+   */
+  public UserDetails get(String token) {
+    String key = hash(token);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (!entry.expiresAt().isAfter(Instant.now())) {
+      entries.remove(key, entry);
+      return null;
+    }
+    return entry.principal();
+  }
+
+  public void put(String token, UserDetails principal, Instant expiresAt) {
+    if (expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+      return;
+    }
+    if (entries.size() >= maxEntries) {
+      makeRoom();
+    }
+    entries.put(hash(token), new Entry(principal, expiresAt));
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  // Drop expired tokens first; if the cache is still full, drop arbitrary entries, they are re-verified on next use
+  private void makeRoom() {
+    Instant now = Instant.now();
+    entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+    Iterator<String> keys = entries.keySet().iterator();
+    while (entries.size() >= maxEntries && keys.hasNext()) {
+      keys.next();
+      keys.remove();
+    }
+  }
+
+  private static String hash(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  private record Entry(UserDetails principal, Instant expiresAt) {
+
+  }
+}
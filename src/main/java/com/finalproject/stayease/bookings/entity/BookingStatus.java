@@ -10,7 +10,8 @@ public enum BookingStatus {
     EXPIRED,
     CANCELLED,
     PENDING,
-    FAILED;
+    FAILED,
+    REFUND_REQUIRED;
 
     @JsonCreator
     public static BookingStatus fromString(String value) {
@@ -8,6 +8,7 @@ import java.time.LocalDate;
 
 @Data
 public class BookingItemReqDTO {
+    private Long roomId;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private LocalDate extendingUntil;
 }
@@ -4,10 +4,13 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
 import java.time.LocalDate;
+import java.util.List;
 
 @Data
 public class BookingReqDTO {
     private BookingItemReqDTO bookingItem;
+    // Every room of a multi-room booking, each item names its room
+    private List<BookingItemReqDTO> bookingItems;
     private BookingRequestReqDTO bookingRequest;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
     private LocalDate checkInDate;
@@ -1,16 +1,19 @@
 package com.finalproject.stayease.bookings.repository;
 
 import com.finalproject.stayease.bookings.entity.Booking;
+import com.finalproject.stayease.bookings.entity.BookingStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -138,4 +141,9 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
         LIMIT 3
     """)
     List<Booking> findUpcomingUserBookings(@Param("userId") Long userId);
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.updatedAt = :updatedAt WHERE b.id IN :bookingIds")
+    int updateStatusByIdIn(@Param("bookingIds") Collection<UUID> bookingIds,
+                           @Param("status") BookingStatus status,
+                           @Param("updatedAt") Instant updatedAt);
 }
@@ -14,15 +14,18 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.Instant;
 import java.time.Month;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface BookingService {
     Booking createBooking(BookingReqDTO reqDto, Long userId, Long roomId, Double amount);
+    Booking createBooking(BookingReqDTO reqDto, Long userId, Double amount);
     Booking findById(UUID bookingId);
     BookingDTO getBookingById(UUID bookingId);
     Page<BookingDTO> getUserBookings(Long userId, String search, Pageable pageable);
     Booking updateBooking(UUID bookingId, BookingStatus bookingStatus);
+    int updateBookingStatuses(Collection<UUID> bookingIds, BookingStatus bookingStatus);
     List<BookingDTO> getTenantBookings(Long userId);
     Double countCompletedBookingsByTenantId(Long userId, Month month);
     Double countUsersTrxByTenantId(Long userId, Month month);
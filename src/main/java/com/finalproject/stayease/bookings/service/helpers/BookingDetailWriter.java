@@ -0,0 +1,56 @@
+package com.finalproject.stayease.bookings.service.helpers;
+
+import com.finalproject.stayease.bookings.entity.dto.request.BookingRequestReqDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes the items and request of a new booking with JDBC. Both entities use identity ids, which Hibernate cannot
+ * batch, so every item would otherwise be its own insert. Here all items go out as one batch and the request as one
+ * more statement, in the caller's transaction. The booking row must already be flushed, and the booking entity is not
+ * updated with the rows written.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingDetailWriter {
+
+    private static final String INSERT_ITEM_SQL = """
+            INSERT INTO booking_items (booking_id, room_id, extending_until, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERT_REQUEST_SQL = """
+            INSERT INTO booking_requests
+              (booking_id, checkin_time, checkout_time, non_smoking, other, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param request the guest's request, none is written when null
+     */
+    public void write(UUID bookingId, List<NewItem> items, BookingRequestReqDTO request) {
+        Timestamp now = Timestamp.from(Instant.now());
+
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items.stream()
+                    .map(item -> new Object[]{bookingId, item.roomId(), item.extendingUntil(), now, now})
+                    .toList());
+        }
+        if (request != null) {
+            jdbcTemplate.update(INSERT_REQUEST_SQL, bookingId, request.getCheckInTime(), request.getCheckOutTime(),
+                    request.isNonSmoking(), request.getOther(), now, now);
+        }
+    }
+
+    public record NewItem(Long roomId, LocalDate extendingUntil) {
+    }
+}
@@ -3,16 +3,17 @@ package com.finalproject.stayease.bookings.service.impl;
 import com.finalproject.stayease.bookings.entity.BookingStatus;
 import com.finalproject.stayease.bookings.entity.dto.request.BookingItemReqDTO;
 import com.finalproject.stayease.bookings.entity.dto.request.BookingReqDTO;
-import com.finalproject.stayease.bookings.entity.dto.request.BookingRequestReqDTO;
 import com.finalproject.stayease.bookings.entity.dto.BookingDTO;
 import com.finalproject.stayease.bookings.entity.Booking;
 import com.finalproject.stayease.bookings.entity.BookingItem;
-import com.finalproject.stayease.bookings.entity.BookingRequest;
 import com.finalproject.stayease.bookings.repository.BookingItemRepository;
 import com.finalproject.stayease.bookings.repository.BookingRepository;
-import com.finalproject.stayease.bookings.repository.BookingRequestRepository;
 import com.finalproject.stayease.bookings.service.BookingService;
+import com.finalproject.stayease.bookings.service.helpers.BookingDetailWriter;
+import com.finalproject.stayease.bookings.service.helpers.BookingDetailWriter.NewItem;
 import com.finalproject.stayease.exceptions.utils.DataNotFoundException;
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
+import com.finalproject.stayease.helpers.MinorUnits;
 import com.finalproject.stayease.mail.model.MailTemplate;
 import com.finalproject.stayease.mail.service.MailService;
 import com.finalproject.stayease.property.entity.Property;
@@ -26,6 +27,7 @@ import com.finalproject.stayease.users.entity.TenantInfo;
 import com.finalproject.stayease.users.entity.Users;
 import com.finalproject.stayease.users.service.TenantInfoService;
 import com.finalproject.stayease.users.service.UsersService;
+import jakarta.persistence.EntityManager;
 import lombok.Data;
 import lombok.extern.java.Log;
 import org.springframework.data.domain.Page;
@@ -40,7 +42,10 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.Month;
 import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -48,30 +53,57 @@ import java.util.stream.Collectors;
 @Data
 @Log
 public class BookingServiceImpl implements BookingService {
+    // In hundredths of a percent
+    private static final long SERVICE_FEE_PERCENT = 10_00;
+    private static final long TAX_FEE_PERCENT = 11_00;
+    private static final int MAX_ROOMS_PER_BOOKING = 10;
+
     private final BookingRepository bookingRepository;
     private final BookingItemRepository bookingItemRepository;
-    private final BookingRequestRepository bookingRequestRepository;
     private final UsersService usersService;
     private final TenantInfoService tenantInfoService;
     private final RoomService roomService;
     private final MailService mailService;
     private final RoomAvailabilityService roomAvailabilityService;
     private final PropertyService propertyService;
+    private final BookingDetailWriter bookingDetailWriter;
+    private final EntityManager entityManager;
 
     // General Booking Section
 
     @Override
     @Transactional
     public Booking createBooking(BookingReqDTO reqDto, Long userId, Long roomId, Double amount) {
-        Booking newBooking = new Booking();
-        var user = usersService.findById(userId).orElseThrow(() -> new DataNotFoundException("User not found"));
-        var room = roomService.findRoomById(roomId).orElseThrow(() -> new DataNotFoundException("Room not found"));
-        var property = room.getProperty();
-        var tenantAccount = room.getProperty().getTenant();
-        var tenant = tenantInfoService.findTenantByUserId(tenantAccount.getId());
+        BookingItemReqDTO bookingItem = reqDto.getBookingItem();
+        LocalDate extendingUntil = bookingItem != null ? bookingItem.getExtendingUntil() : null;
+        return createBooking(reqDto, userId, List.of(new NewItem(roomId, extendingUntil)), amount);
+    }
 
-        var availableRoom = roomAvailabilityService.setUnavailability(room.getId(), reqDto.getCheckInDate(), reqDto.getCheckOutDate());
+    @Override
+    @Transactional
+    public Booking createBooking(BookingReqDTO reqDto, Long userId, Double amount) {
+        if (reqDto.getBookingItems() == null || reqDto.getBookingItems().isEmpty()) {
+            throw new InvalidRequestException("A booking needs at least one room");
+        }
+        var items = reqDto.getBookingItems().stream()
+                .map(item -> new NewItem(item.getRoomId(), item.getExtendingUntil()))
+                .toList();
+        return createBooking(reqDto, userId, items, amount);
+    }
+
+    // The booking is one insert, its items one JDBC batch and its request one more insert, and every room is held in a
+    // single query and Redis call, however many rooms it has
+    private Booking createBooking(BookingReqDTO reqDto, Long userId, List<NewItem> items, Double amount) {
+        // A stay with no nights would hold nothing and still go through as a booking
+        if (reqDto.getCheckInDate() == null || reqDto.getCheckOutDate() == null
+                || !reqDto.getCheckOutDate().isAfter(reqDto.getCheckInDate())) {
+            throw new InvalidRequestException("Check-out date must be after the check-in date");
+        }
+        var user = usersService.findById(userId).orElseThrow(() -> new DataNotFoundException("User not found"));
+        var property = findBookedProperty(items);
+        var tenant = tenantInfoService.findTenantByUserId(property.getTenant().getId());
 
+        Booking newBooking = new Booking();
         newBooking.setUser(user);
         newBooking.setStatus(BookingStatus.IN_PROGRESS);
         newBooking.setCheckInDate(reqDto.getCheckInDate());
@@ -82,51 +114,53 @@ public class BookingServiceImpl implements BookingService {
         newBooking.setTenant(tenant);
         newBooking.setProperty(property);
 
-        Double serviceFee = amount * 0.10;
-        Double taxFee = amount * 0.11;
-        Double finalPrice = serviceFee + taxFee + amount;
+        // Fees are computed on minor units and rounded half up, the amounts stored are whole cents
+        long baseAmount = MinorUnits.toMinorRounded(BigDecimal.valueOf(amount));
+        long serviceFee = MinorUnits.percentOf(baseAmount, SERVICE_FEE_PERCENT);
+        long taxFee = MinorUnits.percentOf(baseAmount, TAX_FEE_PERCENT);
+        long finalPrice = baseAmount + serviceFee + taxFee;
 
-        newBooking.setTotalBasePrice(amount);
-        newBooking.setTotalPrice(finalPrice);
-        newBooking.setTaxFee(taxFee);
-        newBooking.setServiceFee(serviceFee);
+        newBooking.setTotalBasePrice(MinorUnits.toDouble(baseAmount));
+        newBooking.setTotalPrice(MinorUnits.toDouble(finalPrice));
+        newBooking.setTaxFee(MinorUnits.toDouble(taxFee));
+        newBooking.setServiceFee(MinorUnits.toDouble(serviceFee));
 
-        bookingRepository.save(newBooking);
+        // Flushed so the items written with JDBC below can reference it
+        bookingRepository.saveAndFlush(newBooking);
 
-        createBookingItem(reqDto.getBookingItem(), newBooking, availableRoom.getRoom());
+        // The rooms are held in Redis until the payment settles, an abandoned checkout leaves nothing in the database
+        var roomIds = items.stream().map(NewItem::roomId).toList();
+        roomAvailabilityService.holdRooms(newBooking.getId(), roomIds, reqDto.getCheckInDate(), reqDto.getCheckOutDate());
 
-        if (reqDto.getBookingRequest() != null) {
-            createBookingRequest(reqDto.getBookingRequest(), newBooking);
-        }
+        bookingDetailWriter.write(newBooking.getId(), items, reqDto.getBookingRequest());
+        // Loads the items and request written with JDBC into the booking, callers and later reads in this transaction
+        // get the same managed instance
+        entityManager.refresh(newBooking);
 
-        return bookingRepository.save(newBooking);
+        return newBooking;
     }
 
-    private void createBookingItem(BookingItemReqDTO bookingItemDto, Booking newBooking, Room room) {
-        BookingItem bookingItem = new BookingItem();
-        bookingItem.setBooking(newBooking);
-        bookingItem.setRoom(room);
-        if (bookingItemDto.getExtendingUntil() != null) {
-            bookingItem.setExtendingUntil(bookingItemDto.getExtendingUntil());
+    // Loads every room of the booking in one query, they must all exist and belong to the same property
+    private Property findBookedProperty(List<NewItem> items) {
+        if (items.size() > MAX_ROOMS_PER_BOOKING) {
+            throw new InvalidRequestException("A booking can have at most " + MAX_ROOMS_PER_BOOKING + " rooms");
         }
-
-        bookingItemRepository.save(bookingItem);
-    }
-
-    private void createBookingRequest(BookingRequestReqDTO reqDto, Booking newBooking) {
-        BookingRequest bookingRequest = new BookingRequest();
-        bookingRequest.setBooking(newBooking);
-        if (reqDto.getCheckInTime() != null) {
-            bookingRequest.setCheckInTime(reqDto.getCheckInTime());
+        Set<Long> roomIds = new HashSet<>();
+        for (NewItem item : items) {
+            if (item.roomId() == null || !roomIds.add(item.roomId())) {
+                throw new InvalidRequestException("Every room of a booking must be given once");
+            }
         }
-        if (reqDto.getCheckOutTime() != null) {
-            bookingRequest.setCheckOutTime(reqDto.getCheckOutTime());
+        List<Room> rooms = roomService.findRoomsByIds(roomIds);
+        if (rooms.size() != roomIds.size()) {
+            throw new DataNotFoundException("Room not found");
         }
-        bookingRequest.setNonSmoking(reqDto.isNonSmoking());
-        if (reqDto.getOther() != null) {
-            bookingRequest.setOther(reqDto.getOther());
+        Property property = rooms.getFirst().getProperty();
+        boolean sameProperty = rooms.stream().allMatch(room -> room.getProperty().getId().equals(property.getId()));
+        if (!sameProperty) {
+            throw new InvalidRequestException("Every room of a booking must belong to the same property");
         }
-        bookingRequestRepository.save(bookingRequest);
+        return property;
     }
 
     @Override
@@ -149,6 +183,14 @@ public class BookingServiceImpl implements BookingService {
         return bookingRepository.save(booking);
     }
 
+    @Override
+    public int updateBookingStatuses(Collection<UUID> bookingIds, BookingStatus bookingStatus) {
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        return bookingRepository.updateStatusByIdIn(bookingIds, bookingStatus, Instant.now());
+    }
+
     // User Booking Section
 
     @Override
@@ -3,6 +3,7 @@ package com.finalproject.stayease.config;
 
 import com.finalproject.stayease.auth.filter.JwtAuthenticationFilter;
 import com.finalproject.stayease.auth.service.JwtService;
+import com.finalproject.stayease.auth.service.helpers.VerifiedTokenCache;
 import com.finalproject.stayease.auth.service.impl.CustomAuthenticationSuccessHandler;
 import com.finalproject.stayease.auth.service.impl.CustomOAuth2UserService;
 import com.finalproject.stayease.auth.service.impl.UserDetailsServiceImpl;
@@ -40,6 +41,7 @@ public class SecurityConfig {
   private final CustomAuthenticationSuccessHandler customAuthenticationSuccessHandler;
   private final JwtService jwtService;
   private final UserDetailsServiceImpl userDetailsService;
+  private final VerifiedTokenCache verifiedTokenCache;
   private final AuthenticationManagerConfig authenticationManagerConfig;
 
   @Value("${spring.security.oauth2.client.registration.google.client-id}")
@@ -62,7 +64,7 @@ public class SecurityConfig {
         .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .oauth2Login(this::configureOAuth2Login)
         .formLogin(Customizer.withDefaults())
-        .addFilterBefore(new JwtAuthenticationFilter(jwtService, userDetailsService),
+        .addFilterBefore(new JwtAuthenticationFilter(jwtService, userDetailsService, verifiedTokenCache),
             UsernamePasswordAuthenticationFilter.class)
         .logout(Customizer.withDefaults())
         .build();
@@ -84,7 +86,9 @@ public class SecurityConfig {
         API_VERSION + "/properties/images",
         API_VERSION + "/properties/cities",
         API_VERSION + "/properties/available",
+        API_VERSION + "/properties/map/clusters",
         API_VERSION + "/categories",
+        API_VERSION + "/search/suggest",
         API_VERSION + "/rates",
         API_VERSION + "/rates/daily",
         API_VERSION + "/rates/daily/cumulative",
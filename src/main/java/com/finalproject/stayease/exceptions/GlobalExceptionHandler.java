@@ -23,6 +23,7 @@ import com.finalproject.stayease.exceptions.utils.ImageRetrievalException;
 import com.finalproject.stayease.exceptions.utils.InvalidDateException;
 import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
 import com.finalproject.stayease.exceptions.utils.InvalidTokenException;
+import com.finalproject.stayease.exceptions.utils.RequestInProgressException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -57,6 +58,7 @@ public class GlobalExceptionHandler {
     EXCEPTION_STATUS_MAP.put(PeakSeasonRateNotFoundException.class, HttpStatus.NOT_FOUND);
     EXCEPTION_STATUS_MAP.put(PasswordDoesNotMatchException.class, HttpStatus.BAD_REQUEST);
     EXCEPTION_STATUS_MAP.put(PropertyNotFoundException.class, HttpStatus.NOT_FOUND);
+    EXCEPTION_STATUS_MAP.put(RequestInProgressException.class, HttpStatus.CONFLICT);
     EXCEPTION_STATUS_MAP.put(RoomAvailabilityNotFoundException.class, HttpStatus.NOT_FOUND);
     EXCEPTION_STATUS_MAP.put(RoomNotFoundException.class, HttpStatus.NOT_FOUND);
     EXCEPTION_STATUS_MAP.put(RoomUnavailableException.class, HttpStatus.BAD_REQUEST);
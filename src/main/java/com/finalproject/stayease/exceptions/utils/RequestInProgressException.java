@@ -0,0 +1,12 @@
+package com.finalproject.stayease.exceptions.utils;
+
+public class RequestInProgressException extends RuntimeException {
+
+  public RequestInProgressException(String message) {
+    super(message);
+  }
+
+  public RequestInProgressException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
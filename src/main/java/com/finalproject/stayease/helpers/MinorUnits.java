@@ -0,0 +1,73 @@
+package com.finalproject.stayease.helpers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on {@code long} minor units, hundredths of the currency unit. Prices are converted once
+ * from {@link BigDecimal} at the boundary, computed on longs and converted back, which gives the same results as exact
+ * {@code BigDecimal} arithmetic followed by {@code setScale(2, HALF_UP)}. Every operation is overflow-checked and throws
+ * {@link ArithmeticException} instead of wrapping, so callers can fall back to {@code BigDecimal} for amounts out of
+ * range or finer than a minor unit.
+ */
+public final class MinorUnits {
+
+    public static final int SCALE = 2;
+
+    // Percentages carry two decimals as well, so a percentage of an amount is exact in 1/10000 of a minor unit
+    private static final long PERCENT_DENOMINATOR = 100L * 100L;
+
+    private MinorUnits() {
+    }
+
+    /**
+     * @throws ArithmeticException if the amount has more than two decimals or does not fit in a long
+     */
+    public static long toMinor(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    public static long toMinorRounded(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static double toDouble(long minor) {
+        return toDecimal(minor).doubleValue();
+    }
+
+    /**
+     * @param percent The percentage in hundredths of a percent, 10.5% is 1050
+     * @return the percentage of the amount, rounded half up to a minor unit
+     */
+    public static long percentOf(long minor, long percent) {
+        return divideHalfUp(Math.multiplyExact(minor, percent), PERCENT_DENOMINATOR);
+    }
+
+    /**
+     * Applies percentage and fixed adjustments to a base amount, rounding once at the end like the {@code BigDecimal}
+     * chain it replaces.
+     * @param percents Sum of the percentage adjustments, in hundredths of a percent
+     * @param fixed Sum of the fixed adjustments, in minor units
+     */
+    public static long adjust(long base, long percents, long fixed) {
+        long scaled = Math.addExact(Math.multiplyExact(base, PERCENT_DENOMINATOR), Math.multiplyExact(base, percents));
+        scaled = Math.addExact(scaled, Math.multiplyExact(fixed, PERCENT_DENOMINATOR));
+        return divideHalfUp(scaled, PERCENT_DENOMINATOR);
+    }
+
+    /**
+     * Division rounding to the nearest integer, ties away from zero, the {@link RoundingMode#HALF_UP} rule.
+     */
+    public static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = Math.abs(dividend % divisor);
+        if (remainder >= Math.abs(divisor) - remainder) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+}
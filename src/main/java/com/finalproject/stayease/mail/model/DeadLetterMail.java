@@ -0,0 +1,17 @@
+package com.finalproject.stayease.mail.model;
+
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DeadLetterMail {
+
+  private String to;
+  private String subject;
+  private int attempts;
+  private String error;
+  private Instant failedAt;
+
+}
@@ -0,0 +1,253 @@
+package com.finalproject.stayease.mail.service;
+
+import com.finalproject.stayease.mail.model.DeadLetterMail;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends outbound mail off the caller's thread. Mails are queued once the surrounding transaction commits and picked up
+ * by a small pool of workers, which drain the queue in batches so each batch goes over a single SMTP connection.
+ * <p>
+ * A failed mail is retried with exponential backoff; once it runs out of attempts, or cannot be built or queued at
+ * all, it is moved to a bounded dead-letter store and logged.
+ */
+@Component
+@Log
+public class MailDispatcher {
+
+  private final JavaMailSender mailSender;
+  private final BlockingQueue<MailJob> queue;
+  private final Deque<DeadLetterMail> deadLetters = new ArrayDeque<>();
+  private final ScheduledExecutorService retryScheduler;
+  private final List<Thread> workers = new ArrayList<>();
+
+  private final int workerCount;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final long backoffMillis;
+  private final long enqueueTimeoutMillis;
+  private final int deadLetterCapacity;
+
+  private volatile boolean running;
+
+  public MailDispatcher(JavaMailSender mailSender,
+      @Value("${mail.dispatch.queue-capacity:500}") int queueCapacity,
+      @Value("${mail.dispatch.workers:2}") int workerCount,
+      @Value("${mail.dispatch.batch-size:20}") int batchSize,
+      @Value("${mail.dispatch.max-attempts:4}") int maxAttempts,
+      @Value("${mail.dispatch.backoff-ms:2000}") long backoffMillis,
+      @Value("${mail.dispatch.enqueue-timeout-ms:200}") long enqueueTimeoutMillis,
+      @Value("${mail.dispatch.dead-letter-capacity:200}") int deadLetterCapacity) {
+    this.mailSender = mailSender;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.retryScheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("mail-retry").daemon().factory());
+    this.workerCount = workerCount;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.backoffMillis = backoffMillis;
+    this.enqueueTimeoutMillis = enqueueTimeoutMillis;
+    this.deadLetterCapacity = deadLetterCapacity;
+  }
+
+  /**
+   * Builds the message lazily on a mail worker, used when building it is itself expensive (e.g. rendering a PDF).
+   */
+  @FunctionalInterface
+  public interface MessageFactory {
+
+    MimeMessage create() throws MessagingException, IOException;
+  }
+
+  @PostConstruct
+  public void start() {
+    running = true;
+    for (int i = 0; i < workerCount; i++) {
+      workers.add(Thread.ofVirtual().name("mail-worker-" + i).start(this::work));
+    }
+  }
+
+  /**
+   * Stops taking new work and lets the workers drain what is already queued. Retries still waiting on their backoff are
+   * dropped and logged.
+   */
+  @PreDestroy
+  public void stop() throws InterruptedException {
+    running = false;
+    for (Thread worker : workers) {
+      worker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    List<Runnable> pendingRetries = retryScheduler.shutdownNow();
+    if (!pendingRetries.isEmpty() || !queue.isEmpty()) {
+      log.warning("Mail dispatcher stopped with " + pendingRetries.size() + " pending retries and " + queue.size()
+          + " queued mails");
+    }
+  }
+
+  // Region - dispatch
+
+  public void dispatch(String to, String subject, MimeMessage message) {
+    dispatch(to, subject, () -> message);
+  }
+
+  public void dispatch(String to, String subject, MessageFactory messageFactory) {
+    MailJob job = new MailJob(to, subject, messageFactory);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          enqueue(job);
+        }
+      });
+    } else {
+      enqueue(job);
+    }
+  }
+
+  public List<DeadLetterMail> getDeadLetters() {
+    synchronized (deadLetters) {
+      return List.copyOf(deadLetters);
+    }
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  private void enqueue(MailJob job) {
+    try {
+      if (!running || !queue.offer(job, enqueueTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        deadLetter(job, running ? "Mail queue is full" : "Mail dispatcher is stopped");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      deadLetter(job, "Interrupted while queueing mail");
+    }
+  }
+
+  // Region - workers
+
+  private void work() {
+    List<MailJob> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        MailJob first = queue.poll(500, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        sendBatch(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.severe("Mail worker failed on a batch of " + batch.size() + " mails: " + e.getMessage());
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  void sendBatch(List<MailJob> batch) {
+    List<MailJob> ready = new ArrayList<>(batch.size());
+    for (MailJob job : batch) {
+      job.attempts++;
+      try {
+        job.build();
+        ready.add(job);
+      } catch (MessagingException | IOException | RuntimeException e) {
+        // A message that cannot be built will not build on a retry either
+        deadLetter(job, e.getMessage());
+      }
+    }
+    if (ready.isEmpty()) {
+      return;
+    }
+
+    try {
+      // One send call for the whole batch, the sender opens a single transport for it
+      mailSender.send(ready.stream().map(MailJob::message).toArray(MimeMessage[]::new));
+    } catch (MailSendException e) {
+      Map<Object, Exception> failedMessages = e.getFailedMessages();
+      for (MailJob job : ready) {
+        if (failedMessages.isEmpty() || failedMessages.containsKey(job.message())) {
+          Exception cause = failedMessages.getOrDefault(job.message(), e);
+          retryOrDeadLetter(job, cause.getMessage());
+        }
+      }
+    } catch (MailException e) {
+      ready.forEach(job -> retryOrDeadLetter(job, e.getMessage()));
+    }
+  }
+
+  private void retryOrDeadLetter(MailJob job, String error) {
+    if (job.attempts >= maxAttempts || retryScheduler.isShutdown()) {
+      deadLetter(job, error);
+      return;
+    }
+    long delay = backoffMillis << (job.attempts - 1);
+    log.warning("Mail \"" + job.subject + "\" to " + job.to + " failed on attempt " + job.attempts + ", retrying in "
+        + delay + " ms: " + error);
+    retryScheduler.schedule(() -> enqueue(job), delay, TimeUnit.MILLISECONDS);
+  }
+
+  private void deadLetter(MailJob job, String error) {
+    log.severe("Giving up on mail \"" + job.subject + "\" to " + job.to + " after " + job.attempts + " attempts: "
+        + error);
+    synchronized (deadLetters) {
+      if (deadLetters.size() >= deadLetterCapacity) {
+        deadLetters.removeFirst();
+      }
+      deadLetters.addLast(new DeadLetterMail(job.to, job.subject, job.attempts, error, Instant.now()));
+    }
+  }
+
+  static class MailJob {
+
+    private final String to;
+    private final String subject;
+    private final MessageFactory messageFactory;
+    private MimeMessage message;
+    private int attempts;
+
+    MailJob(String to, String subject, MessageFactory messageFactory) {
+      this.to = to;
+      this.subject = subject;
+      this.messageFactory = messageFactory;
+    }
+
+    // Built once on the first attempt, retries resend the same message
+    void build() throws MessagingException, IOException {
+      if (message == null) {
+        message = messageFactory.create();
+      }
+    }
+
+    MimeMessage message() {
+      return message;
+    }
+  }
+}
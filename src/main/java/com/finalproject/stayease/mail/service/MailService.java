@@ -10,12 +10,17 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.util.Map;
 
+/**
+ * Builds outbound mails and hands them to the {@link MailDispatcher}, which sends them asynchronously once the caller's
+ * transaction commits.
+ */
 @Service
 @RequiredArgsConstructor
 @Log
@@ -23,6 +28,7 @@ public class MailService {
 
   private final JavaMailSender mailSender;
   private final PdfService pdfService;
+  private final MailDispatcher mailDispatcher;
 
   @Value("${spring.mail.username}")
   private String MAIL_USERNAME;
@@ -39,12 +45,15 @@ public class MailService {
     message.setTo(mailTemplate.getTo());
     message.setSubject(mailTemplate.getSubject());
     message.setText(mailTemplate.getMessage());
-    mailSender.send(message);
+    sendMail(message);
   }
 
   public void sendMail(SimpleMailMessage message) {
     message.setFrom(MAIL_USERNAME);
-    mailSender.send(message);
+    MimeMessage mimeMessage = mailSender.createMimeMessage();
+    message.copyTo(new MimeMailMessage(mimeMessage));
+    String to = message.getTo() != null ? String.join(", ", message.getTo()) : null;
+    mailDispatcher.dispatch(to, message.getSubject(), mimeMessage);
   }
 
   public void sendMimeMessage(String to, String subject, String htmlMsg)
@@ -55,7 +64,7 @@ public class MailService {
     helper.setTo(to);
     helper.setSubject(subject);
     helper.setText(htmlMsg, true);
-    mailSender.send(mimeMessage);
+    mailDispatcher.dispatch(to, subject, mimeMessage);
   }
 
   public void sendHtmlEmail(String htmlContent, String toEmail, String subject)
@@ -68,26 +77,28 @@ public class MailService {
     helper.setTo(toEmail);
     helper.setSubject(subject);
 
-    mailSender.send(mimeMessage);
+    mailDispatcher.dispatch(toEmail, subject, mimeMessage);
   }
 
   public void sendMailWithPdf(String to, String subject, String templateName, Map<String, String> templateData, String message) throws MessagingException, IOException {
-    String htmlTemplate = pdfService.loadHtmlTemplate(templateName);
-    String filledHtmlTemplate = pdfService.fillTemplate(htmlTemplate, templateData);
-    byte[] pdfBytes = pdfService.generatePdfFromHtml(filledHtmlTemplate);
+    String filledHtmlTemplate = pdfService.renderTemplate(templateName, templateData);
 
-    MimeMessage mimeMessage = mailSender.createMimeMessage();
-    MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-    helper.setFrom(MAIL_USERNAME);
-    helper.setTo(to);
-    helper.setSubject(subject);
-    helper.setText(message);
+    // Rendering the PDF is the slow part, leave it to the mail worker
+    mailDispatcher.dispatch(to, subject, () -> {
+      byte[] pdfBytes = pdfService.generatePdfFromHtml(filledHtmlTemplate);
 
-    // Attach PDF directly without Base64 encoding
-    helper.addAttachment("Stay_Ease_Booking_Invoice.pdf", new ByteArrayResource(pdfBytes));
+      MimeMessage mimeMessage = mailSender.createMimeMessage();
+      MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+      helper.setFrom(MAIL_USERNAME);
+      helper.setTo(to);
+      helper.setSubject(subject);
+      helper.setText(message);
 
-    mailSender.send(mimeMessage);
+      // Attach PDF directly without Base64 encoding
+      helper.addAttachment("Stay_Ease_Booking_Invoice.pdf", new ByteArrayResource(pdfBytes));
+      return mimeMessage;
+    });
 
-    log.info("Email with attached pdf file sent");
+    log.info("Email with attached pdf file queued");
   }
 }
@@ -0,0 +1,9 @@
+package com.finalproject.stayease.midtrans.dto;
+
+import lombok.Data;
+
+@Data
+public class CustomExpiryDTO {
+    private Integer expiry_duration;
+    private String unit;
+}
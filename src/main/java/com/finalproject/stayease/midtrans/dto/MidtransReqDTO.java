@@ -7,4 +7,5 @@ public class MidtransReqDTO {
     private String payment_type;
     private TransactionDetailDTO transaction_details;
     private BankTransferDTO bank_transfer;
+    private CustomExpiryDTO custom_expiry;
 }
@@ -5,4 +5,5 @@ import org.json.JSONObject;
 
 public interface MidtransService {
     JSONObject createTransaction(MidtransReqDTO reqDto);
+    String getTransactionStatus(String orderId);
 }
@@ -1,12 +1,21 @@
 package com.finalproject.stayease.midtrans.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finalproject.stayease.midtrans.dto.MidtransReqDTO;
 import com.finalproject.stayease.midtrans.service.MidtransService;
 import com.midtrans.httpclient.error.MidtransError;
 import com.midtrans.service.MidtransCoreApi;
 import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -14,10 +23,25 @@ import java.util.Objects;
 @Service
 public class MidtransServiceImpl implements MidtransService {
 
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
     private final MidtransCoreApi midtransCoreApi;
+    private final ObjectMapper objectMapper;
+    private final String apiUrl;
+    private final String secretKey;
+    // Shared by every status call so connections to Midtrans are pooled and kept alive between notifications
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(CONNECT_TIMEOUT)
+            .build();
 
-    public MidtransServiceImpl(MidtransCoreApi midtransCoreApi) {
+    public MidtransServiceImpl(MidtransCoreApi midtransCoreApi, ObjectMapper objectMapper,
+                               @Value("${midtrans.api.url:https://api.sandbox.midtrans.com}") String apiUrl,
+                               @Value("${midtrans.secret.key}") String secretKey) {
         this.midtransCoreApi = midtransCoreApi;
+        this.objectMapper = objectMapper;
+        this.apiUrl = apiUrl;
+        this.secretKey = secretKey;
     }
 
     @Override
@@ -37,6 +61,12 @@ public class MidtransServiceImpl implements MidtransService {
             if (Objects.equals(reqDto.getPayment_type(), "bank_transfer") && reqDto.getBank_transfer() != null) {
                 transactionRequest.put("bank_transfer", bankTransferDetails);
             }
+            if (reqDto.getCustom_expiry() != null) {
+                Map<String, Object> customExpiry = new HashMap<>();
+                customExpiry.put("expiry_duration", reqDto.getCustom_expiry().getExpiry_duration());
+                customExpiry.put("unit", reqDto.getCustom_expiry().getUnit());
+                transactionRequest.put("custom_expiry", customExpiry);
+            }
 
             return midtransCoreApi.chargeTransaction(transactionRequest);
 
@@ -44,4 +74,31 @@ public class MidtransServiceImpl implements MidtransService {
             throw new RuntimeException("Error creating Midtrans transaction -> ", e);
         }
     }
+
+    @Override
+    public String getTransactionStatus(String orderId) {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl + "/v2/" + orderId + "/status"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("accept", "application/json")
+                .header("authorization", secretKey)
+                .GET()
+                .build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("Midtrans status request failed with HTTP " + response.statusCode());
+            }
+            JsonNode transactionStatus = objectMapper.readTree(response.body()).get("transaction_status");
+            if (transactionStatus == null) {
+                throw new RuntimeException("Midtrans status response has no transaction_status");
+            }
+            return transactionStatus.asText();
+        } catch (IOException e) {
+            throw new RuntimeException("Error fetching Midtrans transaction status -> ", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while fetching Midtrans transaction status", e);
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package com.finalproject.stayease.payment.entity.dto;
+
+import java.util.UUID;
+
+/**
+ * Row shape of {@code PaymentRepository.claimExpiredPendingPayments}, column aliases must match these getters.
+ */
+public interface ExpiredPaymentClaim {
+    Long getPaymentId();
+    UUID getBookingId();
+    String getUserEmail();
+}
@@ -2,13 +2,16 @@ package com.finalproject.stayease.payment.repository;
 
 import com.finalproject.stayease.payment.entity.Payment;
 import com.finalproject.stayease.payment.entity.PaymentStatus;
+import com.finalproject.stayease.payment.entity.dto.ExpiredPaymentClaim;
 import com.finalproject.stayease.reports.dto.overview.MonthlySalesDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,6 +28,28 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     """)
     List<Payment> findByStatusAndExpirationBefore(@Param("currentTime") Instant currentTime);
 
+    // Rows locked by another sweeper are skipped, so concurrent instances claim disjoint chunks
+    @Query(value = """
+        SELECT p.id AS paymentId, b.id AS bookingId, u.email AS userEmail
+        FROM payments p
+        JOIN bookings b ON b.id = p.booking_id
+        JOIN users u ON u.id = b.user_id
+        WHERE p.payment_status = 'PENDING'
+        AND b.status IN ('PENDING', 'IN_PROGRESS')
+        AND p.payment_expiration_at < :currentTime
+        ORDER BY p.payment_expiration_at
+        LIMIT :limit
+        FOR UPDATE OF p, b SKIP LOCKED
+    """, nativeQuery = true)
+    List<ExpiredPaymentClaim> claimExpiredPendingPayments(@Param("currentTime") Instant currentTime,
+                                                          @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.paymentStatus = :status, p.updatedAt = :updatedAt WHERE p.id IN :paymentIds")
+    int updateStatusByIdIn(@Param("paymentIds") Collection<Long> paymentIds,
+                           @Param("status") PaymentStatus status,
+                           @Param("updatedAt") Instant updatedAt);
+
     @Query("""
         SELECT NEW com.finalproject.stayease.reports.dto.overview.MonthlySalesDTO(
             MONTH(p.createdAt),
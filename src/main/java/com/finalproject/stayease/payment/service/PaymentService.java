@@ -2,12 +2,14 @@ package com.finalproject.stayease.payment.service;
 
 import com.finalproject.stayease.bookings.entity.Booking;
 import com.finalproject.stayease.payment.entity.PaymentStatus;
+import com.finalproject.stayease.payment.entity.dto.ExpiredPaymentClaim;
 import com.finalproject.stayease.payment.entity.dto.PaymentDTO;
 import com.finalproject.stayease.payment.entity.Payment;
 import com.finalproject.stayease.reports.dto.overview.MonthlySalesDTO;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -19,6 +21,8 @@ public interface PaymentService {
     Payment updatePaymentStatus(Long paymentId, PaymentStatus paymentStatus);
     Payment findPaymentById(Long paymentId);
     List<Payment> findExpiredPendingPayment();
+    List<ExpiredPaymentClaim> claimExpiredPendingPayments(int limit);
+    int updatePaymentStatuses(Collection<Long> paymentIds, PaymentStatus paymentStatus);
     void tenantRejectPayment(Long paymentId);
     List<MonthlySalesDTO> getMonthlySalesByTenantId(Long tenantId);
     void deletePaymentProof(Long paymentId);
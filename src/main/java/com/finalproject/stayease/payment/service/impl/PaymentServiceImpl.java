@@ -6,13 +6,16 @@ import com.finalproject.stayease.bookings.service.BookingService;
 import com.finalproject.stayease.cloudinary.service.CloudinaryService;
 import com.finalproject.stayease.exceptions.utils.DataNotFoundException;
 import com.finalproject.stayease.payment.entity.PaymentStatus;
+import com.finalproject.stayease.payment.entity.dto.ExpiredPaymentClaim;
 import com.finalproject.stayease.payment.entity.dto.PaymentDTO;
 import com.finalproject.stayease.payment.entity.Payment;
 import com.finalproject.stayease.payment.repository.PaymentRepository;
 import com.finalproject.stayease.payment.service.PaymentService;
+import com.finalproject.stayease.property.service.RoomAvailabilityService;
 import com.finalproject.stayease.reports.dto.overview.MonthlySalesDTO;
 import com.finalproject.stayease.users.entity.TenantInfo;
 import com.finalproject.stayease.users.service.TenantInfoService;
+import lombok.extern.java.Log;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -22,21 +25,25 @@ import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Service
+@Log
 public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final CloudinaryService cloudinaryService;
     private final BookingService bookingService;
     private final TenantInfoService tenantInfoService;
+    private final RoomAvailabilityService roomAvailabilityService;
 
-    public PaymentServiceImpl(PaymentRepository paymentRepository, CloudinaryService cloudinaryService, BookingService bookingService, TenantInfoService tenantInfoService) {
+    public PaymentServiceImpl(PaymentRepository paymentRepository, CloudinaryService cloudinaryService, BookingService bookingService, TenantInfoService tenantInfoService, RoomAvailabilityService roomAvailabilityService) {
         this.paymentRepository = paymentRepository;
         this.cloudinaryService = cloudinaryService;
         this.bookingService = bookingService;
         this.tenantInfoService = tenantInfoService;
+        this.roomAvailabilityService = roomAvailabilityService;
     }
 
     @Override
@@ -75,9 +82,21 @@ public class PaymentServiceImpl implements PaymentService {
         String imageUrl = cloudinaryService.uploadFile(file, "Payment Proof");
 
         Payment payment = findPaymentByBookingId(bookingId);
+        // A booking waiting for the tenant has no payment deadline, so its rooms cannot stay on an expiring hold
+        Booking booking = payment.getBooking();
+        List<Long> roomIds = booking.getBookingItems().stream()
+                .map(bookingItem -> bookingItem.getRoom().getId())
+                .toList();
+        boolean confirmed = roomAvailabilityService.confirmHold(booking.getId(), roomIds, booking.getCheckInDate(), booking.getCheckOutDate());
         payment.setPaymentProof(imageUrl);
         payment.setPaymentStatus(PaymentStatus.PENDING);
-        bookingService.updateBooking(payment.getBooking().getId(), BookingStatus.WAITING_FOR_CONFIRMATION);
+        if (confirmed) {
+            bookingService.updateBooking(booking.getId(), BookingStatus.WAITING_FOR_CONFIRMATION);
+        } else {
+            // The transfer was made after the hold lapsed and someone else got the rooms, the money has to go back
+            log.severe("Booking " + booking.getId() + " was paid after losing its rooms and needs a refund");
+            bookingService.updateBooking(booking.getId(), BookingStatus.REFUND_REQUIRED);
+        }
 
         return new PaymentDTO(paymentRepository.save(payment));
     }
@@ -107,6 +126,19 @@ public class PaymentServiceImpl implements PaymentService {
         return paymentRepository.findByStatusAndExpirationBefore(now);
     }
 
+    @Override
+    public List<ExpiredPaymentClaim> claimExpiredPendingPayments(int limit) {
+        return paymentRepository.claimExpiredPendingPayments(Instant.now(), limit);
+    }
+
+    @Override
+    public int updatePaymentStatuses(Collection<Long> paymentIds, PaymentStatus paymentStatus) {
+        if (paymentIds.isEmpty()) {
+            return 0;
+        }
+        return paymentRepository.updateStatusByIdIn(paymentIds, paymentStatus, Instant.now());
+    }
+
     @Override
     public void tenantRejectPayment(Long paymentId) {
         Payment payment = findPaymentById(paymentId);
@@ -0,0 +1,86 @@
+package com.finalproject.stayease.pdf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML template with {@code {{name}}} placeholders, split once into literal and placeholder segments so rendering is
+ * a single append pass instead of one full copy of the document per placeholder. Values are inserted as-is, they may
+ * contain markup. A placeholder without a value is left in the output unchanged.
+ */
+public final class HtmlTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    private final String[] segments;
+    // placeholders[i] is true when segments[i] is a placeholder name rather than literal text
+    private final boolean[] placeholders;
+    private final int literalLength;
+
+    private HtmlTemplate(List<String> segments, List<Boolean> placeholders, int literalLength) {
+        this.segments = segments.toArray(String[]::new);
+        this.placeholders = new boolean[placeholders.size()];
+        for (int i = 0; i < this.placeholders.length; i++) {
+            this.placeholders[i] = placeholders.get(i);
+        }
+        this.literalLength = literalLength;
+    }
+
+    public static HtmlTemplate compile(String source) {
+        List<String> segments = new ArrayList<>();
+        List<Boolean> placeholders = new ArrayList<>();
+        int literalLength = 0;
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                break;
+            }
+            if (open > position) {
+                segments.add(source.substring(position, open));
+                placeholders.add(false);
+                literalLength += open - position;
+            }
+            segments.add(source.substring(open + OPEN.length(), close));
+            placeholders.add(true);
+            position = close + CLOSE.length();
+        }
+        if (position < source.length()) {
+            segments.add(source.substring(position));
+            placeholders.add(false);
+            literalLength += source.length() - position;
+        }
+        return new HtmlTemplate(segments, placeholders, literalLength);
+    }
+
+    /**
+     * Size of the template without its placeholders, a good initial capacity for the render buffer.
+     */
+    public int getLiteralLength() {
+        return literalLength;
+    }
+
+    public void renderTo(StringBuilder out, Map<String, String> data) {
+        for (int i = 0; i < segments.length; i++) {
+            if (!placeholders[i]) {
+                out.append(segments[i]);
+                continue;
+            }
+            String value = data.get(segments[i]);
+            if (value != null) {
+                out.append(value);
+            } else {
+                out.append(OPEN).append(segments[i]).append(CLOSE);
+            }
+        }
+    }
+
+    public String render(Map<String, String> data) {
+        StringBuilder out = new StringBuilder(literalLength + 256);
+        renderTo(out, data);
+        return out.toString();
+    }
+}
@@ -3,31 +3,102 @@ package com.finalproject.stayease.pdf;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.pdf.PdfWriter;
 import com.itextpdf.tool.xml.XMLWorkerHelper;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileCopyUtils;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.concurrent.*;
 
+/**
+ * Renders the HTML templates under {@code pdf-templates/} and turns them into PDFs. Templates are compiled once, at
+ * startup for the bundled ones, and PDF generation runs on a small bounded pool so a burst of invoices cannot take
+ * every CPU; when the pool and its queue are full the caller renders the PDF itself.
+ */
 @Service
 @Log
 public class PdfService {
-    public String loadHtmlTemplate(String templateName) throws IOException {
-        ClassPathResource resource = new ClassPathResource("pdf-templates/" + templateName);
-        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
-            return FileCopyUtils.copyToString(reader);
+    private static final String TEMPLATE_LOCATION = "pdf-templates/";
+
+    private final Map<String, HtmlTemplate> templates = new ConcurrentHashMap<>();
+    // Render buffer reused by each thread, templates are rendered into it and copied out once
+    private final ThreadLocal<StringBuilder> renderBuffer = ThreadLocal.withInitial(() -> new StringBuilder(8192));
+    private final ThreadPoolExecutor pdfExecutor;
+    private final long timeoutSeconds;
+
+    public PdfService(@Value("${pdf.render.threads:2}") int threads,
+                      @Value("${pdf.render.queue-capacity:50}") int queueCapacity,
+                      @Value("${pdf.render.timeout-seconds:30}") long timeoutSeconds) {
+        this.pdfExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("pdf-render-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.timeoutSeconds = timeoutSeconds;
+        precompileTemplates();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pdfExecutor.shutdown();
+    }
+
+    public HtmlTemplate getTemplate(String templateName) throws IOException {
+        HtmlTemplate template = templates.get(templateName);
+        if (template == null) {
+            template = HtmlTemplate.compile(loadHtmlTemplate(templateName));
+            templates.putIfAbsent(templateName, template);
         }
+        return template;
+    }
+
+    public String renderTemplate(String templateName, Map<String, String> data) throws IOException {
+        HtmlTemplate template = getTemplate(templateName);
+        StringBuilder buffer = renderBuffer.get();
+        buffer.setLength(0);
+        buffer.ensureCapacity(template.getLiteralLength() + 256);
+        template.renderTo(buffer, data);
+        return buffer.toString();
+    }
+
+    public String loadHtmlTemplate(String templateName) throws IOException {
+        ClassPathResource resource = new ClassPathResource(TEMPLATE_LOCATION + templateName);
+        return readResource(resource);
     }
 
+    /**
+     * Generates the PDF on the bounded render pool and waits for it.
+     */
     public byte[] generatePdfFromHtml(String html) throws IOException {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Future<byte[]> pdf = pdfExecutor.submit(() -> renderPdf(html));
+        try {
+            return pdf.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to generate PDF", e.getCause());
+        } catch (TimeoutException e) {
+            pdf.cancel(true);
+            throw new IOException("Timed out generating PDF", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while generating PDF", e);
+        }
+    }
+
+    private byte[] renderPdf(String html) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(html.length());
         Document document = new Document();
         try {
             PdfWriter writer = PdfWriter.getInstance(document, outputStream);
             document.open();
+            // The helper is a singleton that keeps the default CSS and tag processors, only the pipeline is per document
             XMLWorkerHelper.getInstance().parseXHtml(writer, document, new ByteArrayInputStream(html.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new IOException("Failed to generate PDF", e);
@@ -39,10 +110,22 @@ public class PdfService {
         return outputStream.toByteArray();
     }
 
-    public String fillTemplate(String template, Map<String, String> data) {
-        for (Map.Entry<String, String> entry : data.entrySet()) {
-            template = template.replace("{{" + entry.getKey() + "}}", entry.getValue());
+    private void precompileTemplates() {
+        try {
+            Resource[] resources = new PathMatchingResourcePatternResolver()
+                    .getResources("classpath*:" + TEMPLATE_LOCATION + "*.html");
+            for (Resource resource : resources) {
+                templates.put(resource.getFilename(), HtmlTemplate.compile(readResource(resource)));
+            }
+            log.info("Compiled " + templates.size() + " PDF templates");
+        } catch (IOException e) {
+            log.warning("Could not precompile PDF templates, they will be compiled on first use: " + e.getMessage());
+        }
+    }
+
+    private String readResource(Resource resource) throws IOException {
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            return FileCopyUtils.copyToString(reader);
         }
-        return template;
     }
 }
@@ -1,5 +1,6 @@
 package com.finalproject.stayease.property.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finalproject.stayease.exceptions.properties.PropertyNotFoundException;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.Room;
@@ -13,6 +14,8 @@ import com.finalproject.stayease.property.entity.dto.RoomWithRoomAvailabilityDTO
 import com.finalproject.stayease.property.entity.dto.createRequests.CreatePropertyRequestDTO;
 import com.finalproject.stayease.property.entity.dto.createRequests.CreateRoomRequestDTO;
 import com.finalproject.stayease.property.entity.dto.createRequests.SetUnavailabilityDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.GeoFilterDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.MapClusterDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyAvailableOnDateDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomAdjustedRatesDTO;
@@ -24,10 +27,13 @@ import com.finalproject.stayease.property.service.PropertyListingService;
 import com.finalproject.stayease.property.service.PropertyService;
 import com.finalproject.stayease.property.service.RoomAvailabilityService;
 import com.finalproject.stayease.property.service.RoomService;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
 import com.finalproject.stayease.responses.Response;
 import com.finalproject.stayease.users.entity.Users;
 import com.finalproject.stayease.users.service.UsersService;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -37,6 +43,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -48,6 +55,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/v1/properties")
@@ -63,6 +71,8 @@ public class PropertyController {
   private final PropertyImageUploadService propertyImageUploadService;
   private final PropertyListingService propertyListingService;
   private final RoomAvailabilityService roomAvailabilityService;
+  private final ObjectMapper objectMapper;
+  private final PropertyViewCache propertyViewCache;
 
 
   @GetMapping
@@ -82,14 +92,21 @@ public class PropertyController {
       @RequestParam(required = false) BigDecimal minPrice,
       @RequestParam(required = false) BigDecimal maxPrice,
       @RequestParam(required = false) Integer guestCount,
+      @RequestParam(required = false) Double lat,
+      @RequestParam(required = false) Double lng,
+      @RequestParam(required = false) Double radiusKm,
+      @RequestParam(required = false) Double minLat,
+      @RequestParam(required = false) Double minLng,
+      @RequestParam(required = false) Double maxLat,
+      @RequestParam(required = false) Double maxLng,
       @RequestParam(defaultValue = "0") int page,
       @RequestParam(defaultValue = "10") int size,
-      @RequestParam(defaultValue = "name") String sortBy,
+      @RequestParam(required = false) String sortBy,
       @RequestParam(defaultValue = "ASC") String sortDirection
   ) {
     Page<PropertyListingDTO> properties = propertyListingService.findAvailableProperties(
         startDate, endDate, city, categoryName, searchTerm, minPrice,
-        maxPrice, guestCount, page,
+        maxPrice, guestCount, new GeoFilterDTO(lat, lng, radiusKm, minLat, minLng, maxLat, maxLng), page,
         size, sortBy, sortDirection);
 
     return Response.responseMapper(
@@ -99,6 +116,20 @@ public class PropertyController {
     );
   }
 
+  // Pins for a map view: clusters with a count, centroid and lowest price instead of full listings
+  @GetMapping("/map/clusters")
+  public ResponseEntity<Response<List<MapClusterDTO>>> getMapClusters(
+      @RequestParam Double minLat,
+      @RequestParam Double minLng,
+      @RequestParam Double maxLat,
+      @RequestParam Double maxLng,
+      @RequestParam int zoom
+  ) {
+    List<MapClusterDTO> clusters = propertyListingService.findMapClusters(
+        new GeoFilterDTO(null, null, null, minLat, minLng, maxLat, maxLng), zoom);
+    return Response.successfulResponse(200, "Listing map clusters", clusters);
+  }
+
   @GetMapping("/available")
   public ResponseEntity<Response<List<PropertyListingDTO>>> getAvailableProperties(
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
@@ -107,16 +138,40 @@ public class PropertyController {
     return Response.successfulResponse(200, "Listing available properties", properties);
   }
 
+  // Opt-in for large result sets: writes one listing per line as the rows are read instead of building the full list
+  @GetMapping(value = "/available", params = "stream=true", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> streamAvailableProperties(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+  ) {
+    StreamingResponseBody body = outputStream -> propertyListingService.streamPropertiesWithLowestRoomRate(date,
+        chunk -> writeListings(outputStream, chunk));
+    return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+  }
+
+  private void writeListings(OutputStream outputStream, List<PropertyListingDTO> listings) {
+    try {
+      for (PropertyListingDTO listing : listings) {
+        outputStream.write(objectMapper.writeValueAsBytes(listing));
+        outputStream.write('\n');
+      }
+      outputStream.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   @GetMapping("/{propertyId}")
   public ResponseEntity<Response<PropertyCurrentDTO>> getProperty(@PathVariable Long propertyId) {
-    return Response.successfulResponse(200, "Listing property ID: " + propertyId, roomService.getPropertyCurrent(propertyId));
+    return Response.successfulResponse(200, "Listing property ID: " + propertyId,
+        propertyViewCache.getPropertyCurrent(propertyId, () -> roomService.getPropertyCurrent(propertyId)));
   }
 
   @GetMapping("{propertyId}/available")
    public ResponseEntity<Response<PropertyAvailableOnDateDTO>> getAvailablePropertyOnDate(@PathVariable Long propertyId,
       @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
     return Response.successfulResponse(200, "Listing available property for today",
-        propertyListingService.findAvailablePropertyOnDate(propertyId, date));
+        propertyViewCache.getAvailableOnDate(propertyId, date,
+            () -> propertyListingService.findAvailablePropertyOnDate(propertyId, date)));
   }
 
   @GetMapping("/tenant")
@@ -173,8 +228,8 @@ public class PropertyController {
 
   @GetMapping("/{propertyId}/rooms")
   public ResponseEntity<Response<List<RoomDTO>>> getAllRooms(@PathVariable Long propertyId) {
-    List<Room> roomList = roomService.getRoomsOfProperty(propertyId);
-    List<RoomDTO> roomDTOList = roomList.stream().map(RoomDTO::new).toList();
+    List<RoomDTO> roomDTOList = propertyViewCache.getRooms(propertyId,
+        () -> roomService.getRoomsOfProperty(propertyId).stream().map(RoomDTO::new).toList());
     return Response.successfulResponse(200, "Listing all rooms for property ID: " + propertyId, roomDTOList);
   }
 
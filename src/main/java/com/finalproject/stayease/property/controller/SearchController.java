@@ -0,0 +1,29 @@
+package com.finalproject.stayease.property.controller;
+
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO;
+import com.finalproject.stayease.property.service.SearchSuggestionService;
+import com.finalproject.stayease.responses.Response;
+import java.util.List;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@Controller
+@RequestMapping("/api/v1/search")
+@Slf4j
+@Data
+public class SearchController {
+
+  private final SearchSuggestionService searchSuggestionService;
+
+  @GetMapping("/suggest")
+  public ResponseEntity<Response<List<SuggestionDTO>>> suggest(@RequestParam(name = "q", required = false) String query,
+      @RequestParam(required = false) Integer limit) {
+    return Response.successfulResponse(200, "Listing search suggestions",
+        searchSuggestionService.suggest(query, limit));
+  }
+}
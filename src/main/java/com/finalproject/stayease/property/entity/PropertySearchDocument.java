@@ -0,0 +1,30 @@
+package com.finalproject.stayease.property.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Read-only view of a property's search document, written by {@code PropertySearchIndex}. Only the lowercased text is
+ * mapped, the tsvector is used from native queries.
+ */
+@Getter
+@Entity
+@Immutable
+@Table(name = "property_search_document")
+public class PropertySearchDocument {
+
+  @Id
+  @Column(name = "property_id", nullable = false)
+  private Long propertyId;
+
+  @Column(name = "document", nullable = false, length = Integer.MAX_VALUE)
+  private String document;
+
+  @Column(name = "updated_at", nullable = false)
+  private Instant updatedAt;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.UUID;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.ColumnDefault;
@@ -51,6 +52,10 @@ public class RoomAvailability {
   @Column(name = "is_manual")
   private Boolean isManual = false;
 
+  // The booking whose nights these are, null for unavailability set by the tenant
+  @Column(name = "booking_id")
+  private UUID bookingId;
+
   @PrePersist
   protected void onCreate() {
     createdAt = Instant.now();
@@ -4,8 +4,10 @@ import com.finalproject.stayease.property.entity.Room;
 import java.math.BigDecimal;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 public class RoomDTO {
  private Long id;
  private String name;
@@ -28,6 +30,7 @@ public class RoomDTO {
 
  @Data
  @AllArgsConstructor
+ @NoArgsConstructor
  public static class PropertySummary {
    private Long propertyId;
    private String propertyName;
@@ -0,0 +1,38 @@
+package com.finalproject.stayease.property.entity.dto.listingDTOs;
+
+/**
+ * Optional area of a listing search: a radius around a point, a map bounding box, both or neither. Coordinates are
+ * WGS 84 degrees.
+ */
+public record GeoFilterDTO(
+    Double latitude,
+    Double longitude,
+    Double radiusKm,
+    Double minLatitude,
+    Double minLongitude,
+    Double maxLatitude,
+    Double maxLongitude
+) {
+
+  private static final GeoFilterDTO NONE = new GeoFilterDTO(null, null, null, null, null, null, null);
+
+  public static GeoFilterDTO none() {
+    return NONE;
+  }
+
+  public boolean hasCenter() {
+    return latitude != null && longitude != null;
+  }
+
+  public boolean hasRadius() {
+    return hasCenter() && radiusKm != null;
+  }
+
+  public boolean hasBounds() {
+    return minLatitude != null && minLongitude != null && maxLatitude != null && maxLongitude != null;
+  }
+
+  public Double radiusMeters() {
+    return hasRadius() ? radiusKm * 1000 : null;
+  }
+}
@@ -0,0 +1,29 @@
+package com.finalproject.stayease.property.entity.dto.listingDTOs;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MapClusterDTO {
+
+  private long count;
+  private Double latitude;
+  private Double longitude;
+  private BigDecimal minPrice;
+  // Only set when the cluster is a single property, so the pin can link to it
+  private Long propertyId;
+
+  public MapClusterDTO(MapClusterProjection projection) {
+    this.count = projection.getCount();
+    this.latitude = projection.getLatitude();
+    this.longitude = projection.getLongitude();
+    this.minPrice = projection.getMinPrice();
+    this.propertyId = projection.getCount() == 1 ? projection.getPropertyId() : null;
+  }
+}
@@ -0,0 +1,17 @@
+package com.finalproject.stayease.property.entity.dto.listingDTOs;
+
+import java.math.BigDecimal;
+
+/**
+ * Row shape of the map cluster query, one grid cell of a tile. Column aliases in
+ * {@code PropertyRepository.findMapClusters} must match these getters.
+ */
+public interface MapClusterProjection {
+
+  Long getCount();
+  Double getLatitude();
+  Double getLongitude();
+  BigDecimal getMinPrice();
+  Long getPropertyId();
+
+}
@@ -3,7 +3,9 @@ package com.finalproject.stayease.property.entity.dto.listingDTOs;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.Room;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -45,7 +47,32 @@ public class PropertyAvailableOnDateDTO {
     }
   }
 
+  /**
+   * @return A copy with the given rooms moved from the available rooms to the unavailable ones, or this view itself if
+   * none of them is available in it
+   */
+  public PropertyAvailableOnDateDTO withRoomsUnavailable(Set<Long> roomIds) {
+    if (rooms == null || rooms.stream().noneMatch(room -> roomIds.contains(room.getRoomId()))) {
+      return this;
+    }
+    List<RoomAdjustedRatesDTO> availableRooms = new ArrayList<>();
+    List<UnavailableRoomDTO> allUnavailableRooms = new ArrayList<>();
+    if (unavailableRooms != null) {
+      allUnavailableRooms.addAll(unavailableRooms);
+    }
+    for (RoomAdjustedRatesDTO room : rooms) {
+      if (roomIds.contains(room.getRoomId())) {
+        allUnavailableRooms.add(new UnavailableRoomDTO(room));
+      } else {
+        availableRooms.add(room);
+      }
+    }
+    return new PropertyAvailableOnDateDTO(id, tenant, category, propertyName, description, imageUrl, address, city,
+        country, latitude, longitude, availableRooms, allUnavailableRooms);
+  }
+
   @Data
+  @NoArgsConstructor
   public static class UnavailableRoomDTO {
     private Long propertyId;
     private Long roomId;
@@ -63,5 +90,14 @@ public class PropertyAvailableOnDateDTO {
       this.basePrice = room.getBasePrice();
     }
 
+    public UnavailableRoomDTO(RoomAdjustedRatesDTO room) {
+      this.propertyId = room.getPropertyId();
+      this.roomId = room.getRoomId();
+      this.roomName = room.getRoomName();
+      this.imageUrl = room.getImageUrl();
+      this.roomCapacity = room.getRoomCapacity();
+      this.basePrice = room.getBasePrice();
+    }
+
   }
 }
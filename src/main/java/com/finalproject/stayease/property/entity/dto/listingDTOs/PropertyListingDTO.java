@@ -26,6 +26,16 @@ public class PropertyListingDTO {
   private Double latitude;
   private BigDecimal lowestBasePrice;
   private BigDecimal lowestAdjustedPrice;
+  // Only set when the search has a center point
+  private Double distanceKm;
+
+  // Used by the JPQL constructor expressions, which have no distance
+  public PropertyListingDTO(Long propertyId, String tenant, String propertyName, String description, String imageUrl,
+      String address, String city, String country, String categoryName, Double longitude, Double latitude,
+      BigDecimal lowestBasePrice, BigDecimal lowestAdjustedPrice) {
+    this(propertyId, tenant, propertyName, description, imageUrl, address, city, country, categoryName, longitude,
+        latitude, lowestBasePrice, lowestAdjustedPrice, null);
+  }
 
   public PropertyListingDTO(Property property, RoomAdjustedRatesDTO adjustedRate) {
     this.propertyId = property.getId();
@@ -43,5 +53,22 @@ public class PropertyListingDTO {
     this.lowestAdjustedPrice = adjustedRate.getAdjustedPrice();
   }
 
+  public PropertyListingDTO(PropertyListingProjection projection) {
+    this.propertyId = projection.getPropertyId();
+    this.tenant = projection.getTenant();
+    this.propertyName = projection.getPropertyName();
+    this.description = projection.getDescription();
+    this.imageUrl = projection.getImageUrl();
+    this.address = projection.getAddress();
+    this.city = projection.getCity();
+    this.country = projection.getCountry();
+    this.categoryName = projection.getCategoryName();
+    this.longitude = projection.getLongitude();
+    this.latitude = projection.getLatitude();
+    this.lowestBasePrice = projection.getLowestBasePrice();
+    this.lowestAdjustedPrice = projection.getLowestAdjustedPrice();
+    this.distanceKm = projection.getDistanceKm();
+  }
+
 
 }
@@ -0,0 +1,26 @@
+package com.finalproject.stayease.property.entity.dto.listingDTOs;
+
+import java.math.BigDecimal;
+
+/**
+ * Row shape of the paginated native listing query. Column aliases in
+ * {@code PropertyRepository.findAvailablePropertyListings} must match these getters.
+ */
+public interface PropertyListingProjection {
+
+  Long getPropertyId();
+  String getTenant();
+  String getPropertyName();
+  String getDescription();
+  String getImageUrl();
+  String getAddress();
+  String getCity();
+  String getCountry();
+  String getCategoryName();
+  Double getLongitude();
+  Double getLatitude();
+  BigDecimal getLowestBasePrice();
+  BigDecimal getLowestAdjustedPrice();
+  Double getDistanceKm();
+
+}
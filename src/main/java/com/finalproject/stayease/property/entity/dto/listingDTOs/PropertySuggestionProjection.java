@@ -0,0 +1,13 @@
+package com.finalproject.stayease.property.entity.dto.listingDTOs;
+
+/**
+ * The property columns the search suggestions are built from, see
+ * {@code PropertyRepository.findAllSuggestionSources}.
+ */
+public interface PropertySuggestionProjection {
+
+  Long getId();
+  String getName();
+  String getCity();
+
+}
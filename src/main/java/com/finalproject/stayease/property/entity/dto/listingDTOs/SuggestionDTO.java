@@ -0,0 +1,24 @@
+package com.finalproject.stayease.property.entity.dto.listingDTOs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionDTO {
+
+  public enum Type {
+    CITY, CATEGORY, PROPERTY
+  }
+
+  private Type type;
+  private String label;
+  // The category or property ID, cities have none
+  private Long id;
+  // Number of properties behind the suggestion, 1 for a property
+  private long propertyCount;
+}
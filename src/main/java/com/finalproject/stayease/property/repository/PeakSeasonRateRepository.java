@@ -4,6 +4,7 @@ import com.finalproject.stayease.property.entity.PeakSeasonRate;
 import com.finalproject.stayease.property.entity.Property;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -27,6 +28,16 @@ public interface PeakSeasonRateRepository extends JpaRepository<PeakSeasonRate,
       @Param("bookingTime") Instant bookingTime,
       @Param("futureDate") Instant futureDate);
 
+  @Query("""
+      SELECT psr
+      FROM PeakSeasonRate psr
+      WHERE psr.property.id IN :propertyIds
+      AND psr.endDate >= :fromDate
+      AND psr.deletedAt IS NULL
+      """)
+  List<PeakSeasonRate> findActiveRatesByPropertyIds(@Param("propertyIds") Collection<Long> propertyIds,
+      @Param("fromDate") LocalDate fromDate);
+
   @Query("""
       SELECT psr
       FROM PeakSeasonRate psr
@@ -51,6 +62,18 @@ public interface PeakSeasonRateRepository extends JpaRepository<PeakSeasonRate,
 
   List<PeakSeasonRate> findByPropertyAndEndDateAfterAndDeletedAtIsNull(Property property, LocalDate date);
 
+  @Query("""
+      SELECT psr
+      FROM PeakSeasonRate psr
+      WHERE psr.property.id = :propertyId
+      AND psr.startDate <= :endDate
+      AND psr.endDate >= :startDate
+      AND psr.deletedAt IS NULL
+      """)
+  List<PeakSeasonRate> findRatesByPropertyOverlappingDateRange(@Param("propertyId") Long propertyId,
+      @Param("startDate") LocalDate startDate,
+      @Param("endDate") LocalDate endDate);
+
   @Modifying
   @Query("""
       DELETE FROM PeakSeasonRate psr
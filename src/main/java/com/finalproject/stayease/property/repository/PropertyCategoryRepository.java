@@ -1,6 +1,7 @@
 package com.finalproject.stayease.property.repository;
 
 import com.finalproject.stayease.property.entity.PropertyCategory;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -10,5 +11,7 @@ public interface PropertyCategoryRepository extends JpaRepository<PropertyCatego
 
   Optional<PropertyCategory> findByNameIgnoreCaseAndDeletedAtIsNull(String name);
   Optional<PropertyCategory> findByIdAndDeletedAtIsNull(Long categoryId);
+  List<PropertyCategory> findAllByDeletedAtIsNull();
+  long countByDeletedAtIsNull();
 
 }
@@ -1,18 +1,27 @@
 package com.finalproject.stayease.property.repository;
 
 import com.finalproject.stayease.property.entity.Property;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.MapClusterProjection;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingProjection;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertySuggestionProjection;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import com.finalproject.stayease.users.entity.Users;
+import jakarta.persistence.QueryHint;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
 import org.locationtech.jts.geom.Point;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -28,6 +37,9 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
   @Query("SELECT DISTINCT p.city FROM Property p WHERE p.deletedAt IS NULL")
   List<String> findDistinctCities();
 
+  @Query("SELECT p.id AS id, p.name AS name, p.city AS city FROM Property p WHERE p.deletedAt IS NULL")
+  List<PropertySuggestionProjection> findAllSuggestionSources();
+
   @Query("""
       SELECT imageUrl FROM Property WHERE imageUrl IS NOT NULL AND deletedAt IS NULL
       UNION
@@ -44,6 +56,16 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
       """)
   List<Property> findAllPropertiesWithAutoRatesEnabled();
 
+  @Query("""
+      SELECT p.id
+      FROM Property p
+      JOIN p.propertyRateSetting prs
+      WHERE prs.useAutoRates = true
+      AND p.deletedAt IS NULL
+      ORDER BY p.id
+      """)
+  List<Long> findAllPropertyIdsWithAutoRatesEnabled();
+
   @Query("""
       SELECT new com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO(
         p.id,
@@ -96,51 +118,159 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
       """)
   List<Property> findAvailablePropertiesOnDate(@Param("date") LocalDate date);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
   @Query("""
-            SELECT NEW com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO(
-          p.id, p.tenant.tenantInfo.businessName, p.name, p.description, p.imageUrl, p.address, p.city, p.country, pc.name,
-          p.longitude, p.latitude,
-          (SELECT MIN(r.basePrice)
-           FROM Room r
-           WHERE r.property = p
-           AND r.deletedAt IS NULL
-          ),
-          NULL
+      SELECT NEW com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO(
+          p.id, ti.businessName, p.name, p.description, p.imageUrl, p.address, p.city, p.country, pc.name,
+          p.longitude, p.latitude, MIN(r.basePrice), NULL
       )
       FROM Property p
       JOIN p.category pc
       JOIN p.tenant t
       JOIN t.tenantInfo ti
+      JOIN Room r ON r.property = p
       WHERE p.deletedAt IS NULL
-      AND (:city IS NULL OR LOWER(CAST(p.city AS string)) = LOWER(CAST(:city AS string)))
-      AND (:categoryName IS NULL OR LOWER(CAST(pc.name AS string)) = LOWER(CAST(:categoryName AS string)))
-      AND (:searchTerm IS NULL OR
-          LOWER(CAST(p.name AS string)) LIKE LOWER(CONCAT('%', CAST(:searchTerm AS string), '%')) OR
-          LOWER(CAST(pc.name AS string)) LIKE LOWER(CONCAT('%', CAST(:searchTerm AS string), '%')) OR
-          LOWER(CAST(p.address AS string)) LIKE LOWER(CONCAT('%', CAST(:searchTerm AS string), '%')) OR
-          LOWER(CAST(p.city AS string)) LIKE LOWER(CONCAT('%', CAST(:searchTerm AS string), '%')) OR
-          LOWER(CAST(p.country AS string)) LIKE LOWER(CONCAT('%', CAST(:searchTerm AS string), '%')) OR
-          LOWER(CAST(ti.businessName AS string)) LIKE LOWER(CONCAT('%', CAST(:searchTerm AS string), '%')))
+      AND r.deletedAt IS NULL
+      AND NOT EXISTS (
+          SELECT 1
+          FROM RoomAvailability ra
+          WHERE ra.room = r
+          AND :date BETWEEN ra.startDate AND ra.endDate
+          AND ra.isAvailable = false
+          AND ra.deletedAt IS NULL
+      )
+      GROUP BY p.id, ti.businessName, pc.name
+      ORDER BY p.id
+      """)
+  Stream<PropertyListingDTO> streamAvailablePropertyListingsOnDate(@Param("date") LocalDate date);
+
+  @Query(value = """
+      WITH candidates AS (
+          SELECT p.id, ti.business_name, p.name, p.description, p.image_url, p.address, p.city, p.country,
+                 pc.name AS category_name, p.longitude, p.latitude,
+                 (SELECT MIN(r.base_price)
+                  FROM room r
+                  WHERE r.property_id = p.id
+                  AND r.deleted_at IS NULL
+                 ) AS lowest_base_price,
+                 CASE WHEN CAST(:searchTerm AS text) IS NULL THEN 0
+                      ELSE TS_RANK(psd.search_vector, WEBSEARCH_TO_TSQUERY('simple', CAST(:searchTerm AS text)))
+                           + WORD_SIMILARITY(LOWER(CAST(:searchTerm AS text)), psd.document)
+                 END AS relevance,
+                 CASE WHEN CAST(:latitude AS double precision) IS NULL OR CAST(:longitude AS double precision) IS NULL
+                      THEN NULL
+                      ELSE ST_DISTANCE(p.location,
+                          CAST(ST_SETSRID(ST_MAKEPOINT(CAST(:longitude AS double precision),
+                              CAST(:latitude AS double precision)), 4326) AS geography))
+                 END AS distance_meters
+          FROM property p
+          JOIN property_categories pc ON pc.id = p.category_id
+          JOIN tenant_info ti ON ti.user_id = p.tenant_id
+          LEFT JOIN property_search_document psd ON psd.property_id = p.id
+          WHERE p.deleted_at IS NULL
+          AND (CAST(:city AS text) IS NULL OR LOWER(p.city) = LOWER(CAST(:city AS text)))
+          AND (CAST(:categoryName AS text) IS NULL OR LOWER(pc.name) = LOWER(CAST(:categoryName AS text)))
+          AND (CAST(:searchTerm AS text) IS NULL OR
+              psd.search_vector @@ WEBSEARCH_TO_TSQUERY('simple', CAST(:searchTerm AS text)) OR
+              psd.document LIKE CONCAT('%', LOWER(CAST(:searchTerm AS text)), '%'))
+          AND (CAST(:radiusMeters AS double precision) IS NULL OR ST_DWITHIN(p.location,
+              CAST(ST_SETSRID(ST_MAKEPOINT(CAST(:longitude AS double precision),
+                  CAST(:latitude AS double precision)), 4326) AS geography),
+              CAST(:radiusMeters AS double precision)))
+          AND (CAST(:minLongitude AS double precision) IS NULL OR p.location && CAST(ST_MAKEENVELOPE(
+              CAST(:minLongitude AS double precision), CAST(:minLatitude AS double precision),
+              CAST(:maxLongitude AS double precision), CAST(:maxLatitude AS double precision), 4326) AS geography))
+          AND EXISTS (
+              SELECT 1
+              FROM room r
+              WHERE r.property_id = p.id
+              AND r.deleted_at IS NULL
+              AND (CAST(:minPrice AS numeric) IS NULL OR r.base_price >= CAST(:minPrice AS numeric))
+              AND (CAST(:maxPrice AS numeric) IS NULL OR r.base_price <= CAST(:maxPrice AS numeric))
+              AND (CAST(:guestCount AS integer) IS NULL OR r.capacity >= CAST(:guestCount AS integer))
+              AND r.id <> ALL(CAST(:heldRoomIds AS bigint[]))
+              AND NOT EXISTS (
+                  SELECT 1
+                  FROM room_availability ra
+                  WHERE ra.room_id = r.id
+                  AND ra.start_date < :endDate
+                  AND ra.end_date >= :startDate
+                  AND ra.is_available = false
+                  AND ra.deleted_at IS NULL
+              )
+          )
+      ),
+      priced AS (
+          SELECT c.*,
+                 ROUND(c.lowest_base_price
+                       + c.lowest_base_price * COALESCE(adj.percentage_total, 0) / 100
+                       + COALESCE(adj.fixed_total, 0), 2) AS lowest_adjusted_price
+          FROM candidates c
+          LEFT JOIN LATERAL (
+              SELECT SUM(CASE WHEN psr.adjustment_type = 'PERCENTAGE' THEN psr.adjustment_rate END) AS percentage_total,
+                     SUM(CASE WHEN psr.adjustment_type <> 'PERCENTAGE' THEN psr.adjustment_rate END) AS fixed_total
+              FROM peak_season_rate psr
+              WHERE psr.property_id = c.id
+              AND :startDate BETWEEN psr.start_date AND psr.end_date
+              AND :bookingTime BETWEEN psr.valid_from AND psr.end_date
+              AND psr.deleted_at IS NULL
+          ) adj ON true
+      )
+      SELECT id AS propertyId, business_name AS tenant, name AS propertyName, description, image_url AS imageUrl,
+             address, city, country, category_name AS categoryName, longitude, latitude,
+             lowest_base_price AS lowestBasePrice, lowest_adjusted_price AS lowestAdjustedPrice,
+             distance_meters / 1000 AS distanceKm
+      FROM priced
+      ORDER BY
+          CASE WHEN :sortBy = 'relevance' THEN relevance END DESC,
+          CASE WHEN :sortBy = 'distance' THEN distance_meters END ASC,
+          CASE WHEN :sortBy = 'price' AND :sortDirection = 'ASC' THEN lowest_adjusted_price END ASC,
+          CASE WHEN :sortBy = 'price' AND :sortDirection = 'DESC' THEN lowest_adjusted_price END DESC,
+          CASE WHEN :sortBy = 'name' AND :sortDirection = 'ASC' THEN name END ASC,
+          CASE WHEN :sortBy = 'name' AND :sortDirection = 'DESC' THEN name END DESC,
+          id ASC
+      """,
+      countQuery = """
+      SELECT COUNT(*)
+      FROM property p
+      JOIN property_categories pc ON pc.id = p.category_id
+      JOIN tenant_info ti ON ti.user_id = p.tenant_id
+      LEFT JOIN property_search_document psd ON psd.property_id = p.id
+      WHERE p.deleted_at IS NULL
+      AND (CAST(:city AS text) IS NULL OR LOWER(p.city) = LOWER(CAST(:city AS text)))
+      AND (CAST(:categoryName AS text) IS NULL OR LOWER(pc.name) = LOWER(CAST(:categoryName AS text)))
+      AND (CAST(:searchTerm AS text) IS NULL OR
+          psd.search_vector @@ WEBSEARCH_TO_TSQUERY('simple', CAST(:searchTerm AS text)) OR
+          psd.document LIKE CONCAT('%', LOWER(CAST(:searchTerm AS text)), '%'))
+      AND (CAST(:radiusMeters AS double precision) IS NULL OR ST_DWITHIN(p.location,
+          CAST(ST_SETSRID(ST_MAKEPOINT(CAST(:longitude AS double precision),
+              CAST(:latitude AS double precision)), 4326) AS geography),
+          CAST(:radiusMeters AS double precision)))
+      AND (CAST(:minLongitude AS double precision) IS NULL OR p.location && CAST(ST_MAKEENVELOPE(
+          CAST(:minLongitude AS double precision), CAST(:minLatitude AS double precision),
+          CAST(:maxLongitude AS double precision), CAST(:maxLatitude AS double precision), 4326) AS geography))
       AND EXISTS (
           SELECT 1
-          FROM Room r
-          WHERE r.property = p
-          AND r.deletedAt IS NULL
-          AND (:minPrice IS NULL OR r.basePrice >= :minPrice)
-          AND (:maxPrice IS NULL OR r.basePrice <= :maxPrice)
-          AND (:guestCount IS NULL OR r.capacity >= :guestCount)
+          FROM room r
+          WHERE r.property_id = p.id
+          AND r.deleted_at IS NULL
+          AND (CAST(:minPrice AS numeric) IS NULL OR r.base_price >= CAST(:minPrice AS numeric))
+          AND (CAST(:maxPrice AS numeric) IS NULL OR r.base_price <= CAST(:maxPrice AS numeric))
+          AND (CAST(:guestCount AS integer) IS NULL OR r.capacity >= CAST(:guestCount AS integer))
+          AND r.id <> ALL(CAST(:heldRoomIds AS bigint[]))
           AND NOT EXISTS (
               SELECT 1
-              FROM RoomAvailability ra
-              WHERE ra.room = r
-              AND ra.startDate < :endDate
-              AND ra.endDate > :startDate
-              AND ra.isAvailable = false
-              AND ra.deletedAt IS NULL
+              FROM room_availability ra
+              WHERE ra.room_id = r.id
+              AND ra.start_date < :endDate
+              AND ra.end_date >= :startDate
+              AND ra.is_available = false
+              AND ra.deleted_at IS NULL
           )
       )
-      """)
-  List<PropertyListingDTO> findAvailableProperties(
+      """,
+      nativeQuery = true)
+  Page<PropertyListingProjection> findAvailablePropertyListings(
       @Param("startDate") LocalDate startDate,
       @Param("endDate") LocalDate endDate,
       @Param("city") String city,
@@ -148,7 +278,48 @@ public interface PropertyRepository extends JpaRepository<Property, Long> {
       @Param("searchTerm") String searchTerm,
       @Param("minPrice") BigDecimal minPrice,
       @Param("maxPrice") BigDecimal maxPrice,
-      @Param("guestCount") Integer guestCount
+      @Param("guestCount") Integer guestCount,
+      @Param("latitude") Double latitude,
+      @Param("longitude") Double longitude,
+      @Param("radiusMeters") Double radiusMeters,
+      @Param("minLatitude") Double minLatitude,
+      @Param("minLongitude") Double minLongitude,
+      @Param("maxLatitude") Double maxLatitude,
+      @Param("maxLongitude") Double maxLongitude,
+      @Param("bookingTime") Instant bookingTime,
+      @Param("heldRoomIds") Long[] heldRoomIds,
+      @Param("sortBy") String sortBy,
+      @Param("sortDirection") String sortDirection,
+      Pageable pageable
+  );
+
+  // A tile keeps the points on its west and north edges, so a point on a shared edge belongs to the tile east or
+  // south of it and adjacent tiles never count a property twice
+  @Query(value = """
+      SELECT COUNT(*) AS count, AVG(ST_Y(pin.geom)) AS latitude, AVG(ST_X(pin.geom)) AS longitude,
+             MIN(pin.min_price) AS minPrice, MIN(pin.id) AS propertyId
+      FROM (
+          SELECT p.id, CAST(p.location AS geometry) AS geom,
+                 (SELECT MIN(r.base_price)
+                  FROM room r
+                  WHERE r.property_id = p.id
+                  AND r.deleted_at IS NULL
+                 ) AS min_price
+          FROM property p
+          WHERE p.deleted_at IS NULL
+          AND CAST(p.location AS geometry) && ST_MAKEENVELOPE(:west, :south, :east, :north, 4326)
+      ) pin
+      WHERE ST_X(pin.geom) >= :west AND ST_X(pin.geom) < :east
+      AND ST_Y(pin.geom) > :south AND ST_Y(pin.geom) <= :north
+      GROUP BY LEAST(FLOOR((ST_X(pin.geom) - :west) / (:east - :west) * :cells), :cells - 1),
+               LEAST(FLOOR((:north - ST_Y(pin.geom)) / (:north - :south) * :cells), :cells - 1)
+      """, nativeQuery = true)
+  List<MapClusterProjection> findMapClusters(
+      @Param("west") double west,
+      @Param("south") double south,
+      @Param("east") double east,
+      @Param("north") double north,
+      @Param("cells") int cells
   );
 
     @Query("SELECT COUNT(p.id) FROM Property p WHERE p.tenant.id = :tenantId")
@@ -1,11 +1,15 @@
 package com.finalproject.stayease.property.repository;
 
 import com.finalproject.stayease.property.entity.RoomAvailability;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -36,14 +40,14 @@ public interface RoomAvailabilityRepository extends JpaRepository<RoomAvailabili
   @Query("""
           SELECT COUNT(ra) > 0
           FROM RoomAvailability ra
-          WHERE ra.room.id = :roomId
+          WHERE ra.room.id IN :roomIds
+          AND ra.isAvailable = false
           AND ra.deletedAt IS NULL
-          AND (
-              (ra.startDate <= :endDate AND ra.endDate >= :startDate)
-          )
+          AND ra.startDate <= :endDate
+          AND ra.endDate >= :startDate
       """)
-  boolean existsOverlappingAvailability(
-      @Param("roomId") Long roomId,
+  boolean existsUnavailabilityByRoomIdsAndDateRange(
+      @Param("roomIds") Collection<Long> roomIds,
       @Param("startDate") LocalDate startDate,
       @Param("endDate") LocalDate endDate
   );
@@ -64,4 +68,30 @@ List<RoomAvailability> findAllByPropertyId(@Param("propertyId") Long propertyId)
           AND ra.deletedAt IS NULL
       """)
 List<RoomAvailability> findAllByPropertyIdAndIsManualFalse(@Param("propertyId") Long propertyId);
+
+@Query("""
+          SELECT ra
+          FROM RoomAvailability ra
+          WHERE ra.room.property.id = :propertyId
+          AND ra.isAvailable = false
+          AND ra.deletedAt IS NULL
+          AND ra.startDate <= :endDate
+          AND ra.endDate >= :startDate
+      """)
+List<RoomAvailability> findAllUnavailabilityByPropertyIdAndDateRange(@Param("propertyId") Long propertyId,
+    @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+@Query("""
+          SELECT ra
+          FROM RoomAvailability ra
+          JOIN FETCH ra.room r
+          JOIN FETCH r.property
+          WHERE ra.bookingId IN :bookingIds
+          AND ra.deletedAt IS NULL
+      """)
+List<RoomAvailability> findBookedUnavailabilityByBookingIds(@Param("bookingIds") Collection<UUID> bookingIds);
+
+@Modifying
+@Query("UPDATE RoomAvailability ra SET ra.deletedAt = :deletedAt WHERE ra.id IN :ids")
+int softDeleteAllByIdIn(@Param("ids") Collection<Long> ids, @Param("deletedAt") Instant deletedAt);
 }
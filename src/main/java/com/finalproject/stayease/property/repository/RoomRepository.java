@@ -4,6 +4,7 @@ import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.Room;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -18,6 +19,8 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
 
   Optional<Room> findByIdAndDeletedAtIsNull(Long id);
 
+  List<Room> findAllByIdInAndDeletedAtIsNull(Collection<Long> ids);
+
   List<Room> findAllByPropertyAndDeletedAtIsNull(Property propertyId);
 
   @Query("""
@@ -99,5 +102,15 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
       """)
   RoomPriceRateDTO findRoomRateAndAvailability(@Param("roomId") Long roomId, @Param("date") LocalDate date);
 
+  @Query("""
+      SELECT r FROM Room r
+      JOIN r.property p
+      WHERE p.id = :propertyId
+      AND p.deletedAt IS NULL
+      AND r.deletedAt IS NULL
+      ORDER BY r.basePrice ASC, r.id ASC
+      """)
+  List<Room> findAllByPropertyIdOrderByBasePrice(@Param("propertyId") Long propertyId);
+
 
 }
@@ -4,6 +4,7 @@ import com.finalproject.stayease.property.entity.PeakSeasonRate;
 import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
 import com.finalproject.stayease.property.entity.dto.createRequests.SetPeakSeasonRateRequestDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.DailyPriceDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomAdjustedRatesDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import com.finalproject.stayease.users.entity.Users;
@@ -34,5 +35,6 @@ public interface PeakSeasonRateService {
   // Price adjustments
   BigDecimal applyPeakSeasonRate(RoomPriceRateDTO roomRate);
   BigDecimal applyPeakSeasonRate(Long propertyId, LocalDate date, BigDecimal basePrice, Instant bookingTime);
+  void applyPeakSeasonRates(List<PropertyListingDTO> listings, LocalDate date, Instant bookingTime);
 
 }
@@ -1,10 +1,13 @@
 package com.finalproject.stayease.property.service;
 
+import com.finalproject.stayease.property.entity.dto.listingDTOs.GeoFilterDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.MapClusterDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyAvailableOnDateDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Page;
 
 public interface PropertyListingService {
@@ -18,13 +21,18 @@ public interface PropertyListingService {
       BigDecimal minPrice,
       BigDecimal maxPrice,
       Integer guestCount,
+      GeoFilterDTO geoFilter,
       int page,
       int size,
       String sortBy,
       String sortDirection
   );
 
+  List<MapClusterDTO> findMapClusters(GeoFilterDTO bounds, int zoom);
+
   PropertyAvailableOnDateDTO findAvailablePropertyOnDate(Long propertyId, LocalDate date);
 
   List<PropertyListingDTO> findPropertiesWithLowestRoomRate(LocalDate date);
+
+  void streamPropertiesWithLowestRoomRate(LocalDate date, Consumer<List<PropertyListingDTO>> chunkConsumer);
 }
@@ -2,6 +2,7 @@ package com.finalproject.stayease.property.service;
 
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.dto.createRequests.CreatePropertyRequestDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.GeoFilterDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import com.finalproject.stayease.property.entity.dto.updateRequests.UpdatePropertyRequestDTO;
@@ -11,6 +12,9 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 public interface PropertyService {
 
@@ -19,6 +23,7 @@ public interface PropertyService {
   List<Property> findAllByTenant(Users tenant);
   Optional<Property> findPropertyById(Long id);
   List<Property> findAllPropertiesWithAutoRatesEnabled();
+  List<Long> findAllPropertyIdsWithAutoRatesEnabled();
   List<String> findDistinctCities();
   List<String> findAllPropertyRoomImageUrls();
 
@@ -30,11 +35,13 @@ public interface PropertyService {
 
   // Property availability and pricing methods
   List<Property> getAllAvailablePropertiesOnDate(LocalDate date);
+  List<PropertyListingDTO> findAvailablePropertyListingsOnDate(LocalDate date);
+  Stream<PropertyListingDTO> streamAvailablePropertyListingsOnDate(LocalDate date);
   RoomPriceRateDTO findLowestRoomRate(Long propertyId, LocalDate date);
   List<RoomPriceRateDTO> findAvailableRoomRates(Long propertyId, LocalDate date);
 
   // Property listing fort sorting and filtering
-  List<PropertyListingDTO> findAvailableProperties(
+  Page<PropertyListingDTO> findAvailablePropertyListings(
       LocalDate startDate,
       LocalDate endDate,
       String city,
@@ -42,7 +49,12 @@ public interface PropertyService {
       String searchTerm,
       BigDecimal minPrice,
       BigDecimal maxPrice,
-      Integer guestCount
+      Integer guestCount,
+      GeoFilterDTO geoFilter,
+      Instant bookingTime,
+      String sortBy,
+      String sortDirection,
+      Pageable pageable
   );
 
   // Property ownership verification
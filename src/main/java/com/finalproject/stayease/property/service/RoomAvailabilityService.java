@@ -4,16 +4,24 @@ import com.finalproject.stayease.property.entity.RoomAvailability;
 import com.finalproject.stayease.property.entity.dto.RoomWithRoomAvailabilityDTO;
 import com.finalproject.stayease.users.entity.Users;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public interface RoomAvailabilityService {
   // Set room unavailability
   RoomAvailability setUnavailability(Long roomId, LocalDate startDate, LocalDate endDate);
   RoomAvailability setUnavailability(Users tenant, Long roomId, LocalDate startDate, LocalDate endDate);
 
+  // Hold the rooms of a booking in checkout, then make the holds durable or release them
+  void holdRooms(UUID bookingId, Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut);
+  boolean confirmHold(UUID bookingId, Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut);
+  void releaseRoom(UUID bookingId, Long roomId, LocalDate checkIn, LocalDate checkOut);
+
   // Remove room unavailability
   void removeUnavailability(Long roomId, LocalDate startDate, LocalDate endDate);
   void removeUnavailability(Users tenant, Long roomId, Long unavailabilityId);
+  int releaseBookedUnavailability(Collection<UUID> bookingIds);
 
   // Get room availability by tenant
   List<RoomWithRoomAvailabilityDTO> getRoomAvailabilityByTenant(Users tenant);
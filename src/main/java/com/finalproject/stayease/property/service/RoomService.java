@@ -6,6 +6,7 @@ import com.finalproject.stayease.property.entity.dto.createRequests.CreateRoomRe
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomAdjustedRatesDTO;
 import com.finalproject.stayease.users.entity.Users;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -26,6 +27,7 @@ public interface RoomService {
   List<Room> getTenantRooms(Long tenantId);
   List<Room> getRoomsAvailability(Long tenantId);
   Optional<Room> findRoomById(Long roomId);
+  List<Room> findRoomsByIds(Collection<Long> roomIds);
 
   // Room availability and rates
   RoomAdjustedRatesDTO getRoomRateAndAvailability(Long roomId, LocalDate date);
@@ -0,0 +1,9 @@
+package com.finalproject.stayease.property.service;
+
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO;
+import java.util.List;
+
+public interface SearchSuggestionService {
+
+  List<SuggestionDTO> suggest(String query, Integer limit);
+}
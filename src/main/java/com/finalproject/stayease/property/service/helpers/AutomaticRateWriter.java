@@ -0,0 +1,95 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the automatic peak season rates of a property as JDBC batches: one batch each for inserts, updates and soft
+ * deletes, instead of a validated entity save per rate. Ids are drawn from the sequence inside the insert, so new rows
+ * cost no extra round trip. Runs in the caller's transaction and evicts the property views and rate timeline once when
+ * anything changed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AutomaticRateWriter {
+
+  private static final String INSERT_SQL = """
+      INSERT INTO peak_season_rate
+        (id, property_id, start_date, end_date, adjustment_rate, adjustment_type, reason, valid_from, updated_at)
+      VALUES (nextval('peak_season_rate_id_seq'), ?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  private static final String UPDATE_SQL = """
+      UPDATE peak_season_rate
+      SET end_date = ?, adjustment_rate = ?, adjustment_type = ?, updated_at = ?
+      WHERE id = ?
+      """;
+
+  private static final String SOFT_DELETE_SQL = """
+      UPDATE peak_season_rate
+      SET deleted_at = ?, updated_at = ?
+      WHERE id = ? AND deleted_at IS NULL
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final PropertyViewCache propertyViewCache;
+  private final PropertyRateTimelineCache rateTimelineCache;
+
+  /**
+   * Applies the changes to the automatic rates of a property.
+   * @param propertyId The ID of the property
+   * @param inserts Rates to create
+   * @param updates Existing rates to change
+   * @param deletes IDs of rates to soft delete
+   * @return The number of rates written
+   */
+  public int apply(Long propertyId, List<NewRate> inserts, List<RateUpdate> updates, Collection<Long> deletes) {
+    if (inserts.isEmpty() && updates.isEmpty() && deletes.isEmpty()) {
+      return 0;
+    }
+    Timestamp now = Timestamp.from(Instant.now());
+
+    if (!inserts.isEmpty()) {
+      jdbcTemplate.batchUpdate(INSERT_SQL, inserts.stream()
+          .map(rate -> new Object[]{propertyId, rate.startDate(), rate.endDate(), rate.adjustmentRate(),
+              rate.adjustmentType().name(), rate.reason(), now, now})
+          .toList());
+    }
+    if (!updates.isEmpty()) {
+      jdbcTemplate.batchUpdate(UPDATE_SQL, updates.stream()
+          .map(rate -> new Object[]{rate.endDate(), rate.adjustmentRate(), rate.adjustmentType().name(), now,
+              rate.id()})
+          .toList());
+    }
+    if (!deletes.isEmpty()) {
+      jdbcTemplate.batchUpdate(SOFT_DELETE_SQL, deletes.stream()
+          .map(id -> new Object[]{now, now, id})
+          .toList());
+    }
+
+    log.info("Automatic rates for property ID: {}: {} created, {} updated, {} removed", propertyId, inserts.size(),
+        updates.size(), deletes.size());
+    propertyViewCache.evict(propertyId);
+    rateTimelineCache.invalidate(propertyId);
+    return inserts.size() + updates.size() + deletes.size();
+  }
+
+  public record NewRate(LocalDate startDate, LocalDate endDate, BigDecimal adjustmentRate,
+                        AdjustmentType adjustmentType, String reason) {
+
+  }
+
+  public record RateUpdate(Long id, LocalDate endDate, BigDecimal adjustmentRate, AdjustmentType adjustmentType) {
+
+  }
+}
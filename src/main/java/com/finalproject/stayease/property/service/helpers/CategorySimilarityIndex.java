@@ -0,0 +1,232 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import com.finalproject.stayease.property.entity.PropertyCategory;
+import com.finalproject.stayease.property.repository.PropertyCategoryRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Finds live categories whose names are near-duplicates of a requested one without comparing it to every category.
+ * Normalized names are indexed by their character bigrams, padded with start and end markers, and by the synonym
+ * groups they belong to. Only categories sharing a bigram or a synonym group with the request are compared, which
+ * loses nothing: an edit distance under a fifth of the name length, or a Jaro-Winkler similarity over 0.9, always
+ * leaves at least one bigram in common.
+ * <p>
+ * The index is loaded on first use and updated after category writes commit. Each lookup compares the live category
+ * count against its own size and reloads on a mismatch, which picks up categories written by other instances.
+ */
+@Component
+@Slf4j
+public class CategorySimilarityIndex {
+
+  private static final char START = '^';
+  private static final char END = '$';
+  private static final double MAX_EDIT_RATIO = 0.2;
+  private static final double MIN_JARO_WINKLER = 0.9;
+
+  private final PropertyCategoryRepository propertyCategoryRepository;
+  private final LevenshteinDistance levenshteinDistance = new LevenshteinDistance();
+  private final JaroWinklerSimilarity jaroWinklerSimilarity = new JaroWinklerSimilarity();
+  // Normalized synonym -> names of the groups it belongs to
+  private final Map<String, Set<String>> synonymGroups;
+
+  private final Map<Long, Entry> categories = new HashMap<>();
+  private final Map<String, Set<Long>> categoriesByBigram = new HashMap<>();
+  private final Map<String, Set<Long>> categoriesBySynonymGroup = new HashMap<>();
+  private boolean loaded;
+
+  public CategorySimilarityIndex(PropertyCategoryRepository propertyCategoryRepository) {
+    this.propertyCategoryRepository = propertyCategoryRepository;
+    this.synonymGroups = invert(initializeSynonyms());
+  }
+
+  private static Map<String, List<String>> initializeSynonyms() {
+    Map<String, List<String>> synonymMap = new HashMap<>();
+    synonymMap.put("apartment", List.of("apartment", "flat", "suite", "unit", "condo", "condominium"));
+    synonymMap.put("house", List.of("house", "home", "residence", "dwelling"));
+    synonymMap.put("villa", List.of("villa", "chateau", "mansion", "estate"));
+    synonymMap.put("cottage", List.of("cottage", "cabin", "bungalow", "chalet"));
+    synonymMap.put("bed and breakfast", List.of("bed and breakfast", "b&b", "bnb", "guesthouse"));
+    synonymMap.put("hostel", List.of("hostel", "dormitory", "dorm"));
+    synonymMap.put("motel", List.of("motel", "motor hotel", "motor inn"));
+    synonymMap.put("resort", List.of("resort", "retreat", "spa"));
+    synonymMap.put("penthouse", List.of("penthouse", "luxury apartment", "top-floor suite"));
+    synonymMap.put("studio", List.of("studio", "efficiency apartment", "bachelor apartment"));
+    synonymMap.put("loft", List.of("loft", "attic apartment", "converted warehouse"));
+    synonymMap.put("vacation rental", List.of("vacation rental", "holiday home", "vacation home",
+        "short-term rental"));
+    synonymMap.put("farmhouse", List.of("farmhouse", "ranch house", "country house"));
+    synonymMap.put("townhouse", List.of("townhouse", "row house", "terraced house"));
+    return synonymMap;
+  }
+
+  private static Map<String, Set<String>> invert(Map<String, List<String>> synonymMap) {
+    Map<String, Set<String>> inverted = new HashMap<>();
+    synonymMap.forEach((group, words) -> words.forEach(
+        word -> inverted.computeIfAbsent(normalize(word), key -> new HashSet<>()).add(group)));
+    return inverted;
+  }
+
+  public static String normalize(String name) {
+    return name.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+  }
+
+  // Region - queries
+
+  /**
+   * @return the names of live categories similar to the given one, in name order
+   */
+  public synchronized List<String> findSimilar(String name) {
+    ensureCurrent();
+    String normalized = normalize(name);
+    Set<Long> candidates = new HashSet<>();
+    for (String bigram : bigrams(normalized)) {
+      candidates.addAll(categoriesByBigram.getOrDefault(bigram, Set.of()));
+    }
+    for (String group : synonymGroups.getOrDefault(normalized, Set.of())) {
+      candidates.addAll(categoriesBySynonymGroup.getOrDefault(group, Set.of()));
+    }
+
+    Set<String> similar = new TreeSet<>();
+    for (Long candidate : candidates) {
+      Entry entry = categories.get(candidate);
+      if (isSimilarNormalized(normalized, entry.normalized())) {
+        similar.add(entry.name());
+      }
+    }
+    return new ArrayList<>(similar);
+  }
+
+  public boolean isSimilar(String name1, String name2) {
+    return isSimilarNormalized(normalize(name1), normalize(name2));
+  }
+
+  public boolean areSynonyms(String word1, String word2) {
+    Set<String> groups = synonymGroups.getOrDefault(normalize(word1), Set.of());
+    return synonymGroups.getOrDefault(normalize(word2), Set.of()).stream().anyMatch(groups::contains);
+  }
+
+  private boolean isSimilarNormalized(String normalized1, String normalized2) {
+    if (areSynonyms(normalized1, normalized2)) {
+      return true;
+    }
+    int distance = levenshteinDistance.apply(normalized1, normalized2);
+    int maxLength = Math.max(normalized1.length(), normalized2.length());
+    if (distance < maxLength * MAX_EDIT_RATIO) {
+      return true;
+    }
+    return jaroWinklerSimilarity.apply(normalized1, normalized2) > MIN_JARO_WINKLER;
+  }
+
+  // Region - maintenance
+
+  public void put(Long categoryId, String name) {
+    runAfterCommit(() -> {
+      synchronized (this) {
+        if (loaded) {
+          add(categoryId, name);
+        }
+      }
+    });
+  }
+
+  public void remove(Long categoryId) {
+    runAfterCommit(() -> {
+      synchronized (this) {
+        if (loaded) {
+          removeEntry(categoryId);
+        }
+      }
+    });
+  }
+
+  /**
+   * Reloads every live category.
+   */
+  public synchronized void rebuild() {
+    categories.clear();
+    categoriesByBigram.clear();
+    categoriesBySynonymGroup.clear();
+    for (PropertyCategory category : propertyCategoryRepository.findAllByDeletedAtIsNull()) {
+      add(category.getId(), category.getName());
+    }
+    loaded = true;
+    log.info("Category similarity index rebuilt with {} categories", categories.size());
+  }
+
+  private void ensureCurrent() {
+    if (!loaded || propertyCategoryRepository.countByDeletedAtIsNull() != categories.size()) {
+      rebuild();
+    }
+  }
+
+  private void add(Long categoryId, String name) {
+    removeEntry(categoryId);
+    Entry entry = new Entry(name, normalize(name));
+    categories.put(categoryId, entry);
+    for (String bigram : bigrams(entry.normalized())) {
+      categoriesByBigram.computeIfAbsent(bigram, key -> new HashSet<>()).add(categoryId);
+    }
+    for (String group : synonymGroups.getOrDefault(entry.normalized(), Set.of())) {
+      categoriesBySynonymGroup.computeIfAbsent(group, key -> new HashSet<>()).add(categoryId);
+    }
+  }
+
+  private void removeEntry(Long categoryId) {
+    Entry removed = categories.remove(categoryId);
+    if (removed == null) {
+      return;
+    }
+    for (String bigram : bigrams(removed.normalized())) {
+      removeFrom(categoriesByBigram, bigram, categoryId);
+    }
+    for (String group : synonymGroups.getOrDefault(removed.normalized(), Set.of())) {
+      removeFrom(categoriesBySynonymGroup, group, categoryId);
+    }
+  }
+
+  private static void removeFrom(Map<String, Set<Long>> postings, String key, Long categoryId) {
+    Set<Long> ids = postings.get(key);
+    if (ids != null && ids.remove(categoryId) && ids.isEmpty()) {
+      postings.remove(key);
+    }
+  }
+
+  static Set<String> bigrams(String normalized) {
+    String padded = START + normalized + END;
+    Set<String> bigrams = new HashSet<>();
+    for (int i = 0; i + 2 <= padded.length(); i++) {
+      bigrams.add(padded.substring(i, i + 2));
+    }
+    return bigrams;
+  }
+
+  private void runAfterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private record Entry(String name, String normalized) {
+
+  }
+}
@@ -0,0 +1,75 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import com.finalproject.stayease.property.entity.dto.listingDTOs.MapClusterDTO;
+import com.finalproject.stayease.property.repository.PropertyRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded LRU cache of the property clusters of each map tile. A tile is split into a grid of
+ * {@code cellsPerTile x cellsPerTile} cells and every non-empty cell becomes one cluster, so a tile costs at most that
+ * many small rows however many properties it holds. Pins only need to be roughly current, so tiles are not invalidated
+ * on writes and simply expire.
+ */
+@Component
+@Slf4j
+public class MapClusterTileCache {
+
+  private final PropertyRepository propertyRepository;
+  private final int cellsPerTile;
+  private final Duration ttl;
+
+  private final Map<String, CachedTile> tiles;
+
+  public MapClusterTileCache(PropertyRepository propertyRepository,
+      @Value("${map-clusters.cells-per-tile:8}") int cellsPerTile,
+      @Value("${map-clusters.max-entries:5000}") int maxEntries,
+      @Value("${map-clusters.ttl-seconds:120}") long ttlSeconds) {
+    this.propertyRepository = propertyRepository;
+    this.cellsPerTile = cellsPerTile;
+    this.ttl = Duration.ofSeconds(ttlSeconds);
+    this.tiles = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedTile> eldest) {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  public List<MapClusterDTO> getClusters(MapTile tile) {
+    Instant now = Instant.now();
+    synchronized (tiles) {
+      CachedTile cached = tiles.get(tile.key());
+      if (cached != null && cached.expiresAt().isAfter(now)) {
+        return cached.clusters();
+      }
+    }
+
+    List<MapClusterDTO> clusters = propertyRepository
+        .findMapClusters(tile.west(), tile.south(), tile.east(), tile.north(), cellsPerTile)
+        .stream()
+        .map(MapClusterDTO::new)
+        .toList();
+    synchronized (tiles) {
+      tiles.put(tile.key(), new CachedTile(clusters, now.plus(ttl)));
+    }
+    log.debug("Loaded {} map clusters for tile {}", clusters.size(), tile.key());
+    return clusters;
+  }
+
+  public int size() {
+    synchronized (tiles) {
+      return tiles.size();
+    }
+  }
+
+  private record CachedTile(List<MapClusterDTO> clusters, Instant expiresAt) {
+
+  }
+}
@@ -0,0 +1,80 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Web Mercator map tile in the usual zoom/x/y scheme, x growing east and y growing south. Map clusters are computed
+ * and cached per tile, so panning a map only loads the tiles that came into view.
+ */
+public record MapTile(int zoom, int x, int y) {
+
+  public static final int MAX_ZOOM = 20;
+  // Web Mercator is undefined at the poles, every map cuts it off here
+  private static final double MAX_LATITUDE = 85.05112878;
+
+  /**
+   * @return every tile at the zoom level that intersects the box, row by row
+   */
+  public static List<MapTile> covering(double south, double west, double north, double east, int zoom) {
+    int minX = tileX(west, zoom);
+    int maxX = tileX(east, zoom);
+    int minY = tileY(north, zoom);
+    int maxY = tileY(south, zoom);
+    List<MapTile> tiles = new ArrayList<>((maxX - minX + 1) * (maxY - minY + 1));
+    for (int y = minY; y <= maxY; y++) {
+      for (int x = minX; x <= maxX; x++) {
+        tiles.add(new MapTile(zoom, x, y));
+      }
+    }
+    return tiles;
+  }
+
+  public static long countCovering(double south, double west, double north, double east, int zoom) {
+    return (long) (tileX(east, zoom) - tileX(west, zoom) + 1) * (tileY(south, zoom) - tileY(north, zoom) + 1);
+  }
+
+  public double west() {
+    return longitudeOf(x);
+  }
+
+  public double east() {
+    return longitudeOf(x + 1);
+  }
+
+  public double north() {
+    return latitudeOf(y);
+  }
+
+  public double south() {
+    return latitudeOf(y + 1);
+  }
+
+  public String key() {
+    return zoom + "/" + x + "/" + y;
+  }
+
+  private double longitudeOf(int tileX) {
+    return tileX / (double) (1 << zoom) * 360.0 - 180.0;
+  }
+
+  private double latitudeOf(int tileY) {
+    return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2.0 * tileY / (1 << zoom)))));
+  }
+
+  private static int tileX(double longitude, int zoom) {
+    int tiles = 1 << zoom;
+    return clamp((int) Math.floor((longitude + 180.0) / 360.0 * tiles), tiles);
+  }
+
+  private static int tileY(double latitude, int zoom) {
+    int tiles = 1 << zoom;
+    double radians = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+    double mercator = Math.log(Math.tan(radians) + 1 / Math.cos(radians));
+    return clamp((int) Math.floor((1 - mercator / Math.PI) / 2 * tiles), tiles);
+  }
+
+  private static int clamp(int tile, int tiles) {
+    return Math.max(0, Math.min(tiles - 1, tile));
+  }
+}
@@ -1,5 +1,6 @@
 package com.finalproject.stayease.property.service.helpers;
 
+import com.finalproject.stayease.helpers.MinorUnits;
 import com.finalproject.stayease.property.entity.PeakSeasonRate;
 import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
@@ -11,23 +12,55 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.List;
 
+/**
+ * Applies peak season rates to a base price. Prices and rates are computed on long minor units with
+ * {@link MinorUnits}; amounts that do not fit, or carry more than two decimals, go through the equivalent
+ * {@code BigDecimal} computation instead. Both round half up to two decimals once, at the end.
+ */
 @Component
 @RequiredArgsConstructor
 public class PeakSeasonRateCalculator {
 
+  private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
   public BigDecimal applyPeakSeasonRate(RoomPriceRateDTO roomRate) {
-    BigDecimal adjustedPrice = roomRate.getBasePrice();
-    adjustedPrice = roomRate.getAdjustmentType() == AdjustmentType.PERCENTAGE
-        ? adjustedPrice.add(adjustedPrice.multiply(roomRate.getAdjustmentRate().divide(BigDecimal.valueOf(100))))
-        : adjustedPrice.add(Optional.ofNullable(roomRate.getAdjustmentRate()).orElse(BigDecimal.ZERO));
-    return adjustedPrice.setScale(2, RoundingMode.HALF_UP);
+    BigDecimal basePrice = roomRate.getBasePrice();
+    BigDecimal adjustmentRate = Optional.ofNullable(roomRate.getAdjustmentRate()).orElse(BigDecimal.ZERO);
+    boolean percentage = roomRate.getAdjustmentType() == AdjustmentType.PERCENTAGE;
+    try {
+      long rate = MinorUnits.toMinor(adjustmentRate);
+      return MinorUnits.toDecimal(MinorUnits.adjust(MinorUnits.toMinor(basePrice), percentage ? rate : 0,
+          percentage ? 0 : rate));
+    } catch (ArithmeticException e) {
+      BigDecimal adjustedPrice = percentage
+          ? basePrice.add(basePrice.multiply(adjustmentRate.divide(HUNDRED)))
+          : basePrice.add(adjustmentRate);
+      return adjustedPrice.setScale(2, RoundingMode.HALF_UP);
+    }
   }
 
   public BigDecimal calculateAdjustedPrice(BigDecimal basePrice, List<PeakSeasonRate> applicableRates) {
+    try {
+      long percents = 0;
+      long fixed = 0;
+      for (PeakSeasonRate rate : applicableRates) {
+        if (rate.getAdjustmentType() == AdjustmentType.PERCENTAGE) {
+          percents = Math.addExact(percents, MinorUnits.toMinor(rate.getAdjustmentRate()));
+        } else {
+          fixed = Math.addExact(fixed, MinorUnits.toMinor(rate.getAdjustmentRate()));
+        }
+      }
+      return MinorUnits.toDecimal(MinorUnits.adjust(MinorUnits.toMinor(basePrice), percents, fixed));
+    } catch (ArithmeticException e) {
+      return calculateAdjustedPriceExact(basePrice, applicableRates);
+    }
+  }
+
+  private BigDecimal calculateAdjustedPriceExact(BigDecimal basePrice, List<PeakSeasonRate> applicableRates) {
     BigDecimal totalAdjustment = BigDecimal.ZERO;
     for (PeakSeasonRate rate : applicableRates) {
-      if (rate.getAdjustmentType() == PeakSeasonRate.AdjustmentType.PERCENTAGE) {
-        BigDecimal percentageAdjustment = basePrice.multiply(rate.getAdjustmentRate().divide(BigDecimal.valueOf(100)));
+      if (rate.getAdjustmentType() == AdjustmentType.PERCENTAGE) {
+        BigDecimal percentageAdjustment = basePrice.multiply(rate.getAdjustmentRate().divide(HUNDRED));
         totalAdjustment = totalAdjustment.add(percentageAdjustment);
       } else {
         totalAdjustment = totalAdjustment.add(rate.getAdjustmentRate());
@@ -36,4 +69,4 @@ public class PeakSeasonRateCalculator {
     BigDecimal adjustedPrice = basePrice.add(totalAdjustment);
     return adjustedPrice.setScale(2, RoundingMode.HALF_UP);
   }
-}
\ No newline at end of file
+}
@@ -19,6 +19,8 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class PeakSeasonRateCreator {
   private final PeakSeasonRateRepository peakSeasonRateRepository;
+  private final PropertyViewCache propertyViewCache;
+  private final PropertyRateTimelineCache rateTimelineCache;
 
   /**
    * Creates a new PeakSeasonRate entity from the provided data.
@@ -41,7 +43,10 @@ public class PeakSeasonRateCreator {
     peakSeasonRate.setAdjustmentRate(requestDTO.getAdjustmentRate());
     peakSeasonRate.setAdjustmentType(requestDTO.getAdjustmentType());
     peakSeasonRate.setReason(requestDTO.getReason());
-    return peakSeasonRateRepository.save(peakSeasonRate);
+    PeakSeasonRate savedRate = peakSeasonRateRepository.save(peakSeasonRate);
+    propertyViewCache.evict(property.getId());
+    rateTimelineCache.invalidate(property.getId());
+    return savedRate;
   }
 
   public PeakSeasonRate updateRate(PeakSeasonRate existingRate, SetPeakSeasonRateRequestDTO requestDTO) {
@@ -61,7 +66,10 @@ public class PeakSeasonRateCreator {
         .orElse(existingRate.getReason()));
 
     log.info("Updated peak season rate with ID {}", existingRate.getId());
-    return peakSeasonRateRepository.save(existingRate);
+    PeakSeasonRate savedRate = peakSeasonRateRepository.save(existingRate);
+    propertyViewCache.evict(existingRate.getProperty().getId());
+    rateTimelineCache.invalidate(existingRate.getProperty().getId());
+    return savedRate;
   }
 
   private LocalDate validateUpdateDate(LocalDate existingStartDate, LocalDate requestedStartDate) {
@@ -0,0 +1,135 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import com.finalproject.stayease.exceptions.properties.PeakSeasonRateNotFoundException;
+import com.finalproject.stayease.property.entity.PeakSeasonRate;
+import com.finalproject.stayease.property.entity.Room;
+import com.finalproject.stayease.property.entity.RoomAvailability;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.DailyPriceDTO;
+import com.finalproject.stayease.property.repository.PeakSeasonRateRepository;
+import com.finalproject.stayease.property.repository.RoomAvailabilityRepository;
+import com.finalproject.stayease.property.repository.RoomRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds a property's price calendar for a range of nights. Rooms, blocked intervals and peak season rates are each
+ * loaded once for the whole range, then the nights are swept in order: blocked intervals become a bitmap per room and
+ * rates enter and leave an active set at their start and end, so every night is priced without another query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PropertyPriceCalendar {
+
+  private final RoomRepository roomRepository;
+  private final RoomAvailabilityRepository roomAvailabilityRepository;
+  private final PeakSeasonRateRepository peakSeasonRateRepository;
+  private final PeakSeasonRateCalculator calculator;
+
+  /**
+   * @return the lowest adjusted price of each night from startDate up to (excluding) endDate
+   */
+  public List<DailyPriceDTO> findDailyPrices(Long propertyId, LocalDate startDate, LocalDate endDate) {
+    int nights = (int) ChronoUnit.DAYS.between(startDate, endDate);
+    if (nights <= 0) {
+      return Collections.emptyList();
+    }
+    LocalDate lastNight = endDate.minusDays(1);
+
+    List<Room> rooms = roomRepository.findAllByPropertyIdOrderByBasePrice(propertyId);
+    Map<Long, BitSet> blockedNights = toBlockedNights(
+        roomAvailabilityRepository.findAllUnavailabilityByPropertyIdAndDateRange(propertyId, startDate, lastNight),
+        startDate, nights);
+    List<List<PeakSeasonRate>> ratesStarting = new ArrayList<>(nights + 1);
+    List<List<PeakSeasonRate>> ratesEnding = new ArrayList<>(nights + 1);
+    bucketRates(peakSeasonRateRepository.findRatesByPropertyOverlappingDateRange(propertyId, startDate, lastNight),
+        startDate, nights, ratesStarting, ratesEnding);
+
+    List<DailyPriceDTO> dailyPrices = new ArrayList<>(nights);
+    Set<PeakSeasonRate> activeRates = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (int night = 0; night < nights; night++) {
+      ratesEnding.get(night).forEach(activeRates::remove);
+      activeRates.addAll(ratesStarting.get(night));
+
+      Room lowestRoom = findLowestAvailableRoom(rooms, blockedNights, night);
+      BigDecimal basePrice = lowestRoom.getBasePrice();
+      BigDecimal lowestPrice = calculator.calculateAdjustedPrice(basePrice, new ArrayList<>(activeRates));
+      dailyPrices.add(new DailyPriceDTO(startDate.plusDays(night), lowestPrice, basePrice.compareTo(lowestPrice) != 0));
+    }
+    log.info("Built price calendar for property {} over {} nights from {} rooms", propertyId, nights, rooms.size());
+    return dailyPrices;
+  }
+
+  /**
+   * @return the running total of the lowest nightly prices, each entry keeps the adjustment flag of its own night
+   */
+  public List<DailyPriceDTO> findCumulativePrices(Long propertyId, LocalDate startDate, LocalDate endDate) {
+    List<DailyPriceDTO> dailyPrices = findDailyPrices(propertyId, startDate, endDate);
+    List<DailyPriceDTO> cumulativePrices = new ArrayList<>(dailyPrices.size());
+    BigDecimal runningTotal = BigDecimal.ZERO;
+    for (DailyPriceDTO dailyPrice : dailyPrices) {
+      runningTotal = runningTotal.add(dailyPrice.getLowestPrice());
+      cumulativePrices.add(new DailyPriceDTO(dailyPrice.getDate(), runningTotal, dailyPrice.isHasAdjustment()));
+    }
+    return cumulativePrices;
+  }
+
+  // Rooms are ordered by base price, so the first one that is free on the night is the cheapest
+  private Room findLowestAvailableRoom(List<Room> rooms, Map<Long, BitSet> blockedNights, int night) {
+    for (Room room : rooms) {
+      BitSet blocked = blockedNights.get(room.getId());
+      if (blocked == null || !blocked.get(night)) {
+        return room;
+      }
+    }
+    throw new PeakSeasonRateNotFoundException("No room rates found for this property");
+  }
+
+  // Unavailability end dates are stored as the last blocked night, so they are inclusive
+  private Map<Long, BitSet> toBlockedNights(List<RoomAvailability> unavailabilities, LocalDate startDate,
+      int nights) {
+    Map<Long, BitSet> blockedNights = new HashMap<>();
+    for (RoomAvailability unavailability : unavailabilities) {
+      int from = toNightIndex(startDate, unavailability.getStartDate(), nights);
+      int to = toNightIndex(startDate, unavailability.getEndDate().plusDays(1), nights);
+      if (from < to) {
+        blockedNights.computeIfAbsent(unavailability.getRoom().getId(), roomId -> new BitSet(nights))
+            .set(from, to);
+      }
+    }
+    return blockedNights;
+  }
+
+  private void bucketRates(List<PeakSeasonRate> rates, LocalDate startDate, int nights,
+      List<List<PeakSeasonRate>> ratesStarting, List<List<PeakSeasonRate>> ratesEnding) {
+    for (int night = 0; night <= nights; night++) {
+      ratesStarting.add(new ArrayList<>());
+      ratesEnding.add(new ArrayList<>());
+    }
+    for (PeakSeasonRate rate : rates) {
+      int from = toNightIndex(startDate, rate.getStartDate(), nights);
+      int to = toNightIndex(startDate, rate.getEndDate().plusDays(1), nights);
+      if (from < to) {
+        ratesStarting.get(from).add(rate);
+        ratesEnding.get(to).add(rate);
+      }
+    }
+  }
+
+  private int toNightIndex(LocalDate startDate, LocalDate date, int nights) {
+    long offset = ChronoUnit.DAYS.between(startDate, date);
+    return (int) Math.max(0, Math.min(offset, nights));
+  }
+}
@@ -1,15 +1,19 @@
 package com.finalproject.stayease.property.service.helpers;
 
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
 import com.finalproject.stayease.property.entity.PeakSeasonRate;
 import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
 import com.finalproject.stayease.property.entity.PropertyRateSetting;
-import com.finalproject.stayease.property.entity.dto.createRequests.SetPeakSeasonRateRequestDTO;
 import com.finalproject.stayease.property.service.PeakSeasonRateService;
+import com.finalproject.stayease.property.service.helpers.AutomaticRateWriter.NewRate;
+import com.finalproject.stayease.property.service.helpers.AutomaticRateWriter.RateUpdate;
 import com.finalproject.stayease.property.service.impl.HolidayService;
 import com.finalproject.stayease.property.service.impl.HolidayService.Holiday;
 import com.finalproject.stayease.property.service.impl.HolidayService.LongWeekend;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -22,8 +26,12 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class PropertyRateSettingsHelper {
 
+  private static final String HOLIDAY_REASON = "Automatic - Holiday";
+  private static final String LONG_WEEKEND_REASON = "Automatic - Long Weekend";
+
   private final PeakSeasonRateService peakSeasonRateService;
   private final HolidayService holidayService;
+  private final AutomaticRateWriter rateWriter;
 
   public List<PeakSeasonRate> findAutomaticRatesByPropertyAndDateRange(Long propertyId, LocalDate startDate,
       LocalDate endDate) {
@@ -33,14 +41,20 @@ public class PropertyRateSettingsHelper {
 
   public void handleDeactivation(List<PeakSeasonRate> existingAutoRates) {
     if (existingAutoRates != null && !existingAutoRates.isEmpty()) {
-      for (PeakSeasonRate rate : existingAutoRates) {
-        peakSeasonRateService.removePeakSeasonRate(rate.getId());
-      }
+      existingAutoRates.stream()
+          .collect(Collectors.groupingBy(rate -> rate.getProperty().getId(),
+              Collectors.mapping(PeakSeasonRate::getId, Collectors.toList())))
+          .forEach((propertyId, rateIds) -> rateWriter.apply(propertyId, List.of(), List.of(), rateIds));
     }
   }
 
+  /**
+   * Brings the automatic rates of a property in line with the holidays and long weekends of the range. The target
+   * rates are diffed against the existing ones in memory and the difference is written in batches.
+   */
   public void handleAutoRatesApplication(PropertyRateSetting setting, LocalDate startDate,
       LocalDate endDate, List<PeakSeasonRate> existingAutoRates) {
+    Long propertyId = setting.getProperty().getId();
 
     Map<LocalDate, List<PeakSeasonRate>> existingAutoRatesMap = existingAutoRates.stream()
         .collect(Collectors.groupingBy(PeakSeasonRate::getStartDate));
@@ -50,99 +64,93 @@ public class PropertyRateSettingsHelper {
     List<Holiday> holidays = holidayService.getHolidaysInDateRange(startDate, endDate);
     List<LongWeekend> longWeekends = holidayService.getLongWeekendsInDateRange(startDate, endDate);
 
-    setHolidaysRate(setting, holidays, existingAutoRatesMap);
-    setLongWeekendsRate(setting, longWeekends, existingAutoRatesMap);
-    deactivateNonHolidayAndNonLongWeekendRates(setting, startDate, endDate, existingAutoRatesMap);
+    // Keyed by start date and reason, the same way existing rates are matched
+    Map<String, NewRate> targetRates = new LinkedHashMap<>();
+    addHolidayRates(setting, holidays, targetRates);
+    addLongWeekendRates(setting, longWeekends, targetRates);
+
+    List<NewRate> inserts = new ArrayList<>();
+    List<RateUpdate> updates = new ArrayList<>();
+    for (NewRate targetRate : targetRates.values()) {
+      PeakSeasonRate existingRate = findExistingRateByReason(existingAutoRatesMap.get(targetRate.startDate()),
+          targetRate.reason());
+      if (existingRate == null) {
+        inserts.add(targetRate);
+      } else if (rateChanged(existingRate, targetRate)) {
+        updates.add(new RateUpdate(existingRate.getId(), targetRate.endDate(), targetRate.adjustmentRate(),
+            targetRate.adjustmentType()));
+      }
+    }
+    List<Long> deletes = findNonHolidayAndNonLongWeekendRates(propertyId, existingAutoRatesMap);
+
+    rateWriter.apply(propertyId, inserts, updates, deletes);
   }
 
-  private void setHolidaysRate(PropertyRateSetting setting, List<Holiday> holidays, Map<LocalDate,
-      List<PeakSeasonRate>> existingAutoRatesMap) {
+  private void addHolidayRates(PropertyRateSetting setting, List<Holiday> holidays,
+      Map<String, NewRate> targetRates) {
     Long propertyId = setting.getProperty().getId();
     if (setting.getHolidayAdjustmentRate() != null && setting.getHolidayAdjustmentType() != null) {
+      validateAdjustment(setting.getHolidayAdjustmentRate(), setting.getHolidayAdjustmentType());
       for (Holiday holiday : holidays) {
         LocalDate date = holiday.getDate();
-        log.info("Setting holiday rate for property ID: {} on date: {}", propertyId, date);
-        setOrUpdateAutomaticRate(propertyId, date, date, setting.getHolidayAdjustmentRate(),
-            setting.getHolidayAdjustmentType(), "Automatic - Holiday", existingAutoRatesMap.get(date));
+        targetRates.putIfAbsent(date + HOLIDAY_REASON, new NewRate(date, date, setting.getHolidayAdjustmentRate(),
+            setting.getHolidayAdjustmentType(), HOLIDAY_REASON));
       }
     } else {
       log.info("Skipping holiday rate setting for property ID: {} as rate or type is null", propertyId);
     }
   }
 
-  private void setLongWeekendsRate(PropertyRateSetting setting, List<LongWeekend> longWeekends, Map<LocalDate,
-      List<PeakSeasonRate>> existingAutoRatesMap) {
+  private void addLongWeekendRates(PropertyRateSetting setting, List<LongWeekend> longWeekends,
+      Map<String, NewRate> targetRates) {
     Long propertyId = setting.getProperty().getId();
     if (setting.getLongWeekendAdjustmentRate() != null && setting.getLongWeekendAdjustmentType() != null) {
+      validateAdjustment(setting.getLongWeekendAdjustmentRate(), setting.getLongWeekendAdjustmentType());
       for (LongWeekend longWeekend : longWeekends) {
         LocalDate longWeekendStartDate = longWeekend.getStartDate();
-        LocalDate longWeekendEndDate = longWeekend.getEndDate();
-        log.info("Setting long weekend rate for property ID: {} on date: {}", propertyId, longWeekendStartDate);
-        setOrUpdateAutomaticRate(propertyId, longWeekendStartDate, longWeekendEndDate,
-            setting.getLongWeekendAdjustmentRate(),
-            setting.getLongWeekendAdjustmentType(), "Automatic - Long Weekend", existingAutoRatesMap.get(
-                longWeekendStartDate));
+        targetRates.putIfAbsent(longWeekendStartDate + LONG_WEEKEND_REASON, new NewRate(longWeekendStartDate,
+            longWeekend.getEndDate(), setting.getLongWeekendAdjustmentRate(),
+            setting.getLongWeekendAdjustmentType(), LONG_WEEKEND_REASON));
       }
     } else {
       log.info("Skipping long weekend rate setting for property ID: {} as rate or type is null", propertyId);
     }
   }
 
-  private void deactivateNonHolidayAndNonLongWeekendRates(PropertyRateSetting setting, LocalDate startDate,
-      LocalDate endDate, Map<LocalDate, List<PeakSeasonRate>> existingAutoRatesMap) {
-    Long propertyId = setting.getProperty().getId();
-    for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+  private List<Long> findNonHolidayAndNonLongWeekendRates(Long propertyId,
+      Map<LocalDate, List<PeakSeasonRate>> existingAutoRatesMap) {
+    List<Long> rateIds = new ArrayList<>();
+    existingAutoRatesMap.forEach((date, rates) -> {
       // If the date is neither a holiday nor a long weekend, deactivate rates
-      if (!holidayService.isHoliday(date) && !holidayService.isLongWeekend(date) && existingAutoRatesMap.containsKey(date)) {
+      if (!holidayService.isHoliday(date) && !holidayService.isLongWeekend(date)) {
         log.info("Not a holiday or long weekend, removing existing auto rates for property ID: {} on date: {}",
             propertyId, date);
-        handleDeactivation(existingAutoRatesMap.get(date));
+        rates.forEach(rate -> rateIds.add(rate.getId()));
       }
-    }
+    });
+    return rateIds;
   }
 
-  private void setOrUpdateAutomaticRate(Long propertyId, LocalDate startDate,
-      LocalDate endDate, BigDecimal adjustmentRate,
-      AdjustmentType adjustmentType, String reason, List<PeakSeasonRate> existingAutoRates) {
-    if (adjustmentRate == null || adjustmentType == null) {
-      log.info("Skipping rate setting for property ID: {} as rate or type is null", propertyId);
-      return;
+  private void validateAdjustment(BigDecimal adjustmentRate, AdjustmentType adjustmentType) {
+    if (AdjustmentType.PERCENTAGE.equals(adjustmentType) && adjustmentRate.compareTo(BigDecimal.valueOf(100)) > 0) {
+      throw new InvalidRequestException("Adjustment rate cannot exceed 100% for percentage-based adjustments.");
     }
-    if (existingAutoRates == null || existingAutoRates.isEmpty()) {
-      createNewRate(propertyId, new SetPeakSeasonRateRequestDTO(startDate, endDate, adjustmentRate,
-          adjustmentType, reason));
-    } else {
-      PeakSeasonRate existingRate = findExistingRateByReason(existingAutoRates, reason);
-      if (existingRate == null) {
-        createNewRate(propertyId, new SetPeakSeasonRateRequestDTO(startDate, endDate, adjustmentRate,
-            adjustmentType, reason));
-      } else if (rateOrTypeChanged(existingRate, adjustmentRate, adjustmentType)) {
-        updateExistingRate(existingRate, adjustmentRate, adjustmentType);
-      }
-    }
-  }
-
-  private void createNewRate(Long propertyId, SetPeakSeasonRateRequestDTO requestDTO) {
-    peakSeasonRateService.setPeakSeasonRate(propertyId, requestDTO);
-  }
-
-  private void updateExistingRate(PeakSeasonRate existingRate, BigDecimal adjustmentRate,
-      AdjustmentType adjustmentType) {
-    peakSeasonRateService.updatePeakSeasonRate(existingRate, adjustmentRate, adjustmentType);
   }
 
   private PeakSeasonRate findExistingRateByReason(List<PeakSeasonRate> existingAutoRates, String reason) {
+    if (existingAutoRates == null) {
+      return null;
+    }
     return existingAutoRates.stream()
         .filter(rate -> rate.getReason().equals(reason))
         .findFirst()
         .orElse(null);
   }
 
-  private boolean rateOrTypeChanged(PeakSeasonRate existingRate, BigDecimal adjustmentRate,
-      AdjustmentType adjustmentType) {
-    return !existingRate.getAdjustmentRate().equals(adjustmentRate)
-           || !existingRate.getAdjustmentType().equals(adjustmentType);
+  private boolean rateChanged(PeakSeasonRate existingRate, NewRate targetRate) {
+    return existingRate.getAdjustmentRate().compareTo(targetRate.adjustmentRate()) != 0
+           || !existingRate.getAdjustmentType().equals(targetRate.adjustmentType())
+           || !existingRate.getEndDate().equals(targetRate.endDate());
   }
 
-
 }
@@ -0,0 +1,121 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import com.finalproject.stayease.property.entity.PeakSeasonRate;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * The peak season rates of one property as a sorted interval index. The first and last day of every rate split the
+ * calendar into segments, each holding the rates that cover it ordered by validFrom, so the stack of rates on a date is
+ * one binary search over the segment boundaries and one over the segment. Rates are copied when the timeline is built,
+ * it is immutable and can be shared between threads.
+ */
+public final class PropertyRateTimeline {
+
+  private static final Comparator<PeakSeasonRate> BY_VALID_FROM = Comparator
+      .comparing(PeakSeasonRate::getValidFrom, Comparator.nullsLast(Comparator.naturalOrder()))
+      .thenComparing(PeakSeasonRate::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+  private static final PropertyRateTimeline EMPTY = new PropertyRateTimeline(new long[0], List.of(), 0);
+
+  // boundaries[i] is the first epoch day of segments[i], the last boundary only closes the last segment
+  private final long[] boundaries;
+  private final List<List<PeakSeasonRate>> segments;
+  private final int rateCount;
+
+  private PropertyRateTimeline(long[] boundaries, List<List<PeakSeasonRate>> segments, int rateCount) {
+    this.boundaries = boundaries;
+    this.segments = segments;
+    this.rateCount = rateCount;
+  }
+
+  public static PropertyRateTimeline of(Collection<PeakSeasonRate> rates) {
+    if (rates.isEmpty()) {
+      return EMPTY;
+    }
+    List<PeakSeasonRate> sortedRates = rates.stream()
+        .map(PropertyRateTimeline::copy)
+        .sorted(BY_VALID_FROM)
+        .toList();
+
+    TreeSet<Long> points = new TreeSet<>();
+    for (PeakSeasonRate rate : sortedRates) {
+      points.add(rate.getStartDate().toEpochDay());
+      points.add(rate.getEndDate().toEpochDay() + 1);
+    }
+    long[] boundaries = points.stream().mapToLong(Long::longValue).toArray();
+
+    List<List<PeakSeasonRate>> segments = new ArrayList<>(boundaries.length - 1);
+    for (int i = 0; i < boundaries.length - 1; i++) {
+      segments.add(new ArrayList<>());
+    }
+    // Added in validFrom order, so every segment ends up sorted as well
+    for (PeakSeasonRate rate : sortedRates) {
+      int from = Arrays.binarySearch(boundaries, rate.getStartDate().toEpochDay());
+      int to = Arrays.binarySearch(boundaries, rate.getEndDate().toEpochDay() + 1);
+      for (int segment = from; segment < to; segment++) {
+        segments.get(segment).add(rate);
+      }
+    }
+    return new PropertyRateTimeline(boundaries, segments.stream().map(List::copyOf).toList(), sortedRates.size());
+  }
+
+  public static PropertyRateTimeline empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @return the rates covering the date that were already valid at the booking time, ordered by validFrom
+   */
+  public List<PeakSeasonRate> ratesOn(LocalDate date, Instant bookingTime) {
+    int segment = segmentOf(date.toEpochDay());
+    if (segment < 0) {
+      return List.of();
+    }
+    List<PeakSeasonRate> rates = segments.get(segment);
+    // The rates valid at the booking time are a prefix of the segment
+    int low = 0;
+    int high = rates.size();
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      Instant validFrom = rates.get(middle).getValidFrom();
+      if (validFrom != null && !validFrom.isAfter(bookingTime)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return rates.subList(0, low);
+  }
+
+  public int size() {
+    return rateCount;
+  }
+
+  private int segmentOf(long epochDay) {
+    int index = Arrays.binarySearch(boundaries, epochDay);
+    if (index < 0) {
+      index = -index - 2;
+    }
+    return index >= 0 && index < segments.size() ? index : -1;
+  }
+
+  private static PeakSeasonRate copy(PeakSeasonRate rate) {
+    PeakSeasonRate copy = new PeakSeasonRate();
+    copy.setId(rate.getId());
+    copy.setStartDate(rate.getStartDate());
+    copy.setEndDate(rate.getEndDate());
+    copy.setAdjustmentRate(rate.getAdjustmentRate());
+    copy.setAdjustmentType(rate.getAdjustmentType());
+    copy.setReason(rate.getReason());
+    copy.setValidFrom(rate.getValidFrom());
+    copy.setUpdatedAt(rate.getUpdatedAt());
+    return copy;
+  }
+}
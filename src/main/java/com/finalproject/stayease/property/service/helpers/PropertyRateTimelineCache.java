@@ -0,0 +1,157 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import com.finalproject.stayease.property.entity.PeakSeasonRate;
+import com.finalproject.stayease.property.repository.PeakSeasonRateRepository;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Bounded LRU cache of {@link PropertyRateTimeline}s. A timeline is loaded on first use with the property's current
+ * rates; missing timelines of a batch are loaded with a single query. Rate writes call {@link #invalidate(Long)}, which
+ * drops the timeline after the transaction commits and publishes the property id so every instance drops it too.
+ * Entries also expire after a while, which rolls the loaded date window forward.
+ */
+@Component
+@Slf4j
+public class PropertyRateTimelineCache {
+
+  private static final String INVALIDATION_CHANNEL = "stayease:rate-timeline:invalidations";
+
+  private final PeakSeasonRateRepository peakSeasonRateRepository;
+  private final StringRedisTemplate redisTemplate;
+  private final Duration ttl;
+
+  private final Map<Long, CachedTimeline> timelines;
+  // Bumped on every invalidation so a load that started before it does not put a stale timeline back
+  private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+  public PropertyRateTimelineCache(PeakSeasonRateRepository peakSeasonRateRepository,
+      StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer,
+      @Value("${rate-timeline.max-entries:5000}") int maxEntries,
+      @Value("${rate-timeline.ttl-minutes:30}") long ttlMinutes) {
+    this.peakSeasonRateRepository = peakSeasonRateRepository;
+    this.redisTemplate = redisTemplate;
+    this.ttl = Duration.ofMinutes(ttlMinutes);
+    this.timelines = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, CachedTimeline> eldest) {
+        return size() > maxEntries;
+      }
+    };
+
+    listenerContainer.addMessageListener(
+        (message, pattern) -> invalidateLocal(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8))),
+        new ChannelTopic(INVALIDATION_CHANNEL));
+  }
+
+  public PropertyRateTimeline getTimeline(Long propertyId) {
+    return getTimelines(List.of(propertyId)).get(propertyId);
+  }
+
+  /**
+   * @return the timeline of every given property, properties without rates get an empty one
+   */
+  public Map<Long, PropertyRateTimeline> getTimelines(Collection<Long> propertyIds) {
+    Map<Long, PropertyRateTimeline> result = new HashMap<>();
+    Map<Long, Long> missing = new HashMap<>();
+    Instant now = Instant.now();
+    synchronized (timelines) {
+      for (Long propertyId : propertyIds) {
+        CachedTimeline cached = timelines.get(propertyId);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+          result.put(propertyId, cached.timeline());
+        } else {
+          missing.put(propertyId, generations.getOrDefault(propertyId, 0L));
+        }
+      }
+    }
+    if (missing.isEmpty()) {
+      return result;
+    }
+
+    // A day of margin so a rate ending today is kept whatever the time zone of the caller
+    Map<Long, List<PeakSeasonRate>> ratesByProperty = peakSeasonRateRepository
+        .findActiveRatesByPropertyIds(missing.keySet(), LocalDate.now().minusDays(1))
+        .stream()
+        .collect(Collectors.groupingBy(rate -> rate.getProperty().getId()));
+
+    Map<Long, PropertyRateTimeline> loaded = new HashMap<>();
+    missing.keySet().forEach(propertyId -> loaded.put(propertyId,
+        PropertyRateTimeline.of(ratesByProperty.getOrDefault(propertyId, List.of()))));
+    result.putAll(loaded);
+
+    Instant expiresAt = now.plus(ttl);
+    synchronized (timelines) {
+      loaded.forEach((propertyId, timeline) -> {
+        if (generations.getOrDefault(propertyId, 0L).equals(missing.get(propertyId))) {
+          timelines.put(propertyId, new CachedTimeline(timeline, expiresAt));
+        }
+      });
+    }
+    log.debug("Loaded rate timelines of {} properties", loaded.size());
+    return result;
+  }
+
+  /**
+   * Drops the timeline of the property once the current transaction commits, on this and every other instance.
+   */
+  public void invalidate(Long propertyId) {
+    runAfterCommit(() -> {
+      invalidateLocal(propertyId);
+      try {
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, String.valueOf(propertyId));
+      } catch (DataAccessException e) {
+        log.warn("Could not publish rate timeline invalidation of property {}: {}", propertyId, e.getMessage());
+      }
+    });
+  }
+
+  public int size() {
+    synchronized (timelines) {
+      return timelines.size();
+    }
+  }
+
+  private void invalidateLocal(Long propertyId) {
+    synchronized (timelines) {
+      generations.merge(propertyId, 1L, Long::sum);
+      timelines.remove(propertyId);
+    }
+  }
+
+  private void runAfterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private record CachedTimeline(PropertyRateTimeline timeline, Instant expiresAt) {
+
+  }
+}
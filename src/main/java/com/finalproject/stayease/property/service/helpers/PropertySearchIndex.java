@@ -0,0 +1,96 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains one search document per property in {@code property_search_document}: the name, address, city, country,
+ * category and business name as plain text under a trigram GIN index, and as a weighted {@code tsvector} under a
+ * full-text GIN index. The listing search matches and ranks against this table instead of scanning six columns with
+ * {@code LIKE '%term%'}.
+ * <p>
+ * Fields are kept apart so a match never spans two of them: the text joins them with a control character no search
+ * term contains, and the {@code tsvector} leaves a gap in the positions between them so a phrase cannot run from one
+ * field into the next.
+ * <p>
+ * A property's document is written in the same transaction as the property. Changes that do not go through a property
+ * write, such as a renamed business, are picked up by {@link #refreshStale()}, which rewrites every document older
+ * than its property, category or tenant row and runs on startup and from {@code PropertySearchIndexRefreshService}.
+ * The table and its indexes come from the {@code V2__property_search_document} migration.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PropertySearchIndex {
+
+  // A lexeme the parser never produces, deleted again once the fields are joined so only the gap it took is left
+  private static final String FIELD_BREAK = "CAST(''' '':1' AS tsvector)";
+
+  // Name weighs most, then what the property is and who runs it, then where it is
+  private static final String UPSERT_SQL = """
+      INSERT INTO property_search_document (property_id, document, search_vector, updated_at)
+      SELECT p.id,
+             LOWER(CONCAT_WS(CHR(31), p.name, p.address, p.city, p.country, pc.name, ti.business_name)),
+             TS_DELETE(
+               SETWEIGHT(TO_TSVECTOR('simple', COALESCE(p.name, '')), 'A') || %1$s
+                 || SETWEIGHT(TO_TSVECTOR('simple', COALESCE(pc.name, '')), 'B') || %1$s
+                 || SETWEIGHT(TO_TSVECTOR('simple', COALESCE(ti.business_name, '')), 'B') || %1$s
+                 || SETWEIGHT(TO_TSVECTOR('simple', COALESCE(p.address, '')), 'C') || %1$s
+                 || SETWEIGHT(TO_TSVECTOR('simple', COALESCE(p.city, '')), 'C') || %1$s
+                 || SETWEIGHT(TO_TSVECTOR('simple', COALESCE(p.country, '')), 'C'),
+               ' '),
+             NOW()
+      FROM property p
+      JOIN property_categories pc ON pc.id = p.category_id
+      JOIN tenant_info ti ON ti.user_id = p.tenant_id
+      WHERE %2$s
+      ON CONFLICT (property_id) DO UPDATE
+      SET document = EXCLUDED.document, search_vector = EXCLUDED.search_vector, updated_at = EXCLUDED.updated_at
+      """;
+
+  private static final String BY_PROPERTY = UPSERT_SQL.formatted(FIELD_BREAK, "p.id = ?");
+
+  private static final String STALE = UPSERT_SQL.formatted(FIELD_BREAK, """
+      NOT EXISTS (
+        SELECT 1
+        FROM property_search_document d
+        WHERE d.property_id = p.id
+        AND d.updated_at >= COALESCE(p.updated_at, '-infinity')
+        AND d.updated_at >= COALESCE(pc.updated_at, '-infinity')
+        AND d.updated_at >= COALESCE(ti.updated_at, '-infinity')
+      )""");
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    try {
+      refreshStale();
+    } catch (DataAccessException e) {
+      log.error("Could not refresh the property search index: {}", e.getMessage());
+    }
+  }
+
+  /**
+   * Rewrites the search document of the property in the current transaction, so it commits or rolls back together
+   * with the property. The property must be flushed first.
+   */
+  public void refresh(Long propertyId) {
+    jdbcTemplate.update(BY_PROPERTY, propertyId);
+  }
+
+  /**
+   * Writes the documents that are missing or older than the rows they are built from.
+   * @return The number of documents written
+   */
+  public int refreshStale() {
+    int refreshed = jdbcTemplate.update(STALE);
+    log.info("Property search index refreshed: {} documents written", refreshed);
+    return refreshed;
+  }
+}
@@ -0,0 +1,263 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finalproject.stayease.property.entity.dto.PropertyCurrentDTO;
+import com.finalproject.stayease.property.entity.dto.RoomDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyAvailableOnDateDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Two-level cache for the public property views: property detail, its rooms and its availability on a date. A small
+ * in-process LRU near cache sits in front of Redis, where every view of a property is a field of one hash so the whole
+ * property can be dropped with a single delete.
+ * <p>
+ * Writes call {@link #evict(Long)}, which runs after the surrounding transaction commits, deletes the Redis hash and
+ * publishes the property id so every instance drops its near entries too. Hits, misses and evictions are exported as
+ * {@code property.view.cache.*} meters.
+ * <p>
+ * The availability view is cached as the database sees it, the rooms held by checkouts in {@link RoomHoldStore} are
+ * taken out of it each time it is served.
+ */
+@Component
+@Slf4j
+public class PropertyViewCache {
+
+  private static final String KEY_PREFIX = "stayease:property-view:";
+  private static final String EVICTION_CHANNEL = "stayease:property-view:evictions";
+  private static final String DETAIL_VIEW = "detail";
+  private static final String ROOMS_VIEW = "rooms";
+  private static final String AVAILABLE_VIEW_PREFIX = "available:";
+
+  private final StringRedisTemplate redisTemplate;
+  private final RoomHoldStore roomHoldStore;
+  private final HashOperations<String, String, String> hashOperations;
+  private final ObjectMapper objectMapper;
+  private final Duration nearTtl;
+  private final Duration redisTtl;
+
+  private final Map<String, NearEntry> nearEntries;
+  // Bumped on every eviction so a load that started before it does not put a stale view back
+  private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+  private final Counter nearHits;
+  private final Counter redisHits;
+  private final Counter misses;
+  private final Counter sizeEvictions;
+  private final Counter expiredEvictions;
+  private final Counter invalidations;
+
+  public PropertyViewCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+      RedisMessageListenerContainer listenerContainer, MeterRegistry meterRegistry, RoomHoldStore roomHoldStore,
+      @Value("${property-cache.near.max-entries:1000}") int nearMaxEntries,
+      @Value("${property-cache.near.ttl-seconds:30}") long nearTtlSeconds,
+      @Value("${property-cache.redis.ttl-minutes:10}") long redisTtlMinutes) {
+    this.redisTemplate = redisTemplate;
+    this.roomHoldStore = roomHoldStore;
+    this.hashOperations = redisTemplate.opsForHash();
+    this.objectMapper = objectMapper;
+    this.nearTtl = Duration.ofSeconds(nearTtlSeconds);
+    this.redisTtl = Duration.ofMinutes(redisTtlMinutes);
+
+    this.nearHits = requestCounter(meterRegistry, "near-hit");
+    this.redisHits = requestCounter(meterRegistry, "redis-hit");
+    this.misses = requestCounter(meterRegistry, "miss");
+    this.sizeEvictions = evictionCounter(meterRegistry, "size");
+    this.expiredEvictions = evictionCounter(meterRegistry, "expired");
+    this.invalidations = evictionCounter(meterRegistry, "invalidated");
+
+    this.nearEntries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, NearEntry> eldest) {
+        boolean full = size() > nearMaxEntries;
+        if (full) {
+          sizeEvictions.increment();
+        }
+        return full;
+      }
+    };
+    Gauge.builder("property.view.cache.near.size", this, PropertyViewCache::nearSize).register(meterRegistry);
+
+    listenerContainer.addMessageListener(
+        (message, pattern) -> evictNear(Long.valueOf(new String(message.getBody(), StandardCharsets.UTF_8))),
+        new ChannelTopic(EVICTION_CHANNEL));
+  }
+
+  // Region - views
+
+  public PropertyCurrentDTO getPropertyCurrent(Long propertyId, Supplier<PropertyCurrentDTO> loader) {
+    return get(propertyId, DETAIL_VIEW, objectMapper.constructType(PropertyCurrentDTO.class), loader);
+  }
+
+  public List<RoomDTO> getRooms(Long propertyId, Supplier<List<RoomDTO>> loader) {
+    return get(propertyId, ROOMS_VIEW,
+        objectMapper.getTypeFactory().constructCollectionType(List.class, RoomDTO.class), loader);
+  }
+
+  public PropertyAvailableOnDateDTO getAvailableOnDate(Long propertyId, LocalDate date,
+      Supplier<PropertyAvailableOnDateDTO> loader) {
+    // Past dates are rejected by the loader, a view cached yesterday must not hide that
+    if (date.isBefore(LocalDate.now())) {
+      return loader.get();
+    }
+    PropertyAvailableOnDateDTO view = get(propertyId, AVAILABLE_VIEW_PREFIX + date,
+        objectMapper.constructType(PropertyAvailableOnDateDTO.class), loader);
+    // Checkout holds come and go with no write to evict on, so they are applied to the view on every read instead
+    return view.withRoomsUnavailable(roomHoldStore.findHeldRoomIds(date, date.plusDays(1)));
+  }
+
+  // Region - invalidation
+
+  /**
+   * Drops every cached view of the property once the current transaction commits, on this and every other instance.
+   */
+  public void evict(Long propertyId) {
+    runAfterCommit(() -> {
+      evictNear(propertyId);
+      try {
+        redisTemplate.delete(KEY_PREFIX + propertyId);
+        redisTemplate.convertAndSend(EVICTION_CHANNEL, String.valueOf(propertyId));
+      } catch (DataAccessException e) {
+        log.warn("Could not evict cached views of property {} from Redis: {}", propertyId, e.getMessage());
+      }
+    });
+  }
+
+  private void evictNear(Long propertyId) {
+    generations.merge(propertyId, 1L, Long::sum);
+    String prefix = propertyId + ":";
+    synchronized (nearEntries) {
+      if (nearEntries.keySet().removeIf(key -> key.startsWith(prefix))) {
+        invalidations.increment();
+      }
+    }
+  }
+
+  // Region - lookup
+
+  private <T> T get(Long propertyId, String view, JavaType type, Supplier<T> loader) {
+    String nearKey = propertyId + ":" + view;
+    T nearValue = getNear(nearKey);
+    if (nearValue != null) {
+      nearHits.increment();
+      return nearValue;
+    }
+
+    long generation = generations.getOrDefault(propertyId, 0L);
+    String redisKey = KEY_PREFIX + propertyId;
+    T redisValue = getRedis(redisKey, view, type);
+    if (redisValue != null) {
+      redisHits.increment();
+      putNear(propertyId, generation, nearKey, redisValue);
+      return redisValue;
+    }
+
+    misses.increment();
+    T value = loader.get();
+    if (generations.getOrDefault(propertyId, 0L) == generation) {
+      putNear(propertyId, generation, nearKey, value);
+      putRedis(redisKey, view, value);
+    }
+    return value;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T getNear(String nearKey) {
+    synchronized (nearEntries) {
+      NearEntry entry = nearEntries.get(nearKey);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAt().isBefore(Instant.now())) {
+        nearEntries.remove(nearKey);
+        expiredEvictions.increment();
+        return null;
+      }
+      return (T) entry.value();
+    }
+  }
+
+  private void putNear(Long propertyId, long generation, String nearKey, Object value) {
+    synchronized (nearEntries) {
+      if (generations.getOrDefault(propertyId, 0L) == generation) {
+        nearEntries.put(nearKey, new NearEntry(value, Instant.now().plus(nearTtl)));
+      }
+    }
+  }
+
+  private <T> T getRedis(String redisKey, String view, JavaType type) {
+    try {
+      String json = hashOperations.get(redisKey, view);
+      return json != null ? objectMapper.readValue(json, type) : null;
+    } catch (DataAccessException | JsonProcessingException e) {
+      log.warn("Could not read cached view {} of {}: {}", view, redisKey, e.getMessage());
+      return null;
+    }
+  }
+
+  // The TTL is only set when the hash is created, so adding views does not keep the older ones alive
+  private void putRedis(String redisKey, String view, Object value) {
+    try {
+      hashOperations.put(redisKey, view, objectMapper.writeValueAsString(value));
+      Long ttl = redisTemplate.getExpire(redisKey);
+      if (ttl == null || ttl < 0) {
+        redisTemplate.expire(redisKey, redisTtl);
+      }
+    } catch (DataAccessException | JsonProcessingException e) {
+      log.warn("Could not cache view {} of {}: {}", view, redisKey, e.getMessage());
+    }
+  }
+
+  private void runAfterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  private int nearSize() {
+    synchronized (nearEntries) {
+      return nearEntries.size();
+    }
+  }
+
+  private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+    return Counter.builder("property.view.cache.requests").tag("result", result).register(meterRegistry);
+  }
+
+  private static Counter evictionCounter(MeterRegistry meterRegistry, String cause) {
+    return Counter.builder("property.view.cache.evictions").tag("cause", cause).register(meterRegistry);
+  }
+
+  private record NearEntry(Object value, Instant expiresAt) {
+
+  }
+}
@@ -0,0 +1,70 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import java.sql.SQLException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets the database reject overlapping room holds. Every live unavailability row gets its nights as a {@code daterange}
+ * in the generated {@code stay} column, and a GiST exclusion constraint forbids two such rows for the same room from
+ * overlapping. Two checkouts racing for the same room-night both insert, and the second insert fails atomically with
+ * no pre-check query and no lock taken.
+ * <p>
+ * The column and constraint come from the {@code V1__room_availability_no_overlap} migration, which skips the
+ * constraint while overlapping rows exist. Until the constraint is confirmed present on startup, {@link #isEnforced()}
+ * is false and writers look for an overlap themselves before inserting.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomAvailabilityConstraint {
+
+  private static final String CONSTRAINT_NAME = "room_availability_no_overlap";
+  private static final String EXCLUSION_VIOLATION = "23P01";
+
+  private static final String EXISTS_SQL = """
+      SELECT EXISTS (
+        SELECT 1 FROM pg_constraint WHERE conname = '%s' AND conrelid = 'room_availability'::regclass
+      )
+      """.formatted(CONSTRAINT_NAME);
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private volatile boolean enforced;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    try {
+      enforced = Boolean.TRUE.equals(jdbcTemplate.queryForObject(EXISTS_SQL, Boolean.class));
+    } catch (DataAccessException e) {
+      log.error("Could not check for the room availability overlap constraint: {}", e.getMessage());
+    }
+    if (!enforced) {
+      log.error("Room availability overlap constraint is missing, overlaps are checked before each insert instead");
+    }
+  }
+
+  /**
+   * @return whether the database is confirmed to reject overlapping holds by itself
+   */
+  public boolean isEnforced() {
+    return enforced;
+  }
+
+  /**
+   * @return whether the exception, or one of its causes, is a hold rejected by the overlap constraint
+   */
+  public static boolean isOverlap(Throwable exception) {
+    for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
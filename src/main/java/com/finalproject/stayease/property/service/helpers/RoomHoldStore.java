@@ -0,0 +1,293 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Short-lived checkout holds on room nights, kept in Redis so an abandoned checkout expires without touching the
+ * database. Each held night is a key owned by the booking, written with a TTL by a Lua script that first checks that
+ * no other booking owns any of the nights, so two checkouts cannot both hold the same room-night. A hold becomes a
+ * durable {@code RoomAvailability} row once its payment settles, see {@code RoomAvailabilityService.confirmHold}.
+ * <p>
+ * Every held room-night is also a member of one sorted set scored by the night, so availability search finds the held
+ * rooms of a date range with a single range query, however long the range is. A member stays in the set until its
+ * hold is released, a search finds its hold expired, or its night is in the past. The scripts derive the hold key from
+ * the member, which assumes a single Redis node rather than a cluster.
+ */
+@Component
+@Slf4j
+public class RoomHoldStore {
+
+  private static final String HOLD_PREFIX = "stayease:room-hold:";
+  private static final String NIGHTS_KEY = "stayease:room-holds-by-night";
+  private static final String BOOKING_PREFIX = "stayease:room-holds-booking:";
+
+  // KEYS: the hold key of every room-night, then the night set, then the booking's own set
+  // ARGV: booking id, TTL in milliseconds, the first night still to keep in the night set, then the member and night of
+  // every room-night
+  private static final RedisScript<Long> HOLD = new DefaultRedisScript<>("""
+      local entries = #KEYS - 2
+      for i = 1, entries do
+        local owner = redis.call('GET', KEYS[i])
+        if owner and owner ~= ARGV[1] then
+          return 0
+        end
+      end
+      local nights = KEYS[entries + 1]
+      local booking = KEYS[entries + 2]
+      redis.call('ZREMRANGEBYSCORE', nights, '-inf', '(' .. ARGV[3])
+      for i = 1, entries do
+        local member = ARGV[2 + i * 2]
+        redis.call('SET', KEYS[i], ARGV[1], 'PX', ARGV[2])
+        redis.call('ZADD', nights, ARGV[3 + i * 2], member)
+        redis.call('SADD', booking, KEYS[i] .. '|' .. member)
+      end
+      redis.call('PEXPIRE', booking, ARGV[2])
+      return 1
+      """, Long.class);
+
+  // KEYS: the hold key of every room-night, then the night set, then the booking's own set
+  // ARGV: booking id, TTL in milliseconds, then the member and night of every room-night
+  // Renews the nights, and puts them back in the night set, only if the booking still owns every one of them.
+  private static final RedisScript<Long> RENEW = new DefaultRedisScript<>("""
+      local entries = #KEYS - 2
+      local expired = false
+      for i = 1, entries do
+        local owner = redis.call('GET', KEYS[i])
+        if not owner then
+          expired = true
+        elseif owner ~= ARGV[1] then
+          return -1
+        end
+      end
+      if expired then
+        return 0
+      end
+      for i = 1, entries do
+        redis.call('PEXPIRE', KEYS[i], ARGV[2])
+        redis.call('ZADD', KEYS[entries + 1], ARGV[2 + i * 2], ARGV[1 + i * 2])
+      end
+      redis.call('PEXPIRE', KEYS[entries + 2], ARGV[2])
+      return 1
+      """, Long.class);
+
+  // KEYS: the booking's set, then the night set, ARGV: booking id. Nights another booking holds by now are left alone.
+  private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>("""
+      local released = 0
+      for _, entry in ipairs(redis.call('SMEMBERS', KEYS[1])) do
+        local hold, member = string.match(entry, '^(.-)|(.*)$')
+        local owner = redis.call('GET', hold)
+        if owner == ARGV[1] then
+          redis.call('DEL', hold)
+          released = released + 1
+        end
+        if owner == ARGV[1] or not owner then
+          redis.call('ZREM', KEYS[2], member)
+        end
+      end
+      redis.call('DEL', KEYS[1])
+      return released
+      """, Long.class);
+
+  // KEYS: the night set, ARGV: first and last night, the hold key prefix. Drops the members whose hold expired.
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> HELD_ROOMS = new DefaultRedisScript<>("""
+      local seen = {}
+      local rooms = {}
+      for _, member in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], ARGV[1], ARGV[2])) do
+        if redis.call('EXISTS', ARGV[3] .. member) == 1 then
+          local room = string.match(member, '^(.-):')
+          if not seen[room] then
+            seen[room] = true
+            rooms[#rooms + 1] = room
+          end
+        else
+          redis.call('ZREM', KEYS[1], member)
+        end
+      end
+      return rooms
+      """, List.class);
+
+  /**
+   * What a booking still holds of its stay when the hold is about to be confirmed.
+   */
+  public enum Ownership {
+    // The booking owns every room-night
+    HELD,
+    // Some room-nights expired and no other booking holds any of them
+    EXPIRED,
+    // Another booking holds at least one of the room-nights
+    TAKEN
+  }
+
+  private final StringRedisTemplate redisTemplate;
+  private final Duration ttl;
+
+  public RoomHoldStore(StringRedisTemplate redisTemplate,
+      @Value("${booking-holds.ttl-minutes:70}") long ttlMinutes) {
+    this.redisTemplate = redisTemplate;
+    this.ttl = Duration.ofMinutes(ttlMinutes);
+  }
+
+  /**
+   * Holds every night from checkIn up to (excluding) checkOut for the booking. Holding nights the booking already holds
+   * renews them. If the surrounding transaction rolls back, the booking's holds are released.
+   * @return false if another booking holds any of the nights
+   */
+  public boolean hold(UUID bookingId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+    return hold(bookingId, List.of(roomId), checkIn, checkOut);
+  }
+
+  /**
+   * Holds every night of the stay in every one of the rooms for the booking, all or nothing in a single script call.
+   * @return false if another booking holds any of the room-nights, in which case none of them is held
+   */
+  public boolean hold(UUID bookingId, Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut) {
+    List<LocalDate> nights = checkIn.datesUntil(checkOut).toList();
+    if (nights.isEmpty() || roomIds.isEmpty()) {
+      return true;
+    }
+    List<String> keys = holdKeys(roomIds, nights, bookingId);
+    List<String> args = new ArrayList<>();
+    args.add(bookingId.toString());
+    args.add(String.valueOf(ttl.toMillis()));
+    // Nights before yesterday can no longer be held anywhere in the world
+    args.add(String.valueOf(LocalDate.now().minusDays(1).toEpochDay()));
+    args.addAll(nightArgs(roomIds, nights));
+    Long acquired = redisTemplate.execute(HOLD, keys, args.toArray());
+    if (!Long.valueOf(1).equals(acquired)) {
+      return false;
+    }
+    releaseOnRollback(bookingId);
+    return true;
+  }
+
+  /**
+   * Checks in one script call that the booking still owns every night of the stay in every one of the rooms, and if so
+   * renews them so they cannot expire before the confirmation commits.
+   */
+  public Ownership renew(UUID bookingId, Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut) {
+    List<LocalDate> nights = checkIn.datesUntil(checkOut).toList();
+    if (nights.isEmpty() || roomIds.isEmpty()) {
+      return Ownership.HELD;
+    }
+    List<String> args = new ArrayList<>();
+    args.add(bookingId.toString());
+    args.add(String.valueOf(ttl.toMillis()));
+    args.addAll(nightArgs(roomIds, nights));
+    Long owned = redisTemplate.execute(RENEW, holdKeys(roomIds, nights, bookingId), args.toArray());
+    if (Long.valueOf(1).equals(owned)) {
+      return Ownership.HELD;
+    }
+    return Long.valueOf(0).equals(owned) ? Ownership.EXPIRED : Ownership.TAKEN;
+  }
+
+  /**
+   * Releases every night the booking still holds once the current transaction commits. A failure only leaves the holds
+   * to expire.
+   */
+  public void release(UUID bookingId) {
+    runAfterCommit(() -> {
+      try {
+        redisTemplate.execute(RELEASE, List.of(BOOKING_PREFIX + bookingId, NIGHTS_KEY), bookingId.toString());
+      } catch (DataAccessException e) {
+        log.warn("Could not release the room holds of booking {}, they expire on their own: {}", bookingId,
+            e.getMessage());
+      }
+    });
+  }
+
+  /**
+   * @return the ids of rooms held on at least one night from startDate up to (excluding) endDate, empty if Redis cannot
+   * be reached, in which case checkout still refuses held nights
+   */
+  public Set<Long> findHeldRoomIds(LocalDate startDate, LocalDate endDate) {
+    if (!startDate.isBefore(endDate)) {
+      return Set.of();
+    }
+    try {
+      List<?> rooms = redisTemplate.execute(HELD_ROOMS, List.of(NIGHTS_KEY), String.valueOf(startDate.toEpochDay()),
+          String.valueOf(endDate.minusDays(1).toEpochDay()), HOLD_PREFIX);
+      return rooms == null ? Set.of() : rooms.stream()
+          .map(room -> Long.valueOf(room.toString()))
+          .collect(Collectors.toSet());
+    } catch (DataAccessException e) {
+      log.warn("Could not read room holds for {} to {}: {}", startDate, endDate, e.getMessage());
+      return Set.of();
+    }
+  }
+
+  // The hold key of every room-night, then the night set and the booking's own set
+  private static List<String> holdKeys(Collection<Long> roomIds, List<LocalDate> nights, UUID bookingId) {
+    List<String> keys = new ArrayList<>(roomIds.size() * nights.size() + 2);
+    for (Long roomId : roomIds) {
+      nights.forEach(night -> keys.add(HOLD_PREFIX + member(roomId, night)));
+    }
+    keys.add(NIGHTS_KEY);
+    keys.add(BOOKING_PREFIX + bookingId);
+    return keys;
+  }
+
+  // The night set member and score of every room-night, in the order of holdKeys
+  private static List<String> nightArgs(Collection<Long> roomIds, List<LocalDate> nights) {
+    List<String> args = new ArrayList<>(roomIds.size() * nights.size() * 2);
+    for (Long roomId : roomIds) {
+      for (LocalDate night : nights) {
+        args.add(member(roomId, night));
+        args.add(String.valueOf(night.toEpochDay()));
+      }
+    }
+    return args;
+  }
+
+  // Also the hold key without its prefix
+  private static String member(Long roomId, LocalDate night) {
+    return roomId + ":" + night;
+  }
+
+  private void releaseOnRollback(UUID bookingId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          try {
+            redisTemplate.execute(RELEASE, List.of(BOOKING_PREFIX + bookingId, NIGHTS_KEY), bookingId.toString());
+          } catch (DataAccessException e) {
+            log.warn("Could not release the room holds of rolled back booking {}: {}", bookingId, e.getMessage());
+          }
+        }
+      }
+    });
+  }
+
+  private void runAfterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
@@ -0,0 +1,277 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO.Type;
+import com.finalproject.stayease.property.repository.PropertyCategoryRepository;
+import com.finalproject.stayease.property.repository.PropertyRepository;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * In-memory typeahead index of cities, category names and property names. Every label is normalized (lowercase, no
+ * accents, single spaces) and stored in a sorted map once for each word it contains, keyed by the text from that word
+ * on, so a prefix query is one sub-map range scan and "vil" finds both "Villa Melati" and "Ubud Villa".
+ * <p>
+ * Property and category writes update the index after their transaction commits. The whole index is rebuilt on startup
+ * and by {@code SearchSuggestionIndexRefreshService} to pick up writes made by other instances; updates that arrive
+ * while a rebuild is reading are replayed onto the rebuilt index before it is swapped in, so none are lost. Cities also
+ * carry the number of properties in them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchSuggestionIndex {
+
+  private static final char SEPARATOR = '\u0000';
+  private static final char MAX_CHAR = '\uffff';
+  // Enough to rank well-known matches first without sorting the whole index for a one-letter query
+  private static final int MAX_CANDIDATES = 500;
+  private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+  private static final Pattern SPACES = Pattern.compile("\\s+");
+
+  private final PropertyRepository propertyRepository;
+  private final PropertyCategoryRepository propertyCategoryRepository;
+
+  private final Object rebuildLock = new Object();
+  private volatile Snapshot snapshot = new Snapshot();
+  // Updates applied since the running rebuild started reading, null when none is running, guarded by this
+  private List<Consumer<Snapshot>> updatesDuringRebuild;
+
+  // Region - lifecycle
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  /**
+   * Reloads every property and category and swaps the index in one step.
+   */
+  public void rebuild() {
+    synchronized (rebuildLock) {
+      synchronized (this) {
+        updatesDuringRebuild = new ArrayList<>();
+      }
+      try {
+        Snapshot rebuilt = new Snapshot();
+        propertyRepository.findAllSuggestionSources()
+            .forEach(property -> rebuilt.putProperty(property.getId(), property.getName(), property.getCity()));
+        propertyCategoryRepository.findAllByDeletedAtIsNull()
+            .forEach(category -> rebuilt.putCategory(category.getId(), category.getName()));
+        synchronized (this) {
+          // The reads may or may not have seen these, replaying them is safe either way as every update is idempotent
+          updatesDuringRebuild.forEach(update -> update.accept(rebuilt));
+          snapshot = rebuilt;
+        }
+        log.info("Search suggestion index rebuilt: {} properties, {} categories, {} cities, {} terms",
+            rebuilt.properties.size(), rebuilt.categories.size(), rebuilt.cityCounts.size(), rebuilt.terms.size());
+      } finally {
+        synchronized (this) {
+          updatesDuringRebuild = null;
+        }
+      }
+    }
+  }
+
+  // Region - incremental updates
+
+  public void putProperty(Long propertyId, String name, String city) {
+    update(snapshot -> snapshot.putProperty(propertyId, name, city));
+  }
+
+  public void removeProperty(Long propertyId) {
+    update(snapshot -> snapshot.removeProperty(propertyId));
+  }
+
+  public void putCategory(Long categoryId, String name) {
+    update(snapshot -> snapshot.putCategory(categoryId, name));
+  }
+
+  public void removeCategory(Long categoryId) {
+    update(snapshot -> snapshot.removeCategory(categoryId));
+  }
+
+  private void update(Consumer<Snapshot> update) {
+    runAfterCommit(() -> {
+      synchronized (this) {
+        update.accept(snapshot);
+        if (updatesDuringRebuild != null) {
+          updatesDuringRebuild.add(update);
+        }
+      }
+    });
+  }
+
+  // Region - queries
+
+  /**
+   * @return suggestions for labels with a word starting with the prefix: labels that start with it first, then
+   * cities, categories and properties, then cities with more properties first
+   */
+  public List<SuggestionDTO> suggest(String prefix, int limit) {
+    String normalizedPrefix = normalize(prefix);
+    if (normalizedPrefix.isEmpty()) {
+      return List.of();
+    }
+    return snapshot.suggest(normalizedPrefix, limit);
+  }
+
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String stripped = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    return SPACES.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+
+  private void runAfterCommit(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+
+  /**
+   * The index itself. Writes are serialized by the enclosing index, reads go straight to the concurrent maps.
+   */
+  private static final class Snapshot {
+
+    private final ConcurrentSkipListMap<String, Item> terms = new ConcurrentSkipListMap<>();
+    private final Map<String, Item> cityItems = new ConcurrentHashMap<>();
+    private final Map<String, Integer> cityCounts = new ConcurrentHashMap<>();
+    private final Map<Long, PropertyEntry> properties = new HashMap<>();
+    private final Map<Long, Item> categories = new HashMap<>();
+
+    void putProperty(Long propertyId, String name, String city) {
+      removeProperty(propertyId);
+      Item item = Item.of(Type.PROPERTY, propertyId, name, "property:" + propertyId);
+      String cityKey = normalize(city);
+      properties.put(propertyId, new PropertyEntry(item, cityKey));
+      addTerms(item);
+      if (!cityKey.isEmpty()) {
+        if (cityCounts.merge(cityKey, 1, Integer::sum) == 1) {
+          Item cityItem = Item.of(Type.CITY, null, city.trim(), "city:" + cityKey);
+          cityItems.put(cityKey, cityItem);
+          addTerms(cityItem);
+        }
+      }
+    }
+
+    void removeProperty(Long propertyId) {
+      PropertyEntry removed = properties.remove(propertyId);
+      if (removed == null) {
+        return;
+      }
+      removeTerms(removed.item());
+      String cityKey = removed.cityKey();
+      if (!cityKey.isEmpty() && cityCounts.merge(cityKey, -1, Integer::sum) <= 0) {
+        cityCounts.remove(cityKey);
+        Item cityItem = cityItems.remove(cityKey);
+        if (cityItem != null) {
+          removeTerms(cityItem);
+        }
+      }
+    }
+
+    void putCategory(Long categoryId, String name) {
+      removeCategory(categoryId);
+      Item item = Item.of(Type.CATEGORY, categoryId, name, "category:" + categoryId);
+      categories.put(categoryId, item);
+      addTerms(item);
+    }
+
+    void removeCategory(Long categoryId) {
+      Item removed = categories.remove(categoryId);
+      if (removed != null) {
+        removeTerms(removed);
+      }
+    }
+
+    List<SuggestionDTO> suggest(String prefix, int limit) {
+      Map<String, Item> candidates = new LinkedHashMap<>();
+      for (Item item : terms.subMap(prefix, true, prefix + MAX_CHAR, false).values()) {
+        candidates.putIfAbsent(item.key(), item);
+        if (candidates.size() >= MAX_CANDIDATES) {
+          break;
+        }
+      }
+      Comparator<Item> ranking = Comparator
+          .comparing((Item item) -> !item.normalized().startsWith(prefix))
+          .thenComparing(Item::type)
+          .thenComparing(item -> -propertyCount(item))
+          .thenComparing(Item::normalized);
+      return candidates.values().stream()
+          .sorted(ranking)
+          .limit(limit)
+          .map(item -> new SuggestionDTO(item.type(), item.label(), item.id(), propertyCount(item)))
+          .toList();
+    }
+
+    private long propertyCount(Item item) {
+      return switch (item.type()) {
+        case CITY -> cityCounts.getOrDefault(item.normalized(), 0);
+        case PROPERTY -> 1;
+        case CATEGORY -> 0;
+      };
+    }
+
+    private void addTerms(Item item) {
+      wordStarts(item.normalized()).forEach(start -> terms.put(termKey(item, start), item));
+    }
+
+    private void removeTerms(Item item) {
+      wordStarts(item.normalized()).forEach(start -> terms.remove(termKey(item, start)));
+    }
+
+    private static String termKey(Item item, int start) {
+      return item.normalized().substring(start) + SEPARATOR + item.key();
+    }
+
+    private static List<Integer> wordStarts(String normalized) {
+      if (normalized.isEmpty()) {
+        return List.of();
+      }
+      List<Integer> starts = new ArrayList<>();
+      starts.add(0);
+      for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+        starts.add(i + 1);
+      }
+      return starts;
+    }
+  }
+
+  private record Item(Type type, Long id, String label, String normalized, String key) {
+
+    static Item of(Type type, Long id, String label, String key) {
+      String safeLabel = label == null ? "" : label;
+      return new Item(type, id, safeLabel, normalize(safeLabel), key);
+    }
+  }
+
+  private record PropertyEntry(Item item, String cityKey) {
+
+  }
+}
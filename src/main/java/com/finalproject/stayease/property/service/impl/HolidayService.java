@@ -1,24 +1,59 @@
 package com.finalproject.stayease.property.service.impl;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
 
+/**
+ * Public holidays and long weekends from the Nager.Date API. Each year is fetched once, persisted in Redis and kept in
+ * memory as a set of dates, so the per-date checks never leave the process. A year older than the refresh period is
+ * fetched again on next use; if that fetch fails the previous copy keeps being served.
+ */
 @Service
 @Data
 @Slf4j
 public class HolidayService {
 
-  private final WebClient webClient;
+  private static final String KEY_PREFIX = "stayease:holidays:";
+  private static final Duration RETRY_AFTER_FAILURE = Duration.ofHours(1);
 
-  public HolidayService(WebClient.Builder webClientBuilder) {
-    this.webClient = webClientBuilder.baseUrl("https://date.nager.at/api/v3")
+  private final WebClient webClient;
+  private final StringRedisTemplate redisTemplate;
+  private final ObjectMapper objectMapper;
+  private final String countryCode;
+  private final Duration refreshAfter;
+
+  private final Map<Integer, YearCalendar> calendars = new ConcurrentHashMap<>();
+
+  public HolidayService(WebClient.Builder webClientBuilder, StringRedisTemplate redisTemplate,
+      ObjectMapper objectMapper,
+      @Value("${holiday-calendar.base-url:https://date.nager.at/api/v3}") String baseUrl,
+      @Value("${holiday-calendar.country-code:ID}") String countryCode,
+      @Value("${holiday-calendar.refresh-days:30}") long refreshDays) {
+    this.webClient = webClientBuilder.baseUrl(baseUrl)
         .build();
+    this.redisTemplate = redisTemplate;
+    this.objectMapper = objectMapper;
+    this.countryCode = countryCode;
+    this.refreshAfter = Duration.ofDays(refreshDays);
   }
 
   // Region - Fetch data
@@ -45,35 +80,111 @@ public class HolidayService {
   }
 
   public List<Holiday> getHolidaysInYear(int year) {
-    return webClient.get()
-        .uri("/PublicHolidays/{year}/ID", year)
+    return getCalendar(year).holidays();
+  }
+
+  public List<LongWeekend> getLongWeekendsInYear(int year) {
+    return getCalendar(year).longWeekends();
+  }
+
+  // Region - BOOLEAN checks
+
+  public boolean isHoliday(LocalDate date) {
+    return getCalendar(date.getYear()).holidayDates().contains(date);
+  }
+
+  public boolean isLongWeekend(LocalDate date) {
+    return getCalendar(date.getYear()).longWeekendEdges().contains(date);
+  }
+
+  // Region - Calendar cache
+
+  private YearCalendar getCalendar(int year) {
+    YearCalendar calendar = calendars.get(year);
+    if (calendar != null && !calendar.isStale(refreshAfter)) {
+      return calendar;
+    }
+    return loadCalendar(year);
+  }
+
+  // Loads are rare (once per year and refresh period), serializing them keeps one fetch per year
+  private synchronized YearCalendar loadCalendar(int year) {
+    YearCalendar current = calendars.get(year);
+    if (current != null && !current.isStale(refreshAfter)) {
+      return current;
+    }
+    if (current == null) {
+      StoredCalendar stored = readStored(year);
+      if (stored != null) {
+        current = YearCalendar.of(stored);
+        calendars.put(year, current);
+        if (!current.isStale(refreshAfter)) {
+          return current;
+        }
+      }
+    }
+
+    try {
+      StoredCalendar fetched = new StoredCalendar(Instant.now(), fetchHolidays(year), fetchLongWeekends(year));
+      YearCalendar calendar = YearCalendar.of(fetched);
+      calendars.put(year, calendar);
+      writeStored(year, fetched);
+      log.info("Fetched {} holidays and {} long weekends for {} {}", fetched.holidays().size(),
+          fetched.longWeekends().size(), countryCode, year);
+      return calendar;
+    } catch (WebClientException e) {
+      if (current == null) {
+        throw e;
+      }
+      log.warn("Could not refresh holidays for {} {}, keeping the copy from {}: {}", countryCode, year,
+          current.fetchedAt(), e.getMessage());
+      // Do not hit the API again on every lookup while it is down
+      YearCalendar retryLater = current.withFetchedAt(Instant.now().minus(refreshAfter).plus(RETRY_AFTER_FAILURE));
+      calendars.put(year, retryLater);
+      return retryLater;
+    }
+  }
+
+  private List<Holiday> fetchHolidays(int year) {
+    List<Holiday> holidays = webClient.get()
+        .uri("/PublicHolidays/{year}/{countryCode}", year, countryCode)
         .retrieve()
         .bodyToFlux(Holiday.class)
         .collectList()
         .block();
+    return holidays != null ? holidays : List.of();
   }
 
-
-  public List<LongWeekend> getLongWeekendsInYear(int year) {
-    return webClient.get()
-        .uri("/LongWeekend/{year}/ID", year)
+  private List<LongWeekend> fetchLongWeekends(int year) {
+    List<LongWeekend> longWeekends = webClient.get()
+        .uri("/LongWeekend/{year}/{countryCode}", year, countryCode)
         .retrieve()
         .bodyToFlux(LongWeekend.class)
         .collectList()
         .block();
+    return longWeekends != null ? longWeekends : List.of();
   }
 
-  // Region - BOOLEAN checks
+  private StoredCalendar readStored(int year) {
+    try {
+      String json = redisTemplate.opsForValue().get(key(year));
+      return json != null ? objectMapper.readValue(json, StoredCalendar.class) : null;
+    } catch (DataAccessException | JsonProcessingException e) {
+      log.warn("Could not read stored holidays for {} {}: {}", countryCode, year, e.getMessage());
+      return null;
+    }
+  }
 
-  public boolean isHoliday(LocalDate date) {
-    List<Holiday> holidays = getHolidaysInYear(date.getYear());
-    return holidays.stream().anyMatch(holiday -> holiday.getDate().equals(date));
+  private void writeStored(int year, StoredCalendar calendar) {
+    try {
+      redisTemplate.opsForValue().set(key(year), objectMapper.writeValueAsString(calendar));
+    } catch (DataAccessException | JsonProcessingException e) {
+      log.warn("Could not store holidays for {} {}: {}", countryCode, year, e.getMessage());
+    }
   }
 
-  public boolean isLongWeekend(LocalDate date) {
-    List<LongWeekend> longWeekends = getLongWeekendsInYear(date.getYear());
-    return longWeekends.stream()
-        .anyMatch(longWeekend -> longWeekend.getStartDate().equals(date) || longWeekend.getEndDate().equals(date));
+  private String key(int year) {
+    return KEY_PREFIX + countryCode + ":" + year;
   }
 
 // Region - Inner classes
@@ -94,6 +205,7 @@ public class HolidayService {
     private int dayCount;
     private boolean needBridgeDay;
 
+    @JsonIgnore
     public Stream<LocalDate> getDateStream() {
       return Stream.iterate(startDate, date -> date.plusDays(1))
           .limit(startDate.until(endDate).getDays());
@@ -101,4 +213,33 @@ public class HolidayService {
 
   }
 
+  record StoredCalendar(Instant fetchedAt, List<Holiday> holidays, List<LongWeekend> longWeekends) {
+
+  }
+
+  private record YearCalendar(Instant fetchedAt, List<Holiday> holidays, List<LongWeekend> longWeekends,
+                              Set<LocalDate> holidayDates, Set<LocalDate> longWeekendEdges) {
+
+    static YearCalendar of(StoredCalendar stored) {
+      Set<LocalDate> holidayDates = new HashSet<>();
+      stored.holidays().forEach(holiday -> holidayDates.add(holiday.getDate()));
+      // Only the first and last day count, as isLongWeekend always did
+      Set<LocalDate> longWeekendEdges = new HashSet<>();
+      stored.longWeekends().forEach(longWeekend -> {
+        longWeekendEdges.add(longWeekend.getStartDate());
+        longWeekendEdges.add(longWeekend.getEndDate());
+      });
+      return new YearCalendar(stored.fetchedAt(), List.copyOf(stored.holidays()), List.copyOf(stored.longWeekends()),
+          Set.copyOf(holidayDates), Set.copyOf(longWeekendEdges));
+    }
+
+    YearCalendar withFetchedAt(Instant fetchedAt) {
+      return new YearCalendar(fetchedAt, holidays, longWeekends, holidayDates, longWeekendEdges);
+    }
+
+    boolean isStale(Duration refreshAfter) {
+      return fetchedAt.plus(refreshAfter).isBefore(Instant.now());
+    }
+  }
+
 }
@@ -5,6 +5,7 @@ import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.dto.createRequests.SetPeakSeasonRateRequestDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.DailyPriceDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomAdjustedRatesDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import com.finalproject.stayease.property.repository.PeakSeasonRateRepository;
@@ -13,16 +14,21 @@ import com.finalproject.stayease.property.service.PropertyService;
 import com.finalproject.stayease.property.service.helpers.PeakSeasonRateCalculator;
 import com.finalproject.stayease.property.service.helpers.PeakSeasonRateCreator;
 import com.finalproject.stayease.property.service.helpers.PeakSeasonRateValidator;
+import com.finalproject.stayease.property.service.helpers.PropertyPriceCalendar;
+import com.finalproject.stayease.property.service.helpers.PropertyRateTimeline;
+import com.finalproject.stayease.property.service.helpers.PropertyRateTimelineCache;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
 import com.finalproject.stayease.users.entity.Users;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -38,6 +44,9 @@ public class PeakSeasonRateServiceImpl implements PeakSeasonRateService {
   private final PeakSeasonRateValidator validator;
   private final PeakSeasonRateCreator creator;
   private final PeakSeasonRateCalculator calculator;
+  private final PropertyPriceCalendar priceCalendar;
+  private final PropertyViewCache propertyViewCache;
+  private final PropertyRateTimelineCache rateTimelineCache;
 
   // Basic CRUD operations
 
@@ -78,7 +87,10 @@ public class PeakSeasonRateServiceImpl implements PeakSeasonRateService {
   public PeakSeasonRate updatePeakSeasonRate(PeakSeasonRate peakSeasonRate, BigDecimal adjustmentRate, AdjustmentType adjustmentType) {
     peakSeasonRate.setAdjustmentRate(adjustmentRate);
     peakSeasonRate.setAdjustmentType(adjustmentType);
-    return peakSeasonRateRepository.save(peakSeasonRate);
+    PeakSeasonRate savedRate = peakSeasonRateRepository.save(peakSeasonRate);
+    propertyViewCache.evict(peakSeasonRate.getProperty().getId());
+    rateTimelineCache.invalidate(peakSeasonRate.getProperty().getId());
+    return savedRate;
   }
 
   /**
@@ -105,6 +117,8 @@ public class PeakSeasonRateServiceImpl implements PeakSeasonRateService {
     PeakSeasonRate rate = validator.checkAndRetrievePeakSeasonRate(rateId);
     rate.setDeletedAt(Instant.now());
     peakSeasonRateRepository.save(rate);
+    propertyViewCache.evict(rate.getProperty().getId());
+    rateTimelineCache.invalidate(rate.getProperty().getId());
   }
 
   /**
@@ -119,6 +133,8 @@ public class PeakSeasonRateServiceImpl implements PeakSeasonRateService {
     log.info("Deleting peak season rate with ID {}", rateId);
     rate.setDeletedAt(Instant.now());
     peakSeasonRateRepository.save(rate);
+    propertyViewCache.evict(rate.getProperty().getId());
+    rateTimelineCache.invalidate(rate.getProperty().getId());
     log.info("Deleted peak season rate with ID {}", rateId);
   }
 
@@ -220,13 +236,7 @@ public class PeakSeasonRateServiceImpl implements PeakSeasonRateService {
   @Override
   public List<DailyPriceDTO> findLowestDailyRoomRates(Long propertyId, LocalDate startDate, LocalDate endDate) {
     validator.validateDateRange(startDate, endDate);
-    List<DailyPriceDTO> dailyPrices = new ArrayList<>();
-    for (LocalDate date = startDate; date.isBefore(endDate); date = date.plusDays(1)) {
-      RoomPriceRateDTO lowestRoomRate = propertyService.findLowestRoomRate(propertyId, date);
-      BigDecimal lowestPrice = applyPeakSeasonRate(lowestRoomRate);
-      dailyPrices.add(new DailyPriceDTO(date, lowestPrice, lowestRoomRate.getBasePrice().compareTo(lowestPrice) != 0));
-    }
-    return dailyPrices;
+    return priceCalendar.findDailyPrices(propertyId, startDate, endDate);
   }
 
   /**
@@ -239,15 +249,7 @@ public class PeakSeasonRateServiceImpl implements PeakSeasonRateService {
   @Override
   public List<DailyPriceDTO> findCumulativeRoomRates(Long propertyId, LocalDate startDate, LocalDate endDate) {
     validator.validateDateRange(startDate, endDate);
-    List<DailyPriceDTO> cumulativeDailyPrice = new ArrayList<>();
-    for (LocalDate date = startDate; date.isBefore(endDate); date = date.plusDays(1)) {
-      List<DailyPriceDTO> lowestDailyRoomRates = findLowestDailyRoomRates(propertyId, startDate, date.plusDays(1));
-      BigDecimal cumulativePrice = lowestDailyRoomRates.stream()
-          .map(DailyPriceDTO::getLowestPrice)
-          .reduce(BigDecimal.ZERO, BigDecimal::add);
-      cumulativeDailyPrice.add(new DailyPriceDTO(date, cumulativePrice, lowestDailyRoomRates.getLast().isHasAdjustment()));
-    }
-    return cumulativeDailyPrice;
+    return priceCalendar.findCumulativePrices(propertyId, startDate, endDate);
   }
 
   // Price adjustments
@@ -263,7 +265,8 @@ public class PeakSeasonRateServiceImpl implements PeakSeasonRateService {
   }
 
   /**
-   * Applies peak season rate adjustments to a base price for a property on a specific date.
+   * Applies peak season rate adjustments to a base price for a property on a specific date. The rates are looked up in
+   * the property's cached rate timeline.
    * @param propertyId The ID of the property
    * @param date The date to check
    * @param basePrice The base price to adjust
@@ -273,11 +276,35 @@ public class PeakSeasonRateServiceImpl implements PeakSeasonRateService {
   @Override
   public BigDecimal applyPeakSeasonRate(Long propertyId, LocalDate date, BigDecimal basePrice, Instant bookingTime) {
     validator.validateDate(date);
-    Instant futureDate = LocalDate.now().plusYears(10).atStartOfDay().toInstant(ZoneOffset.UTC);
+    List<PeakSeasonRate> applicableRates = rateTimelineCache.getTimeline(propertyId).ratesOn(date, bookingTime);
+    return calculator.calculateAdjustedPrice(basePrice, applicableRates);
+  }
 
-    List<PeakSeasonRate> applicableRates = peakSeasonRateRepository
-        .findValidRatesByPropertyAndDate(propertyId, date, bookingTime, futureDate);
+  /**
+   * Applies peak season rate adjustments to a batch of property listings on a specific date. The rates come from the
+   * cached rate timelines, the timelines not cached yet are loaded in a single query, so the cost does not grow with
+   * the number of listings.
+   * @param listings The listings to adjust, their lowestAdjustedPrice is set in place
+   * @param date The date to check
+   * @param bookingTime The time of booking
+   */
+  @Override
+  public void applyPeakSeasonRates(List<PropertyListingDTO> listings, LocalDate date, Instant bookingTime) {
+    validator.validateDate(date);
+    if (listings.isEmpty()) {
+      return;
+    }
+    Set<Long> propertyIds = listings.stream()
+        .map(PropertyListingDTO::getPropertyId)
+        .collect(Collectors.toSet());
+    Map<Long, PropertyRateTimeline> timelines = rateTimelineCache.getTimelines(propertyIds);
 
-    return calculator.calculateAdjustedPrice(basePrice, applicableRates);
+    for (PropertyListingDTO listing : listings) {
+      List<PeakSeasonRate> applicableRates = timelines
+          .getOrDefault(listing.getPropertyId(), PropertyRateTimeline.empty())
+          .ratesOn(date, bookingTime);
+      listing.setLowestAdjustedPrice(calculator.calculateAdjustedPrice(listing.getLowestBasePrice(), applicableRates));
+    }
+    log.info("Applied peak season rates to {} listings across {} properties", listings.size(), timelines.size());
   }
 }
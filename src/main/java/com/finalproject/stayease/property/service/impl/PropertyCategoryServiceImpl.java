@@ -6,7 +6,9 @@ import com.finalproject.stayease.property.entity.dto.createRequests.CreateCatego
 import com.finalproject.stayease.property.entity.dto.updateRequests.UpdateCategoryRequestDTO;
 import com.finalproject.stayease.property.repository.PropertyCategoryRepository;
 import com.finalproject.stayease.property.service.PropertyCategoryService;
+import com.finalproject.stayease.property.service.helpers.CategorySimilarityIndex;
 import com.finalproject.stayease.property.service.helpers.PropertyCategoryHelper;
+import com.finalproject.stayease.property.service.helpers.SearchSuggestionIndex;
 import com.finalproject.stayease.users.entity.Users;
 import jakarta.transaction.Transactional;
 import java.time.Instant;
@@ -24,6 +26,8 @@ public class PropertyCategoryServiceImpl implements PropertyCategoryService {
 
   private final PropertyCategoryRepository propertyCategoryRepository;
   private final PropertyCategoryHelper propertyCategoryHelper;
+  private final SearchSuggestionIndex searchSuggestionIndex;
+  private final CategorySimilarityIndex categorySimilarityIndex;
 
   /**
    * Retrieves all property categories.
@@ -44,7 +48,10 @@ public class PropertyCategoryServiceImpl implements PropertyCategoryService {
   public PropertyCategory createCategory(Users tenant, CreateCategoryRequestDTO requestDTO) {
     propertyCategoryHelper.isTenant(tenant);
     propertyCategoryHelper.checkMatch(requestDTO.getName());
-    return propertyCategoryHelper.toPropertyCategoryEntity(tenant, requestDTO);
+    PropertyCategory category = propertyCategoryHelper.toPropertyCategoryEntity(tenant, requestDTO);
+    searchSuggestionIndex.putCategory(category.getId(), category.getName());
+    categorySimilarityIndex.put(category.getId(), category.getName());
+    return category;
   }
 
   /**
@@ -65,6 +72,8 @@ public class PropertyCategoryServiceImpl implements PropertyCategoryService {
     PropertyCategory existingCategory = propertyCategoryHelper.checkIfValid(tenant, categoryId);
     existingCategory.setDeletedAt(Instant.now());
     propertyCategoryRepository.save(existingCategory);
+    searchSuggestionIndex.removeCategory(categoryId);
+    categorySimilarityIndex.remove(categoryId);
   }
 
   /**
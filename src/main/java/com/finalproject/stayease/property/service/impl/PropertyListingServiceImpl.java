@@ -1,10 +1,12 @@
 package com.finalproject.stayease.property.service.impl;
 
-import com.finalproject.stayease.exceptions.properties.PeakSeasonRateNotFoundException;
 import com.finalproject.stayease.exceptions.properties.PropertyNotFoundException;
 import com.finalproject.stayease.exceptions.utils.InvalidDateException;
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.Room;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.GeoFilterDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.MapClusterDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyAvailableOnDateDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomAdjustedRatesDTO;
@@ -12,12 +14,17 @@ import com.finalproject.stayease.property.service.PeakSeasonRateService;
 import com.finalproject.stayease.property.service.PropertyListingService;
 import com.finalproject.stayease.property.service.PropertyService;
 import com.finalproject.stayease.property.service.RoomService;
+import com.finalproject.stayease.property.service.helpers.MapClusterTileCache;
+import com.finalproject.stayease.property.service.helpers.MapTile;
+import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -31,9 +38,14 @@ import org.springframework.stereotype.Service;
 @Data
 public class PropertyListingServiceImpl implements PropertyListingService {
 
+  private static final int STREAM_CHUNK_SIZE = 500;
+  private static final double MAX_RADIUS_KM = 500;
+  private static final int MAX_MAP_TILES = 64;
+
   private final PropertyService propertyService;
   private final PeakSeasonRateService peakSeasonRateService;
   private final RoomService roomService;
+  private final MapClusterTileCache mapClusterTileCache;
 
   /**
    * Finds available properties based on various criteria and returns a paginated result.
@@ -41,20 +53,56 @@ public class PropertyListingServiceImpl implements PropertyListingService {
   @Override
   public Page<PropertyListingDTO> findAvailableProperties(
       LocalDate startDate, LocalDate endDate, String city,
-      String categoryName, String searchTerm, BigDecimal minPrice, BigDecimal maxPrice, Integer guestCount, int page, int size, String sortBy, String sortDirection
+      String categoryName, String searchTerm, BigDecimal minPrice, BigDecimal maxPrice, Integer guestCount,
+      GeoFilterDTO geoFilter, int page, int size, String sortBy, String sortDirection
   ) {
     LocalDate checkInDate = startDate != null ? startDate : LocalDate.now();
     LocalDate checkOutDate = endDate != null ? endDate : checkInDate.plusYears(100);
     validateDate(checkInDate, checkOutDate);
+    GeoFilterDTO area = geoFilter != null ? geoFilter : GeoFilterDTO.none();
+    validateGeoFilter(area);
+
+    String sortColumn = resolveSortColumn(sortBy, searchTerm, area);
+    // Relevance always puts the best match first and distance the nearest
+    Sort.Direction direction = switch (sortColumn) {
+      case "relevance" -> Sort.Direction.DESC;
+      case "distance" -> Sort.Direction.ASC;
+      default -> "DESC".equalsIgnoreCase(sortDirection) ? Sort.Direction.DESC : Sort.Direction.ASC;
+    };
+
+    Page<PropertyListingDTO> properties = fetchProperties(checkInDate, checkOutDate, city, categoryName, searchTerm,
+        minPrice, maxPrice, guestCount, area, sortColumn, direction, page, size);
+    log.info("Properties fetched: page={}, pageContentSize={}, totalSize={}",
+        page, properties.getNumberOfElements(), properties.getTotalElements());
+
+    return new PageImpl<>(properties.getContent(), PageRequest.of(page, size, Sort.by(direction, sortColumn)),
+        properties.getTotalElements());
+  }
 
-    List<PropertyListingDTO> properties = fetchProperties(checkInDate, checkOutDate, city, categoryName, searchTerm,
-        minPrice, maxPrice, guestCount);
-    log.info("Properties fetched: {}", properties.size());
-
-    applyPeakSeasonRates(properties, checkInDate);
-    sortProperties(properties, sortBy, sortDirection);
+  /**
+   * Clusters the properties inside a map bounding box for a zoom level. Clusters are computed and cached per map tile;
+   * when the box covers too many tiles at the requested zoom, a coarser zoom is used instead.
+   */
+  @Override
+  public List<MapClusterDTO> findMapClusters(GeoFilterDTO bounds, int zoom) {
+    if (!bounds.hasBounds()) {
+      throw new InvalidRequestException("Map clusters need minLat, minLng, maxLat and maxLng");
+    }
+    validateGeoFilter(bounds);
+    if (zoom < 0 || zoom > MapTile.MAX_ZOOM) {
+      throw new InvalidRequestException("Zoom must be between 0 and " + MapTile.MAX_ZOOM);
+    }
 
-    return createPage(properties, page, size, sortBy, sortDirection);
+    int tileZoom = zoom;
+    while (tileZoom > 0 && MapTile.countCovering(bounds.minLatitude(), bounds.minLongitude(), bounds.maxLatitude(),
+        bounds.maxLongitude(), tileZoom) > MAX_MAP_TILES) {
+      tileZoom--;
+    }
+    List<MapClusterDTO> clusters = new ArrayList<>();
+    MapTile.covering(bounds.minLatitude(), bounds.minLongitude(), bounds.maxLatitude(), bounds.maxLongitude(),
+        tileZoom).forEach(tile -> clusters.addAll(mapClusterTileCache.getClusters(tile)));
+    log.debug("Map clusters at zoom {} (tiles at zoom {}): {}", zoom, tileZoom, clusters.size());
+    return clusters;
   }
 
   /**
@@ -71,68 +119,116 @@ public class PropertyListingServiceImpl implements PropertyListingService {
   }
 
   /**
-   * Finds properties with the lowest room rate on a specific date.
+   * Finds properties with the lowest room rate on a specific date. Listings come from one projection query and their
+   * peak season rates from one batch query, regardless of how many properties are available.
    */
   @Override
   public List<PropertyListingDTO> findPropertiesWithLowestRoomRate(LocalDate date) {
     validateDate(date);
-    List<Property> properties = propertyService.getAllAvailablePropertiesOnDate(date);
-    List<PropertyListingDTO> propertyListings = new ArrayList<>();
+    List<PropertyListingDTO> propertyListings = propertyService.findAvailablePropertyListingsOnDate(date);
+    peakSeasonRateService.applyPeakSeasonRates(propertyListings, date, Instant.now());
+    return propertyListings;
+  }
 
-    for (Property property : properties) {
-      RoomAdjustedRatesDTO lowestRoomRate = peakSeasonRateService.findAvailableRoomRates(property.getId(), date).stream().findFirst()
-          .orElseThrow(() -> new PeakSeasonRateNotFoundException("No room rates found for this property"));
-      propertyListings.add(new PropertyListingDTO(property, lowestRoomRate));
+  /**
+   * Streams properties with the lowest room rate on a specific date to the consumer in chunks, so large result sets
+   * are never held in memory at once. Each chunk costs one extra query for its peak season rates.
+   */
+  @Override
+  @Transactional
+  public void streamPropertiesWithLowestRoomRate(LocalDate date, Consumer<List<PropertyListingDTO>> chunkConsumer) {
+    validateDate(date);
+    Instant bookingTime = Instant.now();
+    List<PropertyListingDTO> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+    int streamed = 0;
+    try (Stream<PropertyListingDTO> listings = propertyService.streamAvailablePropertyListingsOnDate(date)) {
+      Iterator<PropertyListingDTO> iterator = listings.iterator();
+      while (iterator.hasNext()) {
+        chunk.add(iterator.next());
+        if (chunk.size() == STREAM_CHUNK_SIZE) {
+          streamed += emitChunk(chunk, date, bookingTime, chunkConsumer);
+          chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        }
+      }
     }
-    return propertyListings;
+    if (!chunk.isEmpty()) {
+      streamed += emitChunk(chunk, date, bookingTime, chunkConsumer);
+    }
+    log.info("Streamed {} available properties for {}", streamed, date);
   }
 
+  private int emitChunk(List<PropertyListingDTO> chunk, LocalDate date, Instant bookingTime,
+      Consumer<List<PropertyListingDTO>> chunkConsumer) {
+    peakSeasonRateService.applyPeakSeasonRates(chunk, date, bookingTime);
+    chunkConsumer.accept(chunk);
+    return chunk.size();
+  }
 
-  private List<PropertyListingDTO> fetchProperties(
+  private Page<PropertyListingDTO> fetchProperties(
       LocalDate startDate, LocalDate endDate, String city, String categoryName,
-      String searchTerm, BigDecimal minPrice, BigDecimal maxPrice, Integer guestCount
+      String searchTerm, BigDecimal minPrice, BigDecimal maxPrice, Integer guestCount, GeoFilterDTO geoFilter,
+      String sortColumn, Sort.Direction direction, int page, int size
   ) {
     String lowerCaseSearchTerm = searchTerm != null ? searchTerm.toLowerCase() : null;
     String lowerCaseCity = city != null ? city.toLowerCase() : null;
     String lowerCaseCategory = categoryName != null ? categoryName.toLowerCase() : null;
-    return propertyService.findAvailableProperties(
-        startDate, endDate, lowerCaseCity, lowerCaseCategory, lowerCaseSearchTerm, minPrice, maxPrice, guestCount);
+    // Ordering is part of the query itself, so the pageable stays unsorted
+    return propertyService.findAvailablePropertyListings(
+        startDate, endDate, lowerCaseCity, lowerCaseCategory, lowerCaseSearchTerm, minPrice, maxPrice, guestCount,
+        geoFilter, Instant.now(), sortColumn, direction.name(), PageRequest.of(page, size));
   }
 
-  private void applyPeakSeasonRates(List<PropertyListingDTO> properties, LocalDate checkDate) {
-    for (PropertyListingDTO property : properties) {
-      BigDecimal adjustedPrice = applyPeakSeasonRate(property.getPropertyId(), checkDate, property.getLowestBasePrice());
-      property.setLowestAdjustedPrice(adjustedPrice);
+  // Without an explicit order, searches around a point are ordered by distance, text searches by relevance and plain
+  // listings by name
+  private String resolveSortColumn(String sortBy, String searchTerm, GeoFilterDTO geoFilter) {
+    if ("price".equalsIgnoreCase(sortBy)) {
+      return "price";
     }
-  }
-
-  private void sortProperties(List<PropertyListingDTO> properties, String sortBy, String sortDirection) {
-    Comparator<PropertyListingDTO> comparator = getComparator(sortBy);
-    if (sortDirection.equalsIgnoreCase("DESC")) {
-      comparator = comparator.reversed();
+    if (geoFilter.hasCenter() && (sortBy == null || "distance".equalsIgnoreCase(sortBy))) {
+      return "distance";
+    }
+    boolean searching = searchTerm != null && !searchTerm.isBlank();
+    if (searching && (sortBy == null || "relevance".equalsIgnoreCase(sortBy))) {
+      return "relevance";
     }
-    properties.sort(comparator);
+    return "name";
   }
 
-  private Comparator<PropertyListingDTO> getComparator(String sortBy) {
-    if (sortBy.equalsIgnoreCase("price")) {
-      return Comparator.comparing(PropertyListingDTO::getLowestAdjustedPrice);
-    } else {
-      return Comparator.comparing(PropertyListingDTO::getPropertyName);
+  private void validateGeoFilter(GeoFilterDTO geoFilter) {
+    boolean anyCenter = geoFilter.latitude() != null || geoFilter.longitude() != null;
+    if (anyCenter && !geoFilter.hasCenter()) {
+      throw new InvalidRequestException("Latitude and longitude must be given together");
+    }
+    if (geoFilter.hasCenter()) {
+      validateCoordinates(geoFilter.latitude(), geoFilter.longitude());
+    }
+    if (geoFilter.radiusKm() != null) {
+      if (!geoFilter.hasCenter()) {
+        throw new InvalidRequestException("A search radius needs a latitude and longitude");
+      }
+      if (geoFilter.radiusKm() <= 0 || geoFilter.radiusKm() > MAX_RADIUS_KM) {
+        throw new InvalidRequestException("Search radius must be between 0 and " + MAX_RADIUS_KM + " km");
+      }
     }
-  }
 
-  private Page<PropertyListingDTO> createPage(List<PropertyListingDTO> properties, int page, int size, String sortBy, String sortDirection) {
-    int start = page * size;
-    int end = Math.min((page + 1) * size, properties.size());
-    List<PropertyListingDTO> pageContent = properties.subList(start, end);
-    log.info("Creating page: start={}, end={}, pageContentSize={}, totalSize={}",
-        start, end, pageContent.size(), properties.size());
-    return new PageImpl<>(pageContent, PageRequest.of(page, size, Sort.by(sortDirection, sortBy)), properties.size());
+    boolean anyBound = geoFilter.minLatitude() != null || geoFilter.minLongitude() != null
+        || geoFilter.maxLatitude() != null || geoFilter.maxLongitude() != null;
+    if (anyBound && !geoFilter.hasBounds()) {
+      throw new InvalidRequestException("A bounding box needs all four of minLat, minLng, maxLat and maxLng");
+    }
+    if (geoFilter.hasBounds()) {
+      validateCoordinates(geoFilter.minLatitude(), geoFilter.minLongitude());
+      validateCoordinates(geoFilter.maxLatitude(), geoFilter.maxLongitude());
+      if (geoFilter.minLatitude() > geoFilter.maxLatitude() || geoFilter.minLongitude() > geoFilter.maxLongitude()) {
+        throw new InvalidRequestException("Bounding box minimums cannot be above its maximums");
+      }
+    }
   }
 
-  private BigDecimal applyPeakSeasonRate(Long propertyId, LocalDate date, BigDecimal basePrice) {
-    return peakSeasonRateService.applyPeakSeasonRate(propertyId, date, basePrice, Instant.now());
+  private void validateCoordinates(double latitude, double longitude) {
+    if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+      throw new InvalidRequestException("Coordinates out of range: " + latitude + ", " + longitude);
+    }
   }
 
   private void validateDate(LocalDate date) {
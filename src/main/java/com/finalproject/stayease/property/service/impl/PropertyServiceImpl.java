@@ -4,12 +4,17 @@ import com.finalproject.stayease.exceptions.properties.PeakSeasonRateNotFoundExc
 import com.finalproject.stayease.exceptions.properties.PropertyNotFoundException;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.dto.createRequests.CreatePropertyRequestDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.GeoFilterDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import com.finalproject.stayease.property.entity.dto.updateRequests.UpdatePropertyRequestDTO;
 import com.finalproject.stayease.property.repository.PropertyRepository;
 import com.finalproject.stayease.property.service.PropertyService;
+import com.finalproject.stayease.property.service.helpers.PropertySearchIndex;
 import com.finalproject.stayease.property.service.helpers.PropertyServiceHelper;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
+import com.finalproject.stayease.property.service.helpers.RoomHoldStore;
+import com.finalproject.stayease.property.service.helpers.SearchSuggestionIndex;
 import com.finalproject.stayease.users.entity.Users;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
@@ -17,8 +22,11 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -29,6 +37,10 @@ public class PropertyServiceImpl implements PropertyService {
 
   private final PropertyRepository propertyRepository;
   private final PropertyServiceHelper propertyServiceHelper;
+  private final RoomHoldStore roomHoldStore;
+  private final PropertyViewCache propertyViewCache;
+  private final PropertySearchIndex propertySearchIndex;
+  private final SearchSuggestionIndex searchSuggestionIndex;
 
 
   // Property retrieval methods
@@ -82,6 +94,15 @@ public class PropertyServiceImpl implements PropertyService {
     return propertyRepository.findAllPropertiesWithAutoRatesEnabled();
   }
 
+  /**
+   * Retrieves the IDs of all properties with auto rates enabled, in ascending order.
+   * @return A list of property IDs with auto rates enabled.
+   */
+  @Override
+  public List<Long> findAllPropertyIdsWithAutoRatesEnabled() {
+    return propertyRepository.findAllPropertyIdsWithAutoRatesEnabled();
+  }
+
   /**
    * Finds all distinct cities where properties are located.
    * @return A list of distinct city names.
@@ -111,7 +132,12 @@ public class PropertyServiceImpl implements PropertyService {
   @Override
   public Property createProperty(Users tenant, CreatePropertyRequestDTO requestDTO) {
     propertyServiceHelper.isTenant(tenant);
-    return propertyServiceHelper.toPropertyEntity(tenant, requestDTO);
+    Property property = propertyServiceHelper.toPropertyEntity(tenant, requestDTO);
+    // The search document is built from the property row, so the row is written first
+    propertyRepository.flush();
+    propertySearchIndex.refresh(property.getId());
+    searchSuggestionIndex.putProperty(property.getId(), property.getName(), property.getCity());
+    return property;
   }
 
   /**
@@ -124,7 +150,12 @@ public class PropertyServiceImpl implements PropertyService {
   @Override
   public Property updateProperty(Users tenant, Long propertyId, UpdatePropertyRequestDTO requestDTO) {
     Property existingProperty = propertyServiceHelper.checkIfValid(tenant, propertyId);
-    return propertyServiceHelper.update(existingProperty, requestDTO);
+    Property updatedProperty = propertyServiceHelper.update(existingProperty, requestDTO);
+    propertyViewCache.evict(propertyId);
+    propertyRepository.flush();
+    propertySearchIndex.refresh(propertyId);
+    searchSuggestionIndex.putProperty(propertyId, updatedProperty.getName(), updatedProperty.getCity());
+    return updatedProperty;
   }
 
   /**
@@ -138,6 +169,8 @@ public class PropertyServiceImpl implements PropertyService {
     Property existingProperty = propertyServiceHelper.checkIfValid(tenant, propertyId);
     existingProperty.setDeletedAt(Instant.now());
     propertyRepository.save(existingProperty);
+    propertyViewCache.evict(propertyId);
+    searchSuggestionIndex.removeProperty(propertyId);
     return existingProperty;
   }
 
@@ -168,6 +201,38 @@ public class PropertyServiceImpl implements PropertyService {
     return availableProperties;
   }
 
+  /**
+   * Retrieves the listing of every property available on a specific date, with the lowest base price among its
+   * available rooms. Tenant and category are part of the projection, so no entity is loaded.
+   * @param date The date to check availability.
+   * @return A list of property listings, their adjusted prices are left unset.
+   * @throws PropertyNotFoundException if no property is available on the date.
+   */
+  @Override
+  public List<PropertyListingDTO> findAvailablePropertyListingsOnDate(LocalDate date) {
+    propertyServiceHelper.validateDate(date);
+    List<PropertyListingDTO> availableListings;
+    try (Stream<PropertyListingDTO> listings = propertyRepository.streamAvailablePropertyListingsOnDate(date)) {
+      availableListings = listings.toList();
+    }
+    if (availableListings.isEmpty()) {
+      throw new PropertyNotFoundException("No properties found for this date");
+    }
+    return availableListings;
+  }
+
+  /**
+   * Streams the listing of every property available on a specific date. The caller must close the stream and keep
+   * the surrounding transaction open while consuming it.
+   * @param date The date to check availability.
+   * @return A stream of property listings, their adjusted prices are left unset.
+   */
+  @Override
+  public Stream<PropertyListingDTO> streamAvailablePropertyListingsOnDate(LocalDate date) {
+    propertyServiceHelper.validateDate(date);
+    return propertyRepository.streamAvailablePropertyListingsOnDate(date);
+  }
+
   /**
    * Finds the lowest room rate for a property on a specific date.
    * @param propertyId The ID of the property.
@@ -198,30 +263,48 @@ public class PropertyServiceImpl implements PropertyService {
   }
 
   /**
-   * Finds available properties based on various criteria.
+   * Finds one page of available properties, with the lowest peak-season adjusted price, sorting and pagination all
+   * computed by the database.
    *
-   * @param startDate    The start date of the stay.
-   * @param endDate      The end date of the stay.
-   * @param city         The city to search in.
-   * @param categoryName The category of the property.
-   * @param searchTerm   A search term to filter properties.
-   * @param minPrice     The minimum price.
-   * @param maxPrice     The maximum price.
-   * @param guestCount   The minimum number of guests that could stay in the room
-   * @return A list of property listings matching the criteria.
-   */
-  @Override
-  public List<PropertyListingDTO> findAvailableProperties(
+   * @param startDate     The start date of the stay, also the date prices are adjusted for.
+   * @param endDate       The end date of the stay.
+   * @param city          The city to search in.
+   * @param categoryName  The category of the property.
+   * @param searchTerm    A search term to filter properties.
+   * @param minPrice      The minimum price.
+   * @param maxPrice      The maximum price.
+   * @param guestCount    The minimum number of guests that could stay in the room
+   * @param geoFilter     The radius or map bounds to search in, if any.
+   * @param bookingTime   The time rates must be valid at.
+   * @param sortBy        Either "relevance", "distance", "price" or "name".
+   * @param sortDirection Either "ASC" or "DESC".
+   * @param pageable      The page to fetch, must be unsorted as ordering is part of the query.
+   * @return A page of property listings matching the criteria.
+   */
+  @Override
+  public Page<PropertyListingDTO> findAvailablePropertyListings(
       LocalDate startDate,
       LocalDate endDate,
       String city,
-      String categoryName, String searchTerm,
+      String categoryName,
+      String searchTerm,
       BigDecimal minPrice,
       BigDecimal maxPrice,
-      Integer guestCount) {
+      Integer guestCount,
+      GeoFilterDTO geoFilter,
+      Instant bookingTime,
+      String sortBy,
+      String sortDirection,
+      Pageable pageable) {
     propertyServiceHelper.validateDate(startDate, endDate);
-    return propertyRepository.findAvailableProperties(startDate, endDate, city, categoryName, searchTerm, minPrice,
-        maxPrice, guestCount);
+    // room_availability is checked by the query itself, only the rooms held by checkouts in Redis are passed in. The
+    // holds are looked up with one range query, so an open-ended search costs the same as a one-night one.
+    Long[] heldRoomIds = roomHoldStore.findHeldRoomIds(startDate, endDate).toArray(Long[]::new);
+    return propertyRepository.findAvailablePropertyListings(startDate, endDate, city, categoryName, searchTerm,
+        minPrice, maxPrice, guestCount, geoFilter.latitude(), geoFilter.longitude(), geoFilter.radiusMeters(),
+        geoFilter.minLatitude(), geoFilter.minLongitude(), geoFilter.maxLatitude(), geoFilter.maxLongitude(),
+        bookingTime, heldRoomIds, sortBy, sortDirection, pageable)
+        .map(PropertyListingDTO::new);
   }
 
   // Property ownership verification
@@ -5,6 +5,7 @@ import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
 import com.finalproject.stayease.exceptions.auth.UnauthorizedOperationsException;
 import com.finalproject.stayease.exceptions.properties.RoomAvailabilityNotFoundException;
 import com.finalproject.stayease.exceptions.properties.RoomNotFoundException;
+import com.finalproject.stayease.exceptions.properties.RoomUnavailableException;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.Room;
 import com.finalproject.stayease.property.entity.RoomAvailability;
@@ -14,16 +15,23 @@ import com.finalproject.stayease.property.repository.RoomAvailabilityRepository;
 import com.finalproject.stayease.property.service.PropertyService;
 import com.finalproject.stayease.property.service.RoomAvailabilityService;
 import com.finalproject.stayease.property.service.RoomService;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
+import com.finalproject.stayease.property.service.helpers.RoomAvailabilityConstraint;
+import com.finalproject.stayease.property.service.helpers.RoomHoldStore;
 import com.finalproject.stayease.users.entity.Users;
 import jakarta.transaction.Transactional;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -36,12 +44,14 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
   private final RoomAvailabilityRepository roomAvailabilityRepository;
   private final RoomService roomService;
   private final PropertyService propertyService;
+  private final PropertyViewCache propertyViewCache;
+  private final RoomHoldStore roomHoldStore;
+  private final RoomAvailabilityConstraint roomAvailabilityConstraint;
 
-  // Set room unavailability for a given room
+  // Set room unavailability for a given room, the overlap constraint rejects a room already held for these dates
   @Override
   public RoomAvailability setUnavailability(Long roomId, LocalDate startDate, LocalDate endDate) {
-    Room bookedRoom = getRoomById(roomId);
-    return createRoomAvailability(bookedRoom, startDate, endDate, false, false);
+    return bookRoom(null, roomId, startDate, endDate);
   }
 
   // Set room unavailability for a given room by tenant
@@ -49,8 +59,59 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
   public RoomAvailability setUnavailability(Users tenant, Long roomId, LocalDate startDate, LocalDate endDate) {
     Room existingRoom = getRoomById(roomId);
     validateTenantOwnership(tenant, existingRoom);
-    validateDateRange(roomId, startDate, endDate);
-    return createRoomAvailability(existingRoom, startDate, endDate, false, true);
+    validateDateRange(startDate, endDate);
+    if (roomHoldStore.findHeldRoomIds(startDate, endDate).contains(roomId)) {
+      throw new InvalidDateException("Room is held by a booking in checkout in this date range");
+    }
+    if (overlapsWithoutConstraint(roomId, startDate, endDate)) {
+      throw new InvalidDateException("Room is already unavailable in this date range");
+    }
+    try {
+      return createRoomAvailability(existingRoom, null, startDate, endDate, false, true);
+    } catch (DataIntegrityViolationException e) {
+      if (RoomAvailabilityConstraint.isOverlap(e)) {
+        throw new InvalidDateException("Room is already unavailable in this date range", e);
+      }
+      throw e;
+    }
+  }
+
+  // Hold the rooms of a booking in checkout with one query and one Redis call, all or none of them are held.
+  // Nothing is written to the database until each hold is confirmed.
+  @Override
+  public void holdRooms(UUID bookingId, Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut) {
+    if (roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(roomIds, checkIn, checkOut.minusDays(1))
+        || !roomHoldStore.hold(bookingId, roomIds, checkIn, checkOut)) {
+      throw new RoomUnavailableException("Room is not available for the selected dates");
+    }
+  }
+
+  // Turn a booking's holds into durable unavailability once its payment is settled, all rooms or none. The booking
+  // must still own its holds, a hold that expired is only taken again if nobody else took or booked the nights since.
+  // Returns false rather than throwing when the rooms are gone, so the caller can keep the payment and flag the booking.
+  @Override
+  public boolean confirmHold(UUID bookingId, Collection<Long> roomIds, LocalDate checkIn, LocalDate checkOut) {
+    Set<Long> confirmed = findBookedRoomIds(bookingId);
+    List<Long> unconfirmed = roomIds.stream()
+        .filter(roomId -> !confirmed.contains(roomId))
+        .toList();
+    if (!unconfirmed.isEmpty() && !ownsHold(bookingId, unconfirmed, checkIn, checkOut)) {
+      log.warn("Booking {} lost its hold on rooms {} from {} to {}", bookingId, unconfirmed, checkIn, checkOut);
+      roomHoldStore.release(bookingId);
+      return false;
+    }
+    unconfirmed.forEach(roomId -> bookRoom(bookingId, roomId, checkIn, checkOut));
+    roomHoldStore.release(bookingId);
+    return true;
+  }
+
+  // Release a booking's room, whether it is still held or already confirmed
+  @Override
+  public void releaseRoom(UUID bookingId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+    roomAvailabilityRepository.findBookedUnavailabilityByBookingIds(List.of(bookingId)).stream()
+        .filter(roomAvailability -> Objects.equals(roomAvailability.getRoom().getId(), roomId))
+        .forEach(this::softDeleteRoomAvailability);
+    roomHoldStore.release(bookingId);
   }
 
   // Remove room unavailability for a given room
@@ -67,6 +128,26 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
     softDeleteRoomAvailability(roomAvailability);
   }
 
+  // Release the rooms held by the given bookings, confirmed holds with one bulk update
+  @Override
+  public int releaseBookedUnavailability(Collection<UUID> bookingIds) {
+    if (bookingIds.isEmpty()) {
+      return 0;
+    }
+    bookingIds.forEach(roomHoldStore::release);
+    List<RoomAvailability> booked = roomAvailabilityRepository.findBookedUnavailabilityByBookingIds(bookingIds);
+    if (booked.isEmpty()) {
+      return 0;
+    }
+    roomAvailabilityRepository.softDeleteAllByIdIn(booked.stream().map(RoomAvailability::getId).toList(),
+        Instant.now());
+    booked.stream()
+        .map(roomAvailability -> roomAvailability.getRoom().getProperty().getId())
+        .distinct()
+        .forEach(propertyViewCache::evict);
+    return booked.size();
+  }
+
   // Get room availability by tenant
   @Override
   public List<RoomWithRoomAvailabilityDTO> getRoomAvailabilityByTenant(Users tenant) {
@@ -101,27 +182,69 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
   }
 
   // Validate date range for unavailability
-  private void validateDateRange(Long roomId, LocalDate startDate, LocalDate endDate) {
+  private void validateDateRange(LocalDate startDate, LocalDate endDate) {
     if (startDate.isAfter(endDate)) {
       throw new InvalidDateException("Start date cannot be after end date");
     }
     if (startDate.isBefore(LocalDate.now())) {
       throw new InvalidDateException("Start date cannot be in the past");
     }
-    if (roomAvailabilityRepository.existsOverlappingAvailability(roomId, startDate, endDate)) {
-      throw new InvalidDateException("Room is already unavailable in this date range");
+  }
+
+  // Make a room's nights unavailable for a booking, linked to it so only that booking confirms or releases them
+  private RoomAvailability bookRoom(UUID bookingId, Long roomId, LocalDate startDate, LocalDate endDate) {
+    Room bookedRoom = getRoomById(roomId);
+    if (overlapsWithoutConstraint(roomId, startDate, endDate)) {
+      throw new RoomUnavailableException("Room is not available for the selected dates");
+    }
+    try {
+      return createRoomAvailability(bookedRoom, bookingId, startDate, endDate, false, false);
+    } catch (DataIntegrityViolationException e) {
+      if (RoomAvailabilityConstraint.isOverlap(e)) {
+        throw new RoomUnavailableException("Room is not available for the selected dates", e);
+      }
+      throw e;
     }
   }
 
-  // Create room availability
-  private RoomAvailability createRoomAvailability(Room room, LocalDate startDate, LocalDate endDate, boolean isAvailable, boolean isManual) {
+  // Rooms the booking already has durable unavailability for
+  private Set<Long> findBookedRoomIds(UUID bookingId) {
+    return roomAvailabilityRepository.findBookedUnavailabilityByBookingIds(List.of(bookingId)).stream()
+        .map(roomAvailability -> roomAvailability.getRoom().getId())
+        .collect(Collectors.toSet());
+  }
+
+  // Until the overlap constraint is confirmed present, overlaps are looked for before the insert instead
+  private boolean overlapsWithoutConstraint(Long roomId, LocalDate startDate, LocalDate endDate) {
+    return !roomAvailabilityConstraint.isEnforced()
+        && roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(List.of(roomId), startDate,
+        endDate.minusDays(1));
+  }
+
+  // An expired hold is taken again first, so nobody can take the nights between the database check and the insert
+  private boolean ownsHold(UUID bookingId, List<Long> roomIds, LocalDate checkIn, LocalDate checkOut) {
+    return switch (roomHoldStore.renew(bookingId, roomIds, checkIn, checkOut)) {
+      case HELD -> true;
+      case EXPIRED -> roomHoldStore.hold(bookingId, roomIds, checkIn, checkOut)
+          && !roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(roomIds, checkIn,
+          checkOut.minusDays(1));
+      case TAKEN -> false;
+    };
+  }
+
+  // Create room availability, flushed so an overlap is rejected here rather than at commit
+  private RoomAvailability createRoomAvailability(Room room, UUID bookingId, LocalDate startDate, LocalDate endDate,
+      boolean isAvailable, boolean isManual) {
     RoomAvailability roomAvailability = new RoomAvailability();
     roomAvailability.setRoom(room);
+    roomAvailability.setBookingId(bookingId);
     roomAvailability.setStartDate(startDate);
     roomAvailability.setEndDate(endDate.minusDays(1)); // Adjust end date
     roomAvailability.setIsAvailable(isAvailable);
     roomAvailability.setIsManual(isManual);
-    return roomAvailabilityRepository.save(roomAvailability);
+    RoomAvailability saved = roomAvailabilityRepository.saveAndFlush(roomAvailability);
+    propertyViewCache.evict(saved.getRoom().getProperty().getId());
+    return saved;
   }
 
   // Find room availability by room ID and date range
@@ -134,6 +257,7 @@ public class RoomAvailabilityServiceImpl implements RoomAvailabilityService {
   private void softDeleteRoomAvailability(RoomAvailability roomAvailability) {
     roomAvailability.preRemove();
     roomAvailabilityRepository.save(roomAvailability);
+    propertyViewCache.evict(roomAvailability.getRoom().getProperty().getId());
   }
 
   // Check ownership of room availability by tenant
@@ -14,11 +14,13 @@ import com.finalproject.stayease.property.repository.RoomRepository;
 import com.finalproject.stayease.property.service.PeakSeasonRateService;
 import com.finalproject.stayease.property.service.PropertyService;
 import com.finalproject.stayease.property.service.RoomService;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
 import com.finalproject.stayease.users.entity.Users;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -36,6 +38,7 @@ public class RoomServiceImpl implements RoomService {
   private final RoomRepository roomRepository;
   private final PropertyService propertyService;
   private final PeakSeasonRateService peakSeasonRateService;
+  private final PropertyViewCache propertyViewCache;
 
 
   // Room management
@@ -44,14 +47,18 @@ public class RoomServiceImpl implements RoomService {
   @Override
   public Room createRoom(Long propertyId, CreateRoomRequestDTO requestDTO) {
     Property property = checkPropertyAndDuplicateRoom(propertyId, requestDTO.getName());
-    return createAndSaveRoom(property, requestDTO);
+    Room room = createAndSaveRoom(property, requestDTO);
+    propertyViewCache.evict(propertyId);
+    return room;
   }
 
   // Updates an existing room for a given property
   @Override
   public Room updateRoom(Long propertyId, Long roomId, CreateRoomRequestDTO requestDTO) {
     Room existingRoom = checkRoomBelongsToProperty(propertyId, roomId);
-    return updateRoomDetails(existingRoom, requestDTO);
+    Room updatedRoom = updateRoomDetails(existingRoom, requestDTO);
+    propertyViewCache.evict(propertyId);
+    return updatedRoom;
   }
 
   // Retrieves a room for a given property
@@ -66,6 +73,7 @@ public class RoomServiceImpl implements RoomService {
     Room existingRoom = checkRoomBelongsToProperty(propertyId, roomId);
     isOnlyRoom(propertyId);
     softDeleteRoom(existingRoom);
+    propertyViewCache.evict(propertyId);
   }
 
   // Property and room deletion
@@ -108,6 +116,11 @@ public class RoomServiceImpl implements RoomService {
     return roomRepository.findByIdAndDeletedAtIsNull(roomId);
   }
 
+  @Override
+  public List<Room> findRoomsByIds(Collection<Long> roomIds) {
+    return roomRepository.findAllByIdInAndDeletedAtIsNull(roomIds);
+  }
+
   // Room availability and rates
 
   // Retrieves room rate and availability for a given date
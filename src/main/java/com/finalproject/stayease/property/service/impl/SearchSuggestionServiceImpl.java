@@ -0,0 +1,43 @@
+package com.finalproject.stayease.property.service.impl;
+
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO;
+import com.finalproject.stayease.property.service.SearchSuggestionService;
+import com.finalproject.stayease.property.service.helpers.SearchSuggestionIndex;
+import java.util.List;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+@Service
+@Data
+@Slf4j
+public class SearchSuggestionServiceImpl implements SearchSuggestionService {
+
+  private static final int DEFAULT_LIMIT = 10;
+  private static final int MAX_LIMIT = 20;
+  private static final int MAX_QUERY_LENGTH = 100;
+
+  private final SearchSuggestionIndex searchSuggestionIndex;
+
+  /**
+   * Suggests cities, categories and properties with a word starting with the query, answered from memory.
+   * @param query The text typed so far.
+   * @param limit The maximum number of suggestions, 10 by default and at most 20.
+   * @return The suggestions, best match first.
+   */
+  @Override
+  public List<SuggestionDTO> suggest(String query, Integer limit) {
+    if (query == null || query.isBlank()) {
+      return List.of();
+    }
+    if (query.length() > MAX_QUERY_LENGTH) {
+      throw new InvalidRequestException("Search query cannot be longer than " + MAX_QUERY_LENGTH + " characters");
+    }
+    if (limit != null && limit < 1) {
+      throw new InvalidRequestException("Suggestion limit must be at least 1");
+    }
+    int resolvedLimit = limit == null ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+    return searchSuggestionIndex.suggest(query, resolvedLimit);
+  }
+}
@@ -1,47 +1,47 @@
 package com.finalproject.stayease.scheduler;
 
-import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.PropertyRateSetting;
 import com.finalproject.stayease.property.service.PropertyRateSettingsService;
 import com.finalproject.stayease.property.service.PropertyService;
-import jakarta.transaction.Transactional;
 import java.time.LocalDate;
 import java.util.List;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 /**
  * * This scheduler's task is to set and update the peak season rate for all properties that have auto rates enabled.
- * The first method runs weekly every Sunday at midnight, and the second method runs daily at midnight.
+ * The first method runs weekly every Sunday at midnight, and the second method runs every 4 hours.
  * It fetches all properties with auto rates enabled and updates the peak season rate for each property.
  * The purpose of the first method is to ensure that there is always a rate set for the next 6 months.
  * While the second method is to ensure that the rates are updated daily, in case of any changes in the holiday or
  * long weekend dates. It will update the rates for the next 3 days.
+ * <p>
+ * Properties are processed in chunks by the {@link PartitionedJobRunner}, each chunk in its own transaction. A run is
+ * identified by its start date, so a run that stopped halfway resumes with the properties it had not reached yet.
  */
 
 @Service
 @Data
 @Slf4j
-@Transactional
 public class AutomaticPeakSeasonRateScheduler {
 
+  static final String WEEKLY_JOB = "auto-rates-weekly";
+  static final String INCREMENTAL_JOB = "auto-rates-incremental";
+
   private final PropertyRateSettingsService propertyRateSettingsService;
   private final PropertyService propertyService;
+  private final PartitionedJobRunner jobRunner;
 
   @Scheduled(cron = "${cron.auto-rates.weekly:0 0 0 * * SUN}")
   public void weeklyFullAutomaticPeakSeasonRateUpdate() {
     log.info("Updating automatic peak season rate...");
-
-    // Get all properties that have auto rates enabled
-    List<Property> propertiesWithAutoRatesEnabled = propertyService.findAllPropertiesWithAutoRatesEnabled();
-
-    // Update the peak season rate for each property
-    propertiesWithAutoRatesEnabled.forEach(property -> {
-      PropertyRateSetting validRateSettings = propertyRateSettingsService.getOrCreatePropertyRateSettings(property.getId());
-      propertyRateSettingsService.applySettingForProperty(validRateSettings);
-    });
+    LocalDate startDate = LocalDate.now();
+    LocalDate endDate = startDate.plusMonths(6);
+    updateAutomaticRates(WEEKLY_JOB, startDate, endDate);
     log.info("Automatic peak season rate updated");
   }
 
@@ -50,15 +50,29 @@ public class AutomaticPeakSeasonRateScheduler {
     log.info("Updating incremental automatic peak season rate...");
     LocalDate startDate = LocalDate.now();
     LocalDate endDate = startDate.plusDays(3);
+    updateAutomaticRates(INCREMENTAL_JOB, startDate, endDate);
+    log.info("Incremental automatic peak season rate updated");
+  }
 
+  /**
+   * The weekly run only fires once a week, finish today's run if the instance went down in the middle of it.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void resumeUnfinishedWeeklyUpdate() {
+    if (jobRunner.hasUnfinishedRun(WEEKLY_JOB, LocalDate.now().toString())) {
+      log.info("Resuming unfinished weekly automatic peak season rate update");
+      weeklyFullAutomaticPeakSeasonRateUpdate();
+    }
+  }
+
+  private void updateAutomaticRates(String jobName, LocalDate startDate, LocalDate endDate) {
     // Get all properties that have auto rates enabled
-    List<Property> propertiesWithAutoRatesEnabled = propertyService.findAllPropertiesWithAutoRatesEnabled();
+    List<Long> propertyIds = propertyService.findAllPropertyIdsWithAutoRatesEnabled();
 
-    // Update the peak season rate for each property
-    propertiesWithAutoRatesEnabled.forEach(property -> {
-      PropertyRateSetting validRateSettings = propertyRateSettingsService.getOrCreatePropertyRateSettings(property.getId());
+    // Update the peak season rate for each property, chunk by chunk
+    jobRunner.run(jobName, startDate.toString(), propertyIds, propertyId -> {
+      PropertyRateSetting validRateSettings = propertyRateSettingsService.getOrCreatePropertyRateSettings(propertyId);
       propertyRateSettingsService.applySettingForProperty(validRateSettings, startDate, endDate);
     });
-    log.info("Incremental automatic peak season rate updated");
   }
 }
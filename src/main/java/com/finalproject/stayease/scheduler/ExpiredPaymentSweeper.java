@@ -0,0 +1,45 @@
+package com.finalproject.stayease.scheduler;
+
+import com.finalproject.stayease.transactions.service.TransactionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Expires overdue pending payments in chunks, each chunk in its own transaction. Chunks are claimed with
+ * {@code FOR UPDATE SKIP LOCKED}, so several instances can sweep at the same time without processing a payment twice.
+ */
+@Service
+@Slf4j
+public class ExpiredPaymentSweeper {
+
+  private final TransactionService transactionService;
+  private final int chunkSize;
+  private final int maxChunks;
+
+  public ExpiredPaymentSweeper(TransactionService transactionService,
+      @Value("${payment-expiry.chunk-size:100}") int chunkSize,
+      @Value("${payment-expiry.max-chunks-per-run:50}") int maxChunks) {
+    this.transactionService = transactionService;
+    this.chunkSize = chunkSize;
+    this.maxChunks = maxChunks;
+  }
+
+  @Scheduled(cron = "${cron.payment-expiry.sweep:*/30 * * * * *}")
+  public void sweepExpiredPayments() {
+    int expired = 0;
+    int chunks = 0;
+    int claimed;
+    do {
+      claimed = transactionService.expireOverduePayments(chunkSize);
+      expired += claimed;
+      chunks++;
+    } while (claimed == chunkSize && chunks < maxChunks);
+
+    if (expired > 0) {
+      log.info("Expired {} overdue payments in {} chunks", expired, chunks);
+    }
+  }
+
+}
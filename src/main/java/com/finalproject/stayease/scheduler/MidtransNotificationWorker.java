@@ -0,0 +1,133 @@
+package com.finalproject.stayease.scheduler;
+
+import com.finalproject.stayease.transactions.service.TransactionService;
+import com.finalproject.stayease.transactions.service.helpers.MidtransNotificationInbox;
+import com.finalproject.stayease.transactions.service.helpers.MidtransNotificationInbox.Entry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Processes the {@link MidtransNotificationInbox} on a bounded worker pool. The webhook wakes it up right after a new
+ * notification is stored, and a poll picks up retries and notifications received by other instances.
+ * <p>
+ * Each notification is handled in its own transaction, together with marking it done, so a notification is either
+ * fully applied and done or rolled back and left for a retry. Notifications of the same order are applied one after
+ * the other, also across instances.
+ */
+@Component
+@Slf4j
+public class MidtransNotificationWorker {
+
+  private final MidtransNotificationInbox inbox;
+  private final TransactionService transactionService;
+  private final TransactionTemplate transactionTemplate;
+  private final ThreadPoolExecutor workers;
+  // One drain at a time, plus at most one waiting behind it, every other wake-up is already covered by the waiting one
+  private final ThreadPoolExecutor dispatcher;
+  private final int batchSize;
+
+  public MidtransNotificationWorker(MidtransNotificationInbox inbox, TransactionService transactionService,
+      PlatformTransactionManager transactionManager,
+      @Value("${midtrans-inbox.threads:4}") int threads,
+      @Value("${midtrans-inbox.batch-size:20}") int batchSize) {
+    this.inbox = inbox;
+    this.transactionService = transactionService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+        Thread.ofPlatform().name("midtrans-inbox-worker-", 0).factory());
+    this.dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+        Thread.ofPlatform().name("midtrans-inbox-dispatcher").factory(), new ThreadPoolExecutor.DiscardPolicy());
+    this.batchSize = batchSize;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    dispatcher.shutdown();
+    workers.shutdown();
+  }
+
+  /**
+   * Starts draining the inbox in the background, returns at once.
+   */
+  public void wake() {
+    dispatcher.execute(this::drain);
+  }
+
+  @Scheduled(fixedDelayString = "${midtrans-inbox.poll-interval-ms:5000}")
+  public void poll() {
+    wake();
+  }
+
+  /**
+   * Claims and processes due notifications batch by batch until a claim comes back empty.
+   * @return The number of notifications processed, successfully or not
+   */
+  int drain() {
+    int processed = 0;
+    List<Entry> claimed;
+    do {
+      try {
+        claimed = inbox.claim(batchSize);
+      } catch (DataAccessException e) {
+        log.warn("Could not claim Midtrans notifications: {}", e.getMessage());
+        return processed;
+      }
+      List<Future<?>> running = new ArrayList<>(claimed.size());
+      for (Entry entry : claimed) {
+        running.add(workers.submit(() -> process(entry)));
+      }
+      for (Future<?> result : running) {
+        try {
+          result.get();
+        } catch (ExecutionException e) {
+          log.error("Midtrans notification worker failed", e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          // Unfinished notifications are claimed again once their lease runs out
+          return processed;
+        }
+      }
+      processed += claimed.size();
+      // A short batch does not mean the inbox is empty, a claim takes only one notification per order
+    } while (!claimed.isEmpty());
+    return processed;
+  }
+
+  private void process(Entry entry) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        inbox.lockOrder(entry.orderId());
+        try {
+          transactionService.notificationHandler(entry.toNotification());
+        } catch (MessagingException e) {
+          throw new IllegalStateException(e);
+        }
+        inbox.markDone(entry.id());
+      });
+    } catch (RuntimeException e) {
+      log.warn("Midtrans notification {} for order {} failed on attempt {}: {}", entry.id(), entry.orderId(),
+          entry.attempts(), e.getMessage());
+      try {
+        inbox.markFailed(entry, String.valueOf(e.getMessage()));
+      } catch (DataAccessException markFailed) {
+        log.warn("Could not record the failure of Midtrans notification {}, retried after its lease: {}",
+            entry.id(), markFailed.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package com.finalproject.stayease.scheduler;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs a scheduled job over a list of ids in chunks on a bounded worker pool, each chunk in its own short transaction,
+ * so one slow or failing id only holds up its own chunk.
+ * <p>
+ * Ids of committed chunks are recorded in Redis under the job name and run id. A run that stopped halfway, because the
+ * instance died or a chunk failed, skips them when it is started again with the same run id; the record is dropped once
+ * a run completes. Run duration and chunk latency are exported as the {@code scheduler.job.run} and
+ * {@code scheduler.job.chunk} timers.
+ */
+@Component
+@Slf4j
+public class PartitionedJobRunner {
+
+  private static final String KEY_PREFIX = "stayease:job-progress:";
+
+  private final TransactionTemplate transactionTemplate;
+  private final StringRedisTemplate redisTemplate;
+  private final MeterRegistry meterRegistry;
+  private final ThreadPoolExecutor executor;
+  private final int chunkSize;
+  private final Duration progressTtl;
+
+  private final Set<String> runningJobs = ConcurrentHashMap.newKeySet();
+
+  public PartitionedJobRunner(PlatformTransactionManager transactionManager, StringRedisTemplate redisTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${job-runner.threads:4}") int threads,
+      @Value("${job-runner.chunk-size:50}") int chunkSize,
+      @Value("${job-runner.progress-ttl-hours:48}") long progressTtlHours) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.redisTemplate = redisTemplate;
+    this.meterRegistry = meterRegistry;
+    this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+        Thread.ofPlatform().name("job-worker-", 0).factory());
+    this.chunkSize = chunkSize;
+    this.progressTtl = Duration.ofHours(progressTtlHours);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Applies the action to every id not yet completed in this run and waits for all chunks to finish. A job that is
+   * still running on this instance is not started a second time.
+   * @param jobName Name of the job, used for the progress key and as the meter tag
+   * @param runId Identifies the run, a run started again with the same id resumes where it stopped
+   * @param ids The ids to process
+   * @param action Applied to each id, inside the transaction of its chunk
+   * @return What the run did
+   */
+  public JobRun run(String jobName, String runId, List<Long> ids, Consumer<Long> action) {
+    if (!runningJobs.add(jobName)) {
+      log.warn("Job {} is still running, skipping run {}", jobName, runId);
+      return new JobRun(0, 0, 0);
+    }
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String key = progressKey(jobName, runId);
+    try {
+      Set<Long> completed = completedIds(key);
+      List<Long> pending = ids.stream()
+          .filter(id -> !completed.contains(id))
+          .toList();
+      int skipped = ids.size() - pending.size();
+      if (skipped > 0) {
+        log.info("Resuming job {} run {}: {} of {} ids already done", jobName, runId, skipped, ids.size());
+      }
+
+      Timer chunkTimer = Timer.builder("scheduler.job.chunk").tag("job", jobName).register(meterRegistry);
+      List<Future<Integer>> chunks = new ArrayList<>();
+      for (int from = 0; from < pending.size(); from += chunkSize) {
+        List<Long> chunk = pending.subList(from, Math.min(from + chunkSize, pending.size()));
+        chunks.add(executor.submit(() -> runChunk(key, chunk, action, chunkTimer)));
+      }
+
+      int processed = 0;
+      int failedChunks = 0;
+      for (Future<Integer> chunk : chunks) {
+        try {
+          processed += chunk.get();
+        } catch (ExecutionException e) {
+          failedChunks++;
+          log.error("Chunk of job {} run {} failed, it will be retried on the next run", jobName, runId, e.getCause());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          chunks.forEach(remaining -> remaining.cancel(false));
+          failedChunks++;
+          log.warn("Job {} run {} interrupted, it will resume on the next run", jobName, runId);
+          break;
+        }
+      }
+
+      boolean complete = failedChunks == 0;
+      if (complete) {
+        clearProgress(key);
+      }
+      sample.stop(Timer.builder("scheduler.job.run")
+          .tag("job", jobName)
+          .tag("outcome", complete ? "completed" : "incomplete")
+          .register(meterRegistry));
+      log.info("Job {} run {}: {} processed, {} skipped, {} failed chunks", jobName, runId, processed, skipped,
+          failedChunks);
+      return new JobRun(processed, skipped, failedChunks);
+    } finally {
+      runningJobs.remove(jobName);
+    }
+  }
+
+  /**
+   * Whether a run left progress behind without completing.
+   */
+  public boolean hasUnfinishedRun(String jobName, String runId) {
+    try {
+      return Boolean.TRUE.equals(redisTemplate.hasKey(progressKey(jobName, runId)));
+    } catch (DataAccessException e) {
+      log.warn("Could not read progress of job {} run {}: {}", jobName, runId, e.getMessage());
+      return false;
+    }
+  }
+
+  private int runChunk(String key, List<Long> chunk, Consumer<Long> action, Timer chunkTimer) {
+    return chunkTimer.record(() -> {
+      transactionTemplate.executeWithoutResult(status -> chunk.forEach(action));
+      markCompleted(key, chunk);
+      return chunk.size();
+    });
+  }
+
+  private Set<Long> completedIds(String key) {
+    Set<Long> completed = new HashSet<>();
+    try {
+      Set<String> members = redisTemplate.opsForSet().members(key);
+      if (members != null) {
+        members.forEach(member -> completed.add(Long.valueOf(member)));
+      }
+    } catch (DataAccessException e) {
+      log.warn("Could not read job progress {}, starting from the beginning: {}", key, e.getMessage());
+    }
+    return completed;
+  }
+
+  private void markCompleted(String key, List<Long> ids) {
+    try {
+      redisTemplate.opsForSet().add(key, ids.stream().map(String::valueOf).toArray(String[]::new));
+      redisTemplate.expire(key, progressTtl);
+    } catch (DataAccessException e) {
+      // The chunk is committed, at worst it is applied again when the run resumes
+      log.warn("Could not record job progress {}: {}", key, e.getMessage());
+    }
+  }
+
+  private void clearProgress(String key) {
+    try {
+      redisTemplate.delete(key);
+    } catch (DataAccessException e) {
+      log.warn("Could not clear job progress {}: {}", key, e.getMessage());
+    }
+  }
+
+  private String progressKey(String jobName, String runId) {
+    return KEY_PREFIX + jobName + ":" + runId;
+  }
+
+  public record JobRun(int processed, int skipped, int failedChunks) {
+
+  }
+}
@@ -0,0 +1,26 @@
+package com.finalproject.stayease.scheduler;
+
+import com.finalproject.stayease.property.service.helpers.PropertySearchIndex;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rewrites stale property search documents, catching up on category and tenant changes and on refreshes that failed
+ * after a property write.
+ */
+@Service
+@Slf4j
+@Data
+public class PropertySearchIndexRefreshService {
+
+  private final PropertySearchIndex propertySearchIndex;
+
+  @Scheduled(cron = "${cron.search-index.refresh:0 */15 * * * ?}")
+  public void refreshPropertySearchIndex() {
+    log.info("Refreshing property search index...");
+    propertySearchIndex.refreshStale();
+  }
+
+}
@@ -0,0 +1,25 @@
+package com.finalproject.stayease.scheduler;
+
+import com.finalproject.stayease.property.service.helpers.SearchSuggestionIndex;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rebuilds the search suggestion index, picking up property and category writes made by other instances.
+ */
+@Service
+@Slf4j
+@Data
+public class SearchSuggestionIndexRefreshService {
+
+  private final SearchSuggestionIndex searchSuggestionIndex;
+
+  @Scheduled(cron = "${cron.search-suggestions.rebuild:0 15 * * * ?}")
+  public void rebuildSearchSuggestionIndex() {
+    log.info("Rebuilding search suggestion index...");
+    searchSuggestionIndex.rebuild();
+  }
+
+}
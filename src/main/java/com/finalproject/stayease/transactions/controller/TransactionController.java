@@ -1,9 +1,12 @@
 package com.finalproject.stayease.transactions.controller;
 
 import com.finalproject.stayease.responses.Response;
+import com.finalproject.stayease.scheduler.MidtransNotificationWorker;
 import com.finalproject.stayease.transactions.dto.request.NotificationReqDTO;
 import com.finalproject.stayease.transactions.dto.request.TransactionReqDTO;
 import com.finalproject.stayease.transactions.service.TransactionService;
+import com.finalproject.stayease.transactions.service.helpers.MidtransNotificationInbox;
+import com.finalproject.stayease.transactions.service.helpers.TransactionIdempotencyStore;
 import com.finalproject.stayease.users.service.UsersService;
 import jakarta.mail.MessagingException;
 import lombok.extern.java.Log;
@@ -11,7 +14,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -20,23 +23,52 @@ import java.util.UUID;
 public class TransactionController {
     private final TransactionService transactionService;
     private final UsersService usersService;
+    private final TransactionIdempotencyStore transactionIdempotencyStore;
+    private final MidtransNotificationInbox midtransNotificationInbox;
+    private final MidtransNotificationWorker midtransNotificationWorker;
 
-    public TransactionController(TransactionService transactionService, UsersService usersService) {
+    public TransactionController(TransactionService transactionService, UsersService usersService,
+                                 TransactionIdempotencyStore transactionIdempotencyStore,
+                                 MidtransNotificationInbox midtransNotificationInbox,
+                                 MidtransNotificationWorker midtransNotificationWorker) {
         this.transactionService = transactionService;
         this.usersService = usersService;
+        this.transactionIdempotencyStore = transactionIdempotencyStore;
+        this.midtransNotificationInbox = midtransNotificationInbox;
+        this.midtransNotificationWorker = midtransNotificationWorker;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createTransaction(@RequestBody TransactionReqDTO reqDto,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        Long userId = usersService.getLoggedUser().getId();
+        // Books every room in reqDto.booking.bookingItems under one booking and one payment
+        var response = idempotencyKey == null
+                ? transactionService.createTransaction(reqDto, userId)
+                : transactionIdempotencyStore.execute(userId, idempotencyKey, reqDto,
+                        () -> transactionService.createTransaction(reqDto, userId));
+        return Response.successfulResponse(HttpStatus.OK.value(), "Transaction success", response);
     }
 
     @PostMapping("/{roomId}")
-    public ResponseEntity<?> createTransaction(@RequestBody TransactionReqDTO reqDto, @PathVariable Long roomId) {
+    public ResponseEntity<?> createTransaction(@RequestBody TransactionReqDTO reqDto, @PathVariable Long roomId,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         Long userId = usersService.getLoggedUser().getId();
-        var response = transactionService.createTransaction(reqDto, userId, roomId);
+        // A retry with the same key gets the first response back instead of a second booking and charge
+        var response = idempotencyKey == null
+                ? transactionService.createTransaction(reqDto, userId, roomId)
+                : transactionIdempotencyStore.execute(userId, idempotencyKey, List.of(roomId, reqDto),
+                        () -> transactionService.createTransaction(reqDto, userId, roomId));
         return Response.successfulResponse(HttpStatus.OK.value(), "Transaction success", response);
     }
 
     @PostMapping("/notification-handler")
-    public ResponseEntity<?> notificationHandler(@RequestBody NotificationReqDTO reqDto) throws IOException, InterruptedException, MessagingException {
-        var response = transactionService.notificationHandler(reqDto);
-        return Response.successfulResponse("Updated", response);
+    public ResponseEntity<?> notificationHandler(@RequestBody NotificationReqDTO reqDto) {
+        // Acknowledged once stored, the payment and booking are updated by the inbox worker
+        if (midtransNotificationInbox.accept(reqDto)) {
+            midtransNotificationWorker.wake();
+        }
+        return Response.successfulResponse("Notification received", null);
     }
 
     @PutMapping("/user/{bookingId}")
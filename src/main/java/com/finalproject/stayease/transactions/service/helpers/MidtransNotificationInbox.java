@@ -0,0 +1,168 @@
+package com.finalproject.stayease.transactions.service.helpers;
+
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
+import com.finalproject.stayease.transactions.dto.request.NotificationReqDTO;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Inbox of Midtrans payment notifications. The webhook only records a notification here and acknowledges it, the
+ * payment and booking updates run later on {@code MidtransNotificationWorker}. A notification is stored once per order
+ * and transaction status, so Midtrans resending it is a no-op, unless the stored one was parked as failed, in which
+ * case the resend brings it back with fresh attempts.
+ * <p>
+ * Workers claim due rows with {@code FOR UPDATE SKIP LOCKED} and push them out by a lease, so several instances can
+ * process the inbox at once and a row claimed by a worker that died is picked up again once its lease runs out. A
+ * claim takes at most one row per order, and {@link #lockOrder} keeps workers on different instances from applying
+ * two notifications of the same order at once. A row that keeps failing is retried with a growing delay and parked as
+ * {@code FAILED} after the last attempt. The table comes from the {@code V4__midtrans_notification_inbox} migration.
+ */
+@Component
+@Log
+public class MidtransNotificationInbox {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO midtrans_notification_inbox (order_id, transaction_status, received_at, available_at)
+            VALUES (?, ?, ?, ?)
+            ON CONFLICT (order_id, transaction_status) DO UPDATE
+            SET status = 'PENDING', attempts = 0, last_error = NULL, processed_at = NULL,
+                available_at = EXCLUDED.available_at
+            WHERE midtrans_notification_inbox.status = 'FAILED'
+            """;
+
+    private static final String CLAIM_SQL = """
+            UPDATE midtrans_notification_inbox
+            SET attempts = attempts + 1, available_at = ?
+            WHERE id IN (
+              SELECT DISTINCT ON (order_id) id
+              FROM (
+                SELECT id, order_id, received_at FROM midtrans_notification_inbox
+                WHERE status = 'PENDING' AND available_at <= ?
+                ORDER BY available_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+              ) due
+              ORDER BY order_id, received_at
+            )
+            RETURNING id, order_id, transaction_status, attempts
+            """;
+
+    private static final String DONE_SQL = """
+            UPDATE midtrans_notification_inbox
+            SET status = 'DONE', processed_at = ?, last_error = NULL
+            WHERE id = ?
+            """;
+
+    private static final String RETRY_SQL = """
+            UPDATE midtrans_notification_inbox
+            SET available_at = ?, last_error = ?
+            WHERE id = ?
+            """;
+
+    private static final String FAILED_SQL = """
+            UPDATE midtrans_notification_inbox
+            SET status = 'FAILED', processed_at = ?, last_error = ?
+            WHERE id = ?
+            """;
+
+    // Held until the worker's transaction ends
+    private static final String LOCK_ORDER_SQL = """
+            SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtextextended(?, 0))) locked
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Outlives the slowest notification, a row claimed by a worker that died is claimed again after it
+    private final Duration lease;
+    private final Duration retryDelay;
+    private final int maxAttempts;
+
+    public MidtransNotificationInbox(JdbcTemplate jdbcTemplate,
+                                     @Value("${midtrans-inbox.lease-seconds:300}") long leaseSeconds,
+                                     @Value("${midtrans-inbox.retry-delay-seconds:30}") long retryDelaySeconds,
+                                     @Value("${midtrans-inbox.max-attempts:5}") int maxAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+        this.retryDelay = Duration.ofSeconds(retryDelaySeconds);
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Records the notification unless the same order and status were already received.
+     * @return whether the notification was new
+     */
+    public boolean accept(NotificationReqDTO notification) {
+        String orderId = notification.getOrder_id();
+        String transactionStatus = notification.getTransaction_status();
+        if (orderId == null || transactionStatus == null) {
+            throw new InvalidRequestException("Notification needs an order_id and a transaction_status");
+        }
+        try {
+            UUID.fromString(orderId);
+        } catch (IllegalArgumentException e) {
+            // Not one of our bookings, e.g. a test notification from the Midtrans dashboard
+            log.warning("Ignoring Midtrans notification for unknown order " + orderId);
+            return false;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        return jdbcTemplate.update(INSERT_SQL, orderId, transactionStatus, now, now) == 1;
+    }
+
+    /**
+     * Claims up to limit due notifications for this worker, at most one per order, each claim counts as an attempt. The
+     * other notifications of an order stay due and are claimed by a later call, oldest first.
+     */
+    public List<Entry> claim(int limit) {
+        Instant now = Instant.now();
+        return jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new Entry(
+                rs.getLong("id"),
+                rs.getString("order_id"),
+                rs.getString("transaction_status"),
+                rs.getInt("attempts")
+        ), Timestamp.from(now.plus(lease)), Timestamp.from(now), limit);
+    }
+
+    /**
+     * Waits until no other transaction is applying a notification of the order, then keeps it that way until the current
+     * transaction ends. Must run inside the transaction that applies the notification.
+     */
+    public void lockOrder(String orderId) {
+        jdbcTemplate.queryForObject(LOCK_ORDER_SQL, Integer.class, orderId);
+    }
+
+    public void markDone(long id) {
+        jdbcTemplate.update(DONE_SQL, Timestamp.from(Instant.now()), id);
+    }
+
+    /**
+     * Schedules the notification for another attempt, or parks it as failed once it has used up its attempts.
+     */
+    public void markFailed(Entry entry, String error) {
+        Instant now = Instant.now();
+        if (entry.attempts() >= maxAttempts) {
+            log.severe("Midtrans notification " + entry.id() + " for order " + entry.orderId() + " failed "
+                    + entry.attempts() + " times, giving up: " + error);
+            jdbcTemplate.update(FAILED_SQL, Timestamp.from(now), error, entry.id());
+            return;
+        }
+        Instant retryAt = now.plus(retryDelay.multipliedBy(entry.attempts()));
+        jdbcTemplate.update(RETRY_SQL, Timestamp.from(retryAt), error, entry.id());
+    }
+
+    public record Entry(long id, String orderId, String transactionStatus, int attempts) {
+
+        public NotificationReqDTO toNotification() {
+            NotificationReqDTO notification = new NotificationReqDTO();
+            notification.setOrder_id(orderId);
+            notification.setTransaction_status(transactionStatus);
+            return notification;
+        }
+    }
+}
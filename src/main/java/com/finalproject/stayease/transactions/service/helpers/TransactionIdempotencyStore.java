@@ -0,0 +1,252 @@
+package com.finalproject.stayease.transactions.service.helpers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
+import com.finalproject.stayease.exceptions.utils.RequestInProgressException;
+import com.finalproject.stayease.transactions.dto.TransactionDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes {@code POST /transactions} safe to retry under an {@code Idempotency-Key} header. The first request with a key
+ * claims it in Redis, runs the transaction and stores the response there, a retry with the same key gets that response
+ * back with a single read and creates no second booking, payment or Midtrans charge.
+ * <p>
+ * Retries that arrive while the first request is still running wait for it instead of failing: on the same instance
+ * they join the running request directly, on another instance they poll the key until the response is stored. Keys
+ * are scoped to the user, and reusing a key for a different request body is rejected. A failed request releases its
+ * key so it can be retried. If Redis is down, transactions run without the idempotency check.
+ * <p>
+ * The claim is renewed while its request runs, so a slow Midtrans charge cannot outlive it and let a retry charge a
+ * second time. Its TTL only decides how long a key stays stuck after the instance holding it died.
+ */
+@Component
+@Log
+public class TransactionIdempotencyStore {
+
+    private static final String KEY_PREFIX = "stayease:idempotency:transactions:";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    // KEYS: the idempotency key, ARGV: the claim, TTL in milliseconds. Only a key still holding the claim is renewed.
+    private static final RedisScript<Long> RENEW_CLAIM = new DefaultRedisScript<>("""
+            if redis.call('GET', KEYS[1]) == ARGV[1] then
+              return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            end
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration responseTtl;
+    // Renewed every third of itself while the request runs, a key claimed by an instance that died is freed after it
+    private final Duration claimTtl;
+    private final Duration waitTimeout;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService claimRenewer = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("idempotency-claim-renewer").daemon().factory());
+
+    public TransactionIdempotencyStore(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                                       @Value("${idempotency.response-ttl-hours:24}") long responseTtlHours,
+                                       @Value("${idempotency.claim-ttl-seconds:60}") long claimTtlSeconds,
+                                       @Value("${idempotency.wait-seconds:10}") long waitSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.responseTtl = Duration.ofHours(responseTtlHours);
+        this.claimTtl = Duration.ofSeconds(claimTtlSeconds);
+        this.waitTimeout = Duration.ofSeconds(waitSeconds);
+    }
+
+    /**
+     * Runs the transaction once per user and key, every other call with the same key gets the first call's response.
+     * @param request what the key must keep meaning, compared by its JSON
+     */
+    public TransactionDTO execute(Long userId, String idempotencyKey, Object request, Supplier<TransactionDTO> transaction) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String key = KEY_PREFIX + userId + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            checkFingerprint(running.fingerprint(), fingerprint);
+            return await(running.response());
+        }
+        try {
+            TransactionDTO response = executeOnce(key, fingerprint, transaction);
+            mine.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private TransactionDTO executeOnce(String key, String fingerprint, Supplier<TransactionDTO> transaction) {
+        Entry stored;
+        try {
+            stored = claimOrRead(key, fingerprint);
+        } catch (DataAccessException e) {
+            log.warning("Idempotency store unavailable, running transaction without it: " + e.getMessage());
+            return transaction.get();
+        }
+        if (stored != null) {
+            return stored.response();
+        }
+
+        TransactionDTO response;
+        ScheduledFuture<?> renewal = renewWhileRunning(key, write(new Entry(fingerprint, null)));
+        try {
+            response = transaction.get();
+        } catch (RuntimeException e) {
+            renewal.cancel(false);
+            release(key);
+            throw e;
+        }
+        renewal.cancel(false);
+        try {
+            redisTemplate.opsForValue().set(key, write(new Entry(fingerprint, response)), responseTtl);
+        } catch (DataAccessException e) {
+            log.warning("Could not store the response for idempotency key " + key + ": " + e.getMessage());
+        }
+        return response;
+    }
+
+    // Returns the stored response for the key, or null once this request has claimed it
+    private Entry claimOrRead(String key, String fingerprint) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            String value = redisTemplate.opsForValue().get(key);
+            if (value == null) {
+                Boolean claimed = redisTemplate.opsForValue().setIfAbsent(key, write(new Entry(fingerprint, null)), claimTtl);
+                if (Boolean.TRUE.equals(claimed)) {
+                    return null;
+                }
+                continue;
+            }
+            Entry entry = read(value);
+            checkFingerprint(entry.fingerprint(), fingerprint);
+            if (entry.response() != null) {
+                return entry;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new RequestInProgressException("A request with this Idempotency-Key is still being processed");
+            }
+            sleep();
+        }
+    }
+
+    private ScheduledFuture<?> renewWhileRunning(String key, String claim) {
+        long periodMillis = Math.max(claimTtl.toMillis() / 3, 1);
+        return claimRenewer.scheduleAtFixedRate(() -> {
+            try {
+                redisTemplate.execute(RENEW_CLAIM, List.of(key), claim, String.valueOf(claimTtl.toMillis()));
+            } catch (DataAccessException e) {
+                log.warning("Could not renew idempotency key " + key + ": " + e.getMessage());
+            }
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        claimRenewer.shutdownNow();
+    }
+
+    private void release(String key) {
+        try {
+            redisTemplate.delete(key);
+        } catch (DataAccessException e) {
+            log.warning("Could not release idempotency key " + key + ", it expires on its own: " + e.getMessage());
+        }
+    }
+
+    private TransactionDTO await(CompletableFuture<TransactionDTO> response) {
+        try {
+            return response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new RequestInProgressException("A request with this Idempotency-Key is still being processed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException("Interrupted while waiting for the request with this Idempotency-Key", e);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestInProgressException("Interrupted while waiting for the request with this Idempotency-Key", e);
+        }
+    }
+
+    private static void checkFingerprint(String expected, String actual) {
+        if (!expected.equals(actual)) {
+            throw new InvalidRequestException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not fingerprint the request", e);
+        }
+    }
+
+    private String write(Entry entry) {
+        try {
+            return objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the idempotent response", e);
+        }
+    }
+
+    private Entry read(String value) {
+        try {
+            return objectMapper.readValue(value, Entry.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read the idempotent response", e);
+        }
+    }
+
+    // A null response means the request holding the key has not finished yet
+    record Entry(String fingerprint, TransactionDTO response) {
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<TransactionDTO> response) {
+    }
+}
@@ -1,7 +1,5 @@
 package com.finalproject.stayease.transactions.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.finalproject.stayease.bookings.entity.Booking;
 import com.finalproject.stayease.bookings.entity.BookingItem;
 import com.finalproject.stayease.bookings.entity.BookingStatus;
@@ -9,11 +7,13 @@ import com.finalproject.stayease.bookings.service.BookingService;
 import com.finalproject.stayease.helpers.HtmlDataMap;
 import com.finalproject.stayease.mail.service.MailService;
 import com.finalproject.stayease.midtrans.dto.BankTransferDTO;
+import com.finalproject.stayease.midtrans.dto.CustomExpiryDTO;
 import com.finalproject.stayease.midtrans.dto.MidtransReqDTO;
 import com.finalproject.stayease.midtrans.dto.TransactionDetailDTO;
 import com.finalproject.stayease.midtrans.service.MidtransService;
 import com.finalproject.stayease.payment.entity.Payment;
 import com.finalproject.stayease.payment.entity.PaymentStatus;
+import com.finalproject.stayease.payment.entity.dto.ExpiredPaymentClaim;
 import com.finalproject.stayease.payment.service.PaymentService;
 import com.finalproject.stayease.property.service.RoomAvailabilityService;
 import com.finalproject.stayease.transactions.dto.request.NotificationReqDTO;
@@ -27,16 +27,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.java.Log;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.time.Instant;
 import java.util.*;
 
@@ -52,16 +46,23 @@ public class TransactionServiceImpl implements TransactionService {
     private final HtmlDataMap htmlDataMap;
     private final RoomAvailabilityService roomAvailabilityService;
 
-    @Value("${midtrans.secret.key}")
-    private String midtransSecret;
-
     // User Transaction Section
 
     @Override
     @Transactional
     public TransactionDTO createTransaction(TransactionReqDTO reqDto, Long userId, Long roomId) {
         Booking newBooking = bookingService.createBooking(reqDto.getBooking(), userId, roomId, reqDto.getAmount());
+        return createPayment(reqDto, newBooking);
+    }
+
+    @Override
+    @Transactional
+    public TransactionDTO createTransaction(TransactionReqDTO reqDto, Long userId) {
+        Booking newBooking = bookingService.createBooking(reqDto.getBooking(), userId, reqDto.getAmount());
+        return createPayment(reqDto, newBooking);
+    }
 
+    private TransactionDTO createPayment(TransactionReqDTO reqDto, Booking newBooking) {
         if (Objects.equals(reqDto.getPaymentMethod(), "bank_transfer")){
             var transactionDetail = new TransactionDetailDTO();
             transactionDetail.setOrder_id(String.valueOf(newBooking.getId()));
@@ -109,7 +110,7 @@ public class TransactionServiceImpl implements TransactionService {
 
     @Override
     @Transactional
-    public TransactionDTO notificationHandler(NotificationReqDTO reqDto) throws IOException, InterruptedException, MessagingException {
+    public TransactionDTO notificationHandler(NotificationReqDTO reqDto) throws MessagingException {
         List<String> failedTransactionStatuses = List.of("expire", "cancel", "deny", "failure");
         Payment updatedPayment;
         Booking updatedBooking;
@@ -117,21 +118,15 @@ public class TransactionServiceImpl implements TransactionService {
         Payment payment = paymentService.findPaymentByBookingId(UUID.fromString(reqDto.getOrder_id()));
         Booking booking = bookingService.findById(UUID.fromString(reqDto.getOrder_id()));
 
-        log.info("Incoming notif from -> " + reqDto.getOrder_id());
+        log.info("Processing notif for -> " + reqDto.getOrder_id());
 
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create("https://api.sandbox.midtrans.com/v2/" + reqDto.getOrder_id() + "/status"))
-                .header("accept", "application/json")
-                .header("authorization", midtransSecret)
-                .method("GET", HttpRequest.BodyPublishers.noBody())
-                .build();
+        // The notification itself is not trusted, the status is read back from Midtrans
+        String transactionStatus = midtransService.getTransactionStatus(reqDto.getOrder_id());
 
-        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
-        var responseBody = response.body();
-
-        ObjectMapper mapper = new ObjectMapper();
-        JsonNode jsonNode = mapper.readTree(responseBody);
-        String transactionStatus = jsonNode.get("transaction_status").asText();
+        if (alreadyApplied(booking, transactionStatus)) {
+            log.info("Booking " + booking.getId() + " is already " + booking.getStatus() + ", nothing to apply for " + transactionStatus);
+            return toResDto(booking.getId(), booking.getStatus(), payment.getPaymentMethod(), payment.getPaymentStatus());
+        }
 
         if (failedTransactionStatuses.contains(transactionStatus)) {
             updatedPayment = paymentService.updatePaymentStatus(payment.getId(), PaymentStatus.fromString(transactionStatus));
@@ -143,8 +138,8 @@ public class TransactionServiceImpl implements TransactionService {
 
             var bookingItems = updatedBooking.getBookingItems();
             for (BookingItem bookingItem : bookingItems) {
-                roomAvailabilityService.removeUnavailability(
-                        bookingItem.getRoom().getId(), updatedBooking.getCheckInDate(), updatedBooking.getCheckOutDate()
+                roomAvailabilityService.releaseRoom(
+                        updatedBooking.getId(), bookingItem.getRoom().getId(), updatedBooking.getCheckInDate(), updatedBooking.getCheckOutDate()
                 );
             }
             return toResDto(updatedBooking.getId(), updatedBooking.getStatus(), updatedPayment.getPaymentMethod(), updatedPayment.getPaymentStatus());
@@ -161,8 +156,20 @@ public class TransactionServiceImpl implements TransactionService {
                     Sincerely,\s
                     Stay Ease Admin""";
             updatedPayment = paymentService.updatePaymentStatus(payment.getId(), PaymentStatus.SETTLEMENT);
+            if (!confirmRooms(booking)) {
+                // Paid after the hold lapsed and someone else got the rooms, the money has to go back
+                log.severe("Booking " + booking.getId() + " was paid after losing its rooms and needs a refund");
+                updatedBooking = bookingService.updateBooking(booking.getId(), BookingStatus.REFUND_REQUIRED);
+                return toResDto(updatedBooking.getId(), updatedBooking.getStatus(), updatedPayment.getPaymentMethod(), updatedPayment.getPaymentStatus());
+            }
             updatedBooking = bookingService.updateBooking(booking.getId(), BookingStatus.PAYMENT_COMPLETE);
-            mailService.sendMailWithPdf(user.getEmail(), "Booking Invoice", "booking-invoice.html", data, message);
+            try {
+                // Queued for after the commit by the mail dispatcher
+                mailService.sendMailWithPdf(user.getEmail(), "Booking Invoice", "booking-invoice.html", data, message);
+            } catch (IOException e) {
+                // The payment is settled either way, a missing invoice is not worth rolling it back for
+                log.warning("Could not render the booking invoice for " + user.getEmail() + ": " + e.getMessage());
+            }
 
             return toResDto(updatedBooking.getId(), updatedBooking.getStatus(), updatedPayment.getPaymentMethod(), updatedPayment.getPaymentStatus());
         }
@@ -191,7 +198,7 @@ public class TransactionServiceImpl implements TransactionService {
 
         var bookingItems = cancelledBooking.getBookingItems();
         for (BookingItem bookingItem : bookingItems) {
-            roomAvailabilityService.removeUnavailability(bookingItem.getRoom().getId(), cancelledBooking.getCheckInDate(), cancelledBooking.getCheckOutDate());
+            roomAvailabilityService.releaseRoom(cancelledBooking.getId(), bookingItem.getRoom().getId(), cancelledBooking.getCheckInDate(), cancelledBooking.getCheckOutDate());
         }
 
         String message = """
@@ -239,38 +246,43 @@ public class TransactionServiceImpl implements TransactionService {
         return toResDto(rejectedBooking.getId(), rejectedBooking.getStatus(), rejectedPayment.getPaymentMethod(), rejectedPayment.getPaymentStatus());
     }
 
+    /**
+     * Claims up to {@code limit} expired pending payments, skipping rows another instance has already locked, and expires
+     * them together with their bookings and room holds using bulk updates. Expiry mails are queued after commit.
+     *
+     * @return the number of payments expired, less than {@code limit} once nothing is left to claim
+     */
+    @Override
     @Transactional
-    @Scheduled(cron = "*/30 * * * * *")
-    public void autoCancelTransaction() throws MessagingException {
-        var payments = paymentService.findExpiredPendingPayment();
-
-        if (payments.isEmpty()) {
-            log.info("No expired payment found");
-            return;
+    public int expireOverduePayments(int limit) {
+        List<ExpiredPaymentClaim> claims = paymentService.claimExpiredPendingPayments(limit);
+        if (claims.isEmpty()) {
+            return 0;
         }
 
-        for (Payment payment : payments) {
-            Booking booking = payment.getBooking();
-            var cancelledPayment = paymentService.updatePaymentStatus(payment.getId(), PaymentStatus.EXPIRE);
-            var cancelledBooking = bookingService.updateBooking(booking.getId(),BookingStatus.EXPIRED);
+        List<Long> paymentIds = claims.stream().map(ExpiredPaymentClaim::getPaymentId).toList();
+        List<UUID> bookingIds = claims.stream().map(ExpiredPaymentClaim::getBookingId).toList();
+        paymentService.updatePaymentStatuses(paymentIds, PaymentStatus.EXPIRE);
+        bookingService.updateBookingStatuses(bookingIds, BookingStatus.EXPIRED);
+        int releasedRooms = roomAvailabilityService.releaseBookedUnavailability(bookingIds);
 
-            var bookingItems = cancelledBooking.getBookingItems();
-            for (BookingItem bookingItem : bookingItems) {
-                roomAvailabilityService.removeUnavailability(bookingItem.getRoom().getId(), cancelledBooking.getCheckInDate(), cancelledBooking.getCheckOutDate().minusDays(1));
+        String message = """
+                    Your booking has expired.\s
+                    If you still want to booked the properties, please book it again and don't forget to complete the payment.\s
+                    \s
+                    Best regards,\s
+                    Stay Ease Customer Service
+                """;
+        for (ExpiredPaymentClaim claim : claims) {
+            try {
+                mailService.sendMimeMessage(claim.getUserEmail(), "Booking expired", message);
+            } catch (MessagingException e) {
+                log.warning("Could not queue expiry mail for booking " + claim.getBookingId() + ": " + e.getMessage());
             }
-
-            String message = """
-                        Your booking has expired.\s
-                        If you still want to booked the properties, please book it again and don't forget to complete the payment.\s
-                        \s
-                        Best regards,\s
-                        Stay Ease Customer Service
-                    """;
-
-            mailService.sendMimeMessage(booking.getUser().getEmail(), "Booking expired", message);
-
-            log.info("Payment with id -> " + cancelledPayment.getId() + " and booking id " + cancelledBooking.getId() + " has been cancelled due to expiration time.");
         }
+
+        log.info("Expired " + claims.size() + " payments and released " + releasedRooms + " room holds");
+        return claims.size();
     }
 
     @Override
@@ -282,6 +294,10 @@ public class TransactionServiceImpl implements TransactionService {
             throw new RuntimeException("This booking does not have a payment proof, you cannot approve this booking");
         }
 
+        if (!confirmRooms(booking)) {
+            throw new RuntimeException("This booking lost its rooms before it was paid and needs a refund, you cannot approve this booking");
+        }
+
         var updatedBooking = bookingService.updateBooking(bookingId, BookingStatus.PAYMENT_COMPLETE);
         var updatedPayment = paymentService.updatePaymentStatus(payment.getId(), PaymentStatus.SETTLEMENT);
 
@@ -317,7 +333,7 @@ public class TransactionServiceImpl implements TransactionService {
 
         var bookingItems = cancelledBooking.getBookingItems();
         for (BookingItem bookingItem : bookingItems) {
-            roomAvailabilityService.removeUnavailability(bookingItem.getRoom().getId(), cancelledBooking.getCheckInDate(), cancelledBooking.getCheckOutDate());
+            roomAvailabilityService.releaseRoom(cancelledBooking.getId(), bookingItem.getRoom().getId(), cancelledBooking.getCheckInDate(), cancelledBooking.getCheckOutDate());
         }
 
         String message = """
@@ -344,6 +360,27 @@ public class TransactionServiceImpl implements TransactionService {
         return response;
     }
 
+    // A resent or late notification finds the booking already where Midtrans says it should be, applying it again would
+    // release or confirm the rooms a second time
+    private boolean alreadyApplied(Booking booking, String transactionStatus) {
+        BookingStatus status = booking.getStatus();
+        return switch (transactionStatus) {
+            case "settlement" -> status == BookingStatus.PAYMENT_COMPLETE || status == BookingStatus.COMPLETED
+                    || status == BookingStatus.REFUND_REQUIRED;
+            case "expire" -> status == BookingStatus.EXPIRED;
+            case "cancel", "deny", "failure" -> status == BookingStatus.FAILED || status == BookingStatus.CANCELLED;
+            default -> false;
+        };
+    }
+
+    // The rooms stay held in Redis until the payment settles, then they become durable unavailability
+    private boolean confirmRooms(Booking booking) {
+        List<Long> roomIds = booking.getBookingItems().stream()
+                .map(bookingItem -> bookingItem.getRoom().getId())
+                .toList();
+        return roomAvailabilityService.confirmHold(booking.getId(), roomIds, booking.getCheckInDate(), booking.getCheckOutDate());
+    }
+
     private TransactionDTO toResDto(
             UUID bookingId, BookingStatus bookingStatus, String paymentMethod, PaymentStatus paymentStatus
     ) {
@@ -361,6 +398,12 @@ public class TransactionServiceImpl implements TransactionService {
         midtransReqDto.setTransaction_details(transactionDetail);
         midtransReqDto.setBank_transfer(bankTransfer);
 
+        // Close the virtual account with the payment deadline, well before the room holds run out
+        var customExpiry = new CustomExpiryDTO();
+        customExpiry.setExpiry_duration(30);
+        customExpiry.setUnit("minute");
+        midtransReqDto.setCustom_expiry(customExpiry);
+
         midtransReqDto.setPayment_type(paymentMethod);
 
         return midtransReqDto;
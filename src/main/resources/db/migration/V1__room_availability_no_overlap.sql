@@ -0,0 +1,28 @@
+-- Lets the database reject overlapping room holds, see RoomAvailabilityConstraint.
+-- Written to be a no-op on databases where the application already added these objects itself.
+
+-- Lets the GiST index compare room_id with =
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- end_date is the last night held, a zero-night row gets an empty range that overlaps nothing
+ALTER TABLE room_availability
+  ADD COLUMN IF NOT EXISTS stay DATERANGE
+  GENERATED ALWAYS AS (DATERANGE(start_date, end_date + 1)) STORED;
+
+-- Cannot be added while overlapping holds exist. The migration still succeeds so the application starts, it checks
+-- for the constraint on startup and looks for overlaps itself until the constraint is added by hand.
+DO $$
+BEGIN
+  IF NOT EXISTS (
+    SELECT 1 FROM pg_constraint
+    WHERE conname = 'room_availability_no_overlap' AND conrelid = 'room_availability'::regclass
+  ) THEN
+    ALTER TABLE room_availability
+      ADD CONSTRAINT room_availability_no_overlap
+      EXCLUDE USING GIST (room_id WITH =, stay WITH &&)
+      WHERE (deleted_at IS NULL AND is_available = false);
+  END IF;
+EXCEPTION
+  WHEN exclusion_violation THEN
+    RAISE WARNING 'room_availability has overlapping holds, room_availability_no_overlap was not added';
+END $$;
@@ -0,0 +1,17 @@
+-- One search document per property, written by PropertySearchIndex.
+-- Written to be a no-op on databases where the application already added these objects itself.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE IF NOT EXISTS property_search_document (
+  property_id BIGINT PRIMARY KEY REFERENCES property (id) ON DELETE CASCADE,
+  document TEXT NOT NULL,
+  search_vector TSVECTOR NOT NULL,
+  updated_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_property_search_document_vector
+  ON property_search_document USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_property_search_document_trgm
+  ON property_search_document USING GIN (document gin_trgm_ops);
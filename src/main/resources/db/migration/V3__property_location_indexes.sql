@@ -0,0 +1,8 @@
+-- GiST indexes on the property location. Searches still work without them, only slower.
+
+-- Radius and map bounds searches on the location column
+CREATE INDEX IF NOT EXISTS idx_property_location ON property USING GIST (location);
+
+-- Map clusters cut the plane into lon/lat tiles, which the planar geometry index answers directly
+CREATE INDEX IF NOT EXISTS idx_property_location_geometry
+  ON property USING GIST ((CAST(location AS geometry)));
@@ -0,0 +1,19 @@
+-- Inbox of Midtrans payment notifications, see MidtransNotificationInbox.
+-- Written to be a no-op on databases where the application already added these objects itself.
+
+CREATE TABLE IF NOT EXISTS midtrans_notification_inbox (
+  id BIGSERIAL PRIMARY KEY,
+  order_id VARCHAR(64) NOT NULL,
+  transaction_status VARCHAR(32) NOT NULL,
+  status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+  attempts INT NOT NULL DEFAULT 0,
+  last_error TEXT,
+  received_at TIMESTAMPTZ NOT NULL,
+  available_at TIMESTAMPTZ NOT NULL,
+  processed_at TIMESTAMPTZ,
+  CONSTRAINT midtrans_notification_inbox_dedupe UNIQUE (order_id, transaction_status)
+);
+
+-- Only the rows still waiting to be claimed
+CREATE INDEX IF NOT EXISTS midtrans_notification_inbox_due
+  ON midtrans_notification_inbox (available_at) WHERE status = 'PENDING';
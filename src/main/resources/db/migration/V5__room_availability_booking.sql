@@ -0,0 +1,25 @@
+-- Links a room's booked nights to the booking that holds them, so confirming or releasing a booking only ever touches
+-- its own rows. Manual unavailability set by a tenant has no booking.
+ALTER TABLE room_availability ADD COLUMN IF NOT EXISTS booking_id UUID REFERENCES bookings (id);
+
+CREATE INDEX IF NOT EXISTS idx_room_availability_booking
+  ON room_availability (booking_id) WHERE booking_id IS NOT NULL;
+
+-- Rows booked before the column existed are linked by room and dates, unless several live bookings match them
+UPDATE room_availability ra
+SET booking_id = matched.booking_id
+FROM (
+  SELECT ra.id, MIN(b.id::text)::uuid AS booking_id
+  FROM room_availability ra
+  JOIN booking_items bi ON bi.room_id = ra.room_id
+  JOIN bookings b ON b.id = bi.booking_id
+  WHERE ra.booking_id IS NULL
+  AND ra.is_manual = false
+  AND ra.deleted_at IS NULL
+  AND b.checkin_date = ra.start_date
+  AND b.checkout_date = ra.end_date + 1
+  AND b.status NOT IN ('EXPIRED', 'CANCELLED', 'FAILED', 'REFUND_REQUIRED')
+  GROUP BY ra.id
+  HAVING COUNT(DISTINCT b.id) = 1
+) matched
+WHERE ra.id = matched.id;
@@ -0,0 +1,183 @@
+package com.finalproject.stayease.auth.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.finalproject.stayease.auth.model.entity.TokenPrincipal;
+import com.finalproject.stayease.auth.service.JwtService;
+import com.finalproject.stayease.auth.service.helpers.VerifiedTokenCache;
+import com.finalproject.stayease.auth.service.impl.JwtServiceImpl;
+import com.finalproject.stayease.auth.service.impl.UserDetailsServiceImpl;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import io.jsonwebtoken.ExpiredJwtException;
+import jakarta.servlet.FilterChain;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtAuthenticationFilterTest {
+
+  @Mock
+  private JwtService jwtService;
+
+  @Mock
+  private UserDetailsServiceImpl userDetailsService;
+
+  private JwtAuthenticationFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    filter = new JwtAuthenticationFilter(jwtService, userDetailsService, new VerifiedTokenCache(100));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private Jwt jwt(String userType) {
+    Instant now = Instant.now();
+    Jwt.Builder builder = Jwt.withTokenValue("token")
+        .header("alg", "RS256")
+        .subject("user@example.com")
+        .claim("userId", 1L)
+        .issuedAt(now)
+        .expiresAt(now.plusSeconds(3600));
+    if (userType != null) {
+      builder.claim("userType", userType);
+    }
+    return builder.build();
+  }
+
+  private Authentication filter(String token) throws Exception {
+    FilterChain chain = spy(new MockFilterChain());
+
+    Authentication authentication = runFilter(token, chain);
+
+    verify(chain, times(1)).doFilter(any(), any());
+    return authentication;
+  }
+
+  private Authentication runFilter(String token, FilterChain chain) throws Exception {
+    SecurityContextHolder.clearContext();
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/users/profile");
+    request.addHeader("Authorization", "Bearer " + token);
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+    return SecurityContextHolder.getContext().getAuthentication();
+  }
+
+  @Test
+  void doFilter_AuthenticatesFromClaimsAndCaches() throws Exception {
+    when(jwtService.decodeToken("token")).thenReturn(jwt("TENANT"));
+
+    Authentication first = filter("token");
+    Authentication second = filter("token");
+
+    assertEquals("user@example.com", first.getName());
+    assertEquals("ROLE_TENANT", first.getAuthorities().iterator().next().getAuthority());
+    assertEquals(1L, ((TokenPrincipal) second.getPrincipal()).getUserId());
+    verify(jwtService, times(1)).decodeToken("token");
+    verifyNoInteractions(userDetailsService);
+  }
+
+  @Test
+  void doFilter_TokenWithoutUserTypeLoadsUser() throws Exception {
+    when(jwtService.decodeToken("token")).thenReturn(jwt(null));
+    when(userDetailsService.loadUserByUsername("user@example.com"))
+        .thenReturn(new TokenPrincipal(1L, "user@example.com", "USER"));
+
+    Authentication authentication = filter("token");
+
+    assertEquals("user@example.com", authentication.getName());
+    verify(userDetailsService).loadUserByUsername("user@example.com");
+  }
+
+  @Test
+  void doFilter_ExpiredTokenContinuesChainOnce() throws Exception {
+    when(jwtService.decodeToken("token")).thenThrow(new ExpiredJwtException(null, null, "Expired JWT token"));
+
+    assertNull(filter("token"));
+  }
+
+  @Test
+  void doFilter_SignedTokensVerifiedOnceThenServedFromCache() throws Exception {
+    KeyPair keyPair = rsaKeyPair();
+    JwtEncoder encoder = encoder(keyPair);
+    JwtService realJwtService = spy(new JwtServiceImpl(encoder,
+        NimbusJwtDecoder.withPublicKey((RSAPublicKey) keyPair.getPublic()).build(), null, null, null));
+    filter = new JwtAuthenticationFilter(realJwtService, userDetailsService, new VerifiedTokenCache(100));
+
+    List<String> tokens = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      tokens.add(token(encoder, i));
+    }
+    for (int pass = 0; pass < 2; pass++) {
+      for (int i = 0; i < tokens.size(); i++) {
+        Authentication authentication = runFilter(tokens.get(i), new MockFilterChain());
+        assertEquals("user" + i + "@example.com", authentication.getName());
+        assertEquals((long) i, ((TokenPrincipal) authentication.getPrincipal()).getUserId());
+      }
+    }
+
+    for (String token : tokens) {
+      verify(realJwtService, times(1)).decodeToken(token);
+    }
+    verifyNoInteractions(userDetailsService);
+  }
+
+  @Test
+  void doFilter_TokenSignedWithOtherKeyIsNotCached() throws Exception {
+    KeyPair keyPair = rsaKeyPair();
+    JwtService realJwtService = spy(new JwtServiceImpl(encoder(keyPair),
+        NimbusJwtDecoder.withPublicKey((RSAPublicKey) keyPair.getPublic()).build(), null, null, null));
+    filter = new JwtAuthenticationFilter(realJwtService, userDetailsService, new VerifiedTokenCache(100));
+    String forged = token(encoder(rsaKeyPair()), 1);
+
+    assertNull(runFilter(forged, new MockFilterChain()));
+    assertNull(runFilter(forged, new MockFilterChain()));
+    verify(realJwtService, times(2)).decodeToken(forged);
+  }
+
+  private static KeyPair rsaKeyPair() throws Exception {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    return generator.generateKeyPair();
+  }
+
+  private static JwtEncoder encoder(KeyPair keyPair) {
+    RSAKey rsaKey = new RSAKey.Builder((RSAPublicKey) keyPair.getPublic())
+        .privateKey((RSAPrivateKey) keyPair.getPrivate()).build();
+    return new NimbusJwtEncoder(new ImmutableJWKSet<>(new JWKSet(rsaKey)));
+  }
+
+  private static String token(JwtEncoder encoder, int user) {
+    Instant now = Instant.now();
+    JwtClaimsSet claims = JwtClaimsSet.builder().issuer("self").issuedAt(now).expiresAt(now.plusSeconds(3600))
+        .subject("user" + user + "@example.com").claim("userId", (long) user).claim("userType", "USER").build();
+    return encoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+  }
+}
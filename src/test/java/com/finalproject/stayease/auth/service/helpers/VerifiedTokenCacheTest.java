@@ -0,0 +1,52 @@
+package com.finalproject.stayease.auth.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finalproject.stayease.auth.model.entity.TokenPrincipal;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class VerifiedTokenCacheTest {
+
+  private VerifiedTokenCache verifiedTokenCache;
+  private TokenPrincipal principal;
+
+  @BeforeEach
+  void setUp() {
+    verifiedTokenCache = new VerifiedTokenCache(2);
+    principal = new TokenPrincipal(1L, "user@example.com", "USER");
+  }
+
+  @Test
+  void get_ReturnsPrincipalUntilExpiry() {
+    verifiedTokenCache.put("token", principal, Instant.now().plusSeconds(60));
+
+    assertSame(principal, verifiedTokenCache.get("token"));
+    assertNull(verifiedTokenCache.get("other-token"));
+  }
+
+  @Test
+  void put_IgnoresExpiredTokens() {
+    verifiedTokenCache.put("token", principal, Instant.now().minusSeconds(1));
+
+    assertNull(verifiedTokenCache.get("token"));
+    assertEquals(0, verifiedTokenCache.size());
+  }
+
+  @Test
+  void put_StaysWithinBound() {
+    verifiedTokenCache.put("first", principal, Instant.now().plusSeconds(60));
+    verifiedTokenCache.put("second", principal, Instant.now().plusSeconds(60));
+    verifiedTokenCache.put("third", principal, Instant.now().plusSeconds(60));
+
+    assertEquals(2, verifiedTokenCache.size());
+    assertSame(principal, verifiedTokenCache.get("third"));
+  }
+
+  @Test
+  void tokenPrincipal_HasRoleFromUserType() {
+    assertEquals("ROLE_USER", principal.getAuthorities().iterator().next().getAuthority());
+    assertEquals("user@example.com", principal.getUsername());
+  }
+}
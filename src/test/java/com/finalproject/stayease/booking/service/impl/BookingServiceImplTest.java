@@ -1,4 +1,210 @@
 package com.finalproject.stayease.booking.service.impl;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.finalproject.stayease.bookings.entity.Booking;
+import com.finalproject.stayease.bookings.entity.BookingItem;
+import com.finalproject.stayease.bookings.entity.BookingRequest;
+import com.finalproject.stayease.bookings.entity.BookingStatus;
+import com.finalproject.stayease.bookings.entity.dto.request.BookingItemReqDTO;
+import com.finalproject.stayease.bookings.entity.dto.request.BookingReqDTO;
+import com.finalproject.stayease.bookings.entity.dto.request.BookingRequestReqDTO;
+import com.finalproject.stayease.bookings.repository.BookingRepository;
+import com.finalproject.stayease.bookings.service.helpers.BookingDetailWriter;
+import com.finalproject.stayease.bookings.service.helpers.BookingDetailWriter.NewItem;
+import com.finalproject.stayease.bookings.service.impl.BookingServiceImpl;
+import com.finalproject.stayease.exceptions.utils.DataNotFoundException;
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
+import com.finalproject.stayease.property.entity.Property;
+import com.finalproject.stayease.property.entity.Room;
+import com.finalproject.stayease.property.service.RoomAvailabilityService;
+import com.finalproject.stayease.property.service.RoomService;
+import com.finalproject.stayease.users.entity.TenantInfo;
+import com.finalproject.stayease.users.entity.Users;
+import com.finalproject.stayease.users.service.TenantInfoService;
+import com.finalproject.stayease.users.service.UsersService;
+import jakarta.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
 public class BookingServiceImplTest {
+
+    private static final LocalDate CHECK_IN = LocalDate.of(2030, 1, 10);
+    private static final LocalDate CHECK_OUT = LocalDate.of(2030, 1, 13);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private UsersService usersService;
+
+    @Mock
+    private TenantInfoService tenantInfoService;
+
+    @Mock
+    private RoomService roomService;
+
+    @Mock
+    private RoomAvailabilityService roomAvailabilityService;
+
+    @Mock
+    private BookingDetailWriter bookingDetailWriter;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private BookingServiceImpl bookingService;
+
+    private final UUID bookingId = UUID.randomUUID();
+    private Property property;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+
+        Users tenantAccount = new Users();
+        tenantAccount.setId(2L);
+        property = new Property();
+        property.setId(5L);
+        property.setTenant(tenantAccount);
+
+        when(usersService.findById(1L)).thenReturn(Optional.of(new Users()));
+        when(tenantInfoService.findTenantByUserId(2L)).thenReturn(new TenantInfo());
+        when(bookingRepository.saveAndFlush(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(bookingId);
+            return booking;
+        });
+    }
+
+    @Test
+    void createBooking_MultipleRooms() {
+        BookingReqDTO reqDto = bookingReq(item(7L), item(9L));
+        reqDto.setBookingRequest(new BookingRequestReqDTO());
+        when(roomService.findRoomsByIds(Set.of(7L, 9L))).thenReturn(List.of(room(7L, property), room(9L, property)));
+        // Stands in for Hibernate loading the rows written with JDBC
+        doAnswer(invocation -> {
+            Booking refreshed = invocation.getArgument(0);
+            refreshed.setBookingItems(List.of(new BookingItem(), new BookingItem()));
+            refreshed.setBookingRequest(new BookingRequest());
+            return null;
+        }).when(entityManager).refresh(any(Booking.class));
+
+        Booking booking = bookingService.createBooking(reqDto, 1L, 1000.0);
+
+        assertEquals(bookingId, booking.getId());
+        assertEquals(BookingStatus.IN_PROGRESS, booking.getStatus());
+        assertEquals(property, booking.getProperty());
+        assertEquals(1210.0, booking.getTotalPrice());
+        assertEquals(2, booking.getBookingItems().size());
+        assertNotNull(booking.getBookingRequest());
+        verify(roomAvailabilityService).holdRooms(bookingId, List.of(7L, 9L), CHECK_IN, CHECK_OUT);
+        InOrder inOrder = inOrder(bookingDetailWriter, entityManager);
+        inOrder.verify(bookingDetailWriter).write(bookingId, List.of(new NewItem(7L, null), new NewItem(9L, null)),
+                reqDto.getBookingRequest());
+        inOrder.verify(entityManager).refresh(booking);
+    }
+
+    @Test
+    void createBooking_SingleRoom() {
+        BookingReqDTO reqDto = bookingReq();
+        reqDto.setBookingItem(new BookingItemReqDTO());
+        reqDto.getBookingItem().setExtendingUntil(CHECK_OUT.plusDays(1));
+        when(roomService.findRoomsByIds(Set.of(7L))).thenReturn(List.of(room(7L, property)));
+
+        bookingService.createBooking(reqDto, 1L, 7L, 1000.0);
+
+        verify(roomAvailabilityService).holdRooms(bookingId, List.of(7L), CHECK_IN, CHECK_OUT);
+        verify(bookingDetailWriter).write(bookingId, List.of(new NewItem(7L, CHECK_OUT.plusDays(1))), null);
+    }
+
+    @Test
+    void createBooking_RoomsOfDifferentProperties() {
+        Property otherProperty = new Property();
+        otherProperty.setId(6L);
+        when(roomService.findRoomsByIds(Set.of(7L, 9L)))
+                .thenReturn(List.of(room(7L, property), room(9L, otherProperty)));
+
+        assertThrows(InvalidRequestException.class,
+                () -> bookingService.createBooking(bookingReq(item(7L), item(9L)), 1L, 1000.0));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verifyNoInteractions(roomAvailabilityService, bookingDetailWriter);
+    }
+
+    @Test
+    void createBooking_SameRoomTwice() {
+        assertThrows(InvalidRequestException.class,
+                () -> bookingService.createBooking(bookingReq(item(7L), item(7L)), 1L, 1000.0));
+        verifyNoInteractions(roomService, roomAvailabilityService, bookingDetailWriter);
+    }
+
+    @Test
+    void createBooking_RoomNotFound() {
+        when(roomService.findRoomsByIds(anyCollection())).thenReturn(List.of(room(7L, property)));
+
+        assertThrows(DataNotFoundException.class,
+                () -> bookingService.createBooking(bookingReq(item(7L), item(9L)), 1L, 1000.0));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+    }
+
+    @Test
+    void createBooking_NoRooms() {
+        assertThrows(InvalidRequestException.class, () -> bookingService.createBooking(bookingReq(), 1L, 1000.0));
+        verifyNoInteractions(roomService, roomAvailabilityService, bookingDetailWriter);
+    }
+
+    @Test
+    void createBooking_CheckOutNotAfterCheckIn() {
+        BookingReqDTO sameDay = bookingReq(item(7L));
+        sameDay.setCheckOutDate(CHECK_IN);
+        BookingReqDTO reversed = bookingReq(item(7L));
+        reversed.setCheckOutDate(CHECK_IN.minusDays(1));
+
+        assertThrows(InvalidRequestException.class, () -> bookingService.createBooking(sameDay, 1L, 1000.0));
+        assertThrows(InvalidRequestException.class, () -> bookingService.createBooking(reversed, 1L, 1000.0));
+        verify(bookingRepository, never()).saveAndFlush(any(Booking.class));
+        verifyNoInteractions(roomAvailabilityService, bookingDetailWriter);
+    }
+
+    private static BookingReqDTO bookingReq(BookingItemReqDTO... items) {
+        BookingReqDTO reqDto = new BookingReqDTO();
+        reqDto.setBookingItems(List.of(items));
+        reqDto.setCheckInDate(CHECK_IN);
+        reqDto.setCheckOutDate(CHECK_OUT);
+        reqDto.setTotalAdults(2);
+        return reqDto;
+    }
+
+    private static BookingItemReqDTO item(Long roomId) {
+        BookingItemReqDTO item = new BookingItemReqDTO();
+        item.setRoomId(roomId);
+        return item;
+    }
+
+    private static Room room(Long id, Property property) {
+        Room room = new Room();
+        room.setId(id);
+        room.setProperty(property);
+        return room;
+    }
 }
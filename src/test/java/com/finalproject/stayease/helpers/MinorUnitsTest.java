@@ -0,0 +1,82 @@
+package com.finalproject.stayease.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class MinorUnitsTest {
+
+    private static final int TRIES = 100_000;
+
+    @Test
+    void divideHalfUp_MatchesBigDecimalHalfUp() {
+        Random random = new Random(7);
+        long[] divisors = {1, 2, 3, 7, 100, 10_000, -10_000};
+        for (int i = 0; i < TRIES; i++) {
+            long dividend = random.nextLong() >> random.nextInt(64);
+            long divisor = divisors[random.nextInt(divisors.length)];
+            long expected = BigDecimal.valueOf(dividend)
+                    .divide(BigDecimal.valueOf(divisor), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertEquals(expected, MinorUnits.divideHalfUp(dividend, divisor), dividend + " / " + divisor);
+        }
+    }
+
+    @Test
+    void divideHalfUp_TiesAwayFromZero() {
+        assertEquals(1, MinorUnits.divideHalfUp(5, 10));
+        assertEquals(0, MinorUnits.divideHalfUp(4, 10));
+        assertEquals(-1, MinorUnits.divideHalfUp(-5, 10));
+        assertEquals(0, MinorUnits.divideHalfUp(-4, 10));
+    }
+
+    @Test
+    void adjust_MatchesBigDecimalChain() {
+        Random random = new Random(11);
+        for (int i = 0; i < TRIES; i++) {
+            long base = random.nextLong(100_000_000_00L);
+            long percents = random.nextLong(-100_00, 100_01);
+            long fixed = random.nextLong(-1_000_000_00L, 1_000_000_00L);
+
+            BigDecimal basePrice = MinorUnits.toDecimal(base);
+            BigDecimal expected = basePrice
+                    .add(basePrice.multiply(MinorUnits.toDecimal(percents).divide(BigDecimal.valueOf(100))))
+                    .add(MinorUnits.toDecimal(fixed))
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            assertEquals(expected, MinorUnits.toDecimal(MinorUnits.adjust(base, percents, fixed)),
+                    basePrice + " +" + MinorUnits.toDecimal(percents) + "% +" + MinorUnits.toDecimal(fixed));
+        }
+    }
+
+    @Test
+    void percentOf_MatchesBigDecimal() {
+        Random random = new Random(13);
+        for (int i = 0; i < TRIES; i++) {
+            long amount = random.nextLong(100_000_000_00L);
+            long percent = random.nextLong(100_01);
+            BigDecimal expected = MinorUnits.toDecimal(amount)
+                    .multiply(MinorUnits.toDecimal(percent))
+                    .divide(BigDecimal.valueOf(100))
+                    .setScale(2, RoundingMode.HALF_UP);
+            assertEquals(expected, MinorUnits.toDecimal(MinorUnits.percentOf(amount, percent)));
+        }
+    }
+
+    @Test
+    void toMinor_RejectsAmountsItCannotHold() {
+        assertEquals(12345, MinorUnits.toMinor(new BigDecimal("123.45")));
+        assertEquals(12300, MinorUnits.toMinor(new BigDecimal("123")));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.toMinor(new BigDecimal("123.456")));
+        assertThrows(ArithmeticException.class, () -> MinorUnits.toMinor(new BigDecimal("1e18")));
+        assertEquals(12346, MinorUnits.toMinorRounded(new BigDecimal("123.455")));
+    }
+
+    @Test
+    void adjust_ThrowsOnOverflow() {
+        assertThrows(ArithmeticException.class, () -> MinorUnits.adjust(Long.MAX_VALUE / 100, 10_00, 0));
+    }
+}
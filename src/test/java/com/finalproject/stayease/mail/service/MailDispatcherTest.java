@@ -0,0 +1,133 @@
+package com.finalproject.stayease.mail.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.finalproject.stayease.mail.model.DeadLetterMail;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class MailDispatcherTest {
+
+  @Mock
+  private JavaMailSender mailSender;
+
+  private MailDispatcher mailDispatcher;
+
+  private MimeMessage firstMessage;
+  private MimeMessage secondMessage;
+
+  @BeforeEach
+  void setUp() {
+    mailDispatcher = new MailDispatcher(mailSender, 10, 1, 20, 2, 10, 200, 10);
+    firstMessage = new MimeMessage((Session) null);
+    secondMessage = new MimeMessage((Session) null);
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    mailDispatcher.stop();
+  }
+
+  private MailDispatcher.MailJob job(MimeMessage message) {
+    return new MailDispatcher.MailJob("guest@example.com", "Booking Invoice", () -> message);
+  }
+
+  @Test
+  void dispatch_SendsOnWorker() throws InterruptedException {
+    mailDispatcher.start();
+
+    mailDispatcher.dispatch("guest@example.com", "Booking Invoice", firstMessage);
+    mailDispatcher.stop();
+
+    verify(mailSender).send(firstMessage);
+    assertEquals(0, mailDispatcher.getQueueSize());
+  }
+
+  @Test
+  void dispatch_WaitsForCommit() {
+    mailDispatcher.start();
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      mailDispatcher.dispatch("guest@example.com", "Booking Invoice", firstMessage);
+      assertEquals(0, mailDispatcher.getQueueSize());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    verify(mailSender, timeout(2000)).send(firstMessage);
+  }
+
+  @Test
+  void sendBatch_OneSendCallPerBatch() {
+    mailDispatcher.sendBatch(List.of(job(firstMessage), job(secondMessage)));
+
+    verify(mailSender, times(1)).send(firstMessage, secondMessage);
+    verifyNoMoreInteractions(mailSender);
+  }
+
+  @Test
+  void sendBatch_RetriesOnlyFailedMessages() {
+    mailDispatcher.start();
+    doThrow(new MailSendException(Map.<Object, Exception>of(secondMessage, new MessagingException("Rejected"))))
+        .when(mailSender).send(firstMessage, secondMessage);
+
+    mailDispatcher.sendBatch(List.of(job(firstMessage), job(secondMessage)));
+
+    verify(mailSender, timeout(2000)).send(secondMessage);
+    verify(mailSender, never()).send(firstMessage);
+    assertTrue(mailDispatcher.getDeadLetters().isEmpty());
+  }
+
+  @Test
+  void sendBatch_DeadLettersAfterMaxAttempts() {
+    mailDispatcher.start();
+    doThrow(new MailSendException("Connection refused")).when(mailSender).send(firstMessage);
+
+    mailDispatcher.dispatch("guest@example.com", "Booking Invoice", firstMessage);
+
+    verify(mailSender, timeout(2000).times(2)).send(firstMessage);
+    await(() -> !mailDispatcher.getDeadLetters().isEmpty());
+    DeadLetterMail deadLetter = mailDispatcher.getDeadLetters().getFirst();
+    assertEquals("guest@example.com", deadLetter.getTo());
+    assertEquals(2, deadLetter.getAttempts());
+  }
+
+  @Test
+  void sendBatch_UnbuildableMessageIsNotRetried() {
+    MailDispatcher.MailJob failing = new MailDispatcher.MailJob("guest@example.com", "Booking Invoice", () -> {
+      throw new IOException("Failed to generate PDF");
+    });
+
+    mailDispatcher.sendBatch(List.of(failing));
+
+    verifyNoInteractions(mailSender);
+    assertEquals("Failed to generate PDF", mailDispatcher.getDeadLetters().getFirst().getError());
+  }
+
+  private void await(BooleanSupplier condition) {
+    long deadline = System.currentTimeMillis() + 2000;
+    while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+      Thread.onSpinWait();
+    }
+    assertTrue(condition.getAsBoolean());
+  }
+}
@@ -0,0 +1,81 @@
+package com.finalproject.stayease.midtrans;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Local stand-in for the Midtrans status API, {@code GET /v2/{order_id}/status}. Answers with the status set for the
+ * order, 404 for unknown orders and 401 without the expected authorization header, and records the client port of
+ * every request so tests can see whether connections are reused.
+ */
+public class MidtransStandIn implements AutoCloseable {
+
+  public static final String SECRET_KEY = "stand-in-secret";
+
+  private final HttpServer server;
+  private final Map<String, String> statuses = new ConcurrentHashMap<>();
+  private final List<Integer> clientPorts = new CopyOnWriteArrayList<>();
+  private volatile int failWith;
+
+  public MidtransStandIn() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/v2/", exchange -> {
+      clientPorts.add(exchange.getRemoteAddress().getPort());
+      String[] path = exchange.getRequestURI().getPath().split("/");
+      String orderId = path.length == 4 && "status".equals(path[3]) ? path[2] : null;
+      String status = orderId == null ? null : statuses.get(orderId);
+
+      int code;
+      String body;
+      if (!SECRET_KEY.equals(exchange.getRequestHeaders().getFirst("authorization"))) {
+        code = 401;
+        body = "{\"status_code\":\"401\"}";
+      } else if (failWith != 0) {
+        code = failWith;
+        body = "{\"status_code\":\"" + failWith + "\"}";
+      } else if (status == null) {
+        code = 404;
+        body = "{\"status_code\":\"404\"}";
+      } else {
+        code = 200;
+        body = "{\"status_code\":\"200\",\"order_id\":\"" + orderId + "\",\"transaction_status\":\"" + status + "\"}";
+      }
+      byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("content-type", "application/json");
+      exchange.sendResponseHeaders(code, bytes.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(bytes);
+      }
+    });
+    server.start();
+  }
+
+  public String url() {
+    return "http://localhost:" + server.getAddress().getPort();
+  }
+
+  public void setStatus(String orderId, String transactionStatus) {
+    statuses.put(orderId, transactionStatus);
+  }
+
+  // Every request fails with this HTTP status, 0 to answer normally again
+  public void failWith(int httpStatus) {
+    failWith = httpStatus;
+  }
+
+  public List<Integer> clientPorts() {
+    return clientPorts;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
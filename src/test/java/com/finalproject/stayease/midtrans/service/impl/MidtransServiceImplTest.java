@@ -0,0 +1,80 @@
+package com.finalproject.stayease.midtrans.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finalproject.stayease.midtrans.MidtransStandIn;
+import com.midtrans.service.MidtransCoreApi;
+import java.util.HashSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class MidtransServiceImplTest {
+
+  private static final String ORDER_ID = "3f1c2a9e-4b7d-4e61-9a55-0c8d2f6b1e77";
+
+  @Mock
+  private MidtransCoreApi midtransCoreApi;
+
+  private MidtransStandIn midtrans;
+  private MidtransServiceImpl midtransService;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    midtrans = new MidtransStandIn();
+    midtransService = new MidtransServiceImpl(midtransCoreApi, new ObjectMapper(), midtrans.url(),
+        MidtransStandIn.SECRET_KEY);
+  }
+
+  @AfterEach
+  void tearDown() {
+    midtrans.close();
+  }
+
+  @Test
+  void getTransactionStatus_ReadsStatusFromMidtrans() {
+    midtrans.setStatus(ORDER_ID, "settlement");
+
+    assertEquals("settlement", midtransService.getTransactionStatus(ORDER_ID));
+  }
+
+  @Test
+  void getTransactionStatus_ReusesConnection() {
+    midtrans.setStatus(ORDER_ID, "pending");
+
+    for (int i = 0; i < 5; i++) {
+      midtransService.getTransactionStatus(ORDER_ID);
+    }
+
+    assertEquals(5, midtrans.clientPorts().size());
+    assertEquals(1, new HashSet<>(midtrans.clientPorts()).size());
+  }
+
+  @Test
+  void getTransactionStatus_UnknownOrder() {
+    assertThrows(RuntimeException.class, () -> midtransService.getTransactionStatus(ORDER_ID));
+  }
+
+  @Test
+  void getTransactionStatus_WrongKey() {
+    midtrans.setStatus(ORDER_ID, "settlement");
+    MidtransServiceImpl wrongKey = new MidtransServiceImpl(midtransCoreApi, new ObjectMapper(), midtrans.url(),
+        "wrong");
+
+    assertThrows(RuntimeException.class, () -> wrongKey.getTransactionStatus(ORDER_ID));
+  }
+
+  @Test
+  void getTransactionStatus_MidtransDown() {
+    midtrans.setStatus(ORDER_ID, "settlement");
+    midtrans.failWith(503);
+
+    assertThrows(RuntimeException.class, () -> midtransService.getTransactionStatus(ORDER_ID));
+  }
+}
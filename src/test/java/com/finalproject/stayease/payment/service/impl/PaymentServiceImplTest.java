@@ -5,11 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.finalproject.stayease.bookings.entity.Booking;
+import com.finalproject.stayease.bookings.entity.BookingItem;
 import com.finalproject.stayease.bookings.entity.BookingStatus;
 import com.finalproject.stayease.bookings.service.BookingService;
 import com.finalproject.stayease.cloudinary.service.CloudinaryService;
@@ -18,8 +20,12 @@ import com.finalproject.stayease.payment.entity.Payment;
 import com.finalproject.stayease.payment.entity.PaymentStatus;
 import com.finalproject.stayease.payment.entity.dto.PaymentDTO;
 import com.finalproject.stayease.payment.repository.PaymentRepository;
+import com.finalproject.stayease.property.entity.Room;
+import com.finalproject.stayease.property.service.RoomAvailabilityService;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,6 +46,9 @@ public class PaymentServiceImplTest {
     @Mock
     private BookingService bookingService;
 
+    @Mock
+    private RoomAvailabilityService roomAvailabilityService;
+
     @InjectMocks
     private PaymentServiceImpl paymentServiceImpl;
 
@@ -135,12 +144,22 @@ public class PaymentServiceImplTest {
                 "file", "test.jpg", "image/jpeg", "test content".getBytes()
         );
         String cloudinaryUrl = "https://cloudinary.com/test-image";
+        Room room = new Room();
+        room.setId(7L);
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setCheckInDate(LocalDate.now().plusDays(3));
+        booking.setCheckOutDate(LocalDate.now().plusDays(5));
+        BookingItem bookingItem = new BookingItem();
+        bookingItem.setRoom(room);
+        booking.setBookingItems(List.of(bookingItem));
         Payment payment = new Payment();
-        payment.setBooking(new Booking());
+        payment.setBooking(booking);
 
         when(cloudinaryService.uploadFile(file, "Payment Proof")).thenReturn(cloudinaryUrl);
         when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(payment));
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(roomAvailabilityService.confirmHold(bookingId, List.of(7L), booking.getCheckInDate(), booking.getCheckOutDate())).thenReturn(true);
 
         PaymentDTO updatedPayment = paymentServiceImpl.uploadPaymentProof(file, bookingId);
 
@@ -149,6 +168,35 @@ public class PaymentServiceImplTest {
         verify(bookingService, times(1)).updateBooking(any(), eq(BookingStatus.WAITING_FOR_CONFIRMATION));
     }
 
+    @Test
+    void uploadPaymentProof_roomsLost_needsRefund() throws Exception {
+        UUID bookingId = UUID.randomUUID();
+        MockMultipartFile file = new MockMultipartFile(
+                "file", "test.jpg", "image/jpeg", "test content".getBytes()
+        );
+        Room room = new Room();
+        room.setId(7L);
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setCheckInDate(LocalDate.now().plusDays(3));
+        booking.setCheckOutDate(LocalDate.now().plusDays(5));
+        BookingItem bookingItem = new BookingItem();
+        bookingItem.setRoom(room);
+        booking.setBookingItems(List.of(bookingItem));
+        Payment payment = new Payment();
+        payment.setBooking(booking);
+
+        when(cloudinaryService.uploadFile(file, "Payment Proof")).thenReturn("https://cloudinary.com/test-image");
+        when(paymentRepository.findByBookingId(bookingId)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(roomAvailabilityService.confirmHold(bookingId, List.of(7L), booking.getCheckInDate(), booking.getCheckOutDate())).thenReturn(false);
+
+        paymentServiceImpl.uploadPaymentProof(file, bookingId);
+
+        verify(bookingService).updateBooking(bookingId, BookingStatus.REFUND_REQUIRED);
+        verify(bookingService, never()).updateBooking(any(), eq(BookingStatus.WAITING_FOR_CONFIRMATION));
+    }
+
     @Test
     void findPaymentByBookingId_paymentExists_success() {
         UUID bookingId = UUID.randomUUID();
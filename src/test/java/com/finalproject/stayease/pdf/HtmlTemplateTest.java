@@ -0,0 +1,44 @@
+package com.finalproject.stayease.pdf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class HtmlTemplateTest {
+
+  @Test
+  void render_ReplacesPlaceholdersInOnePass() {
+    HtmlTemplate template = HtmlTemplate.compile("<p>{{userName}}</p><p>{{other}}</p>");
+
+    String result = template.render(Map.of("userName", "John Doe", "other", "{{userName}}"));
+
+    // Values are not scanned for placeholders again
+    assertEquals("<p>John Doe</p><p>{{userName}}</p>", result);
+  }
+
+  @Test
+  void render_KeepsMissingPlaceholders() {
+    HtmlTemplate template = HtmlTemplate.compile("{{bookingId}} - {{checkInDate}}");
+
+    assertEquals("42 - {{checkInDate}}", template.render(Map.of("bookingId", "42")));
+  }
+
+  @Test
+  void compile_UnterminatedPlaceholderIsLiteral() {
+    HtmlTemplate template = HtmlTemplate.compile("<p>{{bookingId}}</p><p>{{broken</p>");
+
+    assertEquals("<p>42</p><p>{{broken</p>", template.render(Map.of("bookingId", "42")));
+    assertEquals("<p></p><p>{{broken</p>".length(), template.getLiteralLength());
+  }
+
+  @Test
+  void renderTo_AppendsToBuffer() {
+    HtmlTemplate template = HtmlTemplate.compile("{{a}}{{b}}");
+    StringBuilder buffer = new StringBuilder("x");
+
+    template.renderTo(buffer, Map.of("a", "1", "b", "2"));
+
+    assertEquals("x12", buffer.toString());
+  }
+}
@@ -0,0 +1,106 @@
+package com.finalproject.stayease.pdf;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PdfServiceTest {
+
+  private PdfService pdfService;
+  private Map<String, String> invoiceData;
+
+  @BeforeEach
+  void setUp() {
+    pdfService = new PdfService(2, 10, 30);
+
+    invoiceData = new HashMap<>();
+    invoiceData.put("userEmail", "guest@example.com");
+    invoiceData.put("userName", "John Doe");
+    invoiceData.put("checkInDate", "2024-08-01");
+    invoiceData.put("checkOutDate", "2024-08-03");
+    invoiceData.put("bookingId", "42");
+    invoiceData.put("totalAdults", "2");
+    invoiceData.put("totalChildren", "<p>1 Children</p>");
+    invoiceData.put("totalInfants", "");
+    invoiceData.put("roomName", "<p>Deluxe</p>");
+    invoiceData.put("checkInTime", "No request");
+    invoiceData.put("checkOutTime", "No request");
+    invoiceData.put("smokingRoom", "No");
+    invoiceData.put("other", "No request");
+    invoiceData.put("propertyName", "Test Property");
+    invoiceData.put("propertyAddress", "Jl. Test No. 1");
+  }
+
+  @AfterEach
+  void tearDown() {
+    pdfService.shutdown();
+  }
+
+  @Test
+  void renderTemplate_FillsBookingInvoice() throws IOException {
+    String html = pdfService.renderTemplate("booking-invoice.html", invoiceData);
+
+    assertFalse(html.contains("{{"));
+    assertTrue(html.contains("John Doe"));
+    assertTrue(html.contains("<p>1 Children</p>"));
+    assertSame(pdfService.getTemplate("booking-invoice.html"), pdfService.getTemplate("booking-invoice.html"));
+  }
+
+  @Test
+  void renderTemplate_MissingTemplate() {
+    assertThrows(IOException.class, () -> pdfService.renderTemplate("missing.html", invoiceData));
+  }
+
+  @Test
+  void generatePdfFromHtml_BookingInvoice() throws IOException {
+    String html = pdfService.renderTemplate("booking-invoice.html", invoiceData);
+
+    byte[] pdf = pdfService.generatePdfFromHtml(html);
+
+    assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  void generatePdfFromHtml_BurstLargerThanPoolAndQueue() throws Exception {
+    // 2 render threads and a queue of 10, the rest of the burst is rendered by the callers themselves
+    int invoices = 24;
+    ExecutorService callers = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> rendered = new ArrayList<>();
+      for (int i = 0; i < invoices; i++) {
+        Map<String, String> data = withBookingId(i);
+        rendered.add(callers.submit(() -> {
+          String html = pdfService.renderTemplate("booking-invoice.html", data);
+          byte[] pdf = pdfService.generatePdfFromHtml(html);
+          assertEquals("%PDF", new String(pdf, 0, 4, StandardCharsets.US_ASCII));
+          return html;
+        }));
+      }
+      for (int i = 0; i < invoices; i++) {
+        // The reused render buffer never leaks one invoice into another
+        assertEquals(pdfService.renderTemplate("booking-invoice.html", withBookingId(i)),
+            rendered.get(i).get(60, TimeUnit.SECONDS));
+      }
+    } finally {
+      callers.shutdownNow();
+    }
+  }
+
+  private Map<String, String> withBookingId(int bookingId) {
+    Map<String, String> data = new HashMap<>(invoiceData);
+    data.put("bookingId", String.valueOf(bookingId));
+    return data;
+  }
+}
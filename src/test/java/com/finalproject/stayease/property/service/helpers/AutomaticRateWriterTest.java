@@ -0,0 +1,85 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
+import com.finalproject.stayease.property.service.helpers.AutomaticRateWriter.NewRate;
+import com.finalproject.stayease.property.service.helpers.AutomaticRateWriter.RateUpdate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class AutomaticRateWriterTest {
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @Mock
+  private PropertyViewCache propertyViewCache;
+
+  @Mock
+  private PropertyRateTimelineCache rateTimelineCache;
+
+  @InjectMocks
+  private AutomaticRateWriter rateWriter;
+
+  @Captor
+  private ArgumentCaptor<List<Object[]>> batchCaptor;
+
+  @Test
+  void apply_OneBatchPerKindOfChange() {
+    LocalDate date = LocalDate.of(2024, 12, 25);
+    List<NewRate> inserts = List.of(
+        new NewRate(date, date, BigDecimal.TEN, AdjustmentType.PERCENTAGE, "Automatic - Holiday"),
+        new NewRate(date.plusDays(6), date.plusDays(8), BigDecimal.ONE, AdjustmentType.FIXED,
+            "Automatic - Long Weekend"));
+    List<RateUpdate> updates = List.of(new RateUpdate(7L, date, BigDecimal.TEN, AdjustmentType.PERCENTAGE));
+
+    int written = rateWriter.apply(1L, inserts, updates, List.of(8L, 9L));
+
+    assertEquals(5, written);
+    verify(jdbcTemplate).batchUpdate(contains("INSERT INTO peak_season_rate"), batchCaptor.capture());
+    List<Object[]> insertRows = batchCaptor.getValue();
+    assertEquals(2, insertRows.size());
+    assertEquals(1L, insertRows.getFirst()[0]);
+    assertEquals("Automatic - Holiday", insertRows.getFirst()[6]);
+    verify(jdbcTemplate).batchUpdate(contains("SET end_date"), batchCaptor.capture());
+    assertEquals(7L, batchCaptor.getValue().getFirst()[4]);
+    verify(jdbcTemplate).batchUpdate(contains("SET deleted_at"), batchCaptor.capture());
+    assertArrayEquals(new Object[]{8L, 9L},
+        batchCaptor.getValue().stream().map(row -> row[2]).toArray());
+    verify(propertyViewCache).evict(1L);
+    verify(rateTimelineCache).invalidate(1L);
+    verifyNoMoreInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void apply_SkipsEmptyBatches() {
+    rateWriter.apply(1L, List.of(), List.of(), List.of(8L));
+
+    verify(jdbcTemplate).batchUpdate(contains("SET deleted_at"), anyList());
+    verifyNoMoreInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void apply_NothingToWrite() {
+    assertEquals(0, rateWriter.apply(1L, List.of(), List.of(), List.of()));
+
+    verifyNoInteractions(jdbcTemplate, propertyViewCache, rateTimelineCache);
+  }
+}
@@ -0,0 +1,148 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.finalproject.stayease.property.entity.PropertyCategory;
+import com.finalproject.stayease.property.repository.PropertyCategoryRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class CategorySimilarityIndexTest {
+
+  @Mock
+  private PropertyCategoryRepository propertyCategoryRepository;
+
+  private CategorySimilarityIndex similarityIndex;
+
+  @BeforeEach
+  void setUp() {
+    similarityIndex = new CategorySimilarityIndex(propertyCategoryRepository);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void findSimilar_TyposAndSynonyms() {
+    when(propertyCategoryRepository.findAllByDeletedAtIsNull()).thenReturn(List.of(
+        category(1L, "Apartment"), category(2L, "Guesthouse"), category(3L, "Hostel"), category(4L, "Treehouse")));
+    when(propertyCategoryRepository.countByDeletedAtIsNull()).thenReturn(4L);
+
+    assertEquals(List.of("Apartment"), similarityIndex.findSimilar("Apartmant"));
+    assertEquals(List.of("Apartment"), similarityIndex.findSimilar("Flat"));
+    assertEquals(List.of("Guesthouse"), similarityIndex.findSimilar("Bed and Breakfast"));
+    assertEquals(List.of("Hostel"), similarityIndex.findSimilar("dorm"));
+    assertTrue(similarityIndex.findSimilar("Glamping Tent").isEmpty());
+  }
+
+  @Test
+  void findSimilar_LoadsOnceWhileCountMatches() {
+    when(propertyCategoryRepository.findAllByDeletedAtIsNull()).thenReturn(List.of(category(1L, "Villa")));
+    when(propertyCategoryRepository.countByDeletedAtIsNull()).thenReturn(1L);
+
+    similarityIndex.findSimilar("Vila");
+    similarityIndex.findSimilar("Mansion");
+
+    verify(propertyCategoryRepository, times(1)).findAllByDeletedAtIsNull();
+  }
+
+  @Test
+  void findSimilar_ReloadsWhenCountDrifts() {
+    when(propertyCategoryRepository.findAllByDeletedAtIsNull())
+        .thenReturn(List.of(category(1L, "Villa")))
+        .thenReturn(List.of(category(1L, "Villa"), category(2L, "Cottage")));
+    when(propertyCategoryRepository.countByDeletedAtIsNull()).thenReturn(2L);
+
+    assertTrue(similarityIndex.findSimilar("Cabin").isEmpty());
+    assertEquals(List.of("Cottage"), similarityIndex.findSimilar("Cabin"));
+  }
+
+  @Test
+  void putAndRemove_AfterCommit() {
+    when(propertyCategoryRepository.findAllByDeletedAtIsNull()).thenReturn(List.of());
+    when(propertyCategoryRepository.countByDeletedAtIsNull()).thenReturn(1L, 0L);
+    assertTrue(similarityIndex.findSimilar("Resort").isEmpty());
+
+    TransactionSynchronizationManager.initSynchronization();
+    similarityIndex.put(5L, "Resort");
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    TransactionSynchronizationManager.clearSynchronization();
+    assertEquals(List.of("Resort"), similarityIndex.findSimilar("Resorts"));
+
+    similarityIndex.remove(5L);
+    assertTrue(similarityIndex.findSimilar("Resorts").isEmpty());
+    verify(propertyCategoryRepository, times(1)).findAllByDeletedAtIsNull();
+  }
+
+  @Test
+  void isSimilarAndAreSynonyms() {
+    assertTrue(similarityIndex.areSynonyms("B&B", "guest house"));
+    assertTrue(similarityIndex.areSynonyms("Holiday Home", "vacation rental"));
+    assertFalse(similarityIndex.areSynonyms("villa", "hostel"));
+    assertTrue(similarityIndex.isSimilar("Town-House", "townhouse"));
+    assertFalse(similarityIndex.isSimilar("Villa", "Hostel"));
+  }
+
+  /**
+   * The bigram filter may only skip categories that would fail the similarity check anyway, so on random names over a
+   * small alphabet the index must agree with comparing against every category.
+   */
+  @Test
+  void findSimilar_MatchesFullScan() {
+    Random random = new Random(20);
+    List<PropertyCategory> categories = new ArrayList<>();
+    for (long id = 1; id <= 300; id++) {
+      categories.add(category(id, randomName(random)));
+    }
+    when(propertyCategoryRepository.findAllByDeletedAtIsNull()).thenReturn(categories);
+    when(propertyCategoryRepository.countByDeletedAtIsNull()).thenReturn((long) categories.size());
+
+    for (int i = 0; i < 2_000; i++) {
+      String requested = randomName(random);
+      TreeSet<String> expected = new TreeSet<>();
+      for (PropertyCategory category : categories) {
+        if (similarityIndex.isSimilar(requested, category.getName())) {
+          expected.add(category.getName());
+        }
+      }
+      assertEquals(new ArrayList<>(expected), similarityIndex.findSimilar(requested), requested);
+    }
+  }
+
+  private static String randomName(Random random) {
+    String alphabet = "aeilnorst";
+    StringBuilder name = new StringBuilder();
+    int length = 2 + random.nextInt(10);
+    for (int i = 0; i < length; i++) {
+      name.append(alphabet.charAt(random.nextInt(alphabet.length())));
+    }
+    return name.toString();
+  }
+
+  private static PropertyCategory category(Long id, String name) {
+    PropertyCategory category = new PropertyCategory();
+    category.setId(id);
+    category.setName(name);
+    return category;
+  }
+}
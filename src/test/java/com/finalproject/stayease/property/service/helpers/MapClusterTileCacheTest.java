@@ -0,0 +1,94 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.finalproject.stayease.property.entity.dto.listingDTOs.MapClusterDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.MapClusterProjection;
+import com.finalproject.stayease.property.repository.PropertyRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class MapClusterTileCacheTest {
+
+  @Mock
+  private PropertyRepository propertyRepository;
+
+  private MapClusterTileCache tileCache;
+
+  @BeforeEach
+  void setUp() {
+    tileCache = new MapClusterTileCache(propertyRepository, 8, 2, 120);
+  }
+
+  @Test
+  void getClusters_LoadsTileOnceWithItsBounds() {
+    MapTile tile = new MapTile(13, 6717, 4293);
+    MapClusterProjection single = cluster(1L, 42L);
+    MapClusterProjection group = cluster(5L, 7L);
+    when(propertyRepository.findMapClusters(tile.west(), tile.south(), tile.east(), tile.north(), 8))
+        .thenReturn(List.of(single, group));
+
+    List<MapClusterDTO> first = tileCache.getClusters(tile);
+    List<MapClusterDTO> second = tileCache.getClusters(tile);
+
+    assertSame(first, second);
+    assertEquals(2, first.size());
+    assertEquals(42L, first.get(0).getPropertyId());
+    assertNull(first.get(1).getPropertyId());
+    assertEquals(5L, first.get(1).getCount());
+    verify(propertyRepository, times(1)).findMapClusters(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(8));
+  }
+
+  @Test
+  void getClusters_EvictsLeastRecentlyUsedTile() {
+    when(propertyRepository.findMapClusters(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(8)))
+        .thenReturn(List.of());
+
+    tileCache.getClusters(new MapTile(5, 1, 1));
+    tileCache.getClusters(new MapTile(5, 1, 2));
+    tileCache.getClusters(new MapTile(5, 1, 1));
+    tileCache.getClusters(new MapTile(5, 1, 3));
+    tileCache.getClusters(new MapTile(5, 1, 1));
+
+    assertEquals(2, tileCache.size());
+    verify(propertyRepository, times(3)).findMapClusters(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(8));
+  }
+
+  @Test
+  void getClusters_ExpiredTileIsReloaded() {
+    MapClusterTileCache expiring = new MapClusterTileCache(propertyRepository, 8, 10, 0);
+    when(propertyRepository.findMapClusters(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(8)))
+        .thenReturn(List.of());
+
+    expiring.getClusters(new MapTile(5, 1, 1));
+    expiring.getClusters(new MapTile(5, 1, 1));
+
+    verify(propertyRepository, times(2)).findMapClusters(anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(8));
+  }
+
+  private MapClusterProjection cluster(long count, long propertyId) {
+    MapClusterProjection projection = mock(MapClusterProjection.class);
+    when(projection.getCount()).thenReturn(count);
+    when(projection.getLatitude()).thenReturn(-8.65);
+    when(projection.getLongitude()).thenReturn(115.21);
+    when(projection.getMinPrice()).thenReturn(BigDecimal.valueOf(350_000));
+    if (count == 1) {
+      when(projection.getPropertyId()).thenReturn(propertyId);
+    }
+    return projection;
+  }
+}
@@ -0,0 +1,51 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class MapTileTest {
+
+  @Test
+  void covering_WholeWorldAtZoomZeroIsOneTile() {
+    List<MapTile> tiles = MapTile.covering(-90, -180, 90, 180, 0);
+
+    assertEquals(List.of(new MapTile(0, 0, 0)), tiles);
+    assertEquals(-180.0, tiles.getFirst().west(), 1e-9);
+    assertEquals(180.0, tiles.getFirst().east(), 1e-9);
+    assertEquals(85.0511, tiles.getFirst().north(), 1e-4);
+    assertEquals(-85.0511, tiles.getFirst().south(), 1e-4);
+  }
+
+  @Test
+  void covering_KnownTileOfBali() {
+    // Denpasar is in tile 13/6717/4293 in the standard scheme
+    List<MapTile> tiles = MapTile.covering(-8.65, 115.21, -8.65, 115.21, 13);
+
+    assertEquals(List.of(new MapTile(13, 6717, 4293)), tiles);
+    assertEquals("13/6717/4293", tiles.getFirst().key());
+  }
+
+  @Test
+  void covering_TilesContainTheirBoxAndCountMatches() {
+    Random random = new Random(31);
+    for (int i = 0; i < 1_000; i++) {
+      int zoom = random.nextInt(0, 15);
+      double south = random.nextDouble(-80, 79);
+      double north = random.nextDouble(south, Math.min(80, south + 2));
+      double west = random.nextDouble(-179, 178);
+      double east = random.nextDouble(west, Math.min(179.9, west + 2));
+
+      List<MapTile> tiles = MapTile.covering(south, west, north, east, zoom);
+
+      assertEquals(tiles.size(), MapTile.countCovering(south, west, north, east, zoom));
+      assertTrue(tiles.stream().anyMatch(tile -> tile.west() <= west && west < tile.east()
+          && tile.south() < north && north <= tile.north()));
+      assertTrue(tiles.stream().anyMatch(tile -> tile.west() <= east && east < tile.east()
+          && tile.south() < south && south <= tile.north()));
+    }
+  }
+}
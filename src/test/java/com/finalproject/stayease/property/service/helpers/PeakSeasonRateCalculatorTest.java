@@ -5,8 +5,11 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import com.finalproject.stayease.property.entity.PeakSeasonRate;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -59,6 +62,67 @@ public class PeakSeasonRateCalculatorTest {
     assertEquals(BigDecimal.valueOf(115.00).setScale(2), result);
   }
 
+  @Test
+  void calculateAdjustedPrice_MatchesBigDecimalHalfUpForRandomRates() {
+    Random random = new Random(17);
+    for (int i = 0; i < 20_000; i++) {
+      BigDecimal basePrice = BigDecimal.valueOf(random.nextLong(1, 50_000_000_00L), 2);
+      List<PeakSeasonRate> rates = new ArrayList<>();
+      for (int r = random.nextInt(5); r > 0; r--) {
+        rates.add(random.nextBoolean()
+            ? createRate(BigDecimal.valueOf(random.nextLong(0, 100_01), 2), PeakSeasonRate.AdjustmentType.PERCENTAGE)
+            : createRate(BigDecimal.valueOf(random.nextLong(-500_000_00L, 5_000_000_00L), 2),
+                PeakSeasonRate.AdjustmentType.FIXED));
+      }
+
+      assertEquals(referenceAdjustedPrice(basePrice, rates), calculator.calculateAdjustedPrice(basePrice, rates),
+          () -> "base " + basePrice + " rates " + rates.stream()
+              .map(rate -> rate.getAdjustmentRate() + " " + rate.getAdjustmentType()).toList());
+    }
+  }
+
+  @Test
+  void calculateAdjustedPrice_FallsBackForAmountsOutsideMinorUnits() {
+    List<PeakSeasonRate> rates = List.of(
+        createRate(new BigDecimal("12.345"), PeakSeasonRate.AdjustmentType.PERCENTAGE),
+        createRate(new BigDecimal("0.005"), PeakSeasonRate.AdjustmentType.FIXED));
+
+    for (BigDecimal basePrice : List.of(new BigDecimal("100.005"), new BigDecimal("99999999999999999.99"),
+        BigDecimal.valueOf(100))) {
+      assertEquals(referenceAdjustedPrice(basePrice, rates), calculator.calculateAdjustedPrice(basePrice, rates));
+    }
+  }
+
+  @Test
+  void applyPeakSeasonRate_MatchesBigDecimalHalfUpForRandomRates() {
+    Random random = new Random(19);
+    for (int i = 0; i < 20_000; i++) {
+      RoomPriceRateDTO roomRate = new RoomPriceRateDTO();
+      roomRate.setBasePrice(BigDecimal.valueOf(random.nextLong(1, 50_000_000_00L), 2));
+      boolean percentage = random.nextBoolean();
+      roomRate.setAdjustmentType(percentage
+          ? PeakSeasonRate.AdjustmentType.PERCENTAGE : PeakSeasonRate.AdjustmentType.FIXED);
+      roomRate.setAdjustmentRate(BigDecimal.valueOf(random.nextLong(0, percentage ? 100_01 : 5_000_000_00L), 2));
+
+      BigDecimal expected = referenceAdjustedPrice(roomRate.getBasePrice(),
+          List.of(createRate(roomRate.getAdjustmentRate(), roomRate.getAdjustmentType())));
+      assertEquals(expected, calculator.applyPeakSeasonRate(roomRate));
+    }
+  }
+
+  // The calculation as it was before the fixed-point path, kept as the reference
+  private BigDecimal referenceAdjustedPrice(BigDecimal basePrice, List<PeakSeasonRate> applicableRates) {
+    BigDecimal totalAdjustment = BigDecimal.ZERO;
+    for (PeakSeasonRate rate : applicableRates) {
+      if (rate.getAdjustmentType() == PeakSeasonRate.AdjustmentType.PERCENTAGE) {
+        totalAdjustment = totalAdjustment.add(basePrice.multiply(rate.getAdjustmentRate().divide(BigDecimal.valueOf(100))));
+      } else {
+        totalAdjustment = totalAdjustment.add(rate.getAdjustmentRate());
+      }
+    }
+    return basePrice.add(totalAdjustment).setScale(2, RoundingMode.HALF_UP);
+  }
+
   private PeakSeasonRate createRate(BigDecimal rate, PeakSeasonRate.AdjustmentType type) {
     PeakSeasonRate peakSeasonRate = new PeakSeasonRate();
     peakSeasonRate.setAdjustmentRate(rate);
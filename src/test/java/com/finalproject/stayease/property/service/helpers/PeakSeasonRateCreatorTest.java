@@ -27,6 +27,12 @@ public class PeakSeasonRateCreatorTest {
   @Mock
   private PeakSeasonRateRepository peakSeasonRateRepository;
 
+  @Mock
+  private PropertyViewCache propertyViewCache;
+
+  @Mock
+  private PropertyRateTimelineCache rateTimelineCache;
+
   @InjectMocks
   private PeakSeasonRateCreator creator;
 
@@ -38,6 +44,7 @@ public class PeakSeasonRateCreatorTest {
   @Test
   void testCreateRate_Success() {
     Property property = new Property();
+    property.setId(1L);
     SetPeakSeasonRateRequestDTO requestDTO = new SetPeakSeasonRateRequestDTO();
     requestDTO.setStartDate(LocalDate.now());
     requestDTO.setEndDate(LocalDate.now().plusDays(7));
@@ -58,6 +65,7 @@ public class PeakSeasonRateCreatorTest {
     assertEquals(requestDTO.getReason(), result.getReason());
 
     verify(peakSeasonRateRepository, times(1)).save(any(PeakSeasonRate.class));
+    verify(propertyViewCache).evict(1L);
   }
 
   @Test
@@ -73,7 +81,10 @@ public class PeakSeasonRateCreatorTest {
 
   @Test
   void testUpdateRate_Success() {
+    Property property = new Property();
+    property.setId(1L);
     PeakSeasonRate existingRate = new PeakSeasonRate();
+    existingRate.setProperty(property);
     existingRate.setStartDate(LocalDate.now().minusDays(1));
     existingRate.setEndDate(LocalDate.now().plusDays(6));
     existingRate.setAdjustmentRate(BigDecimal.valueOf(5));
@@ -97,5 +108,7 @@ public class PeakSeasonRateCreatorTest {
     assertEquals(requestDTO.getReason(), result.getReason());
 
     verify(peakSeasonRateRepository, times(1)).save(any(PeakSeasonRate.class));
+    verify(propertyViewCache).evict(1L);
+    verify(rateTimelineCache).invalidate(1L);
   }
 }
@@ -25,6 +25,9 @@ class PropertyCategoryHelperTest {
   @Mock
   private PropertyCategoryRepository propertyCategoryRepository;
 
+  @Mock
+  private CategorySimilarityIndex categorySimilarityIndex;
+
   @InjectMocks
   private PropertyCategoryHelper propertyCategoryHelper;
 
@@ -61,7 +64,7 @@ class PropertyCategoryHelperTest {
   @Test
   void checkMatch_Success() {
     when(propertyCategoryRepository.findByNameIgnoreCaseAndDeletedAtIsNull(anyString())).thenReturn(Optional.empty());
-    when(propertyCategoryRepository.findAll()).thenReturn(java.util.Collections.emptyList());
+    when(categorySimilarityIndex.findSimilar("New Category")).thenReturn(java.util.Collections.emptyList());
     assertDoesNotThrow(() -> propertyCategoryHelper.checkMatch("New Category"));
   }
 
@@ -74,8 +77,10 @@ class PropertyCategoryHelperTest {
   @Test
   void checkMatch_SimilarCategory() {
     when(propertyCategoryRepository.findByNameIgnoreCaseAndDeletedAtIsNull(anyString())).thenReturn(Optional.empty());
-    when(propertyCategoryRepository.findAll()).thenReturn(java.util.Collections.singletonList(category));
-    assertThrows(DuplicateCategoryException.class, () -> propertyCategoryHelper.checkMatch("Apartmant"));
+    when(categorySimilarityIndex.findSimilar("Apartmant")).thenReturn(java.util.Collections.singletonList("Apartment"));
+    DuplicateCategoryException exception = assertThrows(DuplicateCategoryException.class,
+        () -> propertyCategoryHelper.checkMatch("Apartmant"));
+    assertEquals("Similar categories exist: Apartment", exception.getMessage());
   }
 
   @Test
@@ -0,0 +1,158 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.finalproject.stayease.exceptions.properties.PeakSeasonRateNotFoundException;
+import com.finalproject.stayease.property.entity.PeakSeasonRate;
+import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
+import com.finalproject.stayease.property.entity.Room;
+import com.finalproject.stayease.property.entity.RoomAvailability;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.DailyPriceDTO;
+import com.finalproject.stayease.property.repository.PeakSeasonRateRepository;
+import com.finalproject.stayease.property.repository.RoomAvailabilityRepository;
+import com.finalproject.stayease.property.repository.RoomRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class PropertyPriceCalendarTest {
+
+  @Mock
+  private RoomRepository roomRepository;
+
+  @Mock
+  private RoomAvailabilityRepository roomAvailabilityRepository;
+
+  @Mock
+  private PeakSeasonRateRepository peakSeasonRateRepository;
+
+  @Spy
+  private PeakSeasonRateCalculator calculator;
+
+  @InjectMocks
+  private PropertyPriceCalendar priceCalendar;
+
+  private LocalDate startDate;
+  private Room cheapRoom;
+  private Room expensiveRoom;
+
+  @BeforeEach
+  void setUp() {
+    startDate = LocalDate.now().plusDays(1);
+
+    cheapRoom = new Room();
+    cheapRoom.setId(1L);
+    cheapRoom.setBasePrice(BigDecimal.valueOf(100));
+
+    expensiveRoom = new Room();
+    expensiveRoom.setId(2L);
+    expensiveRoom.setBasePrice(BigDecimal.valueOf(150));
+  }
+
+  private RoomAvailability unavailability(Room room, LocalDate from, LocalDate lastNight) {
+    RoomAvailability roomAvailability = new RoomAvailability();
+    roomAvailability.setRoom(room);
+    roomAvailability.setStartDate(from);
+    roomAvailability.setEndDate(lastNight);
+    roomAvailability.setIsAvailable(false);
+    return roomAvailability;
+  }
+
+  private PeakSeasonRate rate(LocalDate from, LocalDate to, AdjustmentType type, long adjustment) {
+    PeakSeasonRate rate = new PeakSeasonRate();
+    rate.setStartDate(from);
+    rate.setEndDate(to);
+    rate.setAdjustmentType(type);
+    rate.setAdjustmentRate(BigDecimal.valueOf(adjustment));
+    return rate;
+  }
+
+  private void stubCalendar(LocalDate endDate, List<RoomAvailability> unavailabilities, List<PeakSeasonRate> rates) {
+    when(roomRepository.findAllByPropertyIdOrderByBasePrice(1L)).thenReturn(List.of(cheapRoom, expensiveRoom));
+    when(roomAvailabilityRepository.findAllUnavailabilityByPropertyIdAndDateRange(1L, startDate, endDate.minusDays(1)))
+        .thenReturn(unavailabilities);
+    when(peakSeasonRateRepository.findRatesByPropertyOverlappingDateRange(1L, startDate, endDate.minusDays(1)))
+        .thenReturn(rates);
+  }
+
+  @Test
+  void findDailyPrices_SweepsBlockedRoomsAndRates() {
+    LocalDate endDate = startDate.plusDays(5);
+    // Cheap room blocked on nights 1-2, 10% rate on nights 2-3, +20 fixed rate from before the range to night 0
+    stubCalendar(endDate,
+        List.of(unavailability(cheapRoom, startDate.plusDays(1), startDate.plusDays(2))),
+        List.of(rate(startDate.plusDays(2), startDate.plusDays(3), AdjustmentType.PERCENTAGE, 10),
+            rate(startDate.minusDays(3), startDate, AdjustmentType.FIXED, 20)));
+
+    List<DailyPriceDTO> result = priceCalendar.findDailyPrices(1L, startDate, endDate);
+
+    assertEquals(5, result.size());
+    assertEquals(new BigDecimal("120.00"), result.get(0).getLowestPrice());
+    assertTrue(result.get(0).isHasAdjustment());
+    assertEquals(new BigDecimal("150.00"), result.get(1).getLowestPrice());
+    assertFalse(result.get(1).isHasAdjustment());
+    assertEquals(new BigDecimal("165.00"), result.get(2).getLowestPrice());
+    assertEquals(new BigDecimal("110.00"), result.get(3).getLowestPrice());
+    assertEquals(new BigDecimal("100.00"), result.get(4).getLowestPrice());
+    assertFalse(result.get(4).isHasAdjustment());
+    assertEquals(startDate.plusDays(4), result.get(4).getDate());
+  }
+
+  @Test
+  void findDailyPrices_ThreeQueriesForAnyRange() {
+    LocalDate endDate = startDate.plusDays(365);
+    stubCalendar(endDate, List.of(), List.of());
+
+    List<DailyPriceDTO> result = priceCalendar.findDailyPrices(1L, startDate, endDate);
+
+    assertEquals(365, result.size());
+    verify(roomRepository, times(1)).findAllByPropertyIdOrderByBasePrice(1L);
+    verify(roomAvailabilityRepository, times(1)).findAllUnavailabilityByPropertyIdAndDateRange(anyLong(), any(), any());
+    verify(peakSeasonRateRepository, times(1)).findRatesByPropertyOverlappingDateRange(anyLong(), any(), any());
+  }
+
+  @Test
+  void findDailyPrices_EmptyRange() {
+    List<DailyPriceDTO> result = priceCalendar.findDailyPrices(1L, startDate, startDate);
+
+    assertTrue(result.isEmpty());
+    verifyNoInteractions(roomRepository, roomAvailabilityRepository, peakSeasonRateRepository);
+  }
+
+  @Test
+  void findDailyPrices_AllRoomsBlocked() {
+    LocalDate endDate = startDate.plusDays(2);
+    stubCalendar(endDate,
+        List.of(unavailability(cheapRoom, startDate, startDate.plusDays(1)),
+            unavailability(expensiveRoom, startDate.plusDays(1), startDate.plusDays(1))),
+        List.of());
+
+    assertThrows(PeakSeasonRateNotFoundException.class, () -> priceCalendar.findDailyPrices(1L, startDate, endDate));
+  }
+
+  @Test
+  void findCumulativePrices_PrefixSums() {
+    LocalDate endDate = startDate.plusDays(3);
+    stubCalendar(endDate, List.of(),
+        List.of(rate(startDate.plusDays(1), startDate.plusDays(1), AdjustmentType.PERCENTAGE, 10)));
+
+    List<DailyPriceDTO> result = priceCalendar.findCumulativePrices(1L, startDate, endDate);
+
+    assertEquals(3, result.size());
+    assertEquals(new BigDecimal("100.00"), result.get(0).getLowestPrice());
+    assertFalse(result.get(0).isHasAdjustment());
+    assertEquals(new BigDecimal("210.00"), result.get(1).getLowestPrice());
+    assertTrue(result.get(1).isHasAdjustment());
+    assertEquals(new BigDecimal("310.00"), result.get(2).getLowestPrice());
+    assertFalse(result.get(2).isHasAdjustment());
+  }
+}
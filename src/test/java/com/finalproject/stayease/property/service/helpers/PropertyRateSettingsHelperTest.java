@@ -1,14 +1,23 @@
 package com.finalproject.stayease.property.service.helpers;
 
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
 import com.finalproject.stayease.property.entity.PeakSeasonRate;
+import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.PropertyRateSetting;
 import com.finalproject.stayease.property.service.PeakSeasonRateService;
+import com.finalproject.stayease.property.service.helpers.AutomaticRateWriter.NewRate;
+import com.finalproject.stayease.property.service.helpers.AutomaticRateWriter.RateUpdate;
 import com.finalproject.stayease.property.service.impl.HolidayService;
+import com.finalproject.stayease.property.service.impl.HolidayService.Holiday;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -29,6 +38,9 @@ public class PropertyRateSettingsHelperTest {
   @Mock
   private HolidayService holidayService;
 
+  @Mock
+  private AutomaticRateWriter rateWriter;
+
   @InjectMocks
   private PropertyRateSettingsHelper propertyRateSettingsHelper;
 
@@ -66,10 +78,12 @@ public class PropertyRateSettingsHelperTest {
     List<PeakSeasonRate> rates = new ArrayList<>();
     rates.add(new PeakSeasonRate());
     rates.getFirst().setId(1L);
+    rates.getFirst().setProperty(propertyRateSetting.getProperty());
 
     propertyRateSettingsHelper.handleDeactivation(rates);
 
-    verify(peakSeasonRateService, times(1)).removePeakSeasonRate(1L);
+    verify(rateWriter, times(1)).apply(1L, List.of(), List.of(), List.of(1L));
+    verifyNoMoreInteractions(peakSeasonRateService);
   }
 
   @Test
@@ -83,4 +97,59 @@ public class PropertyRateSettingsHelperTest {
     verify(holidayService, times(1)).getHolidaysInDateRange(startDate, endDate);
     verify(holidayService, times(1)).getLongWeekendsInDateRange(startDate, endDate);
   }
+
+  @Test
+  void handleAutoRatesApplication_WritesOnlyTheDifference() {
+    LocalDate newHoliday = startDate.plusDays(10);
+    LocalDate changedHoliday = startDate.plusDays(20);
+    LocalDate unchangedHoliday = startDate.plusDays(30);
+    LocalDate formerHoliday = startDate.plusDays(40);
+    List<PeakSeasonRate> existingRates = List.of(
+        rate(2L, changedHoliday, BigDecimal.valueOf(5), "Automatic - Holiday"),
+        rate(3L, unchangedHoliday, new BigDecimal("10.00"), "Automatic - Holiday"),
+        rate(4L, formerHoliday, BigDecimal.valueOf(10), "Automatic - Holiday"));
+    when(holidayService.getHolidaysInDateRange(startDate, endDate)).thenReturn(List.of(
+        holiday(newHoliday), holiday(newHoliday), holiday(changedHoliday), holiday(unchangedHoliday)));
+    when(holidayService.getLongWeekendsInDateRange(startDate, endDate)).thenReturn(List.of());
+    when(holidayService.isHoliday(any())).thenAnswer(invocation -> !formerHoliday.equals(invocation.getArgument(0)));
+    when(holidayService.isLongWeekend(formerHoliday)).thenReturn(false);
+
+    propertyRateSettingsHelper.handleAutoRatesApplication(propertyRateSetting, startDate, endDate, existingRates);
+
+    verify(rateWriter).apply(1L,
+        List.of(new NewRate(newHoliday, newHoliday, BigDecimal.valueOf(10), AdjustmentType.PERCENTAGE,
+            "Automatic - Holiday")),
+        List.of(new RateUpdate(2L, changedHoliday, BigDecimal.valueOf(10), AdjustmentType.PERCENTAGE)),
+        List.of(4L));
+    verifyNoMoreInteractions(peakSeasonRateService);
+  }
+
+  @Test
+  void handleAutoRatesApplication_RejectsPercentageOverHundred() {
+    propertyRateSetting.setHolidayAdjustmentRate(BigDecimal.valueOf(150));
+    when(holidayService.getHolidaysInDateRange(startDate, endDate)).thenReturn(List.of());
+    when(holidayService.getLongWeekendsInDateRange(startDate, endDate)).thenReturn(List.of());
+
+    assertThrows(InvalidRequestException.class, () -> propertyRateSettingsHelper.handleAutoRatesApplication(
+        propertyRateSetting, startDate, endDate, List.of()));
+    verifyNoInteractions(rateWriter);
+  }
+
+  private PeakSeasonRate rate(Long id, LocalDate date, BigDecimal adjustmentRate, String reason) {
+    PeakSeasonRate rate = new PeakSeasonRate();
+    rate.setId(id);
+    rate.setProperty(propertyRateSetting.getProperty());
+    rate.setStartDate(date);
+    rate.setEndDate(date);
+    rate.setAdjustmentRate(adjustmentRate);
+    rate.setAdjustmentType(AdjustmentType.PERCENTAGE);
+    rate.setReason(reason);
+    return rate;
+  }
+
+  private Holiday holiday(LocalDate date) {
+    Holiday holiday = new Holiday();
+    holiday.setDate(date);
+    return holiday;
+  }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.finalproject.stayease.property.entity.PeakSeasonRate;
+import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
+import com.finalproject.stayease.property.entity.Property;
+import com.finalproject.stayease.property.repository.PeakSeasonRateRepository;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class PropertyRateTimelineCacheTest {
+
+  @Mock
+  private PeakSeasonRateRepository peakSeasonRateRepository;
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  @Mock
+  private RedisMessageListenerContainer listenerContainer;
+
+  private PropertyRateTimelineCache rateTimelineCache;
+
+  @BeforeEach
+  void setUp() {
+    rateTimelineCache = new PropertyRateTimelineCache(peakSeasonRateRepository, redisTemplate, listenerContainer, 2,
+        30);
+  }
+
+  private PeakSeasonRate rate(Long propertyId) {
+    Property property = new Property();
+    property.setId(propertyId);
+    PeakSeasonRate rate = new PeakSeasonRate();
+    rate.setId(propertyId * 10);
+    rate.setProperty(property);
+    rate.setStartDate(LocalDate.now());
+    rate.setEndDate(LocalDate.now().plusDays(2));
+    rate.setAdjustmentRate(BigDecimal.TEN);
+    rate.setAdjustmentType(AdjustmentType.PERCENTAGE);
+    rate.setValidFrom(Instant.now().minusSeconds(60));
+    return rate;
+  }
+
+  @Test
+  void getTimelines_LoadsMissingInOneQueryThenHits() {
+    when(peakSeasonRateRepository.findActiveRatesByPropertyIds(eq(Set.of(1L, 2L)), any(LocalDate.class)))
+        .thenReturn(List.of(rate(1L)));
+
+    Map<Long, PropertyRateTimeline> first = rateTimelineCache.getTimelines(List.of(1L, 2L));
+    Map<Long, PropertyRateTimeline> second = rateTimelineCache.getTimelines(List.of(1L, 2L));
+
+    assertEquals(1, first.get(1L).size());
+    assertEquals(0, first.get(2L).size());
+    assertSame(first.get(1L), second.get(1L));
+    verify(peakSeasonRateRepository, times(1)).findActiveRatesByPropertyIds(any(), any());
+  }
+
+  @Test
+  void getTimeline_BoundedBySize() {
+    when(peakSeasonRateRepository.findActiveRatesByPropertyIds(any(), any(LocalDate.class))).thenReturn(List.of());
+
+    rateTimelineCache.getTimeline(1L);
+    rateTimelineCache.getTimeline(2L);
+    rateTimelineCache.getTimeline(3L);
+
+    assertEquals(2, rateTimelineCache.size());
+    rateTimelineCache.getTimeline(1L);
+    verify(peakSeasonRateRepository, times(4)).findActiveRatesByPropertyIds(any(), any());
+  }
+
+  @Test
+  void invalidate_AfterCommitReloadsAndPublishes() {
+    when(peakSeasonRateRepository.findActiveRatesByPropertyIds(any(), any(LocalDate.class)))
+        .thenReturn(List.of(rate(1L)));
+    rateTimelineCache.getTimeline(1L);
+
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      rateTimelineCache.invalidate(1L);
+      rateTimelineCache.getTimeline(1L);
+      verify(peakSeasonRateRepository, times(1)).findActiveRatesByPropertyIds(any(), any());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    rateTimelineCache.getTimeline(1L);
+    verify(peakSeasonRateRepository, times(2)).findActiveRatesByPropertyIds(any(), any());
+    verify(redisTemplate).convertAndSend("stayease:rate-timeline:invalidations", "1");
+  }
+}
@@ -0,0 +1,96 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.finalproject.stayease.property.entity.PeakSeasonRate;
+import com.finalproject.stayease.property.entity.PeakSeasonRate.AdjustmentType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class PropertyRateTimelineTest {
+
+  private static final LocalDate BASE = LocalDate.of(2024, 12, 1);
+  private static final Instant NOW = Instant.parse("2024-11-15T00:00:00Z");
+
+  private PeakSeasonRate rate(long id, int startDay, int endDay, Instant validFrom) {
+    PeakSeasonRate rate = new PeakSeasonRate();
+    rate.setId(id);
+    rate.setStartDate(BASE.plusDays(startDay));
+    rate.setEndDate(BASE.plusDays(endDay));
+    rate.setAdjustmentRate(BigDecimal.TEN);
+    rate.setAdjustmentType(AdjustmentType.PERCENTAGE);
+    rate.setValidFrom(validFrom);
+    return rate;
+  }
+
+  private List<Long> ids(List<PeakSeasonRate> rates) {
+    return rates.stream().map(PeakSeasonRate::getId).toList();
+  }
+
+  @Test
+  void ratesOn_StacksOverlappingRatesInValidFromOrder() {
+    PropertyRateTimeline timeline = PropertyRateTimeline.of(List.of(
+        rate(1L, 0, 9, NOW.minusSeconds(10)),
+        rate(2L, 5, 5, NOW.minusSeconds(30)),
+        rate(3L, 9, 12, NOW.minusSeconds(20))));
+
+    assertEquals(List.of(1L), ids(timeline.ratesOn(BASE, NOW)));
+    assertEquals(List.of(2L, 1L), ids(timeline.ratesOn(BASE.plusDays(5), NOW)));
+    assertEquals(List.of(3L, 1L), ids(timeline.ratesOn(BASE.plusDays(9), NOW)));
+    assertEquals(List.of(3L), ids(timeline.ratesOn(BASE.plusDays(12), NOW)));
+    assertTrue(timeline.ratesOn(BASE.minusDays(1), NOW).isEmpty());
+    assertTrue(timeline.ratesOn(BASE.plusDays(13), NOW).isEmpty());
+    assertEquals(3, timeline.size());
+  }
+
+  @Test
+  void ratesOn_IgnoresRatesCreatedAfterBookingTime() {
+    PropertyRateTimeline timeline = PropertyRateTimeline.of(List.of(
+        rate(1L, 0, 3, NOW.minusSeconds(10)),
+        rate(2L, 0, 3, NOW.plusSeconds(10)),
+        rate(3L, 0, 3, null)));
+
+    assertEquals(List.of(1L), ids(timeline.ratesOn(BASE.plusDays(1), NOW)));
+    assertEquals(List.of(1L, 2L), ids(timeline.ratesOn(BASE.plusDays(1), NOW.plusSeconds(60))));
+  }
+
+  @Test
+  void of_CopiesRates() {
+    PeakSeasonRate original = rate(1L, 0, 3, NOW.minusSeconds(10));
+    PropertyRateTimeline timeline = PropertyRateTimeline.of(List.of(original));
+    original.setAdjustmentRate(BigDecimal.ONE);
+
+    PeakSeasonRate cached = timeline.ratesOn(BASE, NOW).getFirst();
+    assertNotSame(original, cached);
+    assertEquals(BigDecimal.TEN, cached.getAdjustmentRate());
+    assertNull(cached.getProperty());
+  }
+
+  @Test
+  void ratesOn_MatchesLinearScan() {
+    Random random = new Random(42);
+    List<PeakSeasonRate> rates = new ArrayList<>();
+    for (long id = 1; id <= 200; id++) {
+      int start = random.nextInt(180);
+      rates.add(rate(id, start, start + random.nextInt(10), NOW.minusSeconds(random.nextInt(1000) - 100)));
+    }
+    PropertyRateTimeline timeline = PropertyRateTimeline.of(rates);
+
+    for (int day = -5; day < 200; day++) {
+      LocalDate date = BASE.plusDays(day);
+      List<Long> expected = rates.stream()
+          .filter(rate -> !date.isBefore(rate.getStartDate()) && !date.isAfter(rate.getEndDate()))
+          .filter(rate -> !rate.getValidFrom().isAfter(NOW))
+          .sorted((a, b) -> a.getValidFrom().equals(b.getValidFrom())
+              ? a.getId().compareTo(b.getId()) : a.getValidFrom().compareTo(b.getValidFrom()))
+          .map(PeakSeasonRate::getId)
+          .toList();
+      assertEquals(expected, ids(timeline.ratesOn(date, NOW)), "rates on " + date);
+    }
+  }
+}
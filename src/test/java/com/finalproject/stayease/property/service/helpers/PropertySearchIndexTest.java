@@ -0,0 +1,191 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class PropertySearchIndexTest {
+
+  private static final Resource MIGRATION = new ClassPathResource("db/migration/V2__property_search_document.sql");
+
+  private static final String LIKE_SCAN = """
+      SELECT p.id
+      FROM property p
+      JOIN property_categories pc ON pc.id = p.category_id
+      JOIN tenant_info ti ON ti.user_id = p.tenant_id
+      WHERE p.deleted_at IS NULL
+      AND (LOWER(p.name) LIKE CONCAT('%', LOWER(?), '%') OR
+          LOWER(pc.name) LIKE CONCAT('%', LOWER(?), '%') OR
+          LOWER(p.address) LIKE CONCAT('%', LOWER(?), '%') OR
+          LOWER(p.city) LIKE CONCAT('%', LOWER(?), '%') OR
+          LOWER(p.country) LIKE CONCAT('%', LOWER(?), '%') OR
+          LOWER(ti.business_name) LIKE CONCAT('%', LOWER(?), '%'))
+      """;
+
+  private static final String INDEXED_SEARCH = """
+      SELECT p.id
+      FROM property p
+      JOIN property_search_document psd ON psd.property_id = p.id
+      WHERE p.deleted_at IS NULL
+      AND (psd.search_vector @@ WEBSEARCH_TO_TSQUERY('simple', ?) OR
+          psd.document LIKE CONCAT('%', LOWER(?), '%'))
+      ORDER BY TS_RANK(psd.search_vector, WEBSEARCH_TO_TSQUERY('simple', ?))
+               + WORD_SIMILARITY(LOWER(?), psd.document) DESC, p.id
+      """;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @InjectMocks
+  private PropertySearchIndex searchIndex;
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void onApplicationReady_CatchesUp() {
+    when(jdbcTemplate.update(contains("NOT EXISTS"))).thenReturn(3);
+
+    searchIndex.onApplicationReady();
+
+    verify(jdbcTemplate).update(contains("NOT EXISTS"));
+    verify(jdbcTemplate, never()).execute(anyString());
+  }
+
+  @Test
+  void onApplicationReady_DatabaseDownDoesNotStopStartup() {
+    when(jdbcTemplate.update(contains("NOT EXISTS"))).thenThrow(new DataAccessResourceFailureException("down"));
+
+    assertDoesNotThrow(() -> searchIndex.onApplicationReady());
+  }
+
+  @Test
+  void refresh_WritesInCurrentTransaction() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    searchIndex.refresh(7L);
+
+    verify(jdbcTemplate).update(contains("WHERE p.id = ?"), eq(7L));
+    assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+  }
+
+  @Test
+  void refresh_FailureRollsBackWithProperty() {
+    when(jdbcTemplate.update(anyString(), eq(7L))).thenThrow(new DataAccessResourceFailureException("down"));
+
+    assertThrows(DataAccessResourceFailureException.class, () -> searchIndex.refresh(7L));
+  }
+
+  /**
+   * Checks on synthetic properties that the indexed search finds everything the six-column LIKE scan it replaced
+   * found, and that neither a substring nor a phrase match runs across two fields. Needs a PostgreSQL database it may
+   * create a scratch schema in, run with
+   * {@code mvn test -Dtest=PropertySearchIndexTest -Dbenchmark=true -Dbenchmark.db-url=jdbc:postgresql://...}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  @EnabledIfSystemProperty(named = "benchmark.db-url", matches = ".+")
+  void search_MatchesWithinFieldsOnly() throws IOException {
+    SingleConnectionDataSource dataSource = new SingleConnectionDataSource(System.getProperty("benchmark.db-url"),
+        System.getProperty("benchmark.db-user", "postgres"), System.getProperty("benchmark.db-password", ""), true);
+    JdbcTemplate database = new JdbcTemplate(dataSource);
+    try {
+      database.execute("DROP SCHEMA IF EXISTS search_benchmark CASCADE");
+      database.execute("CREATE SCHEMA search_benchmark");
+      database.execute("SET search_path TO search_benchmark, public");
+      createSyntheticProperties(database, 10_000);
+      // Only the first is named Sunny Villa, the second is named Sunny and has Villa as its category and address
+      database.update("""
+          INSERT INTO property VALUES
+            (20001, 1, 1, 'Sunny Villa', 'Jalan Pantai', 'Kuta', 'Indonesia', NULL, NOW()),
+            (20002, 1, 1, 'Sunny', 'Villa Road', 'Ubud', 'Indonesia', NULL, NOW())
+          """);
+      database.execute(MIGRATION.getContentAsString(StandardCharsets.UTF_8));
+      new PropertySearchIndex(database).onApplicationReady();
+
+      for (String term : List.of("villa", "kuta", "sunrise resort", "ubud", "nonexistent")) {
+        Set<Long> likeMatches = new HashSet<>(database.queryForList(LIKE_SCAN, Long.class, likeParams(term)));
+        Set<Long> indexedMatches = new HashSet<>(search(database, term));
+        // A substring of any one column is a substring of the document, so nothing the old query found is lost
+        assertTrue(indexedMatches.containsAll(likeMatches), term);
+      }
+
+      assertTrue(search(database, "sunny villa").containsAll(List.of(20001L, 20002L)));
+      assertEquals(List.of(20001L), search(database, "\"sunny villa\"").stream().filter(id -> id > 20000).toList());
+      assertEquals(List.of(), database.queryForList("""
+          SELECT property_id FROM property_search_document
+          WHERE property_id = 20002 AND document LIKE '%sunny villa%'
+          """, Long.class));
+    } finally {
+      database.execute("DROP SCHEMA IF EXISTS search_benchmark CASCADE");
+      dataSource.destroy();
+    }
+  }
+
+  private static List<Long> search(JdbcTemplate database, String term) {
+    return database.queryForList(INDEXED_SEARCH, Long.class, term, term, term, term);
+  }
+
+  private static Object[] likeParams(String term) {
+    return new Object[]{term, term, term, term, term, term};
+  }
+
+  // Only the columns the search reads, filled from small word lists so terms hit a realistic share of rows
+  private static void createSyntheticProperties(JdbcTemplate database, int count) {
+    database.execute("""
+        CREATE TABLE property_categories (id BIGINT PRIMARY KEY, name TEXT NOT NULL, updated_at TIMESTAMPTZ);
+        CREATE TABLE tenant_info (user_id BIGINT PRIMARY KEY, business_name TEXT, updated_at TIMESTAMPTZ);
+        CREATE TABLE property (
+          id BIGINT PRIMARY KEY, category_id BIGINT NOT NULL, tenant_id BIGINT NOT NULL, name TEXT NOT NULL,
+          address TEXT, city TEXT, country TEXT, deleted_at TIMESTAMPTZ, updated_at TIMESTAMPTZ
+        );
+        INSERT INTO property_categories
+        SELECT i, (ARRAY['Villa', 'Hotel', 'Apartment', 'Guest House', 'Resort', 'Hostel'])[i], NOW()
+        FROM generate_series(1, 6) i;
+        INSERT INTO tenant_info
+        SELECT i, (ARRAY['Sunrise', 'Lotus', 'Bamboo', 'Coral', 'Harbor'])[1 + i % 5] || ' Hospitality ' || i, NOW()
+        FROM generate_series(1, 2000) i;
+        """);
+    database.update("""
+        INSERT INTO property
+        SELECT i, 1 + i % 6, 1 + i % 2000,
+               (ARRAY['Cozy', 'Grand', 'Sunny', 'Quiet', 'Royal', 'Green'])[1 + i % 6] || ' '
+                 || (ARRAY['Villa', 'Stay', 'Retreat', 'Lodge', 'Residence'])[1 + (i / 6) % 5] || ' ' || i,
+               'Jalan ' || (ARRAY['Melati', 'Kenanga', 'Mawar', 'Anggrek'])[1 + i % 4] || ' No. ' || i % 300,
+               (ARRAY['Kuta', 'Ubud', 'Seminyak', 'Bandung', 'Yogyakarta', 'Jakarta', 'Malang'])[1 + (i / 7) % 7],
+               'Indonesia', NULL, NOW()
+        FROM generate_series(1, ?) i
+        """, count);
+  }
+}
@@ -0,0 +1,182 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finalproject.stayease.property.entity.dto.PropertyCurrentDTO;
+import com.finalproject.stayease.property.entity.dto.RoomDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyAvailableOnDateDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomAdjustedRatesDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+@ExtendWith(MockitoExtension.class)
+public class PropertyViewCacheTest {
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  @Mock
+  private HashOperations<String, String, String> hashOperations;
+
+  @Mock
+  private RedisMessageListenerContainer listenerContainer;
+
+  @Mock
+  private RoomHoldStore roomHoldStore;
+
+  private ObjectMapper objectMapper;
+  private MeterRegistry meterRegistry;
+  private PropertyViewCache propertyViewCache;
+
+  private PropertyCurrentDTO propertyCurrent;
+
+  @BeforeEach
+  void setUp() {
+    objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    meterRegistry = new SimpleMeterRegistry();
+    when(redisTemplate.<String, String>opsForHash()).thenReturn(hashOperations);
+    propertyViewCache = new PropertyViewCache(redisTemplate, objectMapper, listenerContainer, meterRegistry,
+        roomHoldStore, 2, 30, 10);
+
+    propertyCurrent = new PropertyCurrentDTO();
+    propertyCurrent.setId(1L);
+    propertyCurrent.setPropertyName("Test Property");
+  }
+
+  private double requests(String result) {
+    return meterRegistry.get("property.view.cache.requests").tag("result", result).counter().count();
+  }
+
+  private double evictions(String cause) {
+    return meterRegistry.get("property.view.cache.evictions").tag("cause", cause).counter().count();
+  }
+
+  @Test
+  void getPropertyCurrent_MissThenNearHit() {
+    when(redisTemplate.getExpire("stayease:property-view:1")).thenReturn(-1L);
+    AtomicInteger loads = new AtomicInteger();
+
+    propertyViewCache.getPropertyCurrent(1L, () -> {
+      loads.incrementAndGet();
+      return propertyCurrent;
+    });
+    PropertyCurrentDTO result = propertyViewCache.getPropertyCurrent(1L, () -> {
+      loads.incrementAndGet();
+      return propertyCurrent;
+    });
+
+    assertEquals(propertyCurrent, result);
+    assertEquals(1, loads.get());
+    assertEquals(1, requests("miss"));
+    assertEquals(1, requests("near-hit"));
+    verify(hashOperations).put(eq("stayease:property-view:1"), eq("detail"), anyString());
+    verify(redisTemplate).expire(eq("stayease:property-view:1"), any());
+  }
+
+  @Test
+  void getRooms_RedisHit() throws Exception {
+    RoomDTO room = new RoomDTO();
+    room.setId(3L);
+    room.setName("Deluxe");
+    when(hashOperations.get("stayease:property-view:1", "rooms"))
+        .thenReturn(objectMapper.writeValueAsString(List.of(room)));
+
+    List<RoomDTO> result = propertyViewCache.getRooms(1L, () -> fail("Loader should not run on a Redis hit"));
+
+    assertEquals(1, result.size());
+    assertEquals("Deluxe", result.getFirst().getName());
+    assertEquals(1, requests("redis-hit"));
+  }
+
+  @Test
+  void getPropertyCurrent_RedisDown() {
+    when(hashOperations.get(anyString(), anyString())).thenThrow(new RedisConnectionFailureException("down"));
+    when(redisTemplate.getExpire(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+    PropertyCurrentDTO result = propertyViewCache.getPropertyCurrent(1L, () -> propertyCurrent);
+
+    assertEquals(propertyCurrent, result);
+    assertEquals(1, requests("miss"));
+  }
+
+  @Test
+  void getAvailableOnDate_PastDateBypassesCache() {
+    PropertyAvailableOnDateDTO available = new PropertyAvailableOnDateDTO();
+
+    PropertyAvailableOnDateDTO result = propertyViewCache.getAvailableOnDate(1L, LocalDate.now().minusDays(1),
+        () -> available);
+
+    assertEquals(available, result);
+    verifyNoInteractions(hashOperations);
+  }
+
+  @Test
+  void getAvailableOnDate_HeldRoomsAreUnavailableOnCachedView() {
+    LocalDate date = LocalDate.now().plusDays(1);
+    PropertyAvailableOnDateDTO available = new PropertyAvailableOnDateDTO();
+    available.setRooms(List.of(room(3L), room(4L)));
+    available.setUnavailableRooms(List.of());
+    when(roomHoldStore.findHeldRoomIds(date, date.plusDays(1))).thenReturn(Set.of(), Set.of(3L), Set.of());
+
+    propertyViewCache.getAvailableOnDate(1L, date, () -> available);
+    PropertyAvailableOnDateDTO held = propertyViewCache.getAvailableOnDate(1L, date,
+        () -> fail("Loader should not run on a cache hit"));
+    PropertyAvailableOnDateDTO released = propertyViewCache.getAvailableOnDate(1L, date,
+        () -> fail("Loader should not run on a cache hit"));
+
+    assertEquals(List.of(4L), held.getRooms().stream().map(RoomAdjustedRatesDTO::getRoomId).toList());
+    assertEquals(3L, held.getUnavailableRooms().getFirst().getRoomId());
+    // The cached view itself is left as the database sees it
+    assertEquals(2, released.getRooms().size());
+    assertTrue(released.getUnavailableRooms().isEmpty());
+  }
+
+  @Test
+  void evict_DropsNearAndRedisEntries() {
+    when(redisTemplate.getExpire("stayease:property-view:1")).thenReturn(600L);
+    propertyViewCache.getPropertyCurrent(1L, () -> propertyCurrent);
+
+    propertyViewCache.evict(1L);
+    propertyViewCache.getPropertyCurrent(1L, () -> propertyCurrent);
+
+    assertEquals(2, requests("miss"));
+    assertEquals(1, evictions("invalidated"));
+    verify(redisTemplate).delete("stayease:property-view:1");
+    verify(redisTemplate).convertAndSend("stayease:property-view:evictions", "1");
+  }
+
+  @Test
+  void nearCache_EvictsLeastRecentlyUsed() {
+    when(redisTemplate.getExpire(anyString())).thenReturn(600L);
+
+    propertyViewCache.getPropertyCurrent(1L, () -> propertyCurrent);
+    propertyViewCache.getPropertyCurrent(2L, () -> propertyCurrent);
+    propertyViewCache.getPropertyCurrent(3L, () -> propertyCurrent);
+
+    assertEquals(1, evictions("size"));
+    assertEquals(2, meterRegistry.get("property.view.cache.near.size").gauge().value());
+  }
+
+  private static RoomAdjustedRatesDTO room(Long roomId) {
+    RoomAdjustedRatesDTO room = new RoomAdjustedRatesDTO();
+    room.setPropertyId(1L);
+    room.setRoomId(roomId);
+    return room;
+  }
+}
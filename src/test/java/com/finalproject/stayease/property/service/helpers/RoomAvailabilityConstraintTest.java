@@ -0,0 +1,188 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+@ExtendWith(MockitoExtension.class)
+public class RoomAvailabilityConstraintTest {
+
+  private static final int THREADS = 32;
+  private static final Resource MIGRATION = new ClassPathResource("db/migration/V1__room_availability_no_overlap.sql");
+  private static final String HOLD = """
+      INSERT INTO room_availability (room_id, start_date, end_date, is_available, is_manual)
+      VALUES (?, ?, ?, false, false)
+      """;
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  @InjectMocks
+  private RoomAvailabilityConstraint constraint;
+
+  @Test
+  void onApplicationReady_ConstraintPresent() {
+    when(jdbcTemplate.queryForObject(contains("pg_constraint"), eq(Boolean.class))).thenReturn(true);
+
+    constraint.onApplicationReady();
+
+    assertTrue(constraint.isEnforced());
+    verify(jdbcTemplate, never()).execute(anyString());
+  }
+
+  @Test
+  void onApplicationReady_ConstraintSkippedForExistingOverlaps() {
+    when(jdbcTemplate.queryForObject(contains("pg_constraint"), eq(Boolean.class))).thenReturn(false);
+
+    constraint.onApplicationReady();
+
+    assertFalse(constraint.isEnforced());
+  }
+
+  @Test
+  void onApplicationReady_DatabaseDownLeavesConstraintUnenforced() {
+    when(jdbcTemplate.queryForObject(contains("pg_constraint"), eq(Boolean.class)))
+        .thenThrow(new DataAccessResourceFailureException("down"));
+
+    assertDoesNotThrow(() -> constraint.onApplicationReady());
+    assertFalse(constraint.isEnforced());
+  }
+
+  @Test
+  void isOverlap_LooksForExclusionViolationInCauses() {
+    SQLException exclusion = new SQLException("conflicting key value violates exclusion constraint", "23P01");
+    SQLException foreignKey = new SQLException("violates foreign key constraint", "23503");
+
+    assertTrue(RoomAvailabilityConstraint.isOverlap(new DataIntegrityViolationException("insert", exclusion)));
+    assertFalse(RoomAvailabilityConstraint.isOverlap(new DataIntegrityViolationException("insert", foreignKey)));
+    assertFalse(RoomAvailabilityConstraint.isOverlap(new DataAccessResourceFailureException("down")));
+  }
+
+  /**
+   * Races {@value #THREADS} connections for the same room-night, then for overlapping stays of different lengths, and
+   * checks the constraint lets exactly one hold through each time. Needs a PostgreSQL database it may create a scratch
+   * schema in, run with
+   * {@code mvn test -Dtest=RoomAvailabilityConstraintTest -Dbenchmark=true -Dbenchmark.db-url=jdbc:postgresql://...}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  @EnabledIfSystemProperty(named = "benchmark.db-url", matches = ".+")
+  void stress_ConcurrentHoldsForSameRoomNight() throws Exception {
+    String url = System.getProperty("benchmark.db-url");
+    String separator = url.contains("?") ? "&" : "?";
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(url + separator
+        + "currentSchema=booking_stress,public", System.getProperty("benchmark.db-user", "postgres"),
+        System.getProperty("benchmark.db-password", ""));
+    JdbcTemplate database = new JdbcTemplate(dataSource);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      database.execute("DROP SCHEMA IF EXISTS booking_stress CASCADE");
+      database.execute("CREATE SCHEMA booking_stress");
+      // Only the columns the constraint reads
+      database.execute("""
+          CREATE TABLE booking_stress.room_availability (
+            id BIGSERIAL PRIMARY KEY, room_id BIGINT, start_date DATE NOT NULL, end_date DATE NOT NULL,
+            is_available BOOLEAN, is_manual BOOLEAN, deleted_at TIMESTAMPTZ
+          )
+          """);
+      // The migration skips the constraint while holds overlap, and adds it once they are resolved
+      database.update(HOLD, 1L, LocalDate.now(), LocalDate.now());
+      database.update(HOLD, 1L, LocalDate.now(), LocalDate.now());
+      database.execute(MIGRATION.getContentAsString(StandardCharsets.UTF_8));
+      RoomAvailabilityConstraint skipped = new RoomAvailabilityConstraint(database);
+      skipped.onApplicationReady();
+      assertFalse(skipped.isEnforced());
+      database.update("DELETE FROM room_availability");
+      database.execute(MIGRATION.getContentAsString(StandardCharsets.UTF_8));
+      RoomAvailabilityConstraint stressConstraint = new RoomAvailabilityConstraint(database);
+      stressConstraint.onApplicationReady();
+      assertTrue(stressConstraint.isEnforced());
+
+      LocalDate night = LocalDate.now().plusDays(30);
+      assertEquals(1, race(executor, database, i -> new Object[]{1L, night, night}));
+      // Stays of one to four nights all covering the same night
+      assertEquals(1, race(executor, database, i -> new Object[]{2L, night.minusDays(i % 4), night.plusDays(i % 3)}));
+
+      Integer overlapping = database.queryForObject("""
+          SELECT COUNT(*)
+          FROM room_availability a
+          JOIN room_availability b ON a.room_id = b.room_id AND a.id < b.id AND a.stay && b.stay
+          WHERE a.deleted_at IS NULL AND b.deleted_at IS NULL
+          """, Integer.class);
+      assertEquals(0, overlapping);
+
+      // A released hold frees the night again
+      database.update("UPDATE room_availability SET deleted_at = NOW() WHERE room_id = 1");
+      assertEquals(1, database.update(HOLD, 1L, night, night));
+    } finally {
+      executor.shutdownNow();
+      database.execute("DROP SCHEMA IF EXISTS booking_stress CASCADE");
+    }
+  }
+
+  // Starts every insert at once, each on its own connection, and returns how many went through
+  private static int race(ExecutorService executor, JdbcTemplate database, HoldFactory holds) throws Exception {
+    CountDownLatch ready = new CountDownLatch(THREADS);
+    CountDownLatch go = new CountDownLatch(1);
+    List<Future<Boolean>> results = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      Object[] hold = holds.hold(i);
+      Callable<Boolean> insert = () -> {
+        ready.countDown();
+        go.await();
+        try {
+          return database.update(HOLD, hold) == 1;
+        } catch (DataIntegrityViolationException e) {
+          assertTrue(RoomAvailabilityConstraint.isOverlap(e), e.getMessage());
+          return false;
+        }
+      };
+      results.add(executor.submit(insert));
+    }
+    assertTrue(ready.await(30, TimeUnit.SECONDS));
+    go.countDown();
+    int succeeded = 0;
+    for (Future<Boolean> result : results) {
+      if (result.get(30, TimeUnit.SECONDS)) {
+        succeeded++;
+      }
+    }
+    return succeeded;
+  }
+
+  private interface HoldFactory {
+
+    Object[] hold(int thread);
+  }
+}
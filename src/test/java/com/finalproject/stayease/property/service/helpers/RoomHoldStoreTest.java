@@ -0,0 +1,275 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.finalproject.stayease.property.service.helpers.RoomHoldStore.Ownership;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
+public class RoomHoldStoreTest {
+
+  private static final int THREADS = 32;
+  private static final String NIGHTS = "stayease:room-holds-by-night";
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  private RoomHoldStore roomHoldStore;
+
+  @BeforeEach
+  void setUp() {
+    roomHoldStore = new RoomHoldStore(redisTemplate, 70);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void hold_WritesEveryNightInOneScript() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.of(2030, 1, 10);
+    List<String> keys = List.of("stayease:room-hold:7:2030-01-10", "stayease:room-hold:7:2030-01-11", NIGHTS,
+        "stayease:room-holds-booking:" + bookingId);
+    when(redisTemplate.execute(any(RedisScript.class), eq(keys), eq(bookingId.toString()), eq("4200000"),
+        eq(yesterday()), eq("7:2030-01-10"), eq(night(checkIn)), eq("7:2030-01-11"),
+        eq(night(checkIn.plusDays(1))))).thenReturn(1L);
+
+    assertTrue(roomHoldStore.hold(bookingId, 7L, checkIn, checkIn.plusDays(2)));
+  }
+
+  @Test
+  void hold_EveryRoomNightInOneScript() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.of(2030, 1, 10);
+    List<String> keys = List.of("stayease:room-hold:7:2030-01-10", "stayease:room-hold:7:2030-01-11",
+        "stayease:room-hold:9:2030-01-10", "stayease:room-hold:9:2030-01-11", NIGHTS,
+        "stayease:room-holds-booking:" + bookingId);
+    when(redisTemplate.execute(any(RedisScript.class), eq(keys), eq(bookingId.toString()), eq("4200000"),
+        eq(yesterday()), eq("7:2030-01-10"), eq(night(checkIn)), eq("7:2030-01-11"), eq(night(checkIn.plusDays(1))),
+        eq("9:2030-01-10"), eq(night(checkIn)), eq("9:2030-01-11"), eq(night(checkIn.plusDays(1)))))
+        .thenReturn(1L);
+
+    assertTrue(roomHoldStore.hold(bookingId, List.of(7L, 9L), checkIn, checkIn.plusDays(2)));
+  }
+
+  @Test
+  void hold_RefusedWhileAnotherBookingHoldsANight() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.of(2030, 1, 10);
+    when(redisTemplate.execute(any(RedisScript.class), any(List.class), eq(bookingId.toString()), eq("4200000"),
+        eq(yesterday()), eq("7:2030-01-10"), eq(night(checkIn)))).thenReturn(0L);
+    TransactionSynchronizationManager.initSynchronization();
+
+    assertFalse(roomHoldStore.hold(bookingId, 7L, checkIn, checkIn.plusDays(1)));
+    assertTrue(TransactionSynchronizationManager.getSynchronizations().isEmpty());
+  }
+
+  @Test
+  void hold_ReleasedWhenTransactionRollsBack() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.of(2030, 1, 10);
+    when(redisTemplate.execute(any(RedisScript.class), any(List.class), eq(bookingId.toString()), eq("4200000"),
+        eq(yesterday()), eq("7:2030-01-10"), eq(night(checkIn)))).thenReturn(1L);
+    TransactionSynchronizationManager.initSynchronization();
+
+    roomHoldStore.hold(bookingId, 7L, checkIn, checkIn.plusDays(1));
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+    verify(redisTemplate).execute(any(RedisScript.class),
+        eq(List.of("stayease:room-holds-booking:" + bookingId, NIGHTS)), eq(bookingId.toString()));
+  }
+
+  @Test
+  void release_AfterCommit() {
+    UUID bookingId = UUID.randomUUID();
+    List<String> keys = List.of("stayease:room-holds-booking:" + bookingId, NIGHTS);
+    TransactionSynchronizationManager.initSynchronization();
+
+    roomHoldStore.release(bookingId);
+    verify(redisTemplate, never()).execute(any(RedisScript.class), eq(keys), eq(bookingId.toString()));
+
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    verify(redisTemplate).execute(any(RedisScript.class), eq(keys), eq(bookingId.toString()));
+  }
+
+  @Test
+  void renew_EveryRoomNightInOneScript() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.of(2030, 1, 10);
+    List<String> keys = List.of("stayease:room-hold:7:2030-01-10", "stayease:room-hold:7:2030-01-11",
+        "stayease:room-hold:9:2030-01-10", "stayease:room-hold:9:2030-01-11", NIGHTS,
+        "stayease:room-holds-booking:" + bookingId);
+    // The nights go back into the night set along with the renewal
+    when(redisTemplate.execute(any(RedisScript.class), eq(keys), eq(bookingId.toString()), eq("4200000"),
+        eq("7:2030-01-10"), eq(night(checkIn)), eq("7:2030-01-11"), eq(night(checkIn.plusDays(1))),
+        eq("9:2030-01-10"), eq(night(checkIn)), eq("9:2030-01-11"), eq(night(checkIn.plusDays(1)))))
+        .thenReturn(1L);
+
+    assertEquals(Ownership.HELD, roomHoldStore.renew(bookingId, List.of(7L, 9L), checkIn, checkIn.plusDays(2)));
+  }
+
+  @Test
+  void renew_Expired() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.of(2030, 1, 10);
+    when(redisTemplate.execute(any(RedisScript.class), any(List.class), eq(bookingId.toString()), eq("4200000"),
+        eq("7:2030-01-10"), eq(night(checkIn)))).thenReturn(0L);
+
+    assertEquals(Ownership.EXPIRED, roomHoldStore.renew(bookingId, List.of(7L), checkIn, checkIn.plusDays(1)));
+  }
+
+  @Test
+  void renew_TakenByAnotherBooking() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.of(2030, 1, 10);
+    when(redisTemplate.execute(any(RedisScript.class), any(List.class), eq(bookingId.toString()), eq("4200000"),
+        eq("7:2030-01-10"), eq(night(checkIn)))).thenReturn(-1L);
+
+    assertEquals(Ownership.TAKEN, roomHoldStore.renew(bookingId, List.of(7L), checkIn, checkIn.plusDays(1)));
+  }
+
+  @Test
+  void findHeldRoomIds_OneRangeQuery() {
+    LocalDate startDate = LocalDate.of(2030, 1, 10);
+    when(redisTemplate.execute(any(RedisScript.class), eq(List.of(NIGHTS)), eq(night(startDate)),
+        eq(night(startDate.plusDays(1))), eq("stayease:room-hold:"))).thenReturn(List.of("3", "5"));
+
+    assertEquals(Set.of(3L, 5L), roomHoldStore.findHeldRoomIds(startDate, startDate.plusDays(2)));
+  }
+
+  @Test
+  void findHeldRoomIds_OpenEndedSearchIsStillOneQuery() {
+    LocalDate startDate = LocalDate.of(2030, 1, 10);
+    LocalDate endDate = startDate.plusYears(100);
+    when(redisTemplate.execute(any(RedisScript.class), eq(List.of(NIGHTS)), eq(night(startDate)),
+        eq(night(endDate.minusDays(1))), eq("stayease:room-hold:"))).thenReturn(List.of("3"));
+
+    assertEquals(Set.of(3L), roomHoldStore.findHeldRoomIds(startDate, endDate));
+  }
+
+  @Test
+  void findHeldRoomIds_RedisDown() {
+    LocalDate startDate = LocalDate.of(2030, 1, 10);
+    when(redisTemplate.execute(any(RedisScript.class), any(List.class), anyString(), anyString(), anyString()))
+        .thenThrow(new RedisConnectionFailureException("down"));
+
+    assertTrue(roomHoldStore.findHeldRoomIds(startDate, startDate.plusDays(1)).isEmpty());
+  }
+
+  @Test
+  void findHeldRoomIds_NoNights() {
+    LocalDate date = LocalDate.of(2030, 1, 10);
+
+    assertTrue(roomHoldStore.findHeldRoomIds(date, date).isEmpty());
+    verifyNoInteractions(redisTemplate);
+  }
+
+  /**
+   * Races {@value #THREADS} checkouts for overlapping stays in the same room against a real Redis and checks exactly
+   * one gets the hold and only that one can renew it, then that releasing it frees the nights. Run with
+   * {@code mvn test -Dtest=RoomHoldStoreTest -Dbenchmark=true -Dbenchmark.redis-host=localhost}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  @EnabledIfSystemProperty(named = "benchmark.redis-host", matches = ".+")
+  void stress_ConcurrentHoldsForSameRoomNight() throws Exception {
+    LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+        System.getProperty("benchmark.redis-host"), Integer.getInteger("benchmark.redis-port", 6379));
+    connectionFactory.afterPropertiesSet();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      RoomHoldStore store = new RoomHoldStore(new StringRedisTemplate(connectionFactory), 1);
+      // A room id and dates no real booking uses
+      long roomId = -System.nanoTime();
+      LocalDate night = LocalDate.of(2999, 1, 15);
+
+      CountDownLatch ready = new CountDownLatch(THREADS);
+      CountDownLatch go = new CountDownLatch(1);
+      List<UUID> bookingIds = new ArrayList<>();
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        UUID bookingId = UUID.randomUUID();
+        bookingIds.add(bookingId);
+        // Stays of one to four nights all covering the same night
+        LocalDate checkIn = night.minusDays(i % 4);
+        LocalDate checkOut = night.plusDays(1 + i % 3);
+        results.add(executor.submit(() -> {
+          ready.countDown();
+          go.await();
+          return store.hold(bookingId, roomId, checkIn, checkOut);
+        }));
+      }
+      assertTrue(ready.await(30, TimeUnit.SECONDS));
+      go.countDown();
+      List<UUID> winners = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        if (results.get(i).get(30, TimeUnit.SECONDS)) {
+          winners.add(bookingIds.get(i));
+        }
+      }
+
+      assertEquals(1, winners.size());
+      assertTrue(store.findHeldRoomIds(night, night.plusDays(1)).contains(roomId));
+      assertTrue(store.findHeldRoomIds(night.minusYears(100), night.plusYears(100)).contains(roomId));
+      UUID winner = winners.getFirst();
+      UUID loser = bookingIds.stream().filter(bookingId -> !bookingId.equals(winner)).findFirst().orElseThrow();
+      List<Long> roomIds = List.of(roomId);
+      assertEquals(Ownership.HELD, store.renew(winner, roomIds, night, night.plusDays(1)));
+      assertEquals(Ownership.TAKEN, store.renew(loser, roomIds, night, night.plusDays(1)));
+
+      bookingIds.forEach(store::release);
+      assertFalse(store.findHeldRoomIds(night, night.plusDays(1)).contains(roomId));
+      assertEquals(Ownership.EXPIRED, store.renew(winner, roomIds, night, night.plusDays(1)));
+      assertTrue(store.hold(bookingIds.getFirst(), roomId, night, night.plusDays(1)));
+      store.release(bookingIds.getFirst());
+    } finally {
+      executor.shutdownNow();
+      connectionFactory.destroy();
+    }
+  }
+
+  private static String night(LocalDate date) {
+    return String.valueOf(date.toEpochDay());
+  }
+
+  private static String yesterday() {
+    return night(LocalDate.now().minusDays(1));
+  }
+}
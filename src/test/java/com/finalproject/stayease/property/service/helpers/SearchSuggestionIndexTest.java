@@ -0,0 +1,194 @@
+package com.finalproject.stayease.property.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.finalproject.stayease.property.entity.PropertyCategory;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertySuggestionProjection;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO.Type;
+import com.finalproject.stayease.property.repository.PropertyCategoryRepository;
+import com.finalproject.stayease.property.repository.PropertyRepository;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+public class SearchSuggestionIndexTest {
+
+  @Mock
+  private PropertyRepository propertyRepository;
+
+  @Mock
+  private PropertyCategoryRepository propertyCategoryRepository;
+
+  private SearchSuggestionIndex suggestionIndex;
+
+  @BeforeEach
+  void setUp() {
+    suggestionIndex = new SearchSuggestionIndex(propertyRepository, propertyCategoryRepository);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void rebuild_LoadsPropertiesCategoriesAndCities() {
+    when(propertyRepository.findAllSuggestionSources()).thenReturn(List.of(
+        property(1L, "Villa Melati", "Ubud"),
+        property(2L, "Ubud Hanging Gardens", "Ubud"),
+        property(3L, "Bandung Hostel", "Bandung")));
+    when(propertyCategoryRepository.findAllByDeletedAtIsNull()).thenReturn(List.of(category(4L, "Villa")));
+
+    suggestionIndex.rebuild();
+
+    assertEquals(List.of("Bandung", "Bandung Hostel"), labels(suggestionIndex.suggest("band", 10)));
+    assertEquals(2, suggestionIndex.suggest("ubud", 10).get(0).getPropertyCount());
+    assertEquals(List.of("Villa", "Villa Melati"), labels(suggestionIndex.suggest("vil", 10)));
+  }
+
+  @Test
+  void rebuild_KeepsUpdatesCommittedWhileLoading() {
+    suggestionIndex.putProperty(1L, "Villa Melati", "Ubud");
+    suggestionIndex.putProperty(2L, "Kuta Surf Camp", "Kuta");
+    // The load reads the old rows while another request renames one property, deletes another and adds a third
+    when(propertyRepository.findAllSuggestionSources()).thenAnswer(invocation -> {
+      List<PropertySuggestionProjection> stale = List.of(property(1L, "Villa Melati", "Ubud"),
+          property(2L, "Kuta Surf Camp", "Kuta"));
+      suggestionIndex.putProperty(1L, "Villa Kenanga", "Ubud");
+      suggestionIndex.removeProperty(2L);
+      suggestionIndex.putProperty(3L, "Bandung Hostel", "Bandung");
+      return stale;
+    });
+    when(propertyCategoryRepository.findAllByDeletedAtIsNull()).thenReturn(List.of());
+
+    suggestionIndex.rebuild();
+
+    assertEquals(List.of("Villa Kenanga"), labels(suggestionIndex.suggest("villa", 10)));
+    assertTrue(suggestionIndex.suggest("kuta", 10).isEmpty());
+    assertEquals(List.of("Bandung", "Bandung Hostel"), labels(suggestionIndex.suggest("band", 10)));
+
+    // Once the rebuild is done, updates go to the live index only
+    suggestionIndex.removeProperty(3L);
+    assertTrue(suggestionIndex.suggest("band", 10).isEmpty());
+  }
+
+  @Test
+  void suggest_MatchesAnyWordAndRanksLabelPrefixFirst() {
+    suggestionIndex.putProperty(1L, "Villa Melati", "Ubud");
+    suggestionIndex.putProperty(2L, "Ubud Villa", "Ubud");
+    suggestionIndex.putProperty(3L, "Ubud Cottages", "Gianyar");
+
+    List<SuggestionDTO> suggestions = suggestionIndex.suggest("ubud", 10);
+
+    assertEquals(List.of("Ubud", "Ubud Cottages", "Ubud Villa"), labels(suggestions));
+    assertEquals(Type.CITY, suggestions.get(0).getType());
+    assertEquals(2, suggestions.get(0).getPropertyCount());
+    assertEquals(List.of("Villa Melati", "Ubud Villa"), labels(suggestionIndex.suggest("villa", 10)));
+  }
+
+  @Test
+  void suggest_IgnoresCaseAccentsAndExtraSpaces() {
+    suggestionIndex.putProperty(1L, "Café  Résidence", "Yogyakarta");
+
+    assertEquals(List.of("Café  Résidence"), labels(suggestionIndex.suggest("  CAFE res", 10)));
+    assertEquals(List.of("Café  Résidence"), labels(suggestionIndex.suggest("résid", 10)));
+  }
+
+  @Test
+  void suggest_BlankPrefixAndLimit() {
+    suggestionIndex.putProperty(1L, "Kuta Beach House", "Kuta");
+    suggestionIndex.putProperty(2L, "Kuta Surf Camp", "Kuta");
+
+    assertTrue(suggestionIndex.suggest("   ", 10).isEmpty());
+    assertTrue(suggestionIndex.suggest(null, 10).isEmpty());
+    assertEquals(List.of("Kuta", "Kuta Beach House"), labels(suggestionIndex.suggest("kuta", 2)));
+  }
+
+  @Test
+  void putProperty_UpdateMovesCity() {
+    suggestionIndex.putProperty(1L, "Sunny Stay", "Kuta");
+    suggestionIndex.putProperty(1L, "Sunny Retreat", "Ubud");
+
+    assertEquals(1, suggestionIndex.suggest("ubud", 10).get(0).getPropertyCount());
+    assertEquals(List.of("Sunny Retreat"), labels(suggestionIndex.suggest("sunny", 10)));
+    assertTrue(suggestionIndex.suggest("kuta", 10).isEmpty());
+  }
+
+  @Test
+  void removeProperty_DropsCityWithItsLastProperty() {
+    suggestionIndex.putProperty(1L, "Sunny Stay", "Kuta");
+    suggestionIndex.putProperty(2L, "Green Lodge", "Kuta");
+
+    suggestionIndex.removeProperty(1L);
+    assertEquals(1, suggestionIndex.suggest("kuta", 10).get(0).getPropertyCount());
+
+    suggestionIndex.removeProperty(2L);
+    assertTrue(suggestionIndex.suggest("kuta", 10).isEmpty());
+  }
+
+  @Test
+  void putAndRemoveCategory() {
+    suggestionIndex.putCategory(4L, "Guest House");
+
+    List<SuggestionDTO> suggestions = suggestionIndex.suggest("hou", 10);
+    assertEquals(List.of("Guest House"), labels(suggestions));
+    assertEquals(Type.CATEGORY, suggestions.get(0).getType());
+    assertEquals(4L, suggestions.get(0).getId());
+
+    suggestionIndex.removeCategory(4L);
+    assertTrue(suggestionIndex.suggest("guest", 10).isEmpty());
+  }
+
+  @Test
+  void putProperty_WaitsForCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    suggestionIndex.putProperty(1L, "Villa Melati", "Ubud");
+
+    assertTrue(suggestionIndex.suggest("villa", 10).isEmpty());
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    assertEquals(List.of("Villa Melati"), labels(suggestionIndex.suggest("villa", 10)));
+  }
+
+  private static List<String> labels(List<SuggestionDTO> suggestions) {
+    return suggestions.stream().map(SuggestionDTO::getLabel).toList();
+  }
+
+  private static PropertySuggestionProjection property(Long id, String name, String city) {
+    return new PropertySuggestionProjection() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public String getCity() {
+        return city;
+      }
+    };
+  }
+
+  private static PropertyCategory category(Long id, String name) {
+    PropertyCategory category = new PropertyCategory();
+    category.setId(id);
+    category.setName(name);
+    return category;
+  }
+}
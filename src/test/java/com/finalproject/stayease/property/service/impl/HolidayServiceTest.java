@@ -0,0 +1,143 @@
+package com.finalproject.stayease.property.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finalproject.stayease.property.service.impl.HolidayService.Holiday;
+import com.finalproject.stayease.property.service.impl.HolidayService.LongWeekend;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Runs against a local stand-in for the Nager.Date API.
+ */
+@ExtendWith(MockitoExtension.class)
+public class HolidayServiceTest {
+
+  private static final String HOLIDAYS = """
+      [{"date":"2025-01-01","localName":"Tahun Baru Masehi","name":"New Year's Day","countryCode":"ID","global":true},
+       {"date":"2025-03-31","localName":"Hari Raya Idul Fitri","name":"Eid al-Fitr","countryCode":"ID","global":true}]
+      """;
+  private static final String LONG_WEEKENDS = """
+      [{"startDate":"2025-03-29","endDate":"2025-04-01","dayCount":4,"needBridgeDay":false}]
+      """;
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  @Mock
+  private ValueOperations<String, String> valueOperations;
+
+  private HttpServer nagerStub;
+  private final AtomicInteger holidayRequests = new AtomicInteger();
+  private final AtomicInteger longWeekendRequests = new AtomicInteger();
+  private volatile int stubStatus = 200;
+
+  private ObjectMapper objectMapper;
+  private HolidayService holidayService;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    nagerStub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    nagerStub.createContext("/PublicHolidays/2025/ID", exchange -> respond(exchange, holidayRequests, HOLIDAYS));
+    nagerStub.createContext("/LongWeekend/2025/ID", exchange -> respond(exchange, longWeekendRequests, LONG_WEEKENDS));
+    nagerStub.start();
+
+    objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    holidayService = new HolidayService(WebClient.builder(), redisTemplate, objectMapper,
+        "http://127.0.0.1:" + nagerStub.getAddress().getPort(), "ID", 30);
+  }
+
+  @AfterEach
+  void tearDown() {
+    nagerStub.stop(0);
+  }
+
+  private void respond(HttpExchange exchange, AtomicInteger counter, String body) throws IOException {
+    counter.incrementAndGet();
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    if (stubStatus != 200) {
+      exchange.sendResponseHeaders(stubStatus, -1);
+      exchange.close();
+      return;
+    }
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  @Test
+  void isHoliday_FetchesEachYearOnce() {
+    int holidays = 0;
+    int longWeekendEdges = 0;
+    for (LocalDate date = LocalDate.of(2025, 1, 1); date.isBefore(LocalDate.of(2025, 7, 1)); date = date.plusDays(1)) {
+      holidays += holidayService.isHoliday(date) ? 1 : 0;
+      longWeekendEdges += holidayService.isLongWeekend(date) ? 1 : 0;
+    }
+
+    assertEquals(2, holidays);
+    assertEquals(2, longWeekendEdges);
+    assertFalse(holidayService.isLongWeekend(LocalDate.of(2025, 3, 30)));
+    assertEquals(1, holidayRequests.get());
+    assertEquals(1, longWeekendRequests.get());
+    verify(valueOperations).set(eq("stayease:holidays:ID:2025"), anyString());
+  }
+
+  @Test
+  void getHolidaysInYear_ServedFromStoredCopy() throws Exception {
+    when(valueOperations.get("stayease:holidays:ID:2025")).thenReturn(storedCopy(Instant.now()));
+
+    List<Holiday> holidays = holidayService.getHolidaysInYear(2025);
+
+    assertEquals(1, holidays.size());
+    assertTrue(holidayService.isHoliday(LocalDate.of(2025, 8, 17)));
+    assertEquals(0, holidayRequests.get());
+    assertEquals(0, longWeekendRequests.get());
+  }
+
+  @Test
+  void isHoliday_StaleCopyKeptWhenApiDown() throws Exception {
+    stubStatus = 503;
+    when(valueOperations.get("stayease:holidays:ID:2025"))
+        .thenReturn(storedCopy(Instant.now().minus(60, ChronoUnit.DAYS)));
+
+    assertTrue(holidayService.isHoliday(LocalDate.of(2025, 8, 17)));
+    assertTrue(holidayService.isHoliday(LocalDate.of(2025, 8, 17)));
+
+    // One failed refresh, then the stale copy is served without retrying on every lookup
+    assertEquals(1, holidayRequests.get());
+  }
+
+  private String storedCopy(Instant fetchedAt) throws Exception {
+    Holiday independenceDay = new Holiday();
+    independenceDay.setDate(LocalDate.of(2025, 8, 17));
+    independenceDay.setName("Independence Day");
+    return objectMapper.writeValueAsString(
+        new HolidayService.StoredCalendar(fetchedAt, List.of(independenceDay), List.<LongWeekend>of()));
+  }
+}
@@ -8,6 +8,7 @@ import com.finalproject.stayease.property.entity.PeakSeasonRate;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.dto.createRequests.SetPeakSeasonRateRequestDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.DailyPriceDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomAdjustedRatesDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import com.finalproject.stayease.property.repository.PeakSeasonRateRepository;
@@ -15,6 +16,10 @@ import com.finalproject.stayease.property.service.PropertyService;
 import com.finalproject.stayease.property.service.helpers.PeakSeasonRateCalculator;
 import com.finalproject.stayease.property.service.helpers.PeakSeasonRateCreator;
 import com.finalproject.stayease.property.service.helpers.PeakSeasonRateValidator;
+import com.finalproject.stayease.property.service.helpers.PropertyPriceCalendar;
+import com.finalproject.stayease.property.service.helpers.PropertyRateTimeline;
+import com.finalproject.stayease.property.service.helpers.PropertyRateTimelineCache;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
 import com.finalproject.stayease.users.entity.Users;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -26,8 +31,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @ExtendWith(MockitoExtension.class)
 class PeakSeasonRateServiceImplTest {
@@ -42,6 +50,12 @@ class PeakSeasonRateServiceImplTest {
   private PeakSeasonRateCreator creator;
   @Mock
   private PeakSeasonRateCalculator calculator;
+  @Mock
+  private PropertyPriceCalendar priceCalendar;
+  @Mock
+  private PropertyViewCache propertyViewCache;
+  @Mock
+  private PropertyRateTimelineCache rateTimelineCache;
 
   @InjectMocks
   private PeakSeasonRateServiceImpl peakSeasonRateService;
@@ -75,6 +89,7 @@ class PeakSeasonRateServiceImplTest {
     peakSeasonRate.setAdjustmentRate(requestDTO.getAdjustmentRate());
     peakSeasonRate.setAdjustmentType(requestDTO.getAdjustmentType());
     peakSeasonRate.setReason(requestDTO.getReason());
+    peakSeasonRate.setValidFrom(Instant.now().minusSeconds(60));
   }
 
   @Test
@@ -129,6 +144,8 @@ class PeakSeasonRateServiceImplTest {
     peakSeasonRateService.removePeakSeasonRate(1L);
 
     verify(peakSeasonRateRepository).save(peakSeasonRate);
+    verify(propertyViewCache).evict(1L);
+    verify(rateTimelineCache).invalidate(1L);
     assertNotNull(peakSeasonRate.getDeletedAt());
   }
 
@@ -156,8 +173,7 @@ class PeakSeasonRateServiceImplTest {
     roomPriceRate.setBasePrice(BigDecimal.valueOf(100));
 
     when(propertyService.findAvailableRoomRates(1L, LocalDate.now())).thenReturn(List.of(roomPriceRate));
-    when(peakSeasonRateRepository.findValidRatesByPropertyAndDate(eq(1L), any(LocalDate.class), any(Instant.class), any(Instant.class)))
-        .thenReturn(Collections.singletonList(peakSeasonRate));
+    when(rateTimelineCache.getTimeline(1L)).thenReturn(PropertyRateTimeline.of(List.of(peakSeasonRate)));
     when(calculator.calculateAdjustedPrice(any(BigDecimal.class), anyList())).thenReturn(BigDecimal.valueOf(110));
 
     List<RoomAdjustedRatesDTO> result = peakSeasonRateService.findAvailableRoomRates(1L, LocalDate.now());
@@ -169,22 +185,36 @@ class PeakSeasonRateServiceImplTest {
 
   @Test
   void findLowestDailyRoomRates_Success() {
-    RoomPriceRateDTO roomPriceRate = new RoomPriceRateDTO();
-    roomPriceRate.setPropertyId(1L);
-    roomPriceRate.setRoomId(1L);
-    roomPriceRate.setBasePrice(BigDecimal.valueOf(100));
-    roomPriceRate.setAdjustmentRate(BigDecimal.valueOf(10));
-    roomPriceRate.setAdjustmentType(PeakSeasonRate.AdjustmentType.PERCENTAGE);
-
-    when(propertyService.findLowestRoomRate(eq(1L), any(LocalDate.class))).thenReturn(roomPriceRate);
-    when(calculator.applyPeakSeasonRate(any(RoomPriceRateDTO.class))).thenReturn(BigDecimal.valueOf(110));
+    LocalDate startDate = LocalDate.now();
+    LocalDate endDate = startDate.plusDays(3);
+    List<DailyPriceDTO> dailyPrices = List.of(
+        new DailyPriceDTO(startDate, BigDecimal.valueOf(110), true),
+        new DailyPriceDTO(startDate.plusDays(1), BigDecimal.valueOf(100), false),
+        new DailyPriceDTO(startDate.plusDays(2), BigDecimal.valueOf(100), false));
+    when(priceCalendar.findDailyPrices(1L, startDate, endDate)).thenReturn(dailyPrices);
 
-    List<DailyPriceDTO> result = peakSeasonRateService.findLowestDailyRoomRates(1L, LocalDate.now(), LocalDate.now().plusDays(3));
+    List<DailyPriceDTO> result = peakSeasonRateService.findLowestDailyRoomRates(1L, startDate, endDate);
 
-    assertFalse(result.isEmpty());
     assertEquals(3, result.size());
     assertEquals(BigDecimal.valueOf(110), result.getFirst().getLowestPrice());
     assertTrue(result.getFirst().isHasAdjustment());
+    verify(validator).validateDateRange(startDate, endDate);
+    verify(propertyService, never()).findLowestRoomRate(anyLong(), any(LocalDate.class));
+  }
+
+  @Test
+  void findCumulativeRoomRates_Success() {
+    LocalDate startDate = LocalDate.now();
+    LocalDate endDate = startDate.plusDays(2);
+    List<DailyPriceDTO> cumulativePrices = List.of(
+        new DailyPriceDTO(startDate, BigDecimal.valueOf(110), true),
+        new DailyPriceDTO(startDate.plusDays(1), BigDecimal.valueOf(210), false));
+    when(priceCalendar.findCumulativePrices(1L, startDate, endDate)).thenReturn(cumulativePrices);
+
+    List<DailyPriceDTO> result = peakSeasonRateService.findCumulativeRoomRates(1L, startDate, endDate);
+
+    assertEquals(cumulativePrices, result);
+    verify(priceCalendar, never()).findDailyPrices(anyLong(), any(LocalDate.class), any(LocalDate.class));
   }
 
   @Test
@@ -201,4 +231,36 @@ class PeakSeasonRateServiceImplTest {
     assertEquals(BigDecimal.valueOf(110), result);
     verify(calculator).applyPeakSeasonRate(roomRate);
   }
-}
\ No newline at end of file
+
+  @Test
+  void applyPeakSeasonRates_OneTimelineLookupForAllListings() {
+    List<PropertyListingDTO> listings = new ArrayList<>();
+    for (long id = 1; id <= 50; id++) {
+      PropertyListingDTO listing = new PropertyListingDTO();
+      listing.setPropertyId(id);
+      listing.setLowestBasePrice(BigDecimal.valueOf(100));
+      listings.add(listing);
+    }
+
+    when(rateTimelineCache.getTimelines(anyCollection()))
+        .thenReturn(Map.of(1L, PropertyRateTimeline.of(List.of(peakSeasonRate))));
+    when(calculator.calculateAdjustedPrice(eq(BigDecimal.valueOf(100)),
+        argThat((List<PeakSeasonRate> rates) -> rates.size() == 1))).thenReturn(BigDecimal.valueOf(110));
+    when(calculator.calculateAdjustedPrice(eq(BigDecimal.valueOf(100)), eq(Collections.emptyList())))
+        .thenReturn(BigDecimal.valueOf(100));
+
+    peakSeasonRateService.applyPeakSeasonRates(listings, LocalDate.now(), Instant.now());
+
+    verify(rateTimelineCache, times(1)).getTimelines(argThat((Collection<Long> ids) -> ids.size() == 50));
+    verifyNoInteractions(peakSeasonRateRepository);
+    assertEquals(BigDecimal.valueOf(110), listings.getFirst().getLowestAdjustedPrice());
+    assertEquals(BigDecimal.valueOf(100), listings.getLast().getLowestAdjustedPrice());
+  }
+
+  @Test
+  void applyPeakSeasonRates_EmptyListings() {
+    peakSeasonRateService.applyPeakSeasonRates(new ArrayList<>(), LocalDate.now(), Instant.now());
+
+    verifyNoInteractions(peakSeasonRateRepository, rateTimelineCache);
+  }
+}
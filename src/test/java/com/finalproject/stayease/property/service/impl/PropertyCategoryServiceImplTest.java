@@ -15,7 +15,9 @@ import com.finalproject.stayease.property.entity.PropertyCategory;
 import com.finalproject.stayease.property.entity.dto.createRequests.CreateCategoryRequestDTO;
 import com.finalproject.stayease.property.entity.dto.updateRequests.UpdateCategoryRequestDTO;
 import com.finalproject.stayease.property.repository.PropertyCategoryRepository;
+import com.finalproject.stayease.property.service.helpers.CategorySimilarityIndex;
 import com.finalproject.stayease.property.service.helpers.PropertyCategoryHelper;
+import com.finalproject.stayease.property.service.helpers.SearchSuggestionIndex;
 import com.finalproject.stayease.users.entity.Users;
 import java.util.Collections;
 import java.util.List;
@@ -36,6 +38,12 @@ class PropertyCategoryServiceImplTest {
   @Mock
   private PropertyCategoryHelper propertyCategoryHelper;
 
+  @Mock
+  private SearchSuggestionIndex searchSuggestionIndex;
+
+  @Mock
+  private CategorySimilarityIndex categorySimilarityIndex;
+
   @InjectMocks
   private PropertyCategoryServiceImpl propertyCategoryService;
 
@@ -84,6 +92,8 @@ class PropertyCategoryServiceImplTest {
     assertEquals("Apartment", result.getName());
     verify(propertyCategoryHelper).isTenant(tenant);
     verify(propertyCategoryHelper).checkMatch(createDTO.getName());
+    verify(searchSuggestionIndex).putCategory(1L, "Apartment");
+    verify(categorySimilarityIndex).put(1L, "Apartment");
   }
 
   @Test
@@ -103,6 +113,8 @@ class PropertyCategoryServiceImplTest {
 
     assertDoesNotThrow(() -> propertyCategoryService.deleteCategory(1L, tenant));
     assertNotNull(category.getDeletedAt());
+    verify(searchSuggestionIndex).removeCategory(1L);
+    verify(categorySimilarityIndex).remove(1L);
   }
 
   @Test
@@ -6,34 +6,50 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.finalproject.stayease.exceptions.properties.PeakSeasonRateNotFoundException;
 import com.finalproject.stayease.exceptions.properties.PropertyNotFoundException;
 import com.finalproject.stayease.exceptions.utils.InvalidDateException;
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.PropertyCategory;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.GeoFilterDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.MapClusterDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyAvailableOnDateDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomAdjustedRatesDTO;
 import com.finalproject.stayease.property.service.PeakSeasonRateService;
 import com.finalproject.stayease.property.service.PropertyService;
 import com.finalproject.stayease.property.service.RoomService;
+import com.finalproject.stayease.property.service.helpers.MapClusterTileCache;
+import com.finalproject.stayease.property.service.helpers.MapTile;
 import com.finalproject.stayease.users.entity.TenantInfo;
 import com.finalproject.stayease.users.entity.Users;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 public class PropertyListingServiceImplTest {
@@ -47,6 +63,9 @@ public class PropertyListingServiceImplTest {
   @Mock
   private RoomService roomService;
 
+  @Mock
+  private MapClusterTileCache mapClusterTileCache;
+
   @InjectMocks
   private PropertyListingServiceImpl propertyListingService;
 
@@ -89,22 +108,120 @@ public class PropertyListingServiceImplTest {
 
   @Test
   void findAvailableProperties_Success() {
-    when(propertyService.findAvailableProperties(any(), any(), any(), any(), any(), any(), any(), any()))
-        .thenReturn(Collections.singletonList(propertyListingDTO));
-    when(peakSeasonRateService.applyPeakSeasonRate(anyLong(), any(), any(), any()))
-        .thenReturn(BigDecimal.valueOf(120));
+    propertyListingDTO.setLowestAdjustedPrice(BigDecimal.valueOf(120));
+    when(propertyService.findAvailablePropertyListings(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+        any(), eq("price"), eq("ASC"), eq(PageRequest.of(0, 10))))
+        .thenReturn(new PageImpl<>(Collections.singletonList(propertyListingDTO), PageRequest.of(0, 10), 1));
 
     Page<PropertyListingDTO> result = propertyListingService.findAvailableProperties(
         LocalDate.now(), LocalDate.now().plusDays(1), "City", "Category",
-        "searchTerm", BigDecimal.valueOf(50), BigDecimal.valueOf(200), 2,
+        "searchTerm", BigDecimal.valueOf(50), BigDecimal.valueOf(200), 2, GeoFilterDTO.none(),
         0, 10, "price", "ASC");
 
     assertNotNull(result);
     assertFalse(result.getContent().isEmpty());
     assertEquals(1, result.getContent().size());
+    assertEquals(1, result.getTotalElements());
     assertEquals(BigDecimal.valueOf(120), result.getContent().getFirst().getLowestAdjustedPrice());
   }
 
+  @Test
+  void findAvailableProperties_PageBeyondResults() {
+    when(propertyService.findAvailablePropertyListings(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+        any(), eq("name"), eq("DESC"), eq(PageRequest.of(5, 10))))
+        .thenReturn(new PageImpl<>(Collections.emptyList(), PageRequest.of(5, 10), 3));
+
+    Page<PropertyListingDTO> result = propertyListingService.findAvailableProperties(
+        LocalDate.now(), LocalDate.now().plusDays(1), null, null,
+        null, null, null, null, GeoFilterDTO.none(), 5, 10, "name", "desc");
+
+    assertTrue(result.getContent().isEmpty());
+    assertEquals(3, result.getTotalElements());
+    assertEquals(Sort.by(Sort.Direction.DESC, "name"), result.getSort());
+  }
+
+  @Test
+  void findAvailableProperties_SearchRankedByRelevanceByDefault() {
+    when(propertyService.findAvailablePropertyListings(any(), any(), any(), any(), eq("beach villa"), any(), any(),
+        any(), any(), any(), eq("relevance"), eq("DESC"), eq(PageRequest.of(0, 10))))
+        .thenReturn(new PageImpl<>(Collections.singletonList(propertyListingDTO), PageRequest.of(0, 10), 1));
+
+    Page<PropertyListingDTO> result = propertyListingService.findAvailableProperties(
+        LocalDate.now(), LocalDate.now().plusDays(1), null, null,
+        "Beach Villa", null, null, null, GeoFilterDTO.none(), 0, 10, null, "ASC");
+
+    assertEquals(1, result.getTotalElements());
+    assertEquals(Sort.by(Sort.Direction.DESC, "relevance"), result.getSort());
+  }
+
+  @Test
+  void findAvailableProperties_AroundPointSortedByDistanceByDefault() {
+    GeoFilterDTO geoFilter = new GeoFilterDTO(-8.65, 115.22, 10.0, null, null, null, null);
+    propertyListingDTO.setDistanceKm(1.5);
+    when(propertyService.findAvailablePropertyListings(any(), any(), any(), any(), any(), any(), any(), any(),
+        eq(geoFilter), any(), eq("distance"), eq("ASC"), eq(PageRequest.of(0, 10))))
+        .thenReturn(new PageImpl<>(Collections.singletonList(propertyListingDTO), PageRequest.of(0, 10), 1));
+
+    Page<PropertyListingDTO> result = propertyListingService.findAvailableProperties(
+        LocalDate.now(), LocalDate.now().plusDays(1), null, null,
+        "villa", null, null, null, geoFilter, 0, 10, null, "DESC");
+
+    assertEquals(1.5, result.getContent().getFirst().getDistanceKm());
+    assertEquals(Sort.by(Sort.Direction.ASC, "distance"), result.getSort());
+  }
+
+  @Test
+  void findAvailableProperties_InvalidGeoFilter() {
+    List<GeoFilterDTO> invalidFilters = List.of(
+        new GeoFilterDTO(-8.65, null, null, null, null, null, null),
+        new GeoFilterDTO(null, null, 10.0, null, null, null, null),
+        new GeoFilterDTO(-8.65, 115.22, 0.0, null, null, null, null),
+        new GeoFilterDTO(-8.65, 115.22, 1000.0, null, null, null, null),
+        new GeoFilterDTO(95.0, 115.22, null, null, null, null, null),
+        new GeoFilterDTO(null, null, null, -8.8, 115.1, -8.5, null),
+        new GeoFilterDTO(null, null, null, -8.5, 115.1, -8.8, 115.3));
+
+    invalidFilters.forEach(geoFilter -> assertThrows(InvalidRequestException.class,
+        () -> propertyListingService.findAvailableProperties(
+            LocalDate.now(), LocalDate.now().plusDays(1), null, null,
+            null, null, null, null, geoFilter, 0, 10, null, "ASC")));
+  }
+
+  @Test
+  void findMapClusters_CollectsClustersOfEveryTile() {
+    GeoFilterDTO bounds = new GeoFilterDTO(null, null, null, -8.8, 115.0, -8.5, 115.4);
+    MapClusterDTO cluster = new MapClusterDTO(3, -8.6, 115.2, BigDecimal.valueOf(300_000), null);
+    when(mapClusterTileCache.getClusters(any(MapTile.class))).thenReturn(List.of(cluster));
+
+    List<MapClusterDTO> result = propertyListingService.findMapClusters(bounds, 10);
+
+    long tiles = MapTile.countCovering(-8.8, 115.0, -8.5, 115.4, 10);
+    assertEquals(tiles, result.size());
+    verify(mapClusterTileCache, times((int) tiles)).getClusters(any(MapTile.class));
+  }
+
+  @Test
+  void findMapClusters_LargeAreaUsesCoarserTiles() {
+    GeoFilterDTO bounds = new GeoFilterDTO(null, null, null, -11.0, 95.0, 6.0, 141.0);
+    when(mapClusterTileCache.getClusters(any(MapTile.class))).thenReturn(List.of());
+
+    propertyListingService.findMapClusters(bounds, 18);
+
+    ArgumentCaptor<MapTile> tiles = ArgumentCaptor.forClass(MapTile.class);
+    verify(mapClusterTileCache, atLeastOnce()).getClusters(tiles.capture());
+    assertTrue(tiles.getAllValues().size() <= 64);
+    assertTrue(tiles.getAllValues().stream().allMatch(tile -> tile.zoom() < 18));
+  }
+
+  @Test
+  void findMapClusters_InvalidRequest() {
+    GeoFilterDTO bounds = new GeoFilterDTO(null, null, null, -8.8, 115.0, -8.5, 115.4);
+
+    assertThrows(InvalidRequestException.class, () -> propertyListingService.findMapClusters(bounds, 21));
+    assertThrows(InvalidRequestException.class, () -> propertyListingService.findMapClusters(GeoFilterDTO.none(), 10));
+    verify(mapClusterTileCache, never()).getClusters(any());
+  }
+
   @Test
   void findAvailablePropertyOnDate_Success() {
     when(propertyService.findPropertyById(1L)).thenReturn(Optional.of(property));
@@ -131,27 +248,45 @@ public class PropertyListingServiceImplTest {
 
   @Test
   void findPropertiesWithLowestRoomRate_Success() {
-    when(propertyService.getAllAvailablePropertiesOnDate(any())).thenReturn(Collections.singletonList(property));
-    when(peakSeasonRateService.findAvailableRoomRates(anyLong(), any()))
-        .thenReturn(Collections.singletonList(roomAdjustedRatesDTO));
+    LocalDate date = LocalDate.now();
+    List<PropertyListingDTO> listings = Collections.singletonList(propertyListingDTO);
+    when(propertyService.findAvailablePropertyListingsOnDate(date)).thenReturn(listings);
 
-    List<PropertyListingDTO> result = propertyListingService.findPropertiesWithLowestRoomRate(LocalDate.now());
+    List<PropertyListingDTO> result = propertyListingService.findPropertiesWithLowestRoomRate(date);
 
     assertNotNull(result);
-    assertFalse(result.isEmpty());
     assertEquals(1, result.size());
+    verify(peakSeasonRateService).applyPeakSeasonRates(eq(listings), eq(date), any(Instant.class));
+    verify(peakSeasonRateService, never()).findAvailableRoomRates(anyLong(), any());
   }
 
   @Test
-  void findPropertiesWithLowestRoomRate_NoRoomRates() {
-    when(propertyService.getAllAvailablePropertiesOnDate(any())).thenReturn(Collections.singletonList(property));
-    when(peakSeasonRateService.findAvailableRoomRates(anyLong(), any()))
-        .thenReturn(Collections.emptyList());
+  void findPropertiesWithLowestRoomRate_NoProperties() {
+    when(propertyService.findAvailablePropertyListingsOnDate(any()))
+        .thenThrow(new PropertyNotFoundException("No properties found for this date"));
 
-    assertThrows(PeakSeasonRateNotFoundException.class,
+    assertThrows(PropertyNotFoundException.class,
         () -> propertyListingService.findPropertiesWithLowestRoomRate(LocalDate.now()));
   }
 
+  @Test
+  void streamPropertiesWithLowestRoomRate_EmitsChunks() {
+    LocalDate date = LocalDate.now();
+    List<PropertyListingDTO> listings = new ArrayList<>();
+    for (long id = 1; id <= 1200; id++) {
+      PropertyListingDTO listing = new PropertyListingDTO();
+      listing.setPropertyId(id);
+      listings.add(listing);
+    }
+    when(propertyService.streamAvailablePropertyListingsOnDate(date)).thenReturn(listings.stream());
+    List<Integer> chunkSizes = new ArrayList<>();
+
+    propertyListingService.streamPropertiesWithLowestRoomRate(date, chunk -> chunkSizes.add(chunk.size()));
+
+    assertEquals(List.of(500, 500, 200), chunkSizes);
+    verify(peakSeasonRateService, times(3)).applyPeakSeasonRates(anyList(), eq(date), any(Instant.class));
+  }
+
   @Test
   void validateDate_InvalidDate() {
     assertThrows(InvalidDateException.class,
@@ -163,6 +298,6 @@ public class PropertyListingServiceImplTest {
     assertThrows(InvalidDateException.class,
         () -> propertyListingService.findAvailableProperties(
             LocalDate.now().plusDays(1), LocalDate.now(), null, null,
-            null, null, null, 2, 0, 10, "price", "ASC"));
+            null, null, null, 2, GeoFilterDTO.none(), 0, 10, "price", "ASC"));
   }
 }
\ No newline at end of file
@@ -6,29 +6,45 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.aryEq;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.finalproject.stayease.exceptions.properties.PropertyNotFoundException;
 import com.finalproject.stayease.property.entity.Property;
 import com.finalproject.stayease.property.entity.dto.createRequests.CreatePropertyRequestDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.GeoFilterDTO;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.PropertyListingProjection;
 import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDTO;
 import com.finalproject.stayease.property.entity.dto.updateRequests.UpdatePropertyRequestDTO;
 import com.finalproject.stayease.property.repository.PropertyRepository;
+import com.finalproject.stayease.property.service.helpers.PropertySearchIndex;
 import com.finalproject.stayease.property.service.helpers.PropertyServiceHelper;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
+import com.finalproject.stayease.property.service.helpers.RoomHoldStore;
+import com.finalproject.stayease.property.service.helpers.SearchSuggestionIndex;
 import com.finalproject.stayease.users.entity.Users;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 @ExtendWith(MockitoExtension.class)
 public class PropertyServiceImplTest {
@@ -39,6 +55,18 @@ public class PropertyServiceImplTest {
   @Mock
   private PropertyServiceHelper propertyServiceHelper;
 
+  @Mock
+  private PropertyViewCache propertyViewCache;
+
+  @Mock
+  private PropertySearchIndex propertySearchIndex;
+
+  @Mock
+  private SearchSuggestionIndex searchSuggestionIndex;
+
+  @Mock
+  private RoomHoldStore roomHoldStore;
+
   @InjectMocks
   private PropertyServiceImpl propertyService;
 
@@ -55,6 +83,8 @@ public class PropertyServiceImplTest {
 
     property = new Property();
     property.setId(1L);
+    property.setName("Villa Melati");
+    property.setCity("Ubud");
     property.setTenant(tenant);
 
     createDTO = new CreatePropertyRequestDTO();
@@ -95,6 +125,10 @@ public class PropertyServiceImplTest {
     Property result = propertyService.createProperty(tenant, createDTO);
     assertNotNull(result);
     assertEquals(property, result);
+    InOrder inOrder = inOrder(propertyRepository, propertySearchIndex);
+    inOrder.verify(propertyRepository).flush();
+    inOrder.verify(propertySearchIndex).refresh(1L);
+    verify(searchSuggestionIndex).putProperty(1L, "Villa Melati", "Ubud");
   }
 
   @Test
@@ -104,6 +138,11 @@ public class PropertyServiceImplTest {
     Property result = propertyService.updateProperty(tenant, 1L, updateDTO);
     assertNotNull(result);
     assertEquals(property, result);
+    verify(propertyViewCache).evict(1L);
+    InOrder inOrder = inOrder(propertyRepository, propertySearchIndex);
+    inOrder.verify(propertyRepository).flush();
+    inOrder.verify(propertySearchIndex).refresh(1L);
+    verify(searchSuggestionIndex).putProperty(1L, "Villa Melati", "Ubud");
   }
 
   @Test
@@ -113,6 +152,14 @@ public class PropertyServiceImplTest {
     Property result = propertyService.deleteProperty(tenant, 1L);
     assertNotNull(result);
     assertNotNull(result.getDeletedAt());
+    verify(propertyViewCache).evict(1L);
+    verify(searchSuggestionIndex).removeProperty(1L);
+  }
+
+  @Test
+  void findDistinctCities_Success() {
+    when(propertyRepository.findDistinctCities()).thenReturn(List.of("Ubud"));
+    assertEquals(List.of("Ubud"), propertyService.findDistinctCities());
   }
 
   @Test
@@ -141,14 +188,66 @@ public class PropertyServiceImplTest {
   }
 
   @Test
-  void findAvailableProperties_Success() {
+  void findAvailablePropertyListingsOnDate_Success() {
+    LocalDate date = LocalDate.now();
+    PropertyListingDTO listing = new PropertyListingDTO();
+    listing.setPropertyId(1L);
+    listing.setLowestBasePrice(BigDecimal.valueOf(100));
+    when(propertyRepository.streamAvailablePropertyListingsOnDate(date)).thenReturn(Stream.of(listing));
+
+    List<PropertyListingDTO> result = propertyService.findAvailablePropertyListingsOnDate(date);
+
+    assertEquals(1, result.size());
+    assertEquals(BigDecimal.valueOf(100), result.getFirst().getLowestBasePrice());
+  }
+
+  @Test
+  void findAvailablePropertyListingsOnDate_NoProperties() {
+    LocalDate date = LocalDate.now();
+    when(propertyRepository.streamAvailablePropertyListingsOnDate(date)).thenReturn(Stream.empty());
+
+    assertThrows(PropertyNotFoundException.class, () -> propertyService.findAvailablePropertyListingsOnDate(date));
+  }
+
+  @Test
+  void findAvailablePropertyListings_Success() {
     LocalDate startDate = LocalDate.now().plusDays(1);
     LocalDate endDate = LocalDate.now().plusDays(2);
-    when(propertyRepository.findAvailableProperties(eq(startDate), eq(endDate), any(), any(), any(), any(), any(), any()))
-        .thenReturn(Collections.singletonList(new PropertyListingDTO()));
-    List<PropertyListingDTO> result = propertyService.findAvailableProperties(startDate, endDate, "City", "Category", "Search", BigDecimal.ONE, BigDecimal.TEN, 2);
-    assertFalse(result.isEmpty());
-    assertEquals(1, result.size());
+    PageRequest pageable = PageRequest.of(0, 10);
+    PropertyListingProjection projection = mock(PropertyListingProjection.class);
+    when(projection.getPropertyId()).thenReturn(1L);
+    when(projection.getLowestAdjustedPrice()).thenReturn(BigDecimal.valueOf(120));
+    when(roomHoldStore.findHeldRoomIds(startDate, endDate)).thenReturn(Set.of(9L));
+    when(propertyRepository.findAvailablePropertyListings(eq(startDate), eq(endDate), any(), any(), any(), any(), any(),
+        any(), any(), any(), any(), any(), any(), any(), any(), any(), aryEq(new Long[]{9L}), eq("price"), eq("ASC"),
+        eq(pageable)))
+        .thenReturn(new PageImpl<>(List.of(projection), pageable, 42));
+
+    Page<PropertyListingDTO> result = propertyService.findAvailablePropertyListings(startDate, endDate, null, null,
+        null, null, null, null, GeoFilterDTO.none(), Instant.now(), "price", "ASC", pageable);
+
+    assertEquals(1, result.getNumberOfElements());
+    assertEquals(42, result.getTotalElements());
+    assertEquals(1L, result.getContent().getFirst().getPropertyId());
+    assertEquals(BigDecimal.valueOf(120), result.getContent().getFirst().getLowestAdjustedPrice());
+  }
+
+  @Test
+  void findAvailablePropertyListings_PassesRadiusInMeters() {
+    LocalDate startDate = LocalDate.now().plusDays(1);
+    LocalDate endDate = LocalDate.now().plusDays(2);
+    PageRequest pageable = PageRequest.of(0, 10);
+    GeoFilterDTO geoFilter = new GeoFilterDTO(-8.65, 115.22, 2.5, -8.8, 115.1, -8.5, 115.3);
+    when(roomHoldStore.findHeldRoomIds(startDate, endDate)).thenReturn(Set.of());
+    when(propertyRepository.findAvailablePropertyListings(eq(startDate), eq(endDate), any(), any(), any(), any(), any(),
+        any(), eq(-8.65), eq(115.22), eq(2500.0), eq(-8.8), eq(115.1), eq(-8.5), eq(115.3), any(),
+        aryEq(new Long[0]), eq("distance"), eq("ASC"), eq(pageable)))
+        .thenReturn(new PageImpl<>(Collections.emptyList(), pageable, 0));
+
+    Page<PropertyListingDTO> result = propertyService.findAvailablePropertyListings(startDate, endDate, null, null,
+        null, null, null, null, geoFilter, Instant.now(), "distance", "ASC", pageable);
+
+    assertTrue(result.isEmpty());
   }
 
   @Test
@@ -8,13 +8,18 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import com.finalproject.stayease.exceptions.auth.UnauthorizedOperationsException;
 import com.finalproject.stayease.exceptions.properties.RoomAvailabilityNotFoundException;
 import com.finalproject.stayease.exceptions.properties.RoomNotFoundException;
+import com.finalproject.stayease.exceptions.properties.RoomUnavailableException;
 import com.finalproject.stayease.exceptions.utils.InvalidDateException;
 import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
 import com.finalproject.stayease.property.entity.Property;
@@ -24,20 +29,27 @@ import com.finalproject.stayease.property.entity.dto.RoomWithRoomAvailabilityDTO
 import com.finalproject.stayease.property.repository.RoomAvailabilityRepository;
 import com.finalproject.stayease.property.service.PropertyService;
 import com.finalproject.stayease.property.service.RoomService;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
+import com.finalproject.stayease.property.service.helpers.RoomAvailabilityConstraint;
+import com.finalproject.stayease.property.service.helpers.RoomHoldStore;
+import com.finalproject.stayease.property.service.helpers.RoomHoldStore.Ownership;
 import com.finalproject.stayease.users.entity.TenantInfo;
 import com.finalproject.stayease.users.entity.Users;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 @ExtendWith(MockitoExtension.class)
 public class RoomAvailabilityServiceImplTest {
@@ -51,6 +63,15 @@ public class RoomAvailabilityServiceImplTest {
   @Mock
   private PropertyService propertyService;
 
+  @Mock
+  private PropertyViewCache propertyViewCache;
+
+  @Mock
+  private RoomHoldStore roomHoldStore;
+
+  @Mock
+  private RoomAvailabilityConstraint roomAvailabilityConstraint;
+
   @InjectMocks
   private RoomAvailabilityServiceImpl roomAvailabilityService;
 
@@ -92,12 +113,13 @@ public class RoomAvailabilityServiceImplTest {
   @Test
   void setUnavailability_Success() {
     when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
-    when(roomAvailabilityRepository.save(any(RoomAvailability.class))).thenReturn(roomAvailability);
+    when(roomAvailabilityRepository.saveAndFlush(any(RoomAvailability.class))).thenReturn(roomAvailability);
 
     RoomAvailability result = roomAvailabilityService.setUnavailability(1L, LocalDate.now(), LocalDate.now().plusDays(1));
 
     assertNotNull(result);
     assertEquals(roomAvailability, result);
+    verify(propertyViewCache).evict(1L);
   }
 
   @Test
@@ -111,8 +133,7 @@ public class RoomAvailabilityServiceImplTest {
   @Test
   void setUnavailability_Tenant_Success() {
     when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
-    when(roomAvailabilityRepository.existsOverlappingAvailability(anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(false);
-    when(roomAvailabilityRepository.save(any(RoomAvailability.class))).thenReturn(roomAvailability);
+    when(roomAvailabilityRepository.saveAndFlush(any(RoomAvailability.class))).thenReturn(roomAvailability);
 
     RoomAvailability result = roomAvailabilityService.setUnavailability(tenant, 1L, LocalDate.now(), LocalDate.now().plusDays(1));
 
@@ -132,12 +153,192 @@ public class RoomAvailabilityServiceImplTest {
         LocalDate.now().plusDays(1)));
   }
 
+  @Test
+  void setUnavailability_Tenant_HeldByCheckout() {
+    LocalDate startDate = LocalDate.now();
+    when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
+    when(roomHoldStore.findHeldRoomIds(startDate, startDate.plusDays(1))).thenReturn(Set.of(1L));
+
+    assertThrows(InvalidDateException.class, () -> roomAvailabilityService.setUnavailability(tenant, 1L, startDate,
+        startDate.plusDays(1)));
+    verify(roomAvailabilityRepository, never()).saveAndFlush(any(RoomAvailability.class));
+  }
+
+  @Test
+  void holdRooms_Success() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.now().plusDays(2);
+    List<Long> roomIds = List.of(1L, 2L);
+    when(roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(roomIds, checkIn, checkIn.plusDays(2)))
+        .thenReturn(false);
+    when(roomHoldStore.hold(bookingId, roomIds, checkIn, checkIn.plusDays(3))).thenReturn(true);
+
+    assertDoesNotThrow(() -> roomAvailabilityService.holdRooms(bookingId, roomIds, checkIn, checkIn.plusDays(3)));
+    verify(roomAvailabilityRepository, never()).saveAndFlush(any(RoomAvailability.class));
+  }
+
+  @Test
+  void holdRooms_DurablyUnavailable() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.now().plusDays(2);
+    List<Long> roomIds = List.of(1L, 2L);
+    when(roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(roomIds, checkIn, checkIn))
+        .thenReturn(true);
+
+    assertThrows(RoomUnavailableException.class, () -> roomAvailabilityService.holdRooms(bookingId, roomIds, checkIn,
+        checkIn.plusDays(1)));
+    verifyNoInteractions(roomHoldStore);
+  }
+
+  @Test
+  void holdRooms_HeldByOtherBooking() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.now().plusDays(2);
+    List<Long> roomIds = List.of(1L);
+    when(roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(roomIds, checkIn, checkIn))
+        .thenReturn(false);
+    when(roomHoldStore.hold(bookingId, roomIds, checkIn, checkIn.plusDays(1))).thenReturn(false);
+
+    assertThrows(RoomUnavailableException.class, () -> roomAvailabilityService.holdRooms(bookingId, roomIds, checkIn,
+        checkIn.plusDays(1)));
+  }
+
+  @Test
+  void confirmHold_WritesUnavailabilityAndReleasesHold() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.now().plusDays(2);
+    when(roomHoldStore.renew(bookingId, List.of(1L), checkIn, checkIn.plusDays(2))).thenReturn(Ownership.HELD);
+    when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
+    when(roomAvailabilityRepository.saveAndFlush(any(RoomAvailability.class))).thenReturn(roomAvailability);
+
+    assertTrue(roomAvailabilityService.confirmHold(bookingId, List.of(1L), checkIn, checkIn.plusDays(2)));
+
+    verify(roomAvailabilityRepository).saveAndFlush(argThat(saved -> bookingId.equals(saved.getBookingId())));
+    verify(roomHoldStore).release(bookingId);
+  }
+
+  @Test
+  void confirmHold_AlreadyConfirmed() {
+    UUID bookingId = UUID.randomUUID();
+    roomAvailability.setIsManual(false);
+    roomAvailability.setBookingId(bookingId);
+    when(roomAvailabilityRepository.findBookedUnavailabilityByBookingIds(List.of(bookingId)))
+        .thenReturn(List.of(roomAvailability));
+
+    assertTrue(roomAvailabilityService.confirmHold(bookingId, List.of(1L), LocalDate.now(), LocalDate.now().plusDays(2)));
+
+    verify(roomHoldStore, never()).renew(any(), any(), any(), any());
+    verify(roomAvailabilityRepository, never()).saveAndFlush(any(RoomAvailability.class));
+    verify(roomHoldStore).release(bookingId);
+  }
+
+  @Test
+  void confirmHold_ExpiredHoldStillFreeIsTakenAgain() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.now().plusDays(2);
+    List<Long> roomIds = List.of(1L);
+    when(roomHoldStore.renew(bookingId, roomIds, checkIn, checkIn.plusDays(2))).thenReturn(Ownership.EXPIRED);
+    when(roomHoldStore.hold(bookingId, roomIds, checkIn, checkIn.plusDays(2))).thenReturn(true);
+    when(roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(roomIds, checkIn, checkIn.plusDays(1)))
+        .thenReturn(false);
+    when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
+    when(roomAvailabilityRepository.saveAndFlush(any(RoomAvailability.class))).thenReturn(roomAvailability);
+
+    assertTrue(roomAvailabilityService.confirmHold(bookingId, roomIds, checkIn, checkIn.plusDays(2)));
+
+    verify(roomAvailabilityRepository).saveAndFlush(any(RoomAvailability.class));
+    verify(roomHoldStore).release(bookingId);
+  }
+
+  @Test
+  void confirmHold_ExpiredHoldBookedSince() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.now().plusDays(2);
+    List<Long> roomIds = List.of(1L);
+    when(roomHoldStore.renew(bookingId, roomIds, checkIn, checkIn.plusDays(2))).thenReturn(Ownership.EXPIRED);
+    when(roomHoldStore.hold(bookingId, roomIds, checkIn, checkIn.plusDays(2))).thenReturn(true);
+    when(roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(roomIds, checkIn, checkIn.plusDays(1)))
+        .thenReturn(true);
+
+    assertFalse(roomAvailabilityService.confirmHold(bookingId, roomIds, checkIn, checkIn.plusDays(2)));
+
+    verify(roomAvailabilityRepository, never()).saveAndFlush(any(RoomAvailability.class));
+    verify(roomHoldStore).release(bookingId);
+  }
+
+  @Test
+  void confirmHold_HoldTakenByAnotherBooking() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.now().plusDays(2);
+    List<Long> roomIds = List.of(1L, 2L);
+    when(roomHoldStore.renew(bookingId, roomIds, checkIn, checkIn.plusDays(2))).thenReturn(Ownership.TAKEN);
+
+    assertFalse(roomAvailabilityService.confirmHold(bookingId, roomIds, checkIn, checkIn.plusDays(2)));
+
+    // All rooms or none, the first room is not confirmed either
+    verify(roomHoldStore, never()).hold(any(UUID.class), any(List.class), any(), any());
+    verify(roomAvailabilityRepository, never()).saveAndFlush(any(RoomAvailability.class));
+    verify(roomHoldStore).release(bookingId);
+  }
+
+  @Test
+  void confirmHold_AnotherBookingsRowIsNotConfirmation() {
+    UUID bookingId = UUID.randomUUID();
+    LocalDate checkIn = LocalDate.now().plusDays(2);
+    List<Long> roomIds = List.of(1L);
+    // Another booking has the same room and dates, this booking has no row of its own
+    when(roomAvailabilityRepository.findBookedUnavailabilityByBookingIds(List.of(bookingId))).thenReturn(List.of());
+    when(roomHoldStore.renew(bookingId, roomIds, checkIn, checkIn.plusDays(2))).thenReturn(Ownership.TAKEN);
+
+    assertFalse(roomAvailabilityService.confirmHold(bookingId, roomIds, checkIn, checkIn.plusDays(2)));
+  }
+
+  @Test
+  void releaseRoom_SoftDeletesConfirmedHold() {
+    UUID bookingId = UUID.randomUUID();
+    roomAvailability.setIsManual(false);
+    roomAvailability.setBookingId(bookingId);
+    when(roomAvailabilityRepository.findBookedUnavailabilityByBookingIds(List.of(bookingId)))
+        .thenReturn(List.of(roomAvailability));
+
+    roomAvailabilityService.releaseRoom(bookingId, 1L, LocalDate.now(), LocalDate.now().plusDays(2));
+
+    verify(roomAvailabilityRepository).save(roomAvailability);
+    verify(roomHoldStore).release(bookingId);
+  }
+
+  @Test
+  void releaseRoom_KeepsOtherRoomsOfBooking() {
+    UUID bookingId = UUID.randomUUID();
+    roomAvailability.setIsManual(false);
+    roomAvailability.setBookingId(bookingId);
+    when(roomAvailabilityRepository.findBookedUnavailabilityByBookingIds(List.of(bookingId)))
+        .thenReturn(List.of(roomAvailability));
+
+    roomAvailabilityService.releaseRoom(bookingId, 2L, LocalDate.now(), LocalDate.now().plusDays(2));
+
+    verify(roomAvailabilityRepository, never()).save(any(RoomAvailability.class));
+    verify(roomHoldStore).release(bookingId);
+  }
+
+  @Test
+  void releaseRoom_KeepsOtherBookingsRows() {
+    UUID bookingId = UUID.randomUUID();
+
+    roomAvailabilityService.releaseRoom(bookingId, 1L, LocalDate.now(), LocalDate.now().plusDays(2));
+
+    verify(roomAvailabilityRepository).findBookedUnavailabilityByBookingIds(List.of(bookingId));
+    verify(roomAvailabilityRepository, never()).save(any(RoomAvailability.class));
+    verify(roomHoldStore).release(bookingId);
+  }
+
   @Test
   void removeUnavailability_Success() {
     when(roomAvailabilityRepository.findByRoomIdAndDates(anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(Optional.of(roomAvailability));
 
     assertDoesNotThrow(() -> roomAvailabilityService.removeUnavailability(1L, LocalDate.now(), LocalDate.now().plusDays(1)));
     verify(roomAvailabilityRepository).save(roomAvailability);
+    verify(propertyViewCache).evict(1L);
   }
 
   @Test
@@ -238,9 +439,85 @@ public class RoomAvailabilityServiceImplTest {
   @Test
   void validateDateRange_OverlappingDates() {
     when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
-    when(roomAvailabilityRepository.existsOverlappingAvailability(anyLong(), any(LocalDate.class), any(LocalDate.class))).thenReturn(true);
+    when(roomAvailabilityRepository.saveAndFlush(any(RoomAvailability.class))).thenThrow(overlapViolation());
 
     assertThrows(InvalidDateException.class, () -> roomAvailabilityService.setUnavailability(tenant, 1L, LocalDate.now(),
         LocalDate.now().plusDays(1)));
+    verifyNoInteractions(propertyViewCache);
+  }
+
+  @Test
+  void setUnavailability_OverlappingHoldRejected() {
+    when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
+    when(roomAvailabilityRepository.saveAndFlush(any(RoomAvailability.class))).thenThrow(overlapViolation());
+
+    assertThrows(RoomUnavailableException.class, () -> roomAvailabilityService.setUnavailability(1L, LocalDate.now(),
+        LocalDate.now().plusDays(1)));
+    verifyNoInteractions(propertyViewCache);
+  }
+
+  @Test
+  void setUnavailability_OtherIntegrityViolationPropagates() {
+    when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
+    DataIntegrityViolationException foreignKeyViolation = new DataIntegrityViolationException("fk",
+        new SQLException("violates foreign key constraint", "23503"));
+    when(roomAvailabilityRepository.saveAndFlush(any(RoomAvailability.class))).thenThrow(foreignKeyViolation);
+
+    assertThrows(DataIntegrityViolationException.class, () -> roomAvailabilityService.setUnavailability(1L,
+        LocalDate.now(), LocalDate.now().plusDays(1)));
+  }
+
+  @Test
+  void setUnavailability_PreCheckedUntilConstraintEnforced() {
+    LocalDate startDate = LocalDate.now();
+    when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
+    when(roomAvailabilityConstraint.isEnforced()).thenReturn(false);
+    when(roomAvailabilityRepository.existsUnavailabilityByRoomIdsAndDateRange(List.of(1L), startDate, startDate))
+        .thenReturn(true);
+
+    assertThrows(RoomUnavailableException.class, () -> roomAvailabilityService.setUnavailability(1L, startDate,
+        startDate.plusDays(1)));
+    verify(roomAvailabilityRepository, never()).saveAndFlush(any(RoomAvailability.class));
+  }
+
+  @Test
+  void setUnavailability_Tenant_NoPreCheckOnceConstraintEnforced() {
+    when(roomService.findRoomById(1L)).thenReturn(Optional.of(room));
+    when(roomAvailabilityConstraint.isEnforced()).thenReturn(true);
+    when(roomAvailabilityRepository.saveAndFlush(any(RoomAvailability.class))).thenReturn(roomAvailability);
+
+    roomAvailabilityService.setUnavailability(tenant, 1L, LocalDate.now(), LocalDate.now().plusDays(1));
+
+    verify(roomAvailabilityRepository, never()).existsUnavailabilityByRoomIdsAndDateRange(any(), any(), any());
+  }
+
+  @Test
+  void releaseBookedUnavailability_BulkSoftDelete() {
+    List<UUID> bookingIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+    RoomAvailability otherRoomAvailability = new RoomAvailability();
+    otherRoomAvailability.setId(2L);
+    otherRoomAvailability.setRoom(room);
+    when(roomAvailabilityRepository.findBookedUnavailabilityByBookingIds(bookingIds))
+        .thenReturn(List.of(roomAvailability, otherRoomAvailability));
+
+    int released = roomAvailabilityService.releaseBookedUnavailability(bookingIds);
+
+    assertEquals(2, released);
+    verify(roomAvailabilityRepository).softDeleteAllByIdIn(eq(List.of(1L, 2L)), any());
+    verify(propertyViewCache).evict(1L);
+    verify(roomHoldStore).release(bookingIds.get(0));
+    verify(roomHoldStore).release(bookingIds.get(1));
+  }
+
+  @Test
+  void releaseBookedUnavailability_NoBookings() {
+    assertEquals(0, roomAvailabilityService.releaseBookedUnavailability(List.of()));
+
+    verifyNoInteractions(roomAvailabilityRepository, propertyViewCache, roomHoldStore);
+  }
+
+  private static DataIntegrityViolationException overlapViolation() {
+    return new DataIntegrityViolationException("could not execute statement",
+        new SQLException("conflicting key value violates exclusion constraint", "23P01"));
   }
 }
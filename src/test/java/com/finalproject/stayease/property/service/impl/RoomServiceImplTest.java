@@ -15,6 +15,7 @@ import com.finalproject.stayease.property.entity.dto.listingDTOs.RoomPriceRateDT
 import com.finalproject.stayease.property.repository.RoomRepository;
 import com.finalproject.stayease.property.service.PeakSeasonRateService;
 import com.finalproject.stayease.property.service.PropertyService;
+import com.finalproject.stayease.property.service.helpers.PropertyViewCache;
 import com.finalproject.stayease.users.entity.TenantInfo;
 import com.finalproject.stayease.users.entity.Users;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,6 +41,9 @@ class RoomServiceImplTest {
   @Mock
   private PeakSeasonRateService peakSeasonRateService;
 
+  @Mock
+  private PropertyViewCache propertyViewCache;
+
   @InjectMocks
   private RoomServiceImpl roomService;
 
@@ -127,6 +131,7 @@ class RoomServiceImplTest {
     Room result = roomService.createRoom(1L, createRoomDTO);
     assertNotNull(result);
     assertEquals(createRoomDTO.getName(), result.getName());
+    verify(propertyViewCache).evict(1L);
   }
 
   @Test
@@ -145,6 +150,7 @@ class RoomServiceImplTest {
     Room result = roomService.updateRoom(1L, 1L, createRoomDTO);
     assertNotNull(result);
     assertEquals(createRoomDTO.getName(), result.getName());
+    verify(propertyViewCache).evict(1L);
   }
 
   @Test
@@ -162,6 +168,7 @@ class RoomServiceImplTest {
 
     assertDoesNotThrow(() -> roomService.deleteRoom(1L, 1L));
     verify(roomRepository, times(1)).save(any(Room.class));
+    verify(propertyViewCache).evict(1L);
   }
 
   @Test
@@ -0,0 +1,61 @@
+package com.finalproject.stayease.property.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO;
+import com.finalproject.stayease.property.entity.dto.listingDTOs.SuggestionDTO.Type;
+import com.finalproject.stayease.property.service.helpers.SearchSuggestionIndex;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SearchSuggestionServiceImplTest {
+
+  @Mock
+  private SearchSuggestionIndex searchSuggestionIndex;
+
+  @InjectMocks
+  private SearchSuggestionServiceImpl searchSuggestionService;
+
+  @Test
+  void suggest_DefaultLimit() {
+    List<SuggestionDTO> suggestions = List.of(new SuggestionDTO(Type.CITY, "Ubud", null, 2));
+    when(searchSuggestionIndex.suggest("ub", 10)).thenReturn(suggestions);
+
+    assertEquals(suggestions, searchSuggestionService.suggest("ub", null));
+  }
+
+  @Test
+  void suggest_ClampsLimit() {
+    when(searchSuggestionIndex.suggest("ub", 20)).thenReturn(List.of());
+
+    searchSuggestionService.suggest("ub", 500);
+
+    verify(searchSuggestionIndex).suggest("ub", 20);
+  }
+
+  @Test
+  void suggest_BlankQueryReturnsNothing() {
+    assertTrue(searchSuggestionService.suggest(" ", 5).isEmpty());
+    assertTrue(searchSuggestionService.suggest(null, 5).isEmpty());
+    verify(searchSuggestionIndex, never()).suggest(anyString(), anyInt());
+  }
+
+  @Test
+  void suggest_InvalidRequest() {
+    assertThrows(InvalidRequestException.class, () -> searchSuggestionService.suggest("ub", 0));
+    assertThrows(InvalidRequestException.class, () -> searchSuggestionService.suggest("u".repeat(101), 5));
+  }
+}
@@ -0,0 +1,182 @@
+package com.finalproject.stayease.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.finalproject.stayease.bookings.entity.Booking;
+import com.finalproject.stayease.bookings.entity.BookingItem;
+import com.finalproject.stayease.bookings.entity.BookingStatus;
+import com.finalproject.stayease.bookings.service.BookingService;
+import com.finalproject.stayease.midtrans.MidtransStandIn;
+import com.finalproject.stayease.midtrans.service.impl.MidtransServiceImpl;
+import com.finalproject.stayease.payment.entity.Payment;
+import com.finalproject.stayease.payment.entity.PaymentStatus;
+import com.finalproject.stayease.payment.service.PaymentService;
+import com.finalproject.stayease.property.entity.Room;
+import com.finalproject.stayease.property.service.RoomAvailabilityService;
+import com.finalproject.stayease.transactions.dto.request.NotificationReqDTO;
+import com.finalproject.stayease.transactions.service.TransactionService;
+import com.finalproject.stayease.transactions.service.helpers.MidtransNotificationInbox;
+import com.finalproject.stayease.transactions.service.helpers.MidtransNotificationInbox.Entry;
+import com.finalproject.stayease.transactions.service.impl.TransactionServiceImpl;
+import com.midtrans.service.MidtransCoreApi;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class MidtransNotificationWorkerTest {
+
+  @Mock
+  private MidtransNotificationInbox inbox;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private BookingService bookingService;
+
+  @Mock
+  private PaymentService paymentService;
+
+  @Mock
+  private RoomAvailabilityService roomAvailabilityService;
+
+  @Mock
+  private MidtransCoreApi midtransCoreApi;
+
+  @Mock
+  private TransactionService mockTransactionService;
+
+  private MidtransStandIn midtrans;
+  private TransactionServiceImpl transactionService;
+  private final List<MidtransNotificationWorker> workers = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    midtrans = new MidtransStandIn();
+    MidtransServiceImpl midtransService = new MidtransServiceImpl(midtransCoreApi, new ObjectMapper(), midtrans.url(),
+        MidtransStandIn.SECRET_KEY);
+    transactionService = new TransactionServiceImpl(bookingService, paymentService, midtransService, null, null, null,
+        roomAvailabilityService);
+  }
+
+  @AfterEach
+  void tearDown() {
+    workers.forEach(MidtransNotificationWorker::shutdown);
+    midtrans.close();
+  }
+
+  @Test
+  void drain_AppliesStatusReadFromMidtrans() {
+    Booking booking = booking();
+    Payment payment = payment();
+    // The notification claims settlement, Midtrans says the payment expired
+    Entry entry = new Entry(1L, booking.getId().toString(), "settlement", 1);
+    midtrans.setStatus(entry.orderId(), "expire");
+    when(inbox.claim(20)).thenReturn(List.of(entry), List.of());
+    when(paymentService.findPaymentByBookingId(booking.getId())).thenReturn(payment);
+    when(bookingService.findById(booking.getId())).thenReturn(booking);
+    when(paymentService.updatePaymentStatus(1L, PaymentStatus.EXPIRE)).thenReturn(payment);
+    when(bookingService.updateBooking(booking.getId(), BookingStatus.EXPIRED)).thenReturn(booking);
+
+    assertEquals(1, worker(transactionService, 20).drain());
+
+    verify(inbox).lockOrder(entry.orderId());
+    verify(roomAvailabilityService).releaseRoom(booking.getId(), 7L, booking.getCheckInDate(),
+        booking.getCheckOutDate());
+    verify(inbox).markDone(1L);
+    verify(transactionManager).commit(any());
+    verify(inbox, never()).markFailed(any(), anyString());
+  }
+
+  @Test
+  void drain_MidtransDownLeavesNotificationForRetry() {
+    Booking booking = booking();
+    Entry entry = new Entry(1L, booking.getId().toString(), "settlement", 1);
+    midtrans.failWith(503);
+    when(inbox.claim(20)).thenReturn(List.of(entry), List.of());
+    when(paymentService.findPaymentByBookingId(booking.getId())).thenReturn(payment());
+    when(bookingService.findById(booking.getId())).thenReturn(booking);
+
+    assertEquals(1, worker(transactionService, 20).drain());
+
+    verify(inbox).markFailed(eq(entry), contains("503"));
+    verify(inbox, never()).markDone(anyLong());
+    verify(transactionManager).rollback(any());
+    verifyNoInteractions(roomAvailabilityService);
+  }
+
+  @Test
+  void drain_ClaimsUntilInboxIsEmpty() throws Exception {
+    // A claim takes one notification per order, so a short batch can still leave others due
+    when(inbox.claim(2)).thenReturn(List.of(entry(1L)), List.of(entry(2L), entry(3L)), List.of());
+
+    assertEquals(3, worker(mockTransactionService, 2).drain());
+
+    verify(inbox, times(3)).claim(2);
+    verify(mockTransactionService, times(3)).notificationHandler(any(NotificationReqDTO.class));
+    verify(inbox).markDone(1L);
+    verify(inbox).markDone(2L);
+    verify(inbox).markDone(3L);
+  }
+
+  @Test
+  void drain_DatabaseDown() {
+    when(inbox.claim(20)).thenThrow(new DataAccessResourceFailureException("down"));
+
+    assertEquals(0, worker(mockTransactionService, 20).drain());
+    verifyNoInteractions(mockTransactionService);
+  }
+
+  @Test
+  void wake_DrainsInBackground() throws Exception {
+    when(inbox.claim(20)).thenReturn(List.of(entry(1L)), List.of());
+
+    worker(mockTransactionService, 20).wake();
+
+    verify(inbox, timeout(5000)).markDone(1L);
+    verify(mockTransactionService).notificationHandler(any(NotificationReqDTO.class));
+  }
+
+  private MidtransNotificationWorker worker(TransactionService service, int batchSize) {
+    MidtransNotificationWorker worker = new MidtransNotificationWorker(inbox, service, transactionManager, 2,
+        batchSize);
+    workers.add(worker);
+    return worker;
+  }
+
+  private static Entry entry(long id) {
+    return new Entry(id, UUID.randomUUID().toString(), "settlement", 1);
+  }
+
+  private static Booking booking() {
+    Room room = new Room();
+    room.setId(7L);
+    Booking booking = new Booking();
+    booking.setId(UUID.randomUUID());
+    booking.setStatus(BookingStatus.IN_PROGRESS);
+    booking.setCheckInDate(LocalDate.now().plusDays(3));
+    booking.setCheckOutDate(LocalDate.now().plusDays(5));
+    BookingItem bookingItem = new BookingItem();
+    bookingItem.setRoom(room);
+    booking.setBookingItems(List.of(bookingItem));
+    return booking;
+  }
+
+  private static Payment payment() {
+    Payment payment = new Payment();
+    payment.setId(1L);
+    return payment;
+  }
+}
@@ -0,0 +1,96 @@
+package com.finalproject.stayease.scheduler;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.finalproject.stayease.scheduler.PartitionedJobRunner.JobRun;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class PartitionedJobRunnerTest {
+
+  private static final String KEY = "stayease:job-progress:auto-rates-weekly:2024-09-01";
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  @Mock
+  private SetOperations<String, String> setOperations;
+
+  private SimpleMeterRegistry meterRegistry;
+  private PartitionedJobRunner jobRunner;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    jobRunner = new PartitionedJobRunner(transactionManager, redisTemplate, meterRegistry, 2, 2, 48);
+    when(redisTemplate.opsForSet()).thenReturn(setOperations);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jobRunner.shutdown();
+  }
+
+  @Test
+  void run_ProcessesEveryIdInChunkTransactions() {
+    Set<Long> processed = ConcurrentHashMap.newKeySet();
+
+    JobRun run = jobRunner.run("auto-rates-weekly", "2024-09-01", List.of(1L, 2L, 3L, 4L, 5L), processed::add);
+
+    assertEquals(new JobRun(5, 0, 0), run);
+    assertEquals(Set.of(1L, 2L, 3L, 4L, 5L), processed);
+    verify(transactionManager, times(3)).getTransaction(any());
+    verify(transactionManager, times(3)).commit(any());
+    verify(setOperations).add(KEY, "1", "2");
+    verify(setOperations).add(KEY, "5");
+    verify(redisTemplate, times(3)).expire(KEY, Duration.ofHours(48));
+    verify(redisTemplate).delete(KEY);
+    assertEquals(3, meterRegistry.get("scheduler.job.chunk").tag("job", "auto-rates-weekly").timer().count());
+    assertEquals(1, meterRegistry.get("scheduler.job.run").tag("outcome", "completed").timer().count());
+  }
+
+  @Test
+  void run_ResumesWithoutCompletedIds() {
+    when(setOperations.members(KEY)).thenReturn(Set.of("1", "2"));
+    Set<Long> processed = ConcurrentHashMap.newKeySet();
+
+    JobRun run = jobRunner.run("auto-rates-weekly", "2024-09-01", List.of(1L, 2L, 3L, 4L, 5L), processed::add);
+
+    assertEquals(new JobRun(3, 2, 0), run);
+    assertEquals(Set.of(3L, 4L, 5L), processed);
+    verify(redisTemplate).delete(KEY);
+  }
+
+  @Test
+  void run_FailedChunkKeepsProgressForNextRun() {
+    JobRun run = jobRunner.run("auto-rates-weekly", "2024-09-01", List.of(1L, 2L, 3L, 4L), id -> {
+      if (id == 3L) {
+        throw new IllegalStateException("Holiday calendar unavailable");
+      }
+    });
+
+    assertEquals(new JobRun(2, 0, 1), run);
+    verify(transactionManager).rollback(any());
+    verify(setOperations).add(KEY, "1", "2");
+    verify(setOperations, never()).add(KEY, "3", "4");
+    verify(redisTemplate, never()).delete(KEY);
+    assertEquals(1, meterRegistry.get("scheduler.job.run").tag("outcome", "incomplete").timer().count());
+  }
+}
@@ -1,4 +1,276 @@
 package com.finalproject.stayease.transaction.service.impl;
 
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.finalproject.stayease.bookings.entity.Booking;
+import com.finalproject.stayease.bookings.entity.BookingItem;
+import com.finalproject.stayease.bookings.entity.BookingStatus;
+import com.finalproject.stayease.bookings.service.BookingService;
+import com.finalproject.stayease.helpers.HtmlDataMap;
+import com.finalproject.stayease.mail.service.MailService;
+import com.finalproject.stayease.midtrans.service.MidtransService;
+import com.finalproject.stayease.payment.entity.Payment;
+import com.finalproject.stayease.payment.entity.PaymentStatus;
+import com.finalproject.stayease.payment.entity.dto.ExpiredPaymentClaim;
+import com.finalproject.stayease.payment.service.PaymentService;
+import com.finalproject.stayease.property.entity.Room;
+import com.finalproject.stayease.property.service.RoomAvailabilityService;
+import com.finalproject.stayease.transactions.dto.TransactionDTO;
+import com.finalproject.stayease.transactions.dto.request.NotificationReqDTO;
+import com.finalproject.stayease.transactions.service.impl.TransactionServiceImpl;
+import com.finalproject.stayease.users.entity.Users;
+import com.finalproject.stayease.users.service.UsersService;
+import jakarta.mail.MessagingException;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
 public class TransactionServiceImplTest {
+
+  @Mock
+  private BookingService bookingService;
+
+  @Mock
+  private PaymentService paymentService;
+
+  @Mock
+  private MidtransService midtransService;
+
+  @Mock
+  private UsersService usersService;
+
+  @Mock
+  private MailService mailService;
+
+  @Mock
+  private HtmlDataMap htmlDataMap;
+
+  @Mock
+  private RoomAvailabilityService roomAvailabilityService;
+
+  @InjectMocks
+  private TransactionServiceImpl transactionService;
+
+  private ExpiredPaymentClaim claim(Long paymentId, UUID bookingId, String email) {
+    return new ExpiredPaymentClaim() {
+      @Override
+      public Long getPaymentId() {
+        return paymentId;
+      }
+
+      @Override
+      public UUID getBookingId() {
+        return bookingId;
+      }
+
+      @Override
+      public String getUserEmail() {
+        return email;
+      }
+    };
+  }
+
+  @Test
+  void expireOverduePayments_BulkUpdatesClaimedChunk() throws MessagingException {
+    UUID firstBooking = UUID.randomUUID();
+    UUID secondBooking = UUID.randomUUID();
+    when(paymentService.claimExpiredPendingPayments(100)).thenReturn(List.of(
+        claim(1L, firstBooking, "first@example.com"),
+        claim(2L, secondBooking, "second@example.com")));
+    when(roomAvailabilityService.releaseBookedUnavailability(List.of(firstBooking, secondBooking))).thenReturn(2);
+
+    int expired = transactionService.expireOverduePayments(100);
+
+    assertEquals(2, expired);
+    verify(paymentService).updatePaymentStatuses(List.of(1L, 2L), PaymentStatus.EXPIRE);
+    verify(bookingService).updateBookingStatuses(List.of(firstBooking, secondBooking), BookingStatus.EXPIRED);
+    verify(mailService).sendMimeMessage(eq("first@example.com"), eq("Booking expired"), anyString());
+    verify(mailService).sendMimeMessage(eq("second@example.com"), eq("Booking expired"), anyString());
+    verify(bookingService, never()).updateBooking(any(), any());
+    verify(paymentService, never()).updatePaymentStatus(any(), any());
+  }
+
+  @Test
+  void expireOverduePayments_NothingToClaim() {
+    when(paymentService.claimExpiredPendingPayments(100)).thenReturn(List.of());
+
+    assertEquals(0, transactionService.expireOverduePayments(100));
+
+    verifyNoMoreInteractions(paymentService);
+    verifyNoInteractions(bookingService, roomAvailabilityService, mailService);
+  }
+
+  @Test
+  void expireOverduePayments_BadAddressDoesNotFailChunk() throws MessagingException {
+    UUID bookingId = UUID.randomUUID();
+    when(paymentService.claimExpiredPendingPayments(100)).thenReturn(List.of(claim(1L, bookingId, "not an email")));
+    doThrow(new MessagingException("Illegal address")).when(mailService)
+        .sendMimeMessage(eq("not an email"), anyString(), anyString());
+
+    assertEquals(1, transactionService.expireOverduePayments(100));
+
+    verify(paymentService).updatePaymentStatuses(List.of(1L), PaymentStatus.EXPIRE);
+  }
+
+  @Test
+  void approveTransaction_ConfirmsHeldRooms() throws MessagingException {
+    Booking booking = booking();
+    Payment payment = payment();
+    payment.setPaymentProof("https://cloudinary.com/proof");
+    when(bookingService.findById(booking.getId())).thenReturn(booking);
+    when(paymentService.findPaymentByBookingId(booking.getId())).thenReturn(payment);
+    when(bookingService.updateBooking(booking.getId(), BookingStatus.PAYMENT_COMPLETE)).thenReturn(booking);
+    when(paymentService.updatePaymentStatus(1L, PaymentStatus.SETTLEMENT)).thenReturn(payment);
+    when(roomAvailabilityService.confirmHold(booking.getId(), List.of(7L), booking.getCheckInDate(),
+        booking.getCheckOutDate())).thenReturn(true);
+
+    transactionService.approveTransaction(booking.getId());
+
+    verify(roomAvailabilityService).confirmHold(booking.getId(), List.of(7L), booking.getCheckInDate(),
+        booking.getCheckOutDate());
+  }
+
+  @Test
+  void approveTransaction_RoomsLostIsRefused() {
+    Booking booking = booking();
+    Payment payment = payment();
+    payment.setPaymentProof("https://cloudinary.com/proof");
+    when(bookingService.findById(booking.getId())).thenReturn(booking);
+    when(paymentService.findPaymentByBookingId(booking.getId())).thenReturn(payment);
+    when(roomAvailabilityService.confirmHold(booking.getId(), List.of(7L), booking.getCheckInDate(),
+        booking.getCheckOutDate())).thenReturn(false);
+
+    assertThrows(RuntimeException.class, () -> transactionService.approveTransaction(booking.getId()));
+
+    verify(bookingService, never()).updateBooking(any(), any());
+    verify(paymentService, never()).updatePaymentStatus(any(), any());
+  }
+
+  @Test
+  void notificationHandler_SettledAfterRoomsLostNeedsRefund() throws MessagingException {
+    Booking booking = booking();
+    Payment payment = payment();
+    when(paymentService.findPaymentByBookingId(booking.getId())).thenReturn(payment);
+    when(bookingService.findById(booking.getId())).thenReturn(booking);
+    when(midtransService.getTransactionStatus(booking.getId().toString())).thenReturn("settlement");
+    when(paymentService.updatePaymentStatus(1L, PaymentStatus.SETTLEMENT)).thenReturn(payment);
+    when(roomAvailabilityService.confirmHold(booking.getId(), List.of(7L), booking.getCheckInDate(),
+        booking.getCheckOutDate())).thenReturn(false);
+    when(bookingService.updateBooking(booking.getId(), BookingStatus.REFUND_REQUIRED)).thenReturn(booking);
+
+    transactionService.notificationHandler(notification(booking, "settlement"));
+
+    verify(bookingService, never()).updateBooking(booking.getId(), BookingStatus.PAYMENT_COMPLETE);
+    verifyNoInteractions(mailService);
+  }
+
+  @Test
+  void userCancelTransaction_ReleasesHeldRooms() throws MessagingException {
+    Booking booking = booking();
+    Payment payment = payment();
+    when(bookingService.findById(booking.getId())).thenReturn(booking);
+    when(paymentService.findPaymentByBookingId(booking.getId())).thenReturn(payment);
+    when(bookingService.updateBooking(booking.getId(), BookingStatus.CANCELLED)).thenReturn(booking);
+    when(paymentService.updatePaymentStatus(1L, PaymentStatus.CANCEL)).thenReturn(payment);
+
+    transactionService.userCancelTransaction(booking.getId(), 3L);
+
+    verify(roomAvailabilityService).releaseRoom(booking.getId(), 7L, booking.getCheckInDate(),
+        booking.getCheckOutDate());
+    verify(roomAvailabilityService, never()).confirmHold(any(), any(), any(), any());
+  }
+
+  @Test
+  void notificationHandler_AlreadyAppliedIsSkipped() throws MessagingException {
+    Booking booking = booking();
+    booking.setStatus(BookingStatus.EXPIRED);
+    Payment payment = payment();
+    when(paymentService.findPaymentByBookingId(booking.getId())).thenReturn(payment);
+    when(bookingService.findById(booking.getId())).thenReturn(booking);
+    when(midtransService.getTransactionStatus(booking.getId().toString())).thenReturn("expire");
+
+    TransactionDTO response = transactionService.notificationHandler(notification(booking, "expire"));
+
+    assertEquals(BookingStatus.EXPIRED, response.getBookingStatus());
+    verify(bookingService, never()).updateBooking(any(), any());
+    verify(paymentService, never()).updatePaymentStatus(any(), any());
+    verifyNoInteractions(roomAvailabilityService);
+  }
+
+  @Test
+  void notificationHandler_SettlementSendsInvoice() throws Exception {
+    Booking booking = settleableBooking();
+
+    TransactionDTO result = transactionService.notificationHandler(notification(booking, "settlement"));
+
+    assertEquals(BookingStatus.PAYMENT_COMPLETE, result.getBookingStatus());
+    verify(mailService).sendMailWithPdf(eq("guest@example.com"), eq("Booking Invoice"), eq("booking-invoice.html"),
+        any(), anyString());
+  }
+
+  @Test
+  void notificationHandler_InvoiceFailureKeepsSettlement() throws Exception {
+    Booking booking = settleableBooking();
+    doThrow(new IOException("template missing")).when(mailService)
+        .sendMailWithPdf(anyString(), anyString(), anyString(), any(), anyString());
+
+    TransactionDTO result = transactionService.notificationHandler(notification(booking, "settlement"));
+
+    assertEquals(BookingStatus.PAYMENT_COMPLETE, result.getBookingStatus());
+  }
+
+  private Booking settleableBooking() {
+    Booking booking = booking();
+    booking.setStatus(BookingStatus.IN_PROGRESS);
+    Payment payment = payment();
+    when(paymentService.findPaymentByBookingId(booking.getId())).thenReturn(payment);
+    when(bookingService.findById(booking.getId())).thenReturn(booking);
+    when(midtransService.getTransactionStatus(booking.getId().toString())).thenReturn("settlement");
+    when(paymentService.updatePaymentStatus(1L, PaymentStatus.SETTLEMENT)).thenReturn(payment);
+    when(roomAvailabilityService.confirmHold(booking.getId(), List.of(7L), booking.getCheckInDate(),
+        booking.getCheckOutDate())).thenReturn(true);
+    when(bookingService.updateBooking(booking.getId(), BookingStatus.PAYMENT_COMPLETE)).thenAnswer(invocation -> {
+      booking.setStatus(BookingStatus.PAYMENT_COMPLETE);
+      return booking;
+    });
+    return booking;
+  }
+
+  private static NotificationReqDTO notification(Booking booking, String transactionStatus) {
+    NotificationReqDTO notification = new NotificationReqDTO();
+    notification.setOrder_id(booking.getId().toString());
+    notification.setTransaction_status(transactionStatus);
+    return notification;
+  }
+
+  private Booking booking() {
+    Users user = new Users();
+    user.setId(3L);
+    user.setEmail("guest@example.com");
+    Room room = new Room();
+    room.setId(7L);
+    Booking booking = new Booking();
+    booking.setId(UUID.randomUUID());
+    booking.setUser(user);
+    booking.setCheckInDate(LocalDate.now().plusDays(3));
+    booking.setCheckOutDate(LocalDate.now().plusDays(5));
+    BookingItem bookingItem = new BookingItem();
+    bookingItem.setRoom(room);
+    booking.setBookingItems(List.of(bookingItem));
+    return booking;
+  }
+
+  private Payment payment() {
+    Payment payment = new Payment();
+    payment.setId(1L);
+    return payment;
+  }
 }
@@ -0,0 +1,213 @@
+package com.finalproject.stayease.transactions.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
+import com.finalproject.stayease.transactions.dto.request.NotificationReqDTO;
+import com.finalproject.stayease.transactions.service.helpers.MidtransNotificationInbox.Entry;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+@ExtendWith(MockitoExtension.class)
+public class MidtransNotificationInboxTest {
+
+  private static final int THREADS = 32;
+  private static final Resource MIGRATION = new ClassPathResource("db/migration/V4__midtrans_notification_inbox.sql");
+  private static final String ORDER_ID = "3f1c2a9e-4b7d-4e61-9a55-0c8d2f6b1e77";
+
+  @Mock
+  private JdbcTemplate jdbcTemplate;
+
+  private MidtransNotificationInbox inbox;
+
+  @BeforeEach
+  void setUp() {
+    inbox = new MidtransNotificationInbox(jdbcTemplate, 300, 30, 5);
+  }
+
+  @Test
+  void accept_StoresNewNotification() {
+    when(jdbcTemplate.update(contains("ON CONFLICT (order_id, transaction_status) DO UPDATE"), eq(ORDER_ID),
+        eq("settlement"), any(Timestamp.class), any(Timestamp.class))).thenReturn(1);
+
+    assertTrue(inbox.accept(notification(ORDER_ID, "settlement")));
+  }
+
+  @Test
+  void accept_ResentNotificationIsNoOp() {
+    when(jdbcTemplate.update(contains("ON CONFLICT (order_id, transaction_status) DO UPDATE"), eq(ORDER_ID),
+        eq("settlement"), any(Timestamp.class), any(Timestamp.class))).thenReturn(0);
+
+    assertFalse(inbox.accept(notification(ORDER_ID, "settlement")));
+  }
+
+  @Test
+  void accept_FailedNotificationIsRevived() {
+    when(jdbcTemplate.update(contains("WHERE midtrans_notification_inbox.status = 'FAILED'"), eq(ORDER_ID),
+        eq("settlement"), any(Timestamp.class), any(Timestamp.class))).thenReturn(1);
+
+    assertTrue(inbox.accept(notification(ORDER_ID, "settlement")));
+  }
+
+  @Test
+  void accept_UnknownOrderIsNotStored() {
+    assertFalse(inbox.accept(notification("payment_notif_test_G123", "settlement")));
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void accept_MissingStatus() {
+    assertThrows(InvalidRequestException.class, () -> inbox.accept(notification(ORDER_ID, null)));
+    verifyNoInteractions(jdbcTemplate);
+  }
+
+  @Test
+  void markFailed_SchedulesRetry() {
+    inbox.markFailed(new Entry(1L, ORDER_ID, "settlement", 2), "Midtrans down");
+
+    verify(jdbcTemplate).update(contains("SET available_at = ?, last_error = ?"), any(Timestamp.class),
+        eq("Midtrans down"), eq(1L));
+  }
+
+  @Test
+  void markFailed_GivesUpAfterLastAttempt() {
+    inbox.markFailed(new Entry(1L, ORDER_ID, "settlement", 5), "Booking not found");
+
+    verify(jdbcTemplate).update(contains("SET status = 'FAILED'"), any(Timestamp.class), eq("Booking not found"),
+        eq(1L));
+  }
+
+  /**
+   * Sends the same notification {@value #THREADS} times at once and checks it is stored once, then has four workers
+   * claim a backlog concurrently and checks every notification is claimed by exactly one of them and no claim holds two
+   * notifications of one order. Last, checks a notification parked as failed comes back when resent. Needs a PostgreSQL
+   * database it may create a scratch schema in, run with
+   * {@code mvn test -Dtest=MidtransNotificationInboxTest -Dbenchmark=true -Dbenchmark.db-url=jdbc:postgresql://...}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  @EnabledIfSystemProperty(named = "benchmark.db-url", matches = ".+")
+  void stress_DuplicateNotificationsAndConcurrentClaims() throws Exception {
+    String url = System.getProperty("benchmark.db-url");
+    String separator = url.contains("?") ? "&" : "?";
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(url + separator
+        + "currentSchema=inbox_stress,public", System.getProperty("benchmark.db-user", "postgres"),
+        System.getProperty("benchmark.db-password", ""));
+    JdbcTemplate database = new JdbcTemplate(dataSource);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      database.execute("DROP SCHEMA IF EXISTS inbox_stress CASCADE");
+      database.execute("CREATE SCHEMA inbox_stress");
+      MidtransNotificationInbox store = new MidtransNotificationInbox(database, 300, 30, 5);
+      database.execute(MIGRATION.getContentAsString(StandardCharsets.UTF_8));
+
+      CountDownLatch ready = new CountDownLatch(THREADS);
+      CountDownLatch go = new CountDownLatch(1);
+      List<Future<Boolean>> accepted = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        accepted.add(executor.submit(() -> {
+          ready.countDown();
+          go.await();
+          return store.accept(notification(ORDER_ID, "settlement"));
+        }));
+      }
+      assertTrue(ready.await(30, TimeUnit.SECONDS));
+      go.countDown();
+      int stored = 0;
+      for (Future<Boolean> result : accepted) {
+        if (result.get(30, TimeUnit.SECONDS)) {
+          stored++;
+        }
+      }
+      assertEquals(1, stored);
+
+      // The first order gets a second notification, every other order one
+      store.accept(notification(ORDER_ID, "pending"));
+      for (int i = 0; i < 198; i++) {
+        store.accept(notification(UUID.randomUUID().toString(), "settlement"));
+      }
+      List<Future<List<Entry>>> claims = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        claims.add(executor.submit(() -> {
+          List<Entry> claimed = new ArrayList<>();
+          List<Entry> batch;
+          do {
+            batch = store.claim(10);
+            assertEquals(batch.size(), batch.stream().map(Entry::orderId).distinct().count());
+            claimed.addAll(batch);
+          } while (!batch.isEmpty());
+          return claimed;
+        }));
+      }
+      Set<Long> claimedIds = new HashSet<>();
+      int claimedTotal = 0;
+      for (Future<List<Entry>> claim : claims) {
+        for (Entry entry : claim.get(30, TimeUnit.SECONDS)) {
+          claimedIds.add(entry.id());
+          claimedTotal++;
+        }
+      }
+      assertEquals(200, claimedTotal);
+      assertEquals(200, claimedIds.size());
+      // Leased, so nothing is due until the lease runs out
+      assertTrue(store.claim(10).isEmpty());
+
+      Entry parked = findEntry(database, ORDER_ID, "settlement");
+      store.markFailed(new Entry(parked.id(), ORDER_ID, "settlement", 5), "Booking not found");
+      // Only a failed notification is revived, the pending one of the same order is still leased
+      assertFalse(store.accept(notification(ORDER_ID, "pending")));
+      assertTrue(store.accept(notification(ORDER_ID, "settlement")));
+      List<Entry> revived = store.claim(10);
+      assertEquals(1, revived.size());
+      assertEquals(parked.id(), revived.getFirst().id());
+      assertEquals(1, revived.getFirst().attempts());
+    } finally {
+      executor.shutdownNow();
+      database.execute("DROP SCHEMA IF EXISTS inbox_stress CASCADE");
+    }
+  }
+
+  private static Entry findEntry(JdbcTemplate database, String orderId, String transactionStatus) {
+    return database.queryForObject("""
+        SELECT id, order_id, transaction_status, attempts FROM midtrans_notification_inbox
+        WHERE order_id = ? AND transaction_status = ?
+        """, (rs, rowNum) -> new Entry(rs.getLong("id"), rs.getString("order_id"),
+        rs.getString("transaction_status"), rs.getInt("attempts")), orderId, transactionStatus);
+  }
+
+  private static NotificationReqDTO notification(String orderId, String transactionStatus) {
+    NotificationReqDTO notification = new NotificationReqDTO();
+    notification.setOrder_id(orderId);
+    notification.setTransaction_status(transactionStatus);
+    return notification;
+  }
+}
@@ -0,0 +1,307 @@
+package com.finalproject.stayease.transactions.service.helpers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.finalproject.stayease.bookings.entity.Booking;
+import com.finalproject.stayease.bookings.entity.BookingStatus;
+import com.finalproject.stayease.bookings.entity.dto.request.BookingReqDTO;
+import com.finalproject.stayease.bookings.service.BookingService;
+import com.finalproject.stayease.exceptions.utils.InvalidRequestException;
+import com.finalproject.stayease.exceptions.utils.RequestInProgressException;
+import com.finalproject.stayease.midtrans.service.impl.MidtransServiceImpl;
+import com.finalproject.stayease.payment.entity.Payment;
+import com.finalproject.stayease.payment.entity.PaymentStatus;
+import com.finalproject.stayease.payment.service.PaymentService;
+import com.finalproject.stayease.transactions.dto.TransactionDTO;
+import com.finalproject.stayease.transactions.dto.request.TransactionReqDTO;
+import com.finalproject.stayease.transactions.service.impl.TransactionServiceImpl;
+import com.midtrans.service.MidtransCoreApi;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+/**
+ * Runs the real transaction service against a local Midtrans stub, a core API that answers every charge with a pending
+ * bank transfer after a short delay, and a map standing in for Redis.
+ */
+@ExtendWith(MockitoExtension.class)
+public class TransactionIdempotencyStoreTest {
+
+  private static final int THREADS = 16;
+  private static final long USER_ID = 3L;
+  private static final long ROOM_ID = 7L;
+
+  @Mock
+  private StringRedisTemplate redisTemplate;
+
+  @Mock
+  private ValueOperations<String, String> valueOperations;
+
+  @Mock
+  private MidtransCoreApi midtransCoreApi;
+
+  @Mock
+  private BookingService bookingService;
+
+  @Mock
+  private PaymentService paymentService;
+
+  private final Map<String, String> redis = new ConcurrentHashMap<>();
+  private final AtomicInteger charges = new AtomicInteger();
+  private ObjectMapper objectMapper;
+  private TransactionServiceImpl transactionService;
+  private TransactionIdempotencyStore idempotencyStore;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    lenient().when(valueOperations.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+    lenient().when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenAnswer(
+        invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+    lenient().doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+        .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+    lenient().when(redisTemplate.delete(anyString())).thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+
+    // The Midtrans stub
+    lenient().when(midtransCoreApi.chargeTransaction(any())).thenAnswer(invocation -> {
+      charges.incrementAndGet();
+      Thread.sleep(300);
+      return new JSONObject()
+          .put("transaction_status", "pending")
+          .put("status_code", "201")
+          .put("va_numbers", new JSONArray().put(new JSONObject().put("va_number", "8808123").put("bank", "bca")));
+    });
+    lenient().when(bookingService.createBooking(any(), eq(USER_ID), eq(ROOM_ID), anyDouble())).thenAnswer(invocation -> {
+      Booking booking = new Booking();
+      booking.setId(UUID.randomUUID());
+      booking.setStatus(BookingStatus.IN_PROGRESS);
+      return booking;
+    });
+    lenient().when(paymentService.createPayment(anyDouble(), anyString(), any(Booking.class), any(PaymentStatus.class),
+        anyString(), anyString())).thenAnswer(invocation -> {
+      Payment payment = new Payment();
+      payment.setPaymentMethod(invocation.getArgument(1));
+      payment.setPaymentStatus(invocation.getArgument(3));
+      payment.setPaymentExpirationAt(Instant.now().plusSeconds(1800));
+      return payment;
+    });
+
+    MidtransServiceImpl midtransService = new MidtransServiceImpl(midtransCoreApi, objectMapper, "http://localhost",
+        "key");
+    transactionService = new TransactionServiceImpl(bookingService, paymentService, midtransService, null, null, null,
+        null);
+    idempotencyStore = newStore();
+  }
+
+  private TransactionIdempotencyStore newStore() {
+    return new TransactionIdempotencyStore(redisTemplate, objectMapper, 24, 60, 10);
+  }
+
+  private TransactionDTO post(TransactionIdempotencyStore store, String key, TransactionReqDTO request) {
+    return store.execute(USER_ID, key, List.of(ROOM_ID, request),
+        () -> transactionService.createTransaction(request, USER_ID, ROOM_ID));
+  }
+
+  @Test
+  void execute_RetryAfterCompletionReplaysResponse() {
+    TransactionReqDTO request = request(1_200_000.0);
+
+    TransactionDTO first = post(idempotencyStore, "checkout-1", request);
+    TransactionDTO retry = post(idempotencyStore, "checkout-1", request);
+
+    assertEquals(first, retry);
+    assertEquals(PaymentStatus.PENDING, retry.getPaymentStatus());
+    assertEquals(1, charges.get());
+    verify(bookingService, times(1)).createBooking(any(), anyLong(), anyLong(), anyDouble());
+  }
+
+  @Test
+  void execute_ConcurrentRetriesChargeOnce() throws Exception {
+    TransactionReqDTO request = request(1_200_000.0);
+    // Half the retries reach a second instance, which only shares Redis
+    TransactionIdempotencyStore otherInstance = newStore();
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      CountDownLatch go = new CountDownLatch(1);
+      List<Future<TransactionDTO>> responses = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        TransactionIdempotencyStore store = i % 2 == 0 ? idempotencyStore : otherInstance;
+        responses.add(executor.submit(() -> {
+          go.await();
+          return post(store, "checkout-2", request);
+        }));
+      }
+      go.countDown();
+      TransactionDTO first = responses.getFirst().get(30, TimeUnit.SECONDS);
+      for (Future<TransactionDTO> response : responses) {
+        assertEquals(first, response.get(30, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, charges.get());
+    verify(bookingService, times(1)).createBooking(any(), anyLong(), anyLong(), anyDouble());
+  }
+
+  @Test
+  void execute_KeyReusedForDifferentRequest() {
+    post(idempotencyStore, "checkout-3", request(1_200_000.0));
+
+    assertThrows(InvalidRequestException.class, () -> post(idempotencyStore, "checkout-3", request(900_000.0)));
+    assertEquals(1, charges.get());
+  }
+
+  @Test
+  void execute_FailedRequestReleasesKey() throws Exception {
+    TransactionReqDTO request = request(1_200_000.0);
+    doThrow(new IllegalStateException("gateway timeout"))
+        .doReturn(new JSONObject()
+            .put("transaction_status", "pending")
+            .put("status_code", "201")
+            .put("va_numbers", new JSONArray().put(new JSONObject().put("va_number", "8808123").put("bank", "bca"))))
+        .when(midtransCoreApi).chargeTransaction(any());
+
+    assertThrows(IllegalStateException.class, () -> post(idempotencyStore, "checkout-4", request));
+    TransactionDTO retry = post(idempotencyStore, "checkout-4", request);
+
+    assertEquals(PaymentStatus.PENDING, retry.getPaymentStatus());
+    verify(midtransCoreApi, times(2)).chargeTransaction(any());
+  }
+
+  @Test
+  void execute_WaitsForOtherInstance() throws Exception {
+    TransactionReqDTO request = request(1_200_000.0);
+    TransactionDTO stored = new TransactionDTO();
+    stored.setBookingId(UUID.randomUUID());
+    stored.setPaymentStatus(PaymentStatus.PENDING);
+    String key = "stayease:idempotency:transactions:" + USER_ID + ":checkout-5";
+    String fingerprint = fingerprintOf(request);
+    redis.put(key, objectMapper.writeValueAsString(new TransactionIdempotencyStore.Entry(fingerprint, null)));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      executor.submit(() -> {
+        Thread.sleep(300);
+        return redis.put(key, objectMapper.writeValueAsString(new TransactionIdempotencyStore.Entry(fingerprint, stored)));
+      });
+
+      assertEquals(stored, post(idempotencyStore, "checkout-5", request));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(0, charges.get());
+  }
+
+  @Test
+  void execute_OtherInstanceNeverFinishes() throws Exception {
+    TransactionReqDTO request = request(1_200_000.0);
+    String key = "stayease:idempotency:transactions:" + USER_ID + ":checkout-6";
+    redis.put(key, objectMapper.writeValueAsString(new TransactionIdempotencyStore.Entry(fingerprintOf(request), null)));
+    TransactionIdempotencyStore impatientStore = new TransactionIdempotencyStore(redisTemplate, objectMapper, 24, 60, 0);
+
+    assertThrows(RequestInProgressException.class, () -> post(impatientStore, "checkout-6", request));
+    assertEquals(0, charges.get());
+  }
+
+  @Test
+  void execute_SlowRequestRenewsItsClaim() throws Exception {
+    TransactionReqDTO request = request(1_200_000.0);
+    String key = "stayease:idempotency:transactions:" + USER_ID + ":checkout-8";
+    String claim = objectMapper.writeValueAsString(new TransactionIdempotencyStore.Entry(fingerprintOf(request), null));
+    TransactionIdempotencyStore shortClaimStore = new TransactionIdempotencyStore(redisTemplate, objectMapper, 24, 1, 10);
+    TransactionDTO response = new TransactionDTO();
+    response.setPaymentStatus(PaymentStatus.PENDING);
+
+    try {
+      // Runs past the one second claim, so only the renewals keep the key from a retry
+      shortClaimStore.execute(USER_ID, "checkout-8", List.of(ROOM_ID, request), () -> {
+        try {
+          Thread.sleep(1200);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return response;
+      });
+    } finally {
+      shortClaimStore.shutdown();
+    }
+
+    verify(redisTemplate, atLeast(2)).execute(any(RedisScript.class), eq(List.of(key)), eq(claim), eq("1000"));
+    assertEquals(response, objectMapper.readValue(redis.get(key), TransactionIdempotencyStore.Entry.class).response());
+  }
+
+  @Test
+  void execute_RedisDownRunsTransaction() {
+    doThrow(new RedisConnectionFailureException("down")).when(valueOperations).get(anyString());
+
+    TransactionDTO response = post(idempotencyStore, "checkout-7", request(1_200_000.0));
+
+    assertEquals(PaymentStatus.PENDING, response.getPaymentStatus());
+    assertEquals(1, charges.get());
+  }
+
+  @Test
+  void execute_InvalidKey() {
+    assertThrows(InvalidRequestException.class, () -> post(idempotencyStore, " ", request(1_200_000.0)));
+    assertThrows(InvalidRequestException.class, () -> post(idempotencyStore, "k".repeat(256), request(1_200_000.0)));
+    verify(bookingService, never()).createBooking(any(), anyLong(), anyLong(), anyDouble());
+  }
+
+  // Same digest the store computes, so a test can pose as another instance holding the key
+  private String fingerprintOf(TransactionReqDTO request) throws Exception {
+    byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(List.of(ROOM_ID, request)));
+    return HexFormat.of().formatHex(digest);
+  }
+
+  private static TransactionReqDTO request(Double amount) {
+    BookingReqDTO booking = new BookingReqDTO();
+    booking.setCheckInDate(LocalDate.of(2030, 1, 10));
+    booking.setCheckOutDate(LocalDate.of(2030, 1, 12));
+    booking.setTotalAdults(2);
+    TransactionReqDTO request = new TransactionReqDTO();
+    request.setBooking(booking);
+    request.setAmount(amount);
+    request.setPaymentMethod("bank_transfer");
+    request.setBank("bca");
+    return request;
+  }
+}